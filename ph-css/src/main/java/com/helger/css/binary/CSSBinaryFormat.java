@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.binary;
+
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * Constants of the binary CSS format shared by {@link CSSBinaryWriter} and {@link CSSBinaryReader}.
+ * <p>
+ * Layout: the 4 magic bytes, 1 version byte and 1 flag byte, followed by the style sheet. All
+ * counts are unsigned varints, all source positions are zig-zag encoded varints. Every object that
+ * may have different implementations is prefixed with a single type tag byte. Strings are written
+ * with a varint reference: 0 means <code>null</code>, 1 means a new UTF-8 string follows (and is
+ * appended to the string table) and every other value <code>n</code> references the already read
+ * string at index <code>n - 2</code> of the string table.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+final class CSSBinaryFormat
+{
+  static final byte [] MAGIC = { 'C', 'S', 'S', 'B' };
+  static final byte VERSION_1 = 1;
+  static final byte CURRENT_VERSION = VERSION_1;
+
+  static final int FLAG_SOURCE_LOCATIONS = 0x01;
+
+  static final int STRING_NULL = 0;
+  static final int STRING_NEW = 1;
+  static final int STRING_REF_OFFSET = 2;
+
+  static final int SOURCE_AREA_FIRST = 0x01;
+  static final int SOURCE_AREA_LAST = 0x02;
+
+  // Rules
+  static final int TAG_STYLE_RULE = 1;
+  static final int TAG_PAGE_RULE = 2;
+  static final int TAG_MEDIA_RULE = 3;
+  static final int TAG_FONT_FACE_RULE = 4;
+  static final int TAG_KEYFRAMES_RULE = 5;
+  static final int TAG_VIEWPORT_RULE = 6;
+  static final int TAG_SUPPORTS_RULE = 7;
+  static final int TAG_LAYER_RULE = 8;
+  static final int TAG_PROPERTY_RULE = 9;
+  static final int TAG_UNKNOWN_RULE = 10;
+  static final int TAG_NESTED_DECLARATIONS = 11;
+
+  // Page rule members
+  static final int TAG_DECLARATION = 20;
+  static final int TAG_PAGE_MARGIN_BLOCK = 21;
+
+  // Selector members
+  static final int TAG_SELECTOR = 30;
+  static final int TAG_SELECTOR_SIMPLE = 31;
+  static final int TAG_SELECTOR_ATTRIBUTE = 32;
+  static final int TAG_SELECTOR_COMBINATOR = 33;
+  static final int TAG_SELECTOR_NOT = 34;
+  static final int TAG_SELECTOR_IS = 35;
+  static final int TAG_SELECTOR_WHERE = 36;
+  static final int TAG_SELECTOR_HAS = 37;
+  static final int TAG_SELECTOR_HOST = 38;
+  static final int TAG_SELECTOR_HOST_CONTEXT = 39;
+  static final int TAG_SELECTOR_SLOTTED = 40;
+  static final int TAG_SELECTOR_FUNCTION_LIKE = 41;
+
+  // Supports condition members
+  static final int TAG_SUPPORTS_DECLARATION = 50;
+  static final int TAG_SUPPORTS_NEGATION = 51;
+  static final int TAG_SUPPORTS_NESTED = 52;
+  static final int TAG_SUPPORTS_OPERATOR = 53;
+
+  // Expression members
+  static final int TAG_TERM_SIMPLE = 60;
+  static final int TAG_TERM_URI = 61;
+  static final int TAG_FUNCTION = 62;
+  static final int TAG_LINE_NAMES = 63;
+  static final int TAG_MATH = 64;
+  static final int TAG_EXPRESSION_OPERATOR = 65;
+
+  // Math members
+  static final int TAG_MATH_PRODUCT = 70;
+  static final int TAG_MATH_UNIT_PRODUCT = 71;
+  static final int TAG_MATH_UNIT_SIMPLE = 72;
+  static final int TAG_MATH_OPERATOR = 73;
+
+  private CSSBinaryFormat ()
+  {}
+}
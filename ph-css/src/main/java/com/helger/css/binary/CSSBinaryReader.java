@@ -0,0 +1,734 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.binary;
+
+import static com.helger.css.binary.CSSBinaryFormat.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.WillClose;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.CSSSourceArea;
+import com.helger.css.CSSSourceLocation;
+import com.helger.css.ICSSSourceLocationAware;
+import com.helger.css.ICSSWriteable;
+import com.helger.css.decl.*;
+
+/**
+ * Read CSS domain objects from the binary representation created by {@link CSSBinaryWriter}.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+public final class CSSBinaryReader
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSBinaryReader.class);
+
+  /**
+   * Decoder state for a single style sheet.
+   */
+  private static final class Decoder
+  {
+    private final byte [] m_aData;
+    private int m_nPos;
+    private boolean m_bSourceLocations;
+    private final List <String> m_aStringTable = new ArrayList <> ();
+
+    Decoder (@NonNull final byte [] aData)
+    {
+      m_aData = aData;
+    }
+
+    int readByte () throws IOException
+    {
+      if (m_nPos >= m_aData.length)
+        throw new IOException ("Unexpected end of binary CSS data");
+      return m_aData[m_nPos++] & 0xff;
+    }
+
+    boolean readBoolean () throws IOException
+    {
+      return readByte () != 0;
+    }
+
+    int readVarInt () throws IOException
+    {
+      int ret = 0;
+      int nShift = 0;
+      while (true)
+      {
+        final int b = readByte ();
+        ret |= (b & 0x7f) << nShift;
+        if ((b & 0x80) == 0)
+          return ret;
+        nShift += 7;
+        if (nShift > 28)
+          throw new IOException ("Malformed varint at position " + m_nPos);
+      }
+    }
+
+    int readCount () throws IOException
+    {
+      final int ret = readVarInt ();
+      // Each element needs at least one byte
+      if (ret < 0 || ret > m_aData.length - m_nPos)
+        throw new IOException ("Invalid element count " + ret + " at position " + m_nPos);
+      return ret;
+    }
+
+    int readSignedVarInt () throws IOException
+    {
+      final int n = readVarInt ();
+      return (n >>> 1) ^ -(n & 1);
+    }
+
+    @Nullable
+    String readString () throws IOException
+    {
+      final int nRef = readVarInt ();
+      if (nRef == STRING_NULL)
+        return null;
+      if (nRef == STRING_NEW)
+      {
+        final int nLen = readCount ();
+        final String ret = new String (m_aData, m_nPos, nLen, StandardCharsets.UTF_8);
+        m_nPos += nLen;
+        m_aStringTable.add (ret);
+        return ret;
+      }
+      final int nIndex = nRef - STRING_REF_OFFSET;
+      if (nIndex < 0 || nIndex >= m_aStringTable.size ())
+        throw new IOException ("Invalid string reference " + nRef + " at position " + m_nPos);
+      return m_aStringTable.get (nIndex);
+    }
+
+    @NonNull
+    String readNonNullString () throws IOException
+    {
+      final String ret = readString ();
+      if (ret == null)
+        throw new IOException ("Unexpected null string at position " + m_nPos);
+      return ret;
+    }
+
+    @NonNull
+    ICommonsList <String> readStrings () throws IOException
+    {
+      final int nCount = readCount ();
+      final ICommonsList <String> ret = new CommonsArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+        ret.add (readNonNullString ());
+      return ret;
+    }
+
+    @NonNull
+    private CSSSourceArea _readSourceArea () throws IOException
+    {
+      final int nBeginLine = readSignedVarInt ();
+      final int nBeginColumn = readSignedVarInt ();
+      final int nEndLine = readSignedVarInt ();
+      final int nEndColumn = readSignedVarInt ();
+      return new CSSSourceArea (nBeginLine, nBeginColumn, nEndLine, nEndColumn);
+    }
+
+    @Nullable
+    private CSSSourceLocation _readSourceLocationOnly () throws IOException
+    {
+      if (!m_bSourceLocations)
+        return null;
+
+      final int nFlags = readByte ();
+      if (nFlags == 0)
+        return null;
+      final CSSSourceArea aFirst = (nFlags & SOURCE_AREA_FIRST) != 0 ? _readSourceArea () : null;
+      final CSSSourceArea aLast = (nFlags & SOURCE_AREA_LAST) != 0 ? _readSourceArea () : null;
+      return new CSSSourceLocation (aFirst, aLast);
+    }
+
+    void readSourceLocation (@NonNull final ICSSSourceLocationAware aTarget) throws IOException
+    {
+      final CSSSourceLocation aLocation = _readSourceLocationOnly ();
+      if (aLocation != null)
+        aTarget.setSourceLocation (aLocation);
+    }
+
+    @NonNull
+    private static IOException _unexpectedTag (final int nTag, @NonNull final String sWhat, final int nPos)
+    {
+      return new IOException ("Unexpected " + sWhat + " type tag " + nTag + " at position " + (nPos - 1));
+    }
+
+    @NonNull
+    CSSURI readURI () throws IOException
+    {
+      final CSSURI ret = new CSSURI (readNonNullString ());
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    CSSExpression readExpression () throws IOException
+    {
+      final CSSExpression ret = new CSSExpression ();
+      final int nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+        ret.addMember (_readExpressionMember ());
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    private ICSSExpressionMember _readExpressionMember () throws IOException
+    {
+      final int nTag = readByte ();
+      switch (nTag)
+      {
+        case TAG_TERM_SIMPLE:
+        {
+          final CSSExpressionMemberTermSimple ret = new CSSExpressionMemberTermSimple (readNonNullString ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_TERM_URI:
+          // The source location is stored in the URI
+          return new CSSExpressionMemberTermURI (readURI ());
+        case TAG_FUNCTION:
+        {
+          final String sFunctionName = readNonNullString ();
+          final CSSExpressionMemberFunction ret = readBoolean () ? new CSSExpressionMemberFunction (sFunctionName,
+                                                                                                    readExpression ())
+                                                                 : new CSSExpressionMemberFunction (sFunctionName);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_LINE_NAMES:
+        {
+          final CSSExpressionMemberLineNames ret = new CSSExpressionMemberLineNames (readStrings ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_MATH:
+          return _readMath ();
+        case TAG_EXPRESSION_OPERATOR:
+          return ECSSExpressionOperator.valueOf (readNonNullString ());
+        default:
+          throw _unexpectedTag (nTag, "expression member", m_nPos);
+      }
+    }
+
+    @NonNull
+    private CSSExpressionMemberMath _readMath () throws IOException
+    {
+      final CSSExpressionMemberMath ret = new CSSExpressionMemberMath (_readMathMembers ());
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    private CSSExpressionMemberMathProduct _readMathProduct () throws IOException
+    {
+      final CSSExpressionMemberMathProduct ret = new CSSExpressionMemberMathProduct ();
+      for (final ICSSExpressionMathMember aMember : _readMathMembers ())
+        ret.addMember (aMember);
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    private ICommonsList <ICSSExpressionMathMember> _readMathMembers () throws IOException
+    {
+      final int nCount = readCount ();
+      final ICommonsList <ICSSExpressionMathMember> ret = new CommonsArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+      {
+        final int nTag = readByte ();
+        switch (nTag)
+        {
+          case TAG_MATH:
+            ret.add (_readMath ());
+            break;
+          case TAG_MATH_PRODUCT:
+            ret.add (_readMathProduct ());
+            break;
+          case TAG_MATH_UNIT_PRODUCT:
+            // The source location is stored in the product
+            ret.add (new CSSExpressionMemberMathUnitProduct (_readMathProduct ()));
+            break;
+          case TAG_MATH_UNIT_SIMPLE:
+          {
+            final CSSExpressionMemberMathUnitSimple aUnitSimple = new CSSExpressionMemberMathUnitSimple (readNonNullString ());
+            readSourceLocation (aUnitSimple);
+            ret.add (aUnitSimple);
+            break;
+          }
+          case TAG_MATH_OPERATOR:
+            ret.add (ECSSMathOperator.valueOf (readNonNullString ()));
+            break;
+          default:
+            throw _unexpectedTag (nTag, "math member", m_nPos);
+        }
+      }
+      return ret;
+    }
+
+    @NonNull
+    CSSDeclaration readDeclaration () throws IOException
+    {
+      final String sProperty = readNonNullString ();
+      final CSSExpression aExpression = readExpression ();
+      final CSSDeclaration ret = new CSSDeclaration (sProperty, aExpression, readBoolean ());
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    ICommonsList <CSSDeclaration> readDeclarations () throws IOException
+    {
+      final int nCount = readCount ();
+      final ICommonsList <CSSDeclaration> ret = new CommonsArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+        ret.add (readDeclaration ());
+      return ret;
+    }
+
+    @NonNull
+    CSSSelector readSelector () throws IOException
+    {
+      final CSSSelector ret = new CSSSelector ();
+      final int nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+        ret.addMember (_readSelectorMember ());
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    ICommonsList <CSSSelector> readSelectors () throws IOException
+    {
+      final int nCount = readCount ();
+      final ICommonsList <CSSSelector> ret = new CommonsArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+        ret.add (readSelector ());
+      return ret;
+    }
+
+    @NonNull
+    private ICSSSelectorMember _readSelectorMember () throws IOException
+    {
+      final int nTag = readByte ();
+      final ICSSSelectorMember ret;
+      switch (nTag)
+      {
+        case TAG_SELECTOR_SIMPLE:
+          ret = new CSSSelectorSimpleMember (readNonNullString ());
+          break;
+        case TAG_SELECTOR_COMBINATOR:
+          // Enums have no source location
+          return ECSSSelectorCombinator.valueOf (readNonNullString ());
+        case TAG_SELECTOR_ATTRIBUTE:
+        {
+          final String sNamespacePrefix = readString ();
+          final String sAttrName = readNonNullString ();
+          final String sOperator = readString ();
+          final String sAttrValue = readString ();
+          final String sCaseFlag = readString ();
+          if (sOperator == null)
+            ret = new CSSSelectorAttribute (sNamespacePrefix, sAttrName);
+          else
+          {
+            if (sAttrValue == null)
+              throw new IOException ("Attribute selector with operator but without value at position " + m_nPos);
+            ret = new CSSSelectorAttribute (sNamespacePrefix,
+                                            sAttrName,
+                                            ECSSAttributeOperator.valueOf (sOperator),
+                                            sAttrValue,
+                                            sCaseFlag == null ? null : ECSSAttributeCase.valueOf (sCaseFlag));
+          }
+          break;
+        }
+        case TAG_SELECTOR:
+          // The selector reads its own source location
+          return readSelector ();
+        case TAG_SELECTOR_NOT:
+          ret = new CSSSelectorMemberNot (readSelectors ());
+          break;
+        case TAG_SELECTOR_IS:
+          ret = new CSSSelectorMemberPseudoIs (readSelectors ());
+          break;
+        case TAG_SELECTOR_WHERE:
+          ret = new CSSSelectorMemberPseudoWhere (readSelectors ());
+          break;
+        case TAG_SELECTOR_HAS:
+          ret = new CSSSelectorMemberPseudoHas (readSelectors ());
+          break;
+        case TAG_SELECTOR_HOST:
+          ret = new CSSSelectorMemberHost (readSelector ());
+          break;
+        case TAG_SELECTOR_HOST_CONTEXT:
+          ret = new CSSSelectorMemberHostContext (readSelector ());
+          break;
+        case TAG_SELECTOR_SLOTTED:
+          ret = new CSSSelectorMemberSlotted (readSelector ());
+          break;
+        case TAG_SELECTOR_FUNCTION_LIKE:
+        {
+          final String sFunctionName = readNonNullString ();
+          ret = new CSSSelectorMemberFunctionLike (sFunctionName, readExpression ());
+          break;
+        }
+        default:
+          throw _unexpectedTag (nTag, "selector member", m_nPos);
+      }
+      readSourceLocation ((ICSSSourceLocationAware) ret);
+      return ret;
+    }
+
+    @NonNull
+    private ICSSSupportsConditionMember _readSupportsConditionMember () throws IOException
+    {
+      final int nTag = readByte ();
+      switch (nTag)
+      {
+        case TAG_SUPPORTS_DECLARATION:
+        {
+          final CSSSupportsConditionDeclaration ret = new CSSSupportsConditionDeclaration (readDeclaration ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_SUPPORTS_NEGATION:
+        {
+          final CSSSupportsConditionNegation ret = new CSSSupportsConditionNegation (_readSupportsConditionMember ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_SUPPORTS_NESTED:
+        {
+          final CSSSupportsConditionNested ret = new CSSSupportsConditionNested ();
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+            ret.addMember (_readSupportsConditionMember ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_SUPPORTS_OPERATOR:
+          return ECSSSupportsConditionOperator.valueOf (readNonNullString ());
+        default:
+          throw _unexpectedTag (nTag, "supports condition member", m_nPos);
+      }
+    }
+
+    @NonNull
+    CSSMediaQuery readMediaQuery () throws IOException
+    {
+      final CSSMediaQuery.EModifier eModifier = CSSMediaQuery.EModifier.valueOf (readNonNullString ());
+      final CSSMediaQuery ret = new CSSMediaQuery (eModifier, readString ());
+      final int nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final String sFeature = readNonNullString ();
+        final CSSMediaExpression aExpr = new CSSMediaExpression (sFeature, readBoolean () ? readExpression () : null);
+        readSourceLocation (aExpr);
+        ret.addMediaExpression (aExpr);
+      }
+      readSourceLocation (ret);
+      return ret;
+    }
+
+    @NonNull
+    ICommonsList <CSSMediaQuery> readMediaQueries () throws IOException
+    {
+      final int nCount = readCount ();
+      final ICommonsList <CSSMediaQuery> ret = new CommonsArrayList <> (nCount);
+      for (int i = 0; i < nCount; ++i)
+        ret.add (readMediaQuery ());
+      return ret;
+    }
+
+    void readTopLevelRules (@NonNull final AbstractHasTopLevelRules aTarget) throws IOException
+    {
+      final int nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final ICSSWriteable aRule = _readRule ();
+        if (!(aRule instanceof ICSSTopLevelRule))
+          throw new IOException ("Rule " + aRule + " cannot be used as a top-level rule");
+        aTarget.addRule ((ICSSTopLevelRule) aRule);
+      }
+    }
+
+    @NonNull
+    private ICSSWriteable _readRule () throws IOException
+    {
+      final int nTag = readByte ();
+      switch (nTag)
+      {
+        case TAG_STYLE_RULE:
+        {
+          final CSSStyleRule ret = new CSSStyleRule ();
+          for (final CSSSelector aSelector : readSelectors ())
+            ret.addSelector (aSelector);
+          for (final CSSDeclaration aDecl : readDeclarations ())
+            ret.addDeclaration (aDecl);
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+          {
+            final ICSSWriteable aRule = _readRule ();
+            if (!(aRule instanceof ICSSNestedRule))
+              throw new IOException ("Rule " + aRule + " cannot be used as a nested rule");
+            ret.addRule ((ICSSNestedRule) aRule);
+          }
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_MEDIA_RULE:
+        {
+          final CSSMediaRule ret = new CSSMediaRule ();
+          for (final CSSMediaQuery aMediaQuery : readMediaQueries ())
+            ret.addMediaQuery (aMediaQuery);
+          readTopLevelRules (ret);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_PAGE_RULE:
+        {
+          final CSSPageRule ret = new CSSPageRule (readStrings ());
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+          {
+            final int nMemberTag = readByte ();
+            switch (nMemberTag)
+            {
+              case TAG_DECLARATION:
+                ret.addMember (readDeclaration ());
+                break;
+              case TAG_PAGE_MARGIN_BLOCK:
+              {
+                final CSSPageMarginBlock aBlock = new CSSPageMarginBlock (readNonNullString ());
+                for (final CSSDeclaration aDecl : readDeclarations ())
+                  aBlock.addDeclaration (aDecl);
+                aBlock.setSourceLocation (_readSourceLocationOnly ());
+                ret.addMember (aBlock);
+                break;
+              }
+              default:
+                throw _unexpectedTag (nMemberTag, "page rule member", m_nPos);
+            }
+          }
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_FONT_FACE_RULE:
+        {
+          final CSSFontFaceRule ret = new CSSFontFaceRule (readNonNullString ());
+          for (final CSSDeclaration aDecl : readDeclarations ())
+            ret.addDeclaration (aDecl);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_KEYFRAMES_RULE:
+        {
+          final String sDeclaration = readNonNullString ();
+          final CSSKeyframesRule ret = new CSSKeyframesRule (sDeclaration, readNonNullString ());
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+          {
+            final CSSKeyframesBlock aBlock = new CSSKeyframesBlock (readStrings ());
+            for (final CSSDeclaration aDecl : readDeclarations ())
+              aBlock.addDeclaration (aDecl);
+            readSourceLocation (aBlock);
+            ret.addBlock (aBlock);
+          }
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_VIEWPORT_RULE:
+        {
+          final CSSViewportRule ret = new CSSViewportRule (readNonNullString ());
+          for (final CSSDeclaration aDecl : readDeclarations ())
+            ret.addDeclaration (aDecl);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_SUPPORTS_RULE:
+        {
+          final CSSSupportsRule ret = new CSSSupportsRule ();
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+            ret.addSupportConditionMember (_readSupportsConditionMember ());
+          readTopLevelRules (ret);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_LAYER_RULE:
+        {
+          final CSSLayerRule ret = new CSSLayerRule (readStrings ());
+          readTopLevelRules (ret);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_PROPERTY_RULE:
+        {
+          final CSSPropertyRule ret = new CSSPropertyRule (readNonNullString ());
+          final int nCount = readCount ();
+          for (int i = 0; i < nCount; ++i)
+          {
+            final String sDescriptor = readNonNullString ();
+            final CSSPropertyRuleDeclaration aDecl = new CSSPropertyRuleDeclaration (sDescriptor, readExpression ());
+            readSourceLocation (aDecl);
+            ret.addDeclaration (aDecl);
+          }
+          readTopLevelRules (ret);
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_UNKNOWN_RULE:
+        {
+          final CSSUnknownRule ret = new CSSUnknownRule (readNonNullString ());
+          ret.setParameterList (readString ());
+          ret.setBody (readString ());
+          readSourceLocation (ret);
+          return ret;
+        }
+        case TAG_NESTED_DECLARATIONS:
+        {
+          final CSSNestedDeclarations ret = new CSSNestedDeclarations ();
+          for (final CSSDeclaration aDecl : readDeclarations ())
+            ret.addDeclaration (aDecl);
+          readSourceLocation (ret);
+          return ret;
+        }
+        default:
+          throw _unexpectedTag (nTag, "rule", m_nPos);
+      }
+    }
+
+    @NonNull
+    CascadingStyleSheet readCascadingStyleSheet () throws IOException
+    {
+      for (int i = 0; i < MAGIC.length; ++i)
+        if (readByte () != MAGIC[i])
+          throw new IOException ("The data is not binary CSS");
+
+      final int nVersion = readByte ();
+      if (nVersion < VERSION_1 || nVersion > CURRENT_VERSION)
+        throw new IOException ("Unsupported binary CSS version " + nVersion);
+      m_bSourceLocations = (readByte () & FLAG_SOURCE_LOCATIONS) != 0;
+
+      final CascadingStyleSheet ret = new CascadingStyleSheet ();
+      int nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final CSSImportRule aImportRule = new CSSImportRule (readURI ());
+        for (final CSSMediaQuery aMediaQuery : readMediaQueries ())
+          aImportRule.addMediaQuery (aMediaQuery);
+        readSourceLocation (aImportRule);
+        ret.addImportRule (aImportRule);
+      }
+
+      nCount = readCount ();
+      for (int i = 0; i < nCount; ++i)
+      {
+        final String sPrefix = readString ();
+        final CSSNamespaceRule aNamespaceRule = new CSSNamespaceRule (sPrefix, readNonNullString ());
+        readSourceLocation (aNamespaceRule);
+        ret.addNamespaceRule (aNamespaceRule);
+      }
+
+      readTopLevelRules (ret);
+      readSourceLocation (ret);
+
+      if (m_nPos != m_aData.length)
+        throw new IOException ((m_aData.length - m_nPos) + " trailing bytes after binary CSS");
+      return ret;
+    }
+  }
+
+  @PresentForCodeCoverage
+  private static final CSSBinaryReader INSTANCE = new CSSBinaryReader ();
+
+  private CSSBinaryReader ()
+  {}
+
+  /**
+   * Read a style sheet from its binary representation.
+   *
+   * @param aData
+   *        The data created by {@link CSSBinaryWriter}. May not be <code>null</code>.
+   * @return <code>null</code> if the data is not a valid binary style sheet.
+   */
+  @Nullable
+  public static CascadingStyleSheet readFromBytes (@NonNull final byte [] aData)
+  {
+    ValueEnforcer.notNull (aData, "Data");
+
+    try
+    {
+      return new Decoder (aData).readCascadingStyleSheet ();
+    }
+    catch (final IOException | IllegalArgumentException ex)
+    {
+      // IllegalArgumentException is thrown by the domain objects and for unknown enum constants
+      LOGGER.warn ("Failed to read binary CSS: " + ex.getMessage ());
+      return null;
+    }
+  }
+
+  /**
+   * Read a style sheet from its binary representation.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. It is closed after reading.
+   * @return <code>null</code> if the stream could not be read or if the data is not a valid binary
+   *         style sheet.
+   */
+  @Nullable
+  public static CascadingStyleSheet readFromStream (@NonNull @WillClose final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final byte [] aData;
+    try
+    {
+      aData = aIS.readAllBytes ();
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to read binary CSS from stream: " + ex.getMessage ());
+      return null;
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+    return readFromBytes (aData);
+  }
+}
@@ -0,0 +1,743 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.binary;
+
+import static com.helger.css.binary.CSSBinaryFormat.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.WillClose;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.css.CSSSourceArea;
+import com.helger.css.CSSSourceLocation;
+import com.helger.css.ICSSWriteable;
+import com.helger.css.decl.*;
+
+/**
+ * Convert CSS domain objects to a compact binary representation that can be read back with
+ * {@link CSSBinaryReader}. Compared to the text representation no re-parsing is needed and
+ * repeated strings (property names, selectors, units etc.) are only stored once. See
+ * {@link CSSBinaryFormat} for the layout.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+public class CSSBinaryWriter
+{
+  /** By default source locations are written */
+  public static final boolean DEFAULT_WRITE_SOURCE_LOCATIONS = true;
+
+  private final boolean m_bWriteSourceLocations;
+
+  /**
+   * Constructor writing source locations.
+   */
+  public CSSBinaryWriter ()
+  {
+    this (DEFAULT_WRITE_SOURCE_LOCATIONS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bWriteSourceLocations
+   *        <code>true</code> to include the source locations of all objects, <code>false</code> to
+   *        omit them for a smaller output.
+   */
+  public CSSBinaryWriter (final boolean bWriteSourceLocations)
+  {
+    m_bWriteSourceLocations = bWriteSourceLocations;
+  }
+
+  /**
+   * @return <code>true</code> if source locations are written, <code>false</code> if not.
+   */
+  public final boolean isWriteSourceLocations ()
+  {
+    return m_bWriteSourceLocations;
+  }
+
+  /**
+   * Encoder state for a single style sheet.
+   */
+  private static final class Encoder
+  {
+    private final NonBlockingByteArrayOutputStream m_aOS;
+    private final boolean m_bSourceLocations;
+    private final Map <String, Integer> m_aStringTable = new HashMap <> ();
+
+    Encoder (@NonNull final NonBlockingByteArrayOutputStream aOS, final boolean bSourceLocations)
+    {
+      m_aOS = aOS;
+      m_bSourceLocations = bSourceLocations;
+    }
+
+    void writeByte (final int n)
+    {
+      m_aOS.write (n);
+    }
+
+    void writeBoolean (final boolean b)
+    {
+      m_aOS.write (b ? 1 : 0);
+    }
+
+    void writeVarInt (final int nValue)
+    {
+      int n = nValue;
+      while ((n & ~0x7f) != 0)
+      {
+        m_aOS.write ((n & 0x7f) | 0x80);
+        n >>>= 7;
+      }
+      m_aOS.write (n);
+    }
+
+    void writeSignedVarInt (final int nValue)
+    {
+      // Zig-zag encoding, so that small negative values (like -1) stay small
+      writeVarInt ((nValue << 1) ^ (nValue >> 31));
+    }
+
+    void writeString (@Nullable final String s)
+    {
+      if (s == null)
+      {
+        writeVarInt (STRING_NULL);
+        return;
+      }
+
+      final Integer aIndex = m_aStringTable.get (s);
+      if (aIndex != null)
+        writeVarInt (aIndex.intValue () + STRING_REF_OFFSET);
+      else
+      {
+        m_aStringTable.put (s, Integer.valueOf (m_aStringTable.size ()));
+        final byte [] aBytes = s.getBytes (StandardCharsets.UTF_8);
+        writeVarInt (STRING_NEW);
+        writeVarInt (aBytes.length);
+        m_aOS.write (aBytes, 0, aBytes.length);
+      }
+    }
+
+    void writeStrings (@NonNull final List <String> aList)
+    {
+      writeVarInt (aList.size ());
+      for (final String s : aList)
+        writeString (s);
+    }
+
+    @Nullable
+    private static String _getEnumName (@Nullable final Enum <?> e)
+    {
+      return e == null ? null : e.name ();
+    }
+
+    private void _writeSourceArea (@NonNull final CSSSourceArea aArea)
+    {
+      writeSignedVarInt (aArea.getTokenBeginLineNumber ());
+      writeSignedVarInt (aArea.getTokenBeginColumnNumber ());
+      writeSignedVarInt (aArea.getTokenEndLineNumber ());
+      writeSignedVarInt (aArea.getTokenEndColumnNumber ());
+    }
+
+    void writeSourceLocation (@Nullable final CSSSourceLocation aLocation)
+    {
+      if (!m_bSourceLocations)
+        return;
+
+      if (aLocation == null)
+      {
+        writeByte (0);
+        return;
+      }
+
+      final CSSSourceArea aFirst = aLocation.getFirstTokenArea ();
+      final CSSSourceArea aLast = aLocation.getLastTokenArea ();
+      writeByte ((aFirst != null ? SOURCE_AREA_FIRST : 0) | (aLast != null ? SOURCE_AREA_LAST : 0));
+      if (aFirst != null)
+        _writeSourceArea (aFirst);
+      if (aLast != null)
+        _writeSourceArea (aLast);
+    }
+
+    void writeURI (@NonNull final CSSURI aURI)
+    {
+      writeString (aURI.getURI ());
+      writeSourceLocation (aURI.getSourceLocation ());
+    }
+
+    void writeExpression (@NonNull final CSSExpression aExpr)
+    {
+      final List <ICSSExpressionMember> aMembers = aExpr.getAllMembers ();
+      writeVarInt (aMembers.size ());
+      for (final ICSSExpressionMember aMember : aMembers)
+        writeExpressionMember (aMember);
+      writeSourceLocation (aExpr.getSourceLocation ());
+    }
+
+    void writeExpressionMember (@NonNull final ICSSExpressionMember aMember)
+    {
+      if (aMember instanceof CSSExpressionMemberTermSimple)
+      {
+        final CSSExpressionMemberTermSimple aTerm = (CSSExpressionMemberTermSimple) aMember;
+        writeByte (TAG_TERM_SIMPLE);
+        writeString (aTerm.getValue ());
+        writeSourceLocation (aTerm.getSourceLocation ());
+      }
+      else
+        if (aMember instanceof CSSExpressionMemberTermURI)
+        {
+          final CSSExpressionMemberTermURI aTerm = (CSSExpressionMemberTermURI) aMember;
+          // The source location is stored in the URI
+          writeByte (TAG_TERM_URI);
+          writeURI (aTerm.getURI ());
+        }
+        else
+          if (aMember instanceof CSSExpressionMemberFunction)
+          {
+            final CSSExpressionMemberFunction aFunc = (CSSExpressionMemberFunction) aMember;
+            writeByte (TAG_FUNCTION);
+            writeString (aFunc.getFunctionName ());
+            writeBoolean (aFunc.hasExpression ());
+            if (aFunc.hasExpression ())
+              writeExpression (aFunc.getExpression ());
+            writeSourceLocation (aFunc.getSourceLocation ());
+          }
+          else
+            if (aMember instanceof CSSExpressionMemberLineNames)
+            {
+              final CSSExpressionMemberLineNames aLineNames = (CSSExpressionMemberLineNames) aMember;
+              writeByte (TAG_LINE_NAMES);
+              writeStrings (aLineNames.getAllMembers ());
+              writeSourceLocation (aLineNames.getSourceLocation ());
+            }
+            else
+              if (aMember instanceof CSSExpressionMemberMath)
+              {
+                final CSSExpressionMemberMath aMath = (CSSExpressionMemberMath) aMember;
+                writeByte (TAG_MATH);
+                _writeMathMembers (aMath.getAllMembers ());
+                writeSourceLocation (aMath.getSourceLocation ());
+              }
+              else
+                if (aMember instanceof ECSSExpressionOperator)
+                {
+                  final ECSSExpressionOperator eOp = (ECSSExpressionOperator) aMember;
+                  writeByte (TAG_EXPRESSION_OPERATOR);
+                  writeString (eOp.name ());
+                }
+                else
+                  throw new IllegalArgumentException ("Unsupported expression member: " + aMember);
+    }
+
+    private void _writeMathProduct (@NonNull final CSSExpressionMemberMathProduct aProduct)
+    {
+      _writeMathMembers (aProduct.getAllMembers ());
+      writeSourceLocation (aProduct.getSourceLocation ());
+    }
+
+    private void _writeMathMembers (@NonNull final List <ICSSExpressionMathMember> aMembers)
+    {
+      writeVarInt (aMembers.size ());
+      for (final ICSSExpressionMathMember aMember : aMembers)
+        if (aMember instanceof CSSExpressionMemberMath)
+        {
+          final CSSExpressionMemberMath aMath = (CSSExpressionMemberMath) aMember;
+          writeByte (TAG_MATH);
+          _writeMathMembers (aMath.getAllMembers ());
+          writeSourceLocation (aMath.getSourceLocation ());
+        }
+        else
+          if (aMember instanceof CSSExpressionMemberMathProduct)
+          {
+            final CSSExpressionMemberMathProduct aProduct = (CSSExpressionMemberMathProduct) aMember;
+            writeByte (TAG_MATH_PRODUCT);
+            _writeMathProduct (aProduct);
+          }
+          else
+            if (aMember instanceof CSSExpressionMemberMathUnitProduct)
+            {
+              final CSSExpressionMemberMathUnitProduct aUnitProduct = (CSSExpressionMemberMathUnitProduct) aMember;
+              // The source location is stored in the product
+              writeByte (TAG_MATH_UNIT_PRODUCT);
+              _writeMathProduct (aUnitProduct.getProduct ());
+            }
+            else
+              if (aMember instanceof CSSExpressionMemberMathUnitSimple)
+              {
+                final CSSExpressionMemberMathUnitSimple aUnitSimple = (CSSExpressionMemberMathUnitSimple) aMember;
+                writeByte (TAG_MATH_UNIT_SIMPLE);
+                writeString (aUnitSimple.getText ());
+                writeSourceLocation (aUnitSimple.getSourceLocation ());
+              }
+              else
+                if (aMember instanceof ECSSMathOperator)
+                {
+                  final ECSSMathOperator eOp = (ECSSMathOperator) aMember;
+                  writeByte (TAG_MATH_OPERATOR);
+                  writeString (eOp.name ());
+                }
+                else
+                  throw new IllegalArgumentException ("Unsupported math member: " + aMember);
+    }
+
+    void writeDeclaration (@NonNull final CSSDeclaration aDecl)
+    {
+      writeString (aDecl.getProperty ());
+      writeExpression (aDecl.getExpression ());
+      writeBoolean (aDecl.isImportant ());
+      writeSourceLocation (aDecl.getSourceLocation ());
+    }
+
+    void writeDeclarations (@NonNull final List <CSSDeclaration> aDecls)
+    {
+      writeVarInt (aDecls.size ());
+      for (final CSSDeclaration aDecl : aDecls)
+        writeDeclaration (aDecl);
+    }
+
+    void writeSelector (@NonNull final CSSSelector aSelector)
+    {
+      final List <ICSSSelectorMember> aMembers = aSelector.getAllMembers ();
+      writeVarInt (aMembers.size ());
+      for (final ICSSSelectorMember aMember : aMembers)
+        _writeSelectorMember (aMember);
+      writeSourceLocation (aSelector.getSourceLocation ());
+    }
+
+    void writeSelectors (@NonNull final List <CSSSelector> aSelectors)
+    {
+      writeVarInt (aSelectors.size ());
+      for (final CSSSelector aSelector : aSelectors)
+        writeSelector (aSelector);
+    }
+
+    private void _writeSelectorMember (@NonNull final ICSSSelectorMember aMember)
+    {
+      if (aMember instanceof CSSSelectorSimpleMember)
+      {
+        final CSSSelectorSimpleMember aSimple = (CSSSelectorSimpleMember) aMember;
+        writeByte (TAG_SELECTOR_SIMPLE);
+        writeString (aSimple.getValue ());
+        writeSourceLocation (aSimple.getSourceLocation ());
+      }
+      else
+        if (aMember instanceof ECSSSelectorCombinator)
+        {
+          final ECSSSelectorCombinator eCombinator = (ECSSSelectorCombinator) aMember;
+          writeByte (TAG_SELECTOR_COMBINATOR);
+          writeString (eCombinator.name ());
+        }
+        else
+          if (aMember instanceof CSSSelectorAttribute)
+          {
+            final CSSSelectorAttribute aAttr = (CSSSelectorAttribute) aMember;
+            writeByte (TAG_SELECTOR_ATTRIBUTE);
+            writeString (aAttr.getNamespacePrefix ());
+            writeString (aAttr.getAttrName ());
+            writeString (_getEnumName (aAttr.getOperator ()));
+            writeString (aAttr.getAttrValue ());
+            writeString (_getEnumName (aAttr.getCaseSensitivityFlag ()));
+            writeSourceLocation (aAttr.getSourceLocation ());
+          }
+          else
+            if (aMember instanceof CSSSelector)
+            {
+              final CSSSelector aSelector = (CSSSelector) aMember;
+              writeByte (TAG_SELECTOR);
+              writeSelector (aSelector);
+            }
+            else
+              if (aMember instanceof CSSSelectorMemberNot)
+              {
+                final CSSSelectorMemberNot aNot = (CSSSelectorMemberNot) aMember;
+                writeByte (TAG_SELECTOR_NOT);
+                writeSelectors (aNot.getAllSelectors ());
+                writeSourceLocation (aNot.getSourceLocation ());
+              }
+              else
+                if (aMember instanceof CSSSelectorMemberPseudoIs)
+                {
+                  final CSSSelectorMemberPseudoIs aIs = (CSSSelectorMemberPseudoIs) aMember;
+                  writeByte (TAG_SELECTOR_IS);
+                  writeSelectors (aIs.getAllSelectors ());
+                  writeSourceLocation (aIs.getSourceLocation ());
+                }
+                else
+                  if (aMember instanceof CSSSelectorMemberPseudoWhere)
+                  {
+                    final CSSSelectorMemberPseudoWhere aWhere = (CSSSelectorMemberPseudoWhere) aMember;
+                    writeByte (TAG_SELECTOR_WHERE);
+                    writeSelectors (aWhere.getAllSelectors ());
+                    writeSourceLocation (aWhere.getSourceLocation ());
+                  }
+                  else
+                    if (aMember instanceof CSSSelectorMemberPseudoHas)
+                    {
+                      final CSSSelectorMemberPseudoHas aHas = (CSSSelectorMemberPseudoHas) aMember;
+                      writeByte (TAG_SELECTOR_HAS);
+                      writeSelectors (aHas.getAllSelectors ());
+                      writeSourceLocation (aHas.getSourceLocation ());
+                    }
+                    else
+                      if (aMember instanceof CSSSelectorMemberHost)
+                      {
+                        final CSSSelectorMemberHost aHost = (CSSSelectorMemberHost) aMember;
+                        writeByte (TAG_SELECTOR_HOST);
+                        writeSelector (aHost.getSelector ());
+                        writeSourceLocation (aHost.getSourceLocation ());
+                      }
+                      else
+                        if (aMember instanceof CSSSelectorMemberHostContext)
+                        {
+                          final CSSSelectorMemberHostContext aHostContext = (CSSSelectorMemberHostContext) aMember;
+                          writeByte (TAG_SELECTOR_HOST_CONTEXT);
+                          writeSelector (aHostContext.getSelector ());
+                          writeSourceLocation (aHostContext.getSourceLocation ());
+                        }
+                        else
+                          if (aMember instanceof CSSSelectorMemberSlotted)
+                          {
+                            final CSSSelectorMemberSlotted aSlotted = (CSSSelectorMemberSlotted) aMember;
+                            writeByte (TAG_SELECTOR_SLOTTED);
+                            writeSelector (aSlotted.getSelector ());
+                            writeSourceLocation (aSlotted.getSourceLocation ());
+                          }
+                          else
+                            if (aMember instanceof CSSSelectorMemberFunctionLike)
+                            {
+                              final CSSSelectorMemberFunctionLike aFunc = (CSSSelectorMemberFunctionLike) aMember;
+                              writeByte (TAG_SELECTOR_FUNCTION_LIKE);
+                              writeString (aFunc.getFunctionName ());
+                              writeExpression (aFunc.getParameterExpression ());
+                              writeSourceLocation (aFunc.getSourceLocation ());
+                            }
+                            else
+                              throw new IllegalArgumentException ("Unsupported selector member: " + aMember);
+    }
+
+    private void _writeSupportsConditionMember (@NonNull final ICSSSupportsConditionMember aMember)
+    {
+      if (aMember instanceof CSSSupportsConditionDeclaration)
+      {
+        final CSSSupportsConditionDeclaration aDecl = (CSSSupportsConditionDeclaration) aMember;
+        writeByte (TAG_SUPPORTS_DECLARATION);
+        writeDeclaration (aDecl.getDeclaration ());
+        writeSourceLocation (aDecl.getSourceLocation ());
+      }
+      else
+        if (aMember instanceof CSSSupportsConditionNegation)
+        {
+          final CSSSupportsConditionNegation aNegation = (CSSSupportsConditionNegation) aMember;
+          writeByte (TAG_SUPPORTS_NEGATION);
+          _writeSupportsConditionMember (aNegation.getSupportsMember ());
+          writeSourceLocation (aNegation.getSourceLocation ());
+        }
+        else
+          if (aMember instanceof CSSSupportsConditionNested)
+          {
+            final CSSSupportsConditionNested aNested = (CSSSupportsConditionNested) aMember;
+            writeByte (TAG_SUPPORTS_NESTED);
+            _writeSupportsConditionMembers (aNested.getAllMembers ());
+            writeSourceLocation (aNested.getSourceLocation ());
+          }
+          else
+            if (aMember instanceof ECSSSupportsConditionOperator)
+            {
+              final ECSSSupportsConditionOperator eOp = (ECSSSupportsConditionOperator) aMember;
+              writeByte (TAG_SUPPORTS_OPERATOR);
+              writeString (eOp.name ());
+            }
+            else
+              throw new IllegalArgumentException ("Unsupported supports condition member: " + aMember);
+    }
+
+    private void _writeSupportsConditionMembers (@NonNull final List <ICSSSupportsConditionMember> aMembers)
+    {
+      writeVarInt (aMembers.size ());
+      for (final ICSSSupportsConditionMember aMember : aMembers)
+        _writeSupportsConditionMember (aMember);
+    }
+
+    void writeMediaQuery (@NonNull final CSSMediaQuery aMediaQuery)
+    {
+      writeString (aMediaQuery.getModifier ().name ());
+      writeString (aMediaQuery.getMedium ());
+      final List <CSSMediaExpression> aExprs = aMediaQuery.getAllMediaExpressions ();
+      writeVarInt (aExprs.size ());
+      for (final CSSMediaExpression aExpr : aExprs)
+      {
+        writeString (aExpr.getFeature ());
+        final CSSExpression aValue = aExpr.getValue ();
+        writeBoolean (aValue != null);
+        if (aValue != null)
+          writeExpression (aValue);
+        writeSourceLocation (aExpr.getSourceLocation ());
+      }
+      writeSourceLocation (aMediaQuery.getSourceLocation ());
+    }
+
+    void writeMediaQueries (@NonNull final List <CSSMediaQuery> aMediaQueries)
+    {
+      writeVarInt (aMediaQueries.size ());
+      for (final CSSMediaQuery aMediaQuery : aMediaQueries)
+        writeMediaQuery (aMediaQuery);
+    }
+
+    void writeRules (@NonNull final List <? extends ICSSWriteable> aRules)
+    {
+      writeVarInt (aRules.size ());
+      for (final ICSSWriteable aRule : aRules)
+        _writeRule (aRule);
+    }
+
+    private void _writeRule (@NonNull final ICSSWriteable aRule)
+    {
+      if (aRule instanceof CSSStyleRule)
+      {
+        final CSSStyleRule aStyleRule = (CSSStyleRule) aRule;
+        writeByte (TAG_STYLE_RULE);
+        writeSelectors (aStyleRule.getAllSelectors ());
+        writeDeclarations (aStyleRule.getAllDeclarations ());
+        writeRules (aStyleRule.getAllRules ());
+        writeSourceLocation (aStyleRule.getSourceLocation ());
+      }
+      else
+        if (aRule instanceof CSSMediaRule)
+        {
+          final CSSMediaRule aMediaRule = (CSSMediaRule) aRule;
+          writeByte (TAG_MEDIA_RULE);
+          writeMediaQueries (aMediaRule.getAllMediaQueries ());
+          writeRules (aMediaRule.getAllRules ());
+          writeSourceLocation (aMediaRule.getSourceLocation ());
+        }
+        else
+          if (aRule instanceof CSSPageRule)
+          {
+            final CSSPageRule aPageRule = (CSSPageRule) aRule;
+            writeByte (TAG_PAGE_RULE);
+            writeStrings (aPageRule.getAllSelectors ());
+            final List <ICSSPageRuleMember> aMembers = aPageRule.getAllMembers ();
+            writeVarInt (aMembers.size ());
+            for (final ICSSPageRuleMember aMember : aMembers)
+              if (aMember instanceof CSSDeclaration)
+              {
+                final CSSDeclaration aDecl = (CSSDeclaration) aMember;
+                writeByte (TAG_DECLARATION);
+                writeDeclaration (aDecl);
+              }
+              else
+                if (aMember instanceof CSSPageMarginBlock)
+                {
+                  final CSSPageMarginBlock aBlock = (CSSPageMarginBlock) aMember;
+                  writeByte (TAG_PAGE_MARGIN_BLOCK);
+                  writeString (aBlock.getPageMarginSymbol ());
+                  writeDeclarations (aBlock.getAllDeclarations ());
+                  writeSourceLocation (aBlock.getSourceLocation ());
+                }
+                else
+                  throw new IllegalArgumentException ("Unsupported page rule member: " + aMember);
+            writeSourceLocation (aPageRule.getSourceLocation ());
+          }
+          else
+            if (aRule instanceof CSSFontFaceRule)
+            {
+              final CSSFontFaceRule aFontFaceRule = (CSSFontFaceRule) aRule;
+              writeByte (TAG_FONT_FACE_RULE);
+              writeString (aFontFaceRule.getDeclaration ());
+              writeDeclarations (aFontFaceRule.getAllDeclarations ());
+              writeSourceLocation (aFontFaceRule.getSourceLocation ());
+            }
+            else
+              if (aRule instanceof CSSKeyframesRule)
+              {
+                final CSSKeyframesRule aKeyframesRule = (CSSKeyframesRule) aRule;
+                writeByte (TAG_KEYFRAMES_RULE);
+                writeString (aKeyframesRule.getDeclaration ());
+                writeString (aKeyframesRule.getAnimationName ());
+                final List <CSSKeyframesBlock> aBlocks = aKeyframesRule.getAllBlocks ();
+                writeVarInt (aBlocks.size ());
+                for (final CSSKeyframesBlock aBlock : aBlocks)
+                {
+                  writeStrings (aBlock.getAllKeyframesSelectors ());
+                  writeDeclarations (aBlock.getAllDeclarations ());
+                  writeSourceLocation (aBlock.getSourceLocation ());
+                }
+                writeSourceLocation (aKeyframesRule.getSourceLocation ());
+              }
+              else
+                if (aRule instanceof CSSViewportRule)
+                {
+                  final CSSViewportRule aViewportRule = (CSSViewportRule) aRule;
+                  writeByte (TAG_VIEWPORT_RULE);
+                  writeString (aViewportRule.getDeclaration ());
+                  writeDeclarations (aViewportRule.getAllDeclarations ());
+                  writeSourceLocation (aViewportRule.getSourceLocation ());
+                }
+                else
+                  if (aRule instanceof CSSSupportsRule)
+                  {
+                    final CSSSupportsRule aSupportsRule = (CSSSupportsRule) aRule;
+                    writeByte (TAG_SUPPORTS_RULE);
+                    _writeSupportsConditionMembers (aSupportsRule.getAllSupportConditionMembers ());
+                    writeRules (aSupportsRule.getAllRules ());
+                    writeSourceLocation (aSupportsRule.getSourceLocation ());
+                  }
+                  else
+                    if (aRule instanceof CSSLayerRule)
+                    {
+                      final CSSLayerRule aLayerRule = (CSSLayerRule) aRule;
+                      writeByte (TAG_LAYER_RULE);
+                      writeStrings (aLayerRule.getAllSelectors ());
+                      writeRules (aLayerRule.getAllRules ());
+                      writeSourceLocation (aLayerRule.getSourceLocation ());
+                    }
+                    else
+                      if (aRule instanceof CSSPropertyRule)
+                      {
+                        final CSSPropertyRule aPropertyRule = (CSSPropertyRule) aRule;
+                        writeByte (TAG_PROPERTY_RULE);
+                        writeString (aPropertyRule.getIdentifier ());
+                        final List <CSSPropertyRuleDeclaration> aDecls = aPropertyRule.getAllDeclarations ();
+                        writeVarInt (aDecls.size ());
+                        for (final CSSPropertyRuleDeclaration aDecl : aDecls)
+                        {
+                          writeString (aDecl.getDescriptor ());
+                          writeExpression (aDecl.getExpression ());
+                          writeSourceLocation (aDecl.getSourceLocation ());
+                        }
+                        writeRules (aPropertyRule.getAllRules ());
+                        writeSourceLocation (aPropertyRule.getSourceLocation ());
+                      }
+                      else
+                        if (aRule instanceof CSSUnknownRule)
+                        {
+                          final CSSUnknownRule aUnknownRule = (CSSUnknownRule) aRule;
+                          writeByte (TAG_UNKNOWN_RULE);
+                          writeString (aUnknownRule.getDeclaration ());
+                          writeString (aUnknownRule.getParameterList ());
+                          writeString (aUnknownRule.getBody ());
+                          writeSourceLocation (aUnknownRule.getSourceLocation ());
+                        }
+                        else
+                          if (aRule instanceof CSSNestedDeclarations)
+                          {
+                            final CSSNestedDeclarations aNestedDecls = (CSSNestedDeclarations) aRule;
+                            writeByte (TAG_NESTED_DECLARATIONS);
+                            writeDeclarations (aNestedDecls.getAllDeclarations ());
+                            writeSourceLocation (aNestedDecls.getSourceLocation ());
+                          }
+                          else
+                            throw new IllegalArgumentException ("Unsupported rule: " + aRule);
+    }
+
+    void writeCascadingStyleSheet (@NonNull final CascadingStyleSheet aCSS)
+    {
+      final List <CSSImportRule> aImportRules = aCSS.getAllImportRules ();
+      writeVarInt (aImportRules.size ());
+      for (final CSSImportRule aImportRule : aImportRules)
+      {
+        writeURI (aImportRule.getLocation ());
+        writeMediaQueries (aImportRule.getAllMediaQueries ());
+        writeSourceLocation (aImportRule.getSourceLocation ());
+      }
+
+      final List <CSSNamespaceRule> aNamespaceRules = aCSS.getAllNamespaceRules ();
+      writeVarInt (aNamespaceRules.size ());
+      for (final CSSNamespaceRule aNamespaceRule : aNamespaceRules)
+      {
+        writeString (aNamespaceRule.getNamespacePrefix ());
+        writeString (aNamespaceRule.getNamespaceURL ());
+        writeSourceLocation (aNamespaceRule.getSourceLocation ());
+      }
+
+      writeRules (aCSS.getAllRules ());
+      writeSourceLocation (aCSS.getSourceLocation ());
+    }
+  }
+
+  /**
+   * Get the binary representation of the passed style sheet.
+   *
+   * @param aCSS
+   *        The style sheet to be converted. May not be <code>null</code>.
+   * @return The binary representation. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the style sheet contains a custom implementation of one of the member interfaces
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public byte [] getAsBytes (@NonNull final CascadingStyleSheet aCSS)
+  {
+    ValueEnforcer.notNull (aCSS, "CSS");
+
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    aOS.write (MAGIC, 0, MAGIC.length);
+    aOS.write (CURRENT_VERSION);
+    aOS.write (m_bWriteSourceLocations ? FLAG_SOURCE_LOCATIONS : 0);
+    new Encoder (aOS, m_bWriteSourceLocations).writeCascadingStyleSheet (aCSS);
+    return aOS.toByteArray ();
+  }
+
+  /**
+   * Write the binary representation of the passed style sheet to the passed stream.
+   *
+   * @param aCSS
+   *        The style sheet to be written. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. It is closed after
+   *        writing.
+   * @throws IOException
+   *         In case writing fails
+   * @throws IllegalArgumentException
+   *         if the style sheet contains a custom implementation of one of the member interfaces
+   */
+  public void writeCSS (@NonNull final CascadingStyleSheet aCSS, @NonNull @WillClose final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    try
+    {
+      aOS.write (getAsBytes (aCSS));
+      aOS.flush ();
+    }
+    finally
+    {
+      StreamHelper.close (aOS);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("WriteSourceLocations", m_bWriteSourceLocations).getToString ();
+  }
+}
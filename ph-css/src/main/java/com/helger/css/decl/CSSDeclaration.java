@@ -98,8 +98,17 @@ public class CSSDeclaration implements ICSSSourceLocationAware, ICSSPageRuleMemb
     return m_sProperty;
   }
 
+  /**
+   * Get the passed property name in the form it is stored in a declaration. All properties except
+   * the case-sensitive custom properties are lowercased.
+   *
+   * @param sProperty
+   *        The property name to unify. May not be <code>null</code>.
+   * @return The unified property name. Never <code>null</code>.
+   * @since 8.2.2
+   */
   @NonNull
-  private static String _unifyProperty (@NonNull final String sProperty)
+  public static String getUnifiedProperty (@NonNull final String sProperty)
   {
     // CSS variables are case-sensitive (see issue 63)
     if (sProperty.startsWith ("--"))
@@ -119,7 +128,7 @@ public class CSSDeclaration implements ICSSSourceLocationAware, ICSSPageRuleMemb
   public final boolean hasProperty (@NonNull final String sProperty)
   {
     ValueEnforcer.notNull (sProperty, "Property");
-    return m_sProperty.equals (_unifyProperty (sProperty));
+    return m_sProperty.equals (getUnifiedProperty (sProperty));
   }
 
   /**
@@ -134,7 +143,8 @@ public class CSSDeclaration implements ICSSSourceLocationAware, ICSSPageRuleMemb
   public final boolean hasProperty (@NonNull final ECSSProperty eProperty)
   {
     ValueEnforcer.notNull (eProperty, "Property");
-    return hasProperty (eProperty.getName ());
+    // The names of all properties are lowercase. Parsed properties share the same String object.
+    return m_sProperty.equals (eProperty.getName ());
   }
 
   /**
@@ -150,7 +160,7 @@ public class CSSDeclaration implements ICSSSourceLocationAware, ICSSPageRuleMemb
   public final CSSDeclaration setProperty (@NonNull @Nonempty final String sProperty)
   {
     ValueEnforcer.notEmpty (sProperty, "Property");
-    m_sProperty = _unifyProperty (sProperty);
+    m_sProperty = getUnifiedProperty (sProperty);
     return this;
   }
 
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.util.function.Consumer;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
@@ -61,14 +63,87 @@ public class CSSStyleRule implements
                           IHasCSSNestedRules <CSSStyleRule>,
                           ICSSSourceLocationAware
 {
+  /**
+   * Callback to provide the declarations and nested rules of a style rule on first access.
+   *
+   * @author Philip Helger
+   * @since 8.2.2
+   */
+  @FunctionalInterface
+  public interface IDeferredContent
+  {
+    /**
+     * Create all declarations and nested rules in the order of the source.
+     *
+     * @param aDeclarationConsumer
+     *        The consumer for the declarations. Never <code>null</code>.
+     * @param aRuleConsumer
+     *        The consumer for the nested rules. Never <code>null</code>.
+     */
+    void fill (@NonNull Consumer <CSSDeclaration> aDeclarationConsumer,
+               @NonNull Consumer <ICSSNestedRule> aRuleConsumer);
+  }
+
   private final ICommonsList <CSSSelector> m_aSelectors = new CommonsArrayList <> ();
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private final ICommonsList <ICSSNestedRule> m_aRules = new CommonsArrayList <> ();
   private CSSSourceLocation m_aSourceLocation;
+  private volatile IDeferredContent m_aDeferredContent;
 
   public CSSStyleRule ()
   {}
 
+  private void _ensureContentLoaded ()
+  {
+    if (m_aDeferredContent != null)
+      synchronized (this)
+      {
+        final IDeferredContent aDeferredContent = m_aDeferredContent;
+        if (aDeferredContent != null)
+        {
+          // Fill the fields directly, to avoid recursion
+          try
+          {
+            aDeferredContent.fill (m_aDeclarations::addDeclaration, m_aRules::add);
+          }
+          finally
+          {
+            m_aDeferredContent = null;
+          }
+        }
+      }
+  }
+
+  /**
+   * @return <code>true</code> if the declarations and nested rules of this rule are present,
+   *         <code>false</code> if they are still deferred and will be created on first access.
+   * @since 8.2.2
+   */
+  public final boolean isContentLoaded ()
+  {
+    return m_aDeferredContent == null;
+  }
+
+  /**
+   * Set the deferred content of this rule. The provided callback is invoked exactly once, on the
+   * first access to any declaration or nested rule (including output, <code>equals</code> and
+   * <code>hashCode</code>). The created objects are placed before any declaration or rule that is
+   * added later. This is mainly used by the reader to avoid creating declarations that are never
+   * accessed.
+   *
+   * @param aDeferredContent
+   *        The callback to fill in the content. May be <code>null</code> to remove a previously
+   *        set callback without invoking it.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public final CSSStyleRule setDeferredContent (@Nullable final IDeferredContent aDeferredContent)
+  {
+    m_aDeferredContent = aDeferredContent;
+    return this;
+  }
+
   public boolean hasSelectors ()
   {
     return m_aSelectors.isNotEmpty ();
@@ -159,18 +234,21 @@ public class CSSStyleRule implements
 
   public boolean hasRules ()
   {
+    _ensureContentLoaded ();
     return m_aRules.isNotEmpty ();
   }
 
   @Nonnegative
   public int getRuleCount ()
   {
+    _ensureContentLoaded ();
     return m_aRules.size ();
   }
 
   @NonNull
   public CSSStyleRule addRule (@NonNull final ICSSNestedRule aRule)
   {
+    _ensureContentLoaded ();
     ValueEnforcer.notNull (aRule, "Rule");
 
     m_aRules.add (aRule);
@@ -180,6 +258,7 @@ public class CSSStyleRule implements
   @NonNull
   public CSSStyleRule addRule (@Nonnegative final int nIndex, @NonNull final ICSSNestedRule aRule)
   {
+    _ensureContentLoaded ();
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aRule, "Rule");
 
@@ -193,24 +272,28 @@ public class CSSStyleRule implements
   @NonNull
   public EChange removeRule (@NonNull final ICSSNestedRule aRule)
   {
+    _ensureContentLoaded ();
     return m_aRules.removeObject (aRule);
   }
 
   @NonNull
   public EChange removeRule (@Nonnegative final int nRuleIndex)
   {
+    _ensureContentLoaded ();
     return m_aRules.removeAtIndex (nRuleIndex);
   }
 
   @NonNull
   public EChange removeAllRules ()
   {
+    _ensureContentLoaded ();
     return m_aRules.removeAll ();
   }
 
   @Nullable
   public ICSSNestedRule getRuleAtIndex (@Nonnegative final int nRuleIndex)
   {
+    _ensureContentLoaded ();
     return m_aRules.getAtIndex (nRuleIndex);
   }
 
@@ -218,12 +301,14 @@ public class CSSStyleRule implements
   @ReturnsMutableCopy
   public ICommonsList <ICSSNestedRule> getAllRules ()
   {
+    _ensureContentLoaded ();
     return m_aRules.getClone ();
   }
 
   @NonNull
   public CSSStyleRule addDeclaration (@NonNull final CSSDeclaration aDeclaration)
   {
+    _ensureContentLoaded ();
     m_aDeclarations.addDeclaration (aDeclaration);
     return this;
   }
@@ -231,6 +316,7 @@ public class CSSStyleRule implements
   @NonNull
   public CSSStyleRule addDeclaration (@Nonnegative final int nIndex, @NonNull final CSSDeclaration aNewDeclaration)
   {
+    _ensureContentLoaded ();
     m_aDeclarations.addDeclaration (nIndex, aNewDeclaration);
     return this;
   }
@@ -238,18 +324,21 @@ public class CSSStyleRule implements
   @NonNull
   public EChange removeDeclaration (@NonNull final CSSDeclaration aDeclaration)
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.removeDeclaration (aDeclaration);
   }
 
   @NonNull
   public EChange removeDeclaration (@Nonnegative final int nDeclarationIndex)
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.removeDeclaration (nDeclarationIndex);
   }
 
   @NonNull
   public EChange removeAllDeclarations ()
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.removeAllDeclarations ();
   }
 
@@ -257,12 +346,14 @@ public class CSSStyleRule implements
   @ReturnsMutableCopy
   public ICommonsList <CSSDeclaration> getAllDeclarations ()
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.getAllDeclarations ();
   }
 
   @Nullable
   public CSSDeclaration getDeclarationAtIndex (@Nonnegative final int nIndex)
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.getDeclarationAtIndex (nIndex);
   }
 
@@ -270,24 +361,28 @@ public class CSSStyleRule implements
   public CSSStyleRule setDeclarationAtIndex (@Nonnegative final int nIndex,
                                              @NonNull final CSSDeclaration aNewDeclaration)
   {
+    _ensureContentLoaded ();
     m_aDeclarations.setDeclarationAtIndex (nIndex, aNewDeclaration);
     return this;
   }
 
   public boolean hasDeclarations ()
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.hasDeclarations ();
   }
 
   @Nonnegative
   public int getDeclarationCount ()
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.getDeclarationCount ();
   }
 
   @Nullable
   public CSSDeclaration getDeclarationOfPropertyName (@Nullable final String sPropertyName)
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.getDeclarationOfPropertyName (sPropertyName);
   }
 
@@ -295,6 +390,7 @@ public class CSSStyleRule implements
   @ReturnsMutableCopy
   public ICommonsList <CSSDeclaration> getAllDeclarationsOfPropertyName (@Nullable final String sPropertyName)
   {
+    _ensureContentLoaded ();
     return m_aDeclarations.getAllDeclarationsOfPropertyName (sPropertyName);
   }
 
@@ -332,6 +428,7 @@ public class CSSStyleRule implements
   @NonNull
   public String getAsCSSString (@NonNull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
+    _ensureContentLoaded ();
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations () && !hasRules ())
       return "";
 
@@ -446,6 +543,8 @@ public class CSSStyleRule implements
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final CSSStyleRule rhs = (CSSStyleRule) o;
+    _ensureContentLoaded ();
+    rhs._ensureContentLoaded ();
     return m_aSelectors.equals (rhs.m_aSelectors) &&
            m_aDeclarations.equals (rhs.m_aDeclarations) &&
            m_aRules.equals (rhs.m_aRules);
@@ -454,12 +553,14 @@ public class CSSStyleRule implements
   @Override
   public int hashCode ()
   {
+    _ensureContentLoaded ();
     return new HashCodeGenerator (this).append (m_aSelectors).append (m_aDeclarations).append (m_aRules).getHashCode ();
   }
 
   @Override
   public String toString ()
   {
+    _ensureContentLoaded ();
     return new ToStringGenerator (this).append ("selectors", m_aSelectors)
                                        .append ("declarations", m_aDeclarations)
                                        .append ("rules", m_aRules)
@@ -16,14 +16,21 @@
  */
 package com.helger.css.handler;
 
+import java.util.function.Consumer;
+
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.style.PresentForCodeCoverage;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSNamespaceRule;
 import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
 import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.CSSSourceText;
 import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
 
 /**
@@ -60,13 +67,47 @@ public final class CSSHandler
   public static CascadingStyleSheet readCascadingStyleSheetFromNode (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
                                                                      final boolean bUseSourceLocation,
                                                                      @NonNull final CSSNode aNode)
+  {
+    return readCascadingStyleSheetFromNode (aErrorHandler, bUseSourceLocation, false, null, aNode);
+  }
+
+  /**
+   * Create a {@link CascadingStyleSheet} object from a parsed object.
+   *
+   * @param aErrorHandler
+   *        The error handler to be used. May not be <code>null</code>.
+   * @param bUseSourceLocation
+   *        <code>true</code> to keep the source location, <code>false</code> to ignore the source
+   *        location. Disabling the source location may be a performance improvement.
+   * @param bLazyDeclarations
+   *        <code>true</code> to create the declarations and nested rules of style rules on first
+   *        access only, <code>false</code> to create them immediately. Interpretation errors of
+   *        lazily created objects are reported to the error handler on first access.
+   * @param aSourceText
+   *        The source text the node was parsed from. If present, lazily created objects are parsed
+   *        again from the text on first access, instead of retaining their nodes. May be
+   *        <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   * @since 8.2.2
+   */
+  @NonNull
+  public static CascadingStyleSheet readCascadingStyleSheetFromNode (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
+                                                                     final boolean bUseSourceLocation,
+                                                                     final boolean bLazyDeclarations,
+                                                                     @Nullable final CSSSourceText aSourceText,
+                                                                     @NonNull final CSSNode aNode)
   {
     ValueEnforcer.notNull (aNode, "Node");
     if (!ECSSNodeType.ROOT.isNode (aNode))
       throw new CSSHandlingException (aNode, "Passed node is not a root node!");
     ValueEnforcer.notNull (aErrorHandler, "ErrorHandler");
 
-    return new CSSNodeToDomainObject (aErrorHandler, bUseSourceLocation).createCascadingStyleSheetFromNode (aNode);
+    return new CSSNodeToDomainObject (aErrorHandler,
+                                      bUseSourceLocation,
+                                      bLazyDeclarations,
+                                      aSourceText).createCascadingStyleSheetFromNode (aNode);
   }
 
   /**
@@ -94,4 +135,55 @@ public final class CSSHandler
 
     return new CSSNodeToDomainObject (aErrorHandler, bUseSourceLocation).createDeclarationListFromNode (aNode);
   }
+
+  /**
+   * Convert a single top-level node of a style sheet to the matching domain object(s) and pass them
+   * to the provided consumers. This is used to process a style sheet rule by rule, without
+   * building the complete {@link CascadingStyleSheet}.
+   *
+   * @param aErrorHandler
+   *        The error handler to be used. May not be <code>null</code>.
+   * @param bUseSourceLocation
+   *        <code>true</code> to keep the source location, <code>false</code> to ignore the source
+   *        location. Disabling the source location may be a performance improvement.
+   * @param bLazyDeclarations
+   *        <code>true</code> to create the declarations and nested rules of style rules on first
+   *        access only, <code>false</code> to create them immediately.
+   * @param aSourceText
+   *        The source text the node was parsed from. If present, lazily created objects are parsed
+   *        again from the text on first access, instead of retaining their nodes. May be
+   *        <code>null</code>.
+   * @param aNode
+   *        The parsed top-level node to read. May not be <code>null</code>.
+   * @param aImportRuleConsumer
+   *        The consumer for <code>@import</code> rules. May not be <code>null</code>.
+   * @param aNamespaceRuleConsumer
+   *        The consumer for <code>@namespace</code> rules. May not be <code>null</code>.
+   * @param aRuleConsumer
+   *        The consumer for all other top-level rules. May not be <code>null</code>.
+   * @since 8.2.2
+   */
+  public static void readTopLevelRulesFromNode (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
+                                                final boolean bUseSourceLocation,
+                                                final boolean bLazyDeclarations,
+                                                @Nullable final CSSSourceText aSourceText,
+                                                @NonNull final CSSNode aNode,
+                                                @NonNull final Consumer <? super CSSImportRule> aImportRuleConsumer,
+                                                @NonNull final Consumer <? super CSSNamespaceRule> aNamespaceRuleConsumer,
+                                                @NonNull final Consumer <? super ICSSTopLevelRule> aRuleConsumer)
+  {
+    ValueEnforcer.notNull (aNode, "Node");
+    ValueEnforcer.notNull (aErrorHandler, "ErrorHandler");
+    ValueEnforcer.notNull (aImportRuleConsumer, "ImportRuleConsumer");
+    ValueEnforcer.notNull (aNamespaceRuleConsumer, "NamespaceRuleConsumer");
+    ValueEnforcer.notNull (aRuleConsumer, "RuleConsumer");
+
+    new CSSNodeToDomainObject (aErrorHandler,
+                               bUseSourceLocation,
+                               bLazyDeclarations,
+                               aSourceText).readTopLevelNode (aNode,
+                                                              aImportRuleConsumer,
+                                                              aNamespaceRuleConsumer,
+                                                              aRuleConsumer);
+  }
 }
@@ -34,6 +34,7 @@ import com.helger.css.media.ECSSMediaExpressionFeature;
 import com.helger.css.media.ECSSMedium;
 import com.helger.css.parser.CSSNode;
 import com.helger.css.parser.CSSParseHelper;
+import com.helger.css.parser.CSSSourceText;
 import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
 
 /**
@@ -44,8 +45,85 @@ import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
 @NotThreadSafe
 final class CSSNodeToDomainObject
 {
+  /**
+   * The deferred declarations and nested rules of a style rule. The node is released as soon as the
+   * content was created, so that it can be garbage collected even if this object is still
+   * referenced.
+   */
+  private final class DeferredStyleRuleContent implements CSSStyleRule.IDeferredContent
+  {
+    private CSSNode m_aNode;
+    private final boolean m_bIsTopLevel;
+
+    DeferredStyleRuleContent (@NonNull final CSSNode aNode, final boolean bIsTopLevel)
+    {
+      m_aNode = aNode;
+      m_bIsTopLevel = bIsTopLevel;
+    }
+
+    public void fill (@NonNull final Consumer <CSSDeclaration> aDeclarationConsumer,
+                      @NonNull final Consumer <ICSSNestedRule> aRuleConsumer)
+    {
+      final CSSNode aNode = m_aNode;
+      m_aNode = null;
+      if (aNode != null)
+        _readStyleDeclarationListWithNestedRules (aNode, aDeclarationConsumer, aRuleConsumer, m_bIsTopLevel);
+    }
+  }
+
+  /**
+   * The deferred declarations and nested rules of a style rule, that are parsed again from the
+   * source text on first access. Only the offsets are kept, so no node is retained.
+   */
+  private final class DeferredSourceContent implements CSSStyleRule.IDeferredContent
+  {
+    private final int m_nStart;
+    private final int m_nEnd;
+    private final int m_nLineBefore;
+    private final int m_nColumnBefore;
+    private final boolean m_bIsTopLevel;
+
+    DeferredSourceContent (final int nStart,
+                           final int nEnd,
+                           final int nLineBefore,
+                           final int nColumnBefore,
+                           final boolean bIsTopLevel)
+    {
+      m_nStart = nStart;
+      m_nEnd = nEnd;
+      m_nLineBefore = nLineBefore;
+      m_nColumnBefore = nColumnBefore;
+      m_bIsTopLevel = bIsTopLevel;
+    }
+
+    public void fill (@NonNull final Consumer <CSSDeclaration> aDeclarationConsumer,
+                      @NonNull final Consumer <ICSSNestedRule> aRuleConsumer)
+    {
+      final CSSSourceText aSubText = m_aSourceText.getSubText (m_nStart, m_nEnd, m_nLineBefore, m_nColumnBefore);
+      final CSSNode aNode = aSubText.readStyleDeclarationListWithNested ();
+      if (aNode == null)
+      {
+        m_aErrorHandler.onCSSInterpretationError ("Failed to parse the deferred content of a style rule again");
+        return;
+      }
+
+      // Use a separate object, as this may be called from any thread
+      new CSSNodeToDomainObject (m_aErrorHandler,
+                                 m_bUseSourceLocation,
+                                 true,
+                                 aSubText)._readStyleDeclarationListWithNestedRules (aNode,
+                                                                                    aDeclarationConsumer,
+                                                                                    aRuleConsumer,
+                                                                                    m_bIsTopLevel);
+    }
+  }
+
   private final ICSSInterpretErrorHandler m_aErrorHandler;
   private final boolean m_bUseSourceLocation;
+  private final boolean m_bLazyDeclarations;
+  private final CSSSourceText m_aSourceText;
+  // Created on demand
+  private CSSSourceText.OffsetResolver m_aOffsetResolver;
 
   /**
    * Constructor
@@ -58,9 +136,57 @@ final class CSSNodeToDomainObject
    */
   public CSSNodeToDomainObject (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
                                 final boolean bUseSourceLocation)
+  {
+    this (aErrorHandler, bUseSourceLocation, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aErrorHandler
+   *        Error handler to use. May not be <code>null</code>.
+   * @param bUseSourceLocation
+   *        <code>true</code> to keep the source location, <code>false</code> to ignore the source
+   *        location. Disabling the source location may be a performance improvement.
+   * @param bLazyDeclarations
+   *        <code>true</code> to create the declarations and nested rules of style rules on first
+   *        access only, <code>false</code> to create them immediately.
+   * @since 8.2.2
+   */
+  public CSSNodeToDomainObject (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
+                                final boolean bUseSourceLocation,
+                                final boolean bLazyDeclarations)
+  {
+    this (aErrorHandler, bUseSourceLocation, bLazyDeclarations, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aErrorHandler
+   *        Error handler to use. May not be <code>null</code>.
+   * @param bUseSourceLocation
+   *        <code>true</code> to keep the source location, <code>false</code> to ignore the source
+   *        location. Disabling the source location may be a performance improvement.
+   * @param bLazyDeclarations
+   *        <code>true</code> to create the declarations and nested rules of style rules on first
+   *        access only, <code>false</code> to create them immediately.
+   * @param aSourceText
+   *        The source text the nodes were parsed from, with positions. If present, lazily created
+   *        content is parsed again from the text on first access and the nodes are neither
+   *        modified nor retained, so they may be shared. Otherwise the node sub trees of lazily
+   *        created content are detached and retained. May be <code>null</code>.
+   * @since 8.2.2
+   */
+  public CSSNodeToDomainObject (@NonNull final ICSSInterpretErrorHandler aErrorHandler,
+                                final boolean bUseSourceLocation,
+                                final boolean bLazyDeclarations,
+                                @Nullable final CSSSourceText aSourceText)
   {
     m_aErrorHandler = ValueEnforcer.notNull (aErrorHandler, "ErrorHandler");
     m_bUseSourceLocation = bUseSourceLocation;
+    m_bLazyDeclarations = bLazyDeclarations;
+    m_aSourceText = aSourceText;
   }
 
   private void _expectNodeType (@NonNull final CSSNode aNode, @NonNull final ECSSNodeType eExpected)
@@ -237,7 +363,7 @@ final class CSSNodeToDomainObject
     {
       if (nChildCount != 0)
         _throwUnexpectedChildrenCount (aNode, "CSS simple selector member expected 0 children and got " + nChildCount);
-      final CSSSelectorSimpleMember ret = new CSSSelectorSimpleMember (aNode.getText ());
+      final CSSSelectorSimpleMember ret = new CSSSelectorSimpleMember (CSSStringInterner.intern (aNode.getText ()));
       if (m_bUseSourceLocation)
         ret.setSourceLocation (aNode.getSourceLocation ());
       return ret;
@@ -277,7 +403,7 @@ final class CSSNodeToDomainObject
           // Or bogus functions like ":lang()" - see #72
           sText += ')';
         }
-        final CSSSelectorSimpleMember ret = new CSSSelectorSimpleMember (sText);
+        final CSSSelectorSimpleMember ret = new CSSSelectorSimpleMember (CSSStringInterner.intern (sText));
         if (m_bUseSourceLocation)
           ret.setSourceLocation (aNode.getSourceLocation ());
         return ret;
@@ -641,7 +767,7 @@ final class CSSNodeToDomainObject
     // Simple value
     if (nChildCount == 0)
     {
-      final CSSExpressionMemberTermSimple ret = new CSSExpressionMemberTermSimple (aNode.getText ());
+      final CSSExpressionMemberTermSimple ret = new CSSExpressionMemberTermSimple (CSSStringInterner.intern (aNode.getText ()));
       if (m_bUseSourceLocation)
         ret.setSourceLocation (aNode.getSourceLocation ());
       return ret;
@@ -729,12 +855,14 @@ final class CSSNodeToDomainObject
       return null;
     }
 
-    final String sProperty = aNode.jjtGetChild (0).getText ();
-    if (sProperty == null)
+    final String sRawProperty = aNode.jjtGetChild (0).getText ();
+    if (sRawProperty == null)
     {
       // Syntax error with deprecated property name (see #84)
       return null;
     }
+    // Unify before interning, so that the interned string is the one stored in the declaration
+    final String sProperty = CSSStringInterner.intern (CSSDeclaration.getUnifiedProperty (sRawProperty));
 
     final CSSExpression aExpression = _createExpression (aNode.jjtGetChild (1));
     boolean bImportant = false;
@@ -865,6 +993,34 @@ final class CSSNodeToDomainObject
       aNestedRuleConsumer.accept (aNestedDeclarations);
   }
 
+  @Nullable
+  private CSSStyleRule.IDeferredContent _createDeferredSourceContent (@NonNull final CSSNode aNode,
+                                                                    final boolean bIsTopLevel)
+  {
+    if (m_aSourceText == null)
+      return null;
+
+    if (m_aOffsetResolver == null)
+      m_aOffsetResolver = m_aSourceText.createOffsetResolver ();
+
+    // From the first char of the first token to the last char of the last token
+    if (!aNode.hasFirstToken () || !aNode.hasLastToken ())
+      return null;
+    final int nStart = m_aOffsetResolver.getOffset (aNode.getFirstTokenBeginLine (), aNode.getFirstTokenBeginColumn ());
+    if (nStart < 0)
+      return null;
+    final int nLineBefore = m_aOffsetResolver.getLineBefore ();
+    final int nColumnBefore = m_aOffsetResolver.getColumnBefore ();
+    final int nLast = m_aOffsetResolver.getOffset (aNode.getLastTokenEndLine (), aNode.getLastTokenEndColumn ());
+    if (nLast < nStart)
+      return null;
+    // After an error recovery the closing brace may be part of the node. In that case the content
+    // is not self-contained and cannot be parsed again on its own.
+    if (m_aSourceText.getText ().charAt (nLast) == '}')
+      return null;
+    return new DeferredSourceContent (nStart, nLast + 1, nLineBefore, nColumnBefore, bIsTopLevel);
+  }
+
   @Nullable
   private CSSStyleRule _createStyleRule (@NonNull final CSSNode aNode, final boolean bIsTopLevel)
   {
@@ -899,8 +1055,39 @@ final class CSSNodeToDomainObject
           bSelectors = false;
           if (ECSSNodeType.STYLEDECLARATIONLISTWITHNESTED.isNode (aChildNode))
           {
-            // Read all contained declarations and nested rules
-            _readStyleDeclarationListWithNestedRules (aChildNode, ret::addDeclaration, ret::addRule, bIsTopLevel);
+            if (m_bLazyDeclarations)
+            {
+              if (aChildNode.jjtGetNumChildren () > 0)
+              {
+                final CSSStyleRule.IDeferredContent aContent = _createDeferredSourceContent (aChildNode,
+                                                                                             bIsTopLevel);
+                if (aContent != null)
+                {
+                  // Keep only the offsets and parse the source again on first access
+                  ret.setDeferredContent (aContent);
+                }
+                else
+                  if (m_aSourceText != null)
+                  {
+                    // The tree may be shared (e.g. by a parse cache) and must not be retained
+                    _readStyleDeclarationListWithNestedRules (aChildNode,
+                                                              ret::addDeclaration,
+                                                              ret::addRule,
+                                                              bIsTopLevel);
+                  }
+                  else
+                  {
+                    // Keep only the sub tree of the declarations and convert it on first access
+                    aChildNode.detach ();
+                    ret.setDeferredContent (new DeferredStyleRuleContent (aChildNode, bIsTopLevel));
+                  }
+              }
+            }
+            else
+            {
+              // Read all contained declarations and nested rules
+              _readStyleDeclarationListWithNestedRules (aChildNode, ret::addDeclaration, ret::addRule, bIsTopLevel);
+            }
           }
           else
             if (!ECSSNodeType.isErrorNode (aChildNode))
@@ -1593,80 +1780,100 @@ final class CSSNodeToDomainObject
     return ret;
   }
 
-  private void _recursiveFillCascadingStyleSheetFromNode (@NonNull final CSSNode aNode,
-                                                          @NonNull final CascadingStyleSheet ret)
+  private void _readTopLevelNode (@NonNull final CSSNode aParentNode,
+                                  @NonNull final CSSNode aChildNode,
+                                  @NonNull final Consumer <? super CSSImportRule> aImportRuleConsumer,
+                                  @NonNull final Consumer <? super CSSNamespaceRule> aNamespaceRuleConsumer,
+                                  @NonNull final Consumer <? super ICSSTopLevelRule> aRuleConsumer)
   {
-    _expectNodeType (aNode, ECSSNodeType.ROOT);
-    if (m_bUseSourceLocation)
-      ret.setSourceLocation (aNode.getSourceLocation ());
-    for (final CSSNode aChildNode : aNode)
+    if (ECSSNodeType.CHARSET.isNode (aChildNode))
     {
-      if (ECSSNodeType.CHARSET.isNode (aChildNode))
-      {
-        // Ignore because this was handled when reading!
-      }
+      // Ignore because this was handled when reading!
+    }
+    else
+      if (ECSSNodeType.IMPORTRULE.isNode (aChildNode))
+        aImportRuleConsumer.accept (_createImportRule (aChildNode));
       else
-        if (ECSSNodeType.IMPORTRULE.isNode (aChildNode))
-          ret.addImportRule (_createImportRule (aChildNode));
+        if (ECSSNodeType.NAMESPACERULE.isNode (aChildNode))
+          aNamespaceRuleConsumer.accept (_createNamespaceRule (aChildNode));
         else
-          if (ECSSNodeType.NAMESPACERULE.isNode (aChildNode))
-            ret.addNamespaceRule (_createNamespaceRule (aChildNode));
+          if (ECSSNodeType.STYLERULE.isNode (aChildNode))
+          {
+            final CSSStyleRule aStyleRule = _createStyleRule (aChildNode, true);
+            if (aStyleRule != null)
+              aRuleConsumer.accept (aStyleRule);
+          }
           else
-            if (ECSSNodeType.STYLERULE.isNode (aChildNode))
-            {
-              final CSSStyleRule aStyleRule = _createStyleRule (aChildNode, true);
-              if (aStyleRule != null)
-                ret.addRule (aStyleRule);
-            }
+            if (ECSSNodeType.PAGERULE.isNode (aChildNode))
+              aRuleConsumer.accept (_createPageRule (aChildNode));
             else
-              if (ECSSNodeType.PAGERULE.isNode (aChildNode))
-                ret.addRule (_createPageRule (aChildNode));
+              if (ECSSNodeType.MEDIARULE.isNode (aChildNode))
+                aRuleConsumer.accept (_createMediaRule (aChildNode, true));
               else
-                if (ECSSNodeType.MEDIARULE.isNode (aChildNode))
-                  ret.addRule (_createMediaRule (aChildNode, true));
+                if (ECSSNodeType.FONTFACERULE.isNode (aChildNode))
+                  aRuleConsumer.accept (_createFontFaceRule (aChildNode));
                 else
-                  if (ECSSNodeType.FONTFACERULE.isNode (aChildNode))
-                    ret.addRule (_createFontFaceRule (aChildNode));
+                  if (ECSSNodeType.LAYERRULE.isNode (aChildNode))
+                    aRuleConsumer.accept (_createLayerRule (aChildNode, true));
                   else
-                    if (ECSSNodeType.LAYERRULE.isNode (aChildNode))
-                      ret.addRule (_createLayerRule (aChildNode, true));
+                    if (ECSSNodeType.KEYFRAMESRULE.isNode (aChildNode))
+                      aRuleConsumer.accept (_createKeyframesRule (aChildNode));
                     else
-                      if (ECSSNodeType.KEYFRAMESRULE.isNode (aChildNode))
-                        ret.addRule (_createKeyframesRule (aChildNode));
+                      if (ECSSNodeType.VIEWPORTRULE.isNode (aChildNode))
+                        aRuleConsumer.accept (_createViewportRule (aChildNode));
                       else
-                        if (ECSSNodeType.VIEWPORTRULE.isNode (aChildNode))
-                          ret.addRule (_createViewportRule (aChildNode));
+                        if (ECSSNodeType.SUPPORTSRULE.isNode (aChildNode))
+                          aRuleConsumer.accept (_createSupportsRule (aChildNode, true));
                         else
-                          if (ECSSNodeType.SUPPORTSRULE.isNode (aChildNode))
-                            ret.addRule (_createSupportsRule (aChildNode, true));
+                          if (ECSSNodeType.PROPERTYRULE.isNode (aChildNode))
+                            aRuleConsumer.accept (_createPropertyRule (aChildNode));
                           else
-                            if (ECSSNodeType.PROPERTYRULE.isNode (aChildNode))
-                              ret.addRule (_createPropertyRule (aChildNode));
+                            if (ECSSNodeType.UNKNOWNRULE.isNode (aChildNode))
+                            {
+                              // Unknown rule indicates either
+                              // 1. a parsing error
+                              // 2. a non-standard rule
+                              aRuleConsumer.accept (_createUnknownRule (aChildNode));
+                            }
                             else
-                              if (ECSSNodeType.UNKNOWNRULE.isNode (aChildNode))
+                              if (ECSSNodeType.ROOT.isNode (aChildNode))
                               {
-                                // Unknown rule indicates either
-                                // 1. a parsing error
-                                // 2. a non-standard rule
-                                ret.addRule (_createUnknownRule (aChildNode));
+                                /*
+                                 * In case a parsing error occurs (as e.g. happening in issue #41)
+                                 * and browser compliant mode is enabled, some CSS code is skipped
+                                 * and a retry happens. This retry will be a recursive stylesheet
+                                 * object that is a child of the previous stylesheet but "flattened"
+                                 * for the result object.
+                                 */
+                                for (final CSSNode aGrandChildNode : aChildNode)
+                                  _readTopLevelNode (aChildNode,
+                                                     aGrandChildNode,
+                                                     aImportRuleConsumer,
+                                                     aNamespaceRuleConsumer,
+                                                     aRuleConsumer);
                               }
                               else
-                                if (ECSSNodeType.ROOT.isNode (aChildNode))
-                                {
-                                  /*
-                                   * In case a parsing error occurs (as e.g. happening in issue #41)
-                                   * and browser compliant mode is enabled, some CSS code is skipped
-                                   * and a retry happens. This retry will be a recursive stylesheet
-                                   * object that is a child of the previous stylesheet but
-                                   * "flattened" for the result object.
-                                   */
-                                  _recursiveFillCascadingStyleSheetFromNode (aChildNode, ret);
-                                }
-                                else
-                                  m_aErrorHandler.onCSSInterpretationError ("Unsupported child of " +
-                                                                            ECSSNodeType.getNodeName (aNode) +
-                                                                            ": " +
-                                                                            ECSSNodeType.getNodeName (aChildNode));
+                                m_aErrorHandler.onCSSInterpretationError ("Unsupported child of " +
+                                                                          ECSSNodeType.getNodeName (aParentNode) +
+                                                                          ": " +
+                                                                          ECSSNodeType.getNodeName (aChildNode));
+  }
+
+  private void _recursiveFillCascadingStyleSheetFromNode (@NonNull final CSSNode aNode,
+                                                          @NonNull final CascadingStyleSheet ret)
+  {
+    _expectNodeType (aNode, ECSSNodeType.ROOT);
+    if (m_bUseSourceLocation)
+      ret.setSourceLocation (aNode.getSourceLocation ());
+    for (final CSSNode aChildNode : aNode)
+    {
+      if (ECSSNodeType.ROOT.isNode (aChildNode))
+      {
+        // Retry after a parsing error in browser compliant mode
+        _recursiveFillCascadingStyleSheetFromNode (aChildNode, ret);
+      }
+      else
+        _readTopLevelNode (aNode, aChildNode, ret::addImportRule, ret::addNamespaceRule, ret::addRule);
     }
   }
 
@@ -1687,4 +1894,27 @@ final class CSSNodeToDomainObject
     _readStyleDeclarationList (aNode, ret::addDeclaration);
     return ret;
   }
+
+  /**
+   * Convert a single top-level node of a style sheet (as detached by
+   * {@link com.helger.css.parser.ParserCSS30#setTopLevelNodeConsumer(Consumer)}) and pass the
+   * result to the matching consumer. Nested root nodes are flattened.
+   *
+   * @param aNode
+   *        The top-level node. May not be <code>null</code>.
+   * @param aImportRuleConsumer
+   *        The consumer for <code>@import</code> rules. May not be <code>null</code>.
+   * @param aNamespaceRuleConsumer
+   *        The consumer for <code>@namespace</code> rules. May not be <code>null</code>.
+   * @param aRuleConsumer
+   *        The consumer for all other top-level rules. May not be <code>null</code>.
+   */
+  public void readTopLevelNode (@NonNull final CSSNode aNode,
+                                @NonNull final Consumer <? super CSSImportRule> aImportRuleConsumer,
+                                @NonNull final Consumer <? super CSSNamespaceRule> aNamespaceRuleConsumer,
+                                @NonNull final Consumer <? super ICSSTopLevelRule> aRuleConsumer)
+  {
+    // Root is the only valid parent of a top-level node
+    _readTopLevelNode (aNode, aNode, aImportRuleConsumer, aNamespaceRuleConsumer, aRuleConsumer);
+  }
 }
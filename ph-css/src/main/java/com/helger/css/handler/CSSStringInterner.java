@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.handler;
+
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.css.ECSSUnit;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.propertyvalue.CCSSValue;
+import com.helger.css.utils.ECSSColor;
+
+/**
+ * A bounded table of canonical instances of the short strings that occur over and over in style
+ * sheets, like property names, keywords, units and class names. It is used when converting the
+ * parsed nodes to domain objects, so that all equal identifiers share a single {@link String}
+ * object. This reduces the retained heap of large style sheets and allows for identity
+ * comparisons.<br>
+ * The names of all {@link ECSSProperty}, {@link ECSSUnit} and {@link ECSSColor} values and the most
+ * common keywords are always contained. All other strings are kept in a fixed size table where a
+ * new string replaces an existing string with the same slot, so the memory usage never grows.
+ * Strings are immutable, so the table can be accessed by multiple threads without
+ * synchronization. In the worst case an equal string is not shared.<br>
+ * This class is only used internally.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+final class CSSStringInterner
+{
+  /** Longer strings are never interned */
+  static final int MAX_LENGTH = 64;
+
+  // Must be a power of 2
+  private static final int TABLE_SIZE = 4096;
+
+  // Never modified after class initialization
+  private static final ICommonsMap <String, String> PREDEFINED = new CommonsHashMap <> ();
+  private static final String [] TABLE = new String [TABLE_SIZE];
+
+  static
+  {
+    for (final ECSSProperty e : ECSSProperty.values ())
+      PREDEFINED.put (e.getName (), e.getName ());
+    for (final ECSSUnit e : ECSSUnit.values ())
+      PREDEFINED.put (e.getName (), e.getName ());
+    for (final ECSSColor e : ECSSColor.values ())
+      PREDEFINED.put (e.getName (), e.getName ());
+    for (final String s : new String [] { CCSSValue.INHERIT,
+                                          CCSSValue.INITIAL,
+                                          CCSSValue.UNSET,
+                                          CCSSValue.NONE,
+                                          CCSSValue.AUTO,
+                                          CCSSValue.NORMAL,
+                                          CCSSValue.BOLD,
+                                          CCSSValue.BLOCK,
+                                          CCSSValue.INLINE,
+                                          CCSSValue.INLINE_BLOCK,
+                                          CCSSValue.FLEX,
+                                          CCSSValue.HIDDEN,
+                                          CCSSValue.VISIBLE,
+                                          CCSSValue.SOLID,
+                                          CCSSValue.TRANSPARENT,
+                                          CCSSValue.CURRENTCOLOR,
+                                          CCSSValue.RELATIVE,
+                                          CCSSValue.ABSOLUTE,
+                                          CCSSValue.FIXED,
+                                          CCSSValue.CENTER,
+                                          CCSSValue.LEFT,
+                                          CCSSValue.RIGHT,
+                                          CCSSValue.TOP,
+                                          CCSSValue.BOTTOM,
+                                          CCSSValue.POINTER,
+                                          CCSSValue.NOWRAP,
+                                          CCSSValue.UNDERLINE,
+                                          CCSSValue.ITALIC,
+                                          CCSSValue.BORDER_BOX,
+                                          CCSSValue.COVER,
+                                          CCSSValue.NO_REPEAT,
+                                          "0",
+                                          "1" })
+      PREDEFINED.put (s, s);
+  }
+
+  @PresentForCodeCoverage
+  private static final CSSStringInterner INSTANCE = new CSSStringInterner ();
+
+  private CSSStringInterner ()
+  {}
+
+  /**
+   * Get the canonical instance of the passed string.
+   *
+   * @param s
+   *        The string to intern. May be <code>null</code>.
+   * @return The canonical instance of an equal string, or the passed string itself if no equal
+   *         string is known or if the string is longer than {@link #MAX_LENGTH} chars.
+   */
+  @Nullable
+  static String intern (@Nullable final String s)
+  {
+    if (s == null || s.length () > MAX_LENGTH)
+      return s;
+
+    final String sPredefined = PREDEFINED.get (s);
+    if (sPredefined != null)
+      return sPredefined;
+
+    final int nHash = s.hashCode ();
+    final int nIndex = (nHash ^ (nHash >>> 16)) & (TABLE_SIZE - 1);
+    final String sExisting = TABLE[nIndex];
+    if (s.equals (sExisting))
+      return sExisting;
+    TABLE[nIndex] = s;
+    return s;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * This class is only used internally as the source for the generated parsers. <br>
+ * An implementation of interface {@link CharStream}, that incrementally decodes the bytes of a
+ * {@link ByteBuffer} (e.g. a memory mapped file) directly into the token buffer, without any
+ * intermediate {@link java.io.InputStream} or {@link java.io.Reader}.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public final class CSSByteBufferCharStream extends AbstractCSSCharStream
+{
+  private ByteBuffer m_aBB;
+  private final CharsetDecoder m_aDecoder;
+  private boolean m_bInputDone = false;
+  private boolean m_bFlushed = false;
+  // Used if the destination has no room for a surrogate pair
+  private final CharBuffer m_aSpill = CharBuffer.allocate (2);
+
+  /**
+   * Constructor
+   *
+   * @param aBB
+   *        The byte buffer to read from. It is read from the current position to the limit. May not
+   *        be <code>null</code>.
+   * @param aCharset
+   *        The charset to decode the bytes with. May not be <code>null</code>.
+   */
+  public CSSByteBufferCharStream (@NonNull final ByteBuffer aBB, @NonNull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aBB, "ByteBuffer");
+    ValueEnforcer.notNull (aCharset, "Charset");
+    m_aBB = aBB;
+    // Same behaviour as an InputStreamReader
+    m_aDecoder = aCharset.newDecoder ()
+                         .onMalformedInput (CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter (CodingErrorAction.REPLACE);
+    m_aSpill.flip ();
+  }
+
+  private void _decode (@NonNull final CharBuffer aCB) throws IOException
+  {
+    if (!m_bInputDone)
+    {
+      final CoderResult aRes = m_aDecoder.decode (m_aBB, aCB, true);
+      if (aRes.isError ())
+        aRes.throwException ();
+      // With "endOfInput" set, underflow means all bytes were consumed
+      if (aRes.isUnderflow ())
+        m_bInputDone = true;
+    }
+    if (m_bInputDone && m_aDecoder.flush (aCB).isUnderflow ())
+    {
+      m_bFlushed = true;
+      // Release the reference to the buffer as early as possible
+      m_aBB = null;
+    }
+  }
+
+  @Override
+  protected int readChars (@NonNull final char [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    if (m_aSpill.hasRemaining ())
+    {
+      aBuf[nOfs] = m_aSpill.get ();
+      return 1;
+    }
+    if (m_bFlushed)
+      return -1;
+
+    final CharBuffer aCB = CharBuffer.wrap (aBuf, nOfs, nLen);
+    _decode (aCB);
+    int ret = aCB.position () - nOfs;
+    if (ret == 0 && !m_bFlushed)
+    {
+      // No room for a surrogate pair
+      m_aSpill.clear ();
+      _decode (m_aSpill);
+      m_aSpill.flip ();
+      if (m_aSpill.hasRemaining ())
+      {
+        aBuf[nOfs] = m_aSpill.get ();
+        ret = 1;
+      }
+    }
+    return ret == 0 && m_bFlushed ? -1 : ret;
+  }
+
+  @Override
+  public void done ()
+  {
+    super.done ();
+    m_aBB = null;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * This class is only used internally as the source for the generated parsers. <br>
+ * An implementation of interface {@link CharStream}, that decodes a sequence of byte chunks (e.g.
+ * the results of subsequent channel reads) directly into the token buffer. The next chunk is only
+ * requested when all previous bytes were decoded, so parsing can start as soon as the first chunk
+ * is available. Multi-byte sequences may span chunk boundaries.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public final class CSSByteChunkCharStream extends AbstractCSSCharStream
+{
+  // Enough for the incomplete trailing sequence of all supported charsets
+  private static final int CARRY_SIZE = 16;
+
+  /**
+   * The source of the byte chunks.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IByteChunkSupplier
+  {
+    /**
+     * Get the next chunk of bytes. This method may block until the next chunk is available. The
+     * stream no longer accesses the previously returned buffer once this method is called again, so
+     * it may be reused by the implementation.
+     *
+     * @return The next chunk of bytes, to be read from position to limit, or <code>null</code> if
+     *         the end of the input was reached.
+     * @throws IOException
+     *         in case reading fails
+     */
+    @Nullable
+    ByteBuffer getNextChunk () throws IOException;
+  }
+
+  private final CharsetDecoder m_aDecoder;
+  private IByteChunkSupplier m_aSupplier;
+  private ByteBuffer m_aBytes;
+  private boolean m_bEndOfInput = false;
+  private boolean m_bInputDone = false;
+  private boolean m_bFlushed = false;
+  // Own buffer for the bytes of a multi-byte sequence spanning a chunk boundary
+  private ByteBuffer m_aCarry;
+  // The rest of the chunk, that provided the last bytes for the carry buffer
+  private ByteBuffer m_aPending;
+  // Used if the destination has no room for a surrogate pair
+  private final CharBuffer m_aSpill = CharBuffer.allocate (2);
+
+  /**
+   * Constructor
+   *
+   * @param aFirstChunk
+   *        The first chunk of bytes, to be read from position to limit. May not be
+   *        <code>null</code>.
+   * @param aSupplier
+   *        The supplier for all further chunks. May be <code>null</code> if the first chunk already
+   *        contains the complete input.
+   * @param aCharset
+   *        The charset to decode the bytes with. May not be <code>null</code>.
+   */
+  public CSSByteChunkCharStream (@NonNull final ByteBuffer aFirstChunk,
+                                 @Nullable final IByteChunkSupplier aSupplier,
+                                 @NonNull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aFirstChunk, "FirstChunk");
+    ValueEnforcer.notNull (aCharset, "Charset");
+    m_aBytes = aFirstChunk;
+    m_aSupplier = aSupplier;
+    m_bEndOfInput = aSupplier == null;
+    // Same behaviour as an InputStreamReader
+    m_aDecoder = aCharset.newDecoder ()
+                         .onMalformedInput (CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter (CodingErrorAction.REPLACE);
+    m_aSpill.flip ();
+  }
+
+  private void _nextChunk () throws IOException
+  {
+    // Save the bytes of an incomplete multi-byte sequence, before the supplier may reuse its buffer
+    final int nLeft = m_aBytes.remaining ();
+    if (m_aBytes == m_aCarry)
+      m_aCarry.compact ();
+    else
+    {
+      if (m_aCarry == null || m_aCarry.capacity () < nLeft)
+        m_aCarry = ByteBuffer.allocate (Math.max (nLeft, CARRY_SIZE));
+      m_aCarry.clear ();
+      m_aCarry.put (m_aBytes);
+    }
+
+    ByteBuffer aNext = m_aPending;
+    m_aPending = null;
+    if (aNext == null)
+      aNext = m_aSupplier.getNextChunk ();
+
+    if (aNext == null)
+    {
+      m_bEndOfInput = true;
+      m_aSupplier = null;
+      m_aCarry.flip ();
+      m_aBytes = m_aCarry;
+    }
+    else
+      if (nLeft > 0)
+      {
+        // Complete the multi-byte sequence in the own buffer and continue with the rest afterwards
+        while (m_aCarry.hasRemaining () && aNext.hasRemaining ())
+          m_aCarry.put (aNext.get ());
+        m_aCarry.flip ();
+        m_aBytes = m_aCarry;
+        if (aNext.hasRemaining ())
+          m_aPending = aNext;
+      }
+      else
+        m_aBytes = aNext;
+  }
+
+  private void _decode (@NonNull final CharBuffer aCB, final int nOfs) throws IOException
+  {
+    while (!m_bInputDone)
+    {
+      final CoderResult aRes = m_aDecoder.decode (m_aBytes, aCB, m_bEndOfInput);
+      if (aRes.isError ())
+        aRes.throwException ();
+      if (aRes.isOverflow ())
+      {
+        // Destination is full
+        return;
+      }
+
+      // Underflow - all available bytes were consumed
+      if (m_bEndOfInput)
+        m_bInputDone = true;
+      else
+      {
+        // Return what is there before waiting for the next chunk
+        if (aCB.position () > nOfs)
+          return;
+        _nextChunk ();
+      }
+    }
+    if (!m_bFlushed && m_aDecoder.flush (aCB).isUnderflow ())
+    {
+      m_bFlushed = true;
+      // Release the reference to the buffers as early as possible
+      m_aBytes = null;
+      m_aCarry = null;
+      m_aPending = null;
+    }
+  }
+
+  @Override
+  protected int readChars (@NonNull final char [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    if (m_aSpill.hasRemaining ())
+    {
+      aBuf[nOfs] = m_aSpill.get ();
+      return 1;
+    }
+    if (m_bFlushed)
+      return -1;
+
+    final CharBuffer aCB = CharBuffer.wrap (aBuf, nOfs, nLen);
+    _decode (aCB, nOfs);
+    int ret = aCB.position () - nOfs;
+    if (ret == 0 && !m_bFlushed)
+    {
+      // No room for a surrogate pair
+      m_aSpill.clear ();
+      _decode (m_aSpill, 0);
+      m_aSpill.flip ();
+      if (m_aSpill.hasRemaining ())
+      {
+        aBuf[nOfs] = m_aSpill.get ();
+        ret = 1;
+      }
+    }
+    return ret == 0 && m_bFlushed ? -1 : ret;
+  }
+
+  @Override
+  public void done ()
+  {
+    super.done ();
+    m_aBytes = null;
+    m_aCarry = null;
+    m_aPending = null;
+    m_aSupplier = null;
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * This class is only used internally as the source for the generated parsers. <br>
+ * An implementation of interface {@link CharStream}, that directly indexes a {@link CharSequence}
+ * without copying it. {@link #backup(int)} is simple index arithmetic. Line and column numbers are
+ * not stored per character but are computed lazily from a table of line start offsets that is
+ * filled while the positions are requested.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public final class CSSCharSequenceCharStream implements CharStream
+{
+  private static final int INITIAL_LINE_TABLE_SIZE = 64;
+
+  private CharSequence m_aCS;
+  private final int m_nLength;
+  private final int m_nLineBefore;
+  private final int m_nColumnBefore;
+  /** Index of the last read char */
+  private int m_nPos = -1;
+  private int m_nTokenBegin = 0;
+
+  private int m_nTabSize = 8;
+  private boolean m_bTrackLineColumn = true;
+
+  // The position from which all line/column calculations start
+  private int m_nBaseOffset = -1;
+  private int m_nBaseLine = 1;
+  private int m_nBaseColumn = 0;
+
+  // Offsets of all line starts after the base line that were found so far
+  private int [] m_aLineStarts = new int [INITIAL_LINE_TABLE_SIZE];
+  private int m_nLineStartCount = 0;
+
+  // The last calculated position
+  private int m_nCurOffset = -1;
+  private int m_nCurLine = 1;
+  private int m_nCurColumn = 0;
+
+  public CSSCharSequenceCharStream (@NonNull final CharSequence aCS)
+  {
+    this (aCS, 1, 0);
+  }
+
+  /**
+   * Constructor for a char sequence that is only a part of a larger source, so that the reported
+   * positions are relative to the larger source.
+   *
+   * @param aCS
+   *        The char sequence to read. May not be <code>null</code>.
+   * @param nLineBefore
+   *        The line number of the char right before the first char of the sequence. Must be &gt; 0.
+   * @param nColumnBefore
+   *        The column number of the char right before the first char of the sequence. That char
+   *        may not be a line break. 0 if the sequence starts at the beginning of a line.
+   * @since 8.2.2
+   */
+  public CSSCharSequenceCharStream (@NonNull final CharSequence aCS,
+                                    @Nonnegative final int nLineBefore,
+                                    @Nonnegative final int nColumnBefore)
+  {
+    ValueEnforcer.notNull (aCS, "CharSequence");
+    ValueEnforcer.isGT0 (nLineBefore, "LineBefore");
+    ValueEnforcer.isGE0 (nColumnBefore, "ColumnBefore");
+    m_aCS = aCS;
+    m_nLength = aCS.length ();
+    m_nLineBefore = nLineBefore;
+    m_nColumnBefore = nColumnBefore;
+    m_nBaseLine = nLineBefore;
+    m_nBaseColumn = nColumnBefore;
+    m_nCurLine = nLineBefore;
+    m_nCurColumn = nColumnBefore;
+  }
+
+  /**
+   * @return The char sequence that is read. <code>null</code> after {@link #done()} was called.
+   * @since 8.2.2
+   */
+  @Nullable
+  public CharSequence getCharSequence ()
+  {
+    return m_aCS;
+  }
+
+  /**
+   * @return The line number of the char right before the first char of the sequence, as passed in
+   *         the constructor.
+   * @since 8.2.2
+   */
+  @Nonnegative
+  public int getLineBefore ()
+  {
+    return m_nLineBefore;
+  }
+
+  /**
+   * @return The column number of the char right before the first char of the sequence, as passed
+   *         in the constructor.
+   * @since 8.2.2
+   */
+  @Nonnegative
+  public int getColumnBefore ()
+  {
+    return m_nColumnBefore;
+  }
+
+  public int getTabSize ()
+  {
+    return m_nTabSize;
+  }
+
+  public void setTabSize (final int nTabSize)
+  {
+    m_nTabSize = nTabSize;
+  }
+
+  private void _addLineStart (final int nOffset)
+  {
+    if (m_nLineStartCount > 0 && m_aLineStarts[m_nLineStartCount - 1] >= nOffset)
+    {
+      // Already known
+      return;
+    }
+    if (m_nLineStartCount == m_aLineStarts.length)
+      m_aLineStarts = Arrays.copyOf (m_aLineStarts, m_nLineStartCount * 2);
+    m_aLineStarts[m_nLineStartCount++] = nOffset;
+  }
+
+  private void _moveCursorTo (final int nOffset)
+  {
+    if (nOffset < m_nCurOffset)
+    {
+      // Go back to the start of the line containing the offset
+      final int nIndex = Arrays.binarySearch (m_aLineStarts, 0, m_nLineStartCount, nOffset);
+      final int nLineIndex = nIndex >= 0 ? nIndex : -nIndex - 2;
+      if (nLineIndex >= 0)
+      {
+        // Position on the newline char before the line start
+        m_nCurOffset = m_aLineStarts[nLineIndex] - 1;
+        m_nCurLine = m_nBaseLine + nLineIndex;
+        m_nCurColumn = 0;
+      }
+      else
+      {
+        m_nCurOffset = m_nBaseOffset;
+        m_nCurLine = m_nBaseLine;
+        m_nCurColumn = m_nBaseColumn;
+      }
+    }
+
+    // Same logic as in AbstractCSSCharStream
+    while (m_nCurOffset < nOffset)
+    {
+      final int nNext = m_nCurOffset + 1;
+      if (m_nCurOffset >= 0)
+      {
+        final char cPrev = m_aCS.charAt (m_nCurOffset);
+        if (cPrev == '\n' || (cPrev == '\r' && m_aCS.charAt (nNext) != '\n'))
+        {
+          m_nCurLine++;
+          m_nCurColumn = 0;
+          _addLineStart (nNext);
+        }
+      }
+
+      if (m_aCS.charAt (nNext) == '\t')
+        m_nCurColumn += m_nTabSize - (m_nCurColumn % m_nTabSize);
+      else
+        m_nCurColumn++;
+      m_nCurOffset = nNext;
+    }
+  }
+
+  private void _positionAt (final int nOffset)
+  {
+    // Positions after the last char (EOF) are reported as the last char
+    _moveCursorTo (Math.max (Math.min (nOffset, m_nLength - 1), m_nBaseOffset));
+  }
+
+  public char beginToken () throws IOException
+  {
+    m_nTokenBegin = m_nPos + 1;
+    return readChar ();
+  }
+
+  public char readChar () throws IOException
+  {
+    if (m_nPos + 1 >= m_nLength)
+      throw new IOException ("EOF in CharSequence");
+    return m_aCS.charAt (++m_nPos);
+  }
+
+  /** @return column of token start */
+  public int getBeginColumn ()
+  {
+    if (!m_bTrackLineColumn)
+      return 0;
+    _positionAt (m_nTokenBegin);
+    return m_nCurColumn;
+  }
+
+  /** @return line number of token start */
+  public int getBeginLine ()
+  {
+    if (!m_bTrackLineColumn)
+      return 0;
+    _positionAt (m_nTokenBegin);
+    return m_nCurLine;
+  }
+
+  /** @return end column. */
+  public int getEndColumn ()
+  {
+    if (!m_bTrackLineColumn)
+      return 0;
+    _positionAt (m_nPos);
+    return m_nCurColumn;
+  }
+
+  /** @return end line. */
+  public int getEndLine ()
+  {
+    if (!m_bTrackLineColumn)
+      return 0;
+    _positionAt (m_nPos);
+    return m_nCurLine;
+  }
+
+  /** Retreat. */
+  public void backup (final int nAmount)
+  {
+    m_nPos -= nAmount;
+  }
+
+  /** @return token image as String */
+  public String getImage ()
+  {
+    if (m_nTokenBegin > m_nPos)
+      return "";
+    return m_aCS.subSequence (m_nTokenBegin, m_nPos + 1).toString ();
+  }
+
+  /** @return suffix */
+  public char [] getSuffix (final int len)
+  {
+    final char [] ret = new char [len];
+    final int nStart = m_nPos - len + 1;
+    for (int i = 0; i < len; ++i)
+      ret[i] = m_aCS.charAt (nStart + i);
+    return ret;
+  }
+
+  /** Set buffers back to null when finished. */
+  public void done ()
+  {
+    m_aCS = null;
+    m_aLineStarts = null;
+  }
+
+  /**
+   * Method to adjust line and column numbers for the start of a token.
+   *
+   * @param nNewLine
+   *        line index
+   * @param nNewCol
+   *        column index
+   */
+  public void adjustBeginLineColumn (final int nNewLine, final int nNewCol)
+  {
+    // Restart all calculations from the token start
+    m_nBaseOffset = m_nTokenBegin;
+    m_nBaseLine = nNewLine;
+    m_nBaseColumn = nNewCol;
+    m_nLineStartCount = 0;
+    m_nCurOffset = m_nBaseOffset;
+    m_nCurLine = m_nBaseLine;
+    m_nCurColumn = m_nBaseColumn;
+  }
+
+  public boolean isTrackLineColumn ()
+  {
+    return m_bTrackLineColumn;
+  }
+
+  public void setTrackLineColumn (final boolean bTrackLineColumn)
+  {
+    m_bTrackLineColumn = bTrackLineColumn;
+  }
+}
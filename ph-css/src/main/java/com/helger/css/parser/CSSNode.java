@@ -17,6 +17,7 @@
 package com.helger.css.parser;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -25,9 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.base.tostring.ToStringGenerator;
-import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsIterable;
-import com.helger.collection.commons.ICommonsList;
 import com.helger.css.CSSSourceArea;
 import com.helger.css.CSSSourceLocation;
 import com.helger.typeconvert.trait.IGetterDirectTrait;
@@ -41,14 +40,58 @@ import com.helger.typeconvert.trait.IGetterDirectTrait;
 public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectTrait
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (CSSNode.class);
+  private static final long NO_POSITION = -1L;
+
+  /**
+   * Iterator over all non-<code>null</code> elements of a child array, without copying it.
+   */
+  private static final class ChildIterator implements Iterator <CSSNode>
+  {
+    private final CSSNode [] m_aChildren;
+    private int m_nIndex;
+
+    ChildIterator (@Nullable final CSSNode [] aChildren)
+    {
+      m_aChildren = aChildren;
+      m_nIndex = _skipNull (0);
+    }
+
+    private int _skipNull (final int nIndex)
+    {
+      int ret = nIndex;
+      if (m_aChildren != null)
+        while (ret < m_aChildren.length && m_aChildren[ret] == null)
+          ret++;
+      return ret;
+    }
+
+    public boolean hasNext ()
+    {
+      return m_aChildren != null && m_nIndex < m_aChildren.length;
+    }
+
+    @NonNull
+    public CSSNode next ()
+    {
+      if (!hasNext ())
+        throw new NoSuchElementException ();
+      final CSSNode ret = m_aChildren[m_nIndex];
+      m_nIndex = _skipNull (m_nIndex + 1);
+      return ret;
+    }
+  }
 
   private final int m_nType;
   private CSSNode m_aParent;
   private CSSNode [] m_aChildren;
   private transient Object m_aValue;
   private String m_sText;
-  private Token m_aFirstToken;
-  private Token m_aLastToken;
+  private StringBuilder m_aTextBuilder;
+  // Line and column packed in a single long
+  private long m_nFirstTokenBegin = NO_POSITION;
+  private long m_nFirstTokenEnd = NO_POSITION;
+  private long m_nLastTokenBegin = NO_POSITION;
+  private long m_nLastTokenEnd = NO_POSITION;
 
   public CSSNode (final int nType)
   {
@@ -64,7 +107,14 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
   {}
 
   public void jjtClose ()
-  {}
+  {
+    // Finish building the text, so that reading a node never modifies it
+    if (m_aTextBuilder != null)
+    {
+      m_sText = m_aTextBuilder.toString ();
+      m_aTextBuilder = null;
+    }
+  }
 
   public void jjtSetParent (@Nullable final Node aNode)
   {
@@ -108,26 +158,189 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
 
   // The following 4 methods are required for JJTree option TRACK_TOKENS=true
 
+  private static long _pack (final int nLine, final int nColumn)
+  {
+    return ((long) nLine << 32) | (nColumn & 0xffffffffL);
+  }
+
+  private static int _line (final long nPacked)
+  {
+    return (int) (nPacked >>> 32);
+  }
+
+  private static int _column (final long nPacked)
+  {
+    return (int) nPacked;
+  }
+
+  @Nullable
+  private static Token _createPositionToken (final long nBegin, final long nEnd)
+  {
+    if (nBegin == NO_POSITION)
+      return null;
+    final Token ret = new Token ();
+    ret.beginLine = _line (nBegin);
+    ret.beginColumn = _column (nBegin);
+    ret.endLine = _line (nEnd);
+    ret.endColumn = _column (nEnd);
+    return ret;
+  }
+
+  @Nullable
+  private static CSSSourceArea _createSourceArea (final long nBegin, final long nEnd)
+  {
+    if (nBegin == NO_POSITION)
+      return null;
+    return new CSSSourceArea (_line (nBegin), _column (nBegin), _line (nEnd), _column (nEnd));
+  }
+
+  /**
+   * Only the position of the first token is stored, and not the token itself, because a token
+   * references all following tokens.
+   *
+   * @return A new token that only contains the begin and end position of the first token, or
+   *         <code>null</code> if no first token was set. Kind, image and the references to other
+   *         tokens are not set.
+   * @deprecated Since 8.2.2 only the positions of the token are available. Use
+   *             {@link #getFirstTokenBeginLine()}, {@link #getFirstTokenBeginColumn()},
+   *             {@link #getFirstTokenEndLine()} and {@link #getFirstTokenEndColumn()} instead.
+   */
+  @Deprecated (forRemoval = false, since = "8.2.2")
   @Nullable
   public Token jjtGetFirstToken ()
   {
-    return m_aFirstToken;
+    return _createPositionToken (m_nFirstTokenBegin, m_nFirstTokenEnd);
   }
 
   public void jjtSetFirstToken (@NonNull final Token aFirstToken)
   {
-    m_aFirstToken = aFirstToken;
+    m_nFirstTokenBegin = _pack (aFirstToken.beginLine, aFirstToken.beginColumn);
+    m_nFirstTokenEnd = _pack (aFirstToken.endLine, aFirstToken.endColumn);
   }
 
+  /**
+   * Only the position of the last token is stored, and not the token itself, because a token
+   * references all following tokens.
+   *
+   * @return A new token that only contains the begin and end position of the last token, or
+   *         <code>null</code> if no last token was set. Kind, image and the references to other
+   *         tokens are not set.
+   * @deprecated Since 8.2.2 only the positions of the token are available. Use
+   *             {@link #getLastTokenBeginLine()}, {@link #getLastTokenBeginColumn()},
+   *             {@link #getLastTokenEndLine()} and {@link #getLastTokenEndColumn()} instead.
+   */
+  @Deprecated (forRemoval = false, since = "8.2.2")
   @Nullable
   public Token jjtGetLastToken ()
   {
-    return m_aLastToken;
+    return _createPositionToken (m_nLastTokenBegin, m_nLastTokenEnd);
   }
 
   public void jjtSetLastToken (@NonNull final Token aLastToken)
   {
-    m_aLastToken = aLastToken;
+    m_nLastTokenBegin = _pack (aLastToken.beginLine, aLastToken.beginColumn);
+    m_nLastTokenEnd = _pack (aLastToken.endLine, aLastToken.endColumn);
+  }
+
+  /**
+   * @return <code>true</code> if the position of the first token is present.
+   * @since 8.2.2
+   */
+  public boolean hasFirstToken ()
+  {
+    return m_nFirstTokenBegin != NO_POSITION;
+  }
+
+  /**
+   * @return The line number of the begin of the first token, or -1 if no first token is present.
+   * @since 8.2.2
+   */
+  public int getFirstTokenBeginLine ()
+  {
+    return _line (m_nFirstTokenBegin);
+  }
+
+  /**
+   * @return The column number of the begin of the first token, or -1 if no first token is present.
+   * @since 8.2.2
+   */
+  public int getFirstTokenBeginColumn ()
+  {
+    return _column (m_nFirstTokenBegin);
+  }
+
+  /**
+   * @return The line number of the end of the first token, or -1 if no first token is present.
+   * @since 8.2.2
+   */
+  public int getFirstTokenEndLine ()
+  {
+    return _line (m_nFirstTokenEnd);
+  }
+
+  /**
+   * @return The column number of the end of the first token, or -1 if no first token is present.
+   * @since 8.2.2
+   */
+  public int getFirstTokenEndColumn ()
+  {
+    return _column (m_nFirstTokenEnd);
+  }
+
+  /**
+   * @return <code>true</code> if the position of the last token is present.
+   * @since 8.2.2
+   */
+  public boolean hasLastToken ()
+  {
+    return m_nLastTokenBegin != NO_POSITION;
+  }
+
+  /**
+   * @return The line number of the begin of the last token, or -1 if no last token is present.
+   * @since 8.2.2
+   */
+  public int getLastTokenBeginLine ()
+  {
+    return _line (m_nLastTokenBegin);
+  }
+
+  /**
+   * @return The column number of the begin of the last token, or -1 if no last token is present.
+   * @since 8.2.2
+   */
+  public int getLastTokenBeginColumn ()
+  {
+    return _column (m_nLastTokenBegin);
+  }
+
+  /**
+   * @return The line number of the end of the last token, or -1 if no last token is present.
+   * @since 8.2.2
+   */
+  public int getLastTokenEndLine ()
+  {
+    return _line (m_nLastTokenEnd);
+  }
+
+  /**
+   * @return The column number of the end of the last token, or -1 if no last token is present.
+   * @since 8.2.2
+   */
+  public int getLastTokenEndColumn ()
+  {
+    return _column (m_nLastTokenEnd);
+  }
+
+  /**
+   * Detach this node from its parent node. Use this, if a node is kept after parsing, because
+   * otherwise it keeps the complete tree alive.
+   *
+   * @since 8.2.2
+   */
+  public void detach ()
+  {
+    m_aParent = null;
   }
 
   public void setValue (@Nullable final Object aValue)
@@ -144,25 +357,41 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
   public void setText (@Nullable final String sText)
   {
     m_sText = sText;
+    m_aTextBuilder = null;
   }
 
   public void appendText (@NonNull final String sText)
   {
-    if (m_sText == null)
-      m_sText = sText;
+    if (m_aTextBuilder != null)
+      m_aTextBuilder.append (sText);
     else
-      m_sText += sText;
+      if (m_sText == null)
+        m_sText = sText;
+      else
+      {
+        // Switch to a builder for all further appends
+        m_aTextBuilder = new StringBuilder (m_sText.length () + sText.length () + 16).append (m_sText)
+                                                                                      .append (sText);
+        m_sText = null;
+      }
   }
 
+  /**
+   * @return The text of this node. May be <code>null</code>. This never modifies the node, so
+   *         completely parsed nodes can be read from multiple threads.
+   */
   @Nullable
   public String getText ()
   {
+    // Only if text was appended after the node was closed
+    if (m_aTextBuilder != null)
+      return m_aTextBuilder.toString ();
     return m_sText;
   }
 
   public boolean isNotEmpty ()
   {
-    return m_sText != null;
+    return m_sText != null || m_aTextBuilder != null;
   }
 
   public int getNodeType ()
@@ -170,15 +399,13 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
     return getId ();
   }
 
+  /**
+   * @return An iterator over all non-<code>null</code> children. The children are not copied.
+   */
   @NonNull
   public Iterator <CSSNode> iterator ()
   {
-    final ICommonsList <CSSNode> aChildren = new CommonsArrayList <> (jjtGetNumChildren ());
-    if (m_aChildren != null)
-      for (final CSSNode aChildNode : m_aChildren)
-        if (aChildNode != null)
-          aChildren.add (aChildNode);
-    return aChildren.iterator ();
+    return new ChildIterator (m_aChildren);
   }
 
   /**
@@ -188,14 +415,8 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
   @Nullable
   public CSSSourceLocation getSourceLocation ()
   {
-    final CSSSourceArea aFirstTokenArea = m_aFirstToken == null ? null : new CSSSourceArea (m_aFirstToken.beginLine,
-                                                                                            m_aFirstToken.beginColumn,
-                                                                                            m_aFirstToken.endLine,
-                                                                                            m_aFirstToken.endColumn);
-    final CSSSourceArea aLastTokenArea = m_aLastToken == null ? null : new CSSSourceArea (m_aLastToken.beginLine,
-                                                                                          m_aLastToken.beginColumn,
-                                                                                          m_aLastToken.endLine,
-                                                                                          m_aLastToken.endColumn);
+    final CSSSourceArea aFirstTokenArea = _createSourceArea (m_nFirstTokenBegin, m_nFirstTokenEnd);
+    final CSSSourceArea aLastTokenArea = _createSourceArea (m_nLastTokenBegin, m_nLastTokenEnd);
     if (aFirstTokenArea == null && aLastTokenArea == null)
       return null;
     return new CSSSourceLocation (aFirstTokenArea, aLastTokenArea);
@@ -217,10 +438,9 @@ public class CSSNode implements Node, ICommonsIterable <CSSNode>, IGetterDirectT
                                        .appendIfNotNull ("parentType",
                                                          m_aParent == null ? null : Integer.valueOf (m_aParent.m_nType))
                                        .appendIfNotNull ("value", m_aValue)
-                                       .appendIfNotNull ("text", m_sText)
+                                       .appendIfNotNull ("text", getText ())
                                        .append ("children#", m_aChildren == null ? 0 : m_aChildren.length)
-                                       .appendIfNotNull ("firstToken", m_aFirstToken)
-                                       .appendIfNotNull ("lastToken", m_aLastToken)
+                                       .appendIfNotNull ("sourceLocation", getSourceLocation ())
                                        .getToString ();
   }
 }
@@ -16,19 +16,15 @@
  */
 package com.helger.css.parser;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
-import com.helger.annotation.RegEx;
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.style.PresentForCodeCoverage;
 import com.helger.base.string.StringHelper;
-import com.helger.cache.regex.RegExCache;
 import com.helger.css.CCSS;
 import com.helger.css.propertyvalue.CCSSValue;
+import com.helger.css.utils.CSSNumberScanner;
 
 /**
  * This class is used by the generated parsers to do some common stuff.
@@ -41,14 +37,6 @@ public final class CSSParseHelper
   /** The character used to quote elements in CSS URLs */
   public static final char URL_ESCAPE_CHAR = '\\';
 
-  /**
-   * Order of the rules in brackets is important!<br>
-   * The parts "([eE][+-]?[0-9]+)?" were added for #79, #82
-   */
-  @RegEx
-  private static final String SPLIT_NUMBER_REGEX = "^([0-9]*\\.[0-9]+([eE][+-]?[0-9]+)?|[0-9]+([eE][+-]?[0-9]+)?).*$";
-  private static final Pattern SPLIT_NUMBER_PATTERN = RegExCache.getPattern (SPLIT_NUMBER_REGEX);
-
   private static final char [] HEXA_CHARS_UPPER = "0123456789ABCDEF".toCharArray ();
   private static final char [] HEXA_CHARS_LOWER = "0123456789abcdef".toCharArray ();
 
@@ -284,11 +272,9 @@ public final class CSSParseHelper
   @NonNull
   public static String splitNumber (@NonNull final StringBuilder aPattern)
   {
-    // Find the longest matching number within the pattern
-    final Matcher m = SPLIT_NUMBER_PATTERN.matcher (aPattern);
-    if (m.matches ())
-      return m.group (1);
-    return "";
+    // Find the longest matching number at the start of the pattern. The exponent was added for
+    // #79, #82
+    return aPattern.substring (0, CSSNumberScanner.getNumberEnd (aPattern, 0, aPattern.length ()));
   }
 
   /**
@@ -0,0 +1,3436 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringCount;
+
+/**
+ * This class is only used internally as an alternative to the generated parser. It is a
+ * hand-written recursive-descent parser for exactly the grammar of <code>ParserCSS30.jjt</code> and
+ * creates the same {@link CSSNode} tree (node types, texts and source positions), so that the
+ * regular conversion to the domain model can be used unchanged.<br>
+ * Compared to the generated parser the differences are purely internal:
+ * <ul>
+ * <li>The tokens are created by a hand-written token manager that only compares case-insensitive
+ * where CSS requires it.</li>
+ * <li>Syntax errors are not thrown but stored and passed up via the <code>boolean</code> return
+ * values of the productions. The recovery rules of the grammar (including browser compliant mode)
+ * are applied at the same places, so no exception is created for control flow - only the
+ * {@link ParseException} objects that are passed to the error handler.</li>
+ * <li>Recovery on the top level is a loop instead of a recursion.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public final class CSSRecursiveDescentParser extends AbstractParserCSS implements
+                                             ParserCSS30Constants,
+                                             ParserCSS30TreeConstants
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSRecursiveDescentParser.class);
+
+  private static final int LOOKAHEAD_UNLIMITED = Integer.MAX_VALUE;
+
+  private static boolean [] _kinds (@NonNull final int... aKinds)
+  {
+    final boolean [] ret = new boolean [tokenImage.length];
+    for (final int nKind : aKinds)
+      ret[nKind] = true;
+    return ret;
+  }
+
+  private static boolean [] _union (@NonNull final boolean []... aSets)
+  {
+    final boolean [] ret = new boolean [tokenImage.length];
+    for (final boolean [] aSet : aSets)
+      for (int i = 0; i < ret.length; ++i)
+        ret[i] |= aSet[i];
+    return ret;
+  }
+
+  // The FIRST sets of the grammar, indexed by token kind
+  private static final boolean [] K_SEPARATOR = _kinds (S, CDO, CDC);
+  private static final boolean [] K_SELECTOR = _kinds (IDENT,
+                                                       ASTERISK,
+                                                       DASH,
+                                                       HASH,
+                                                       DOT,
+                                                       LSQUARE,
+                                                       AMPERSAND,
+                                                       COLON,
+                                                       FUNCTION_NOT,
+                                                       PERCENTAGE);
+  private static final boolean [] K_MEMBER = _kinds (HASH, DOT, LSQUARE, AMPERSAND, COLON, FUNCTION_NOT);
+  private static final boolean [] K_COMBINATOR = _kinds (S, PLUS, GREATER, TILDE);
+  private static final boolean [] K_STYLE_RULE = _union (K_SELECTOR, K_COMBINATOR);
+  private static final boolean [] K_SIMPLE_SELECTOR_LIST = _union (K_SELECTOR, _kinds (S));
+  private static final boolean [] K_ANY_IDENTIFIER = _kinds (IDENT,
+                                                             INHERIT,
+                                                             AND_SYM,
+                                                             NOT_SYM,
+                                                             ONLY_SYM,
+                                                             FROM_SYM,
+                                                             TO_SYM,
+                                                             OR_SYM);
+  private static final boolean [] K_EXPR = _union (K_ANY_IDENTIFIER,
+                                                   _kinds (PLUS,
+                                                           MINUS,
+                                                           NUMBER,
+                                                           PERCENTAGE,
+                                                           DIMENSION,
+                                                           STRING1,
+                                                           STRING2,
+                                                           URL,
+                                                           HASH,
+                                                           FUNCTION,
+                                                           FUNCTION_EXPRESSION,
+                                                           FUNCTION_CALC,
+                                                           URANGE,
+                                                           LSQUARE));
+  private static final boolean [] K_EXPR_CONTINUATION = _union (K_EXPR, _kinds (S, SLASH, COMMA, EQUALS));
+  private static final boolean [] K_ATTRIB_OPERATOR = _kinds (EQUALS,
+                                                              INCLUDES,
+                                                              DASHMATCH,
+                                                              PREFIXMATCH,
+                                                              SUBFIXMATCH,
+                                                              SUBSTRINGMATCH);
+  private static final boolean [] K_DECLARATION = _kinds (IDENT, ASTERISK, DOLLAR);
+  private static final boolean [] K_MEDIA_QUERY = _kinds (ONLY_SYM, NOT_SYM, IDENT, LROUND);
+  private static final boolean [] K_MARGIN_SYMBOL = _kinds (TOPLEFTCORNER_SYM,
+                                                            TOPLEFT_SYM,
+                                                            TOPCENTER_SYM,
+                                                            TOPRIGHT_SYM,
+                                                            TOPRIGHTCORNER_SYM,
+                                                            BOTTOMLEFTCORNER_SYM,
+                                                            BOTTOMLEFT_SYM,
+                                                            BOTTOMCENTER_SYM,
+                                                            BOTTOMRIGHT_SYM,
+                                                            BOTTOMRIGHTCORNER_SYM,
+                                                            LEFTTOP_SYM,
+                                                            LEFTMIDDLE_SYM,
+                                                            LEFTBOTTOM_SYM,
+                                                            RIGHTTOP_SYM,
+                                                            RIGHTMIDDLE_SYM,
+                                                            RIGHTBOTTOM_SYM,
+                                                            FOOTNOTE_SYM);
+  private static final boolean [] K_UNKNOWN_RULE = _union (K_MARGIN_SYMBOL, _kinds (AT_UNKNOWN));
+  private static final boolean [] K_AT_RULE = _union (K_UNKNOWN_RULE,
+                                                      _kinds (MEDIA_SYM,
+                                                              PAGE_SYM,
+                                                              LAYER_SYM,
+                                                              FONTFACE_SYM,
+                                                              KEYFRAMES_SYM,
+                                                              VIEWPORT_SYM,
+                                                              SUPPORTS_SYM,
+                                                              PROPERTY_SYM,
+                                                              CHARSET_SYM,
+                                                              IMPORT_SYM,
+                                                              NAMESPACE_SYM));
+  private static final boolean [] K_ANY_RULE = _union (K_STYLE_RULE, K_AT_RULE);
+  private static final boolean [] K_RULE_SET_ENTRY = _union (K_DECLARATION, K_AT_RULE);
+  private static final boolean [] K_NESTED_ENTRY = _union (K_DECLARATION, K_ANY_RULE, _kinds (SEMICOLON));
+  private static final boolean [] K_LAYER_RULE = _union (K_STYLE_RULE,
+                                                         _kinds (LAYER_SYM,
+                                                                 MEDIA_SYM,
+                                                                 SUPPORTS_SYM,
+                                                                 KEYFRAMES_SYM,
+                                                                 FONTFACE_SYM,
+                                                                 CHARSET_SYM,
+                                                                 IMPORT_SYM,
+                                                                 NAMESPACE_SYM,
+                                                                 PROPERTY_SYM));
+  private static final boolean [] K_KEYFRAME_SELECTOR = _kinds (FROM_SYM, TO_SYM, PERCENTAGE);
+  private static final boolean [] K_PROPERTY_DESCRIPTOR = _kinds (SYNTAX_SYM, INHERITS_SYM, INITIALVALUE_SYM);
+  private static final boolean [] K_PROPERTY_RULE_ENTRY = _union (K_PROPERTY_DESCRIPTOR, K_DECLARATION);
+  private static final boolean [] K_PROPERTY_SIMPLE_EXPR = _kinds (STRING1, STRING2, TRUE_SYM, FALSE_SYM);
+
+  // The rules that are reported as unexpected in a certain context
+  private static final boolean [] K_UNEXPECTED_TOP_LEVEL = _kinds (CHARSET_SYM, IMPORT_SYM, NAMESPACE_SYM);
+  private static final boolean [] K_UNEXPECTED_NESTED = _kinds (PAGE_SYM,
+                                                                FONTFACE_SYM,
+                                                                KEYFRAMES_SYM,
+                                                                VIEWPORT_SYM,
+                                                                PROPERTY_SYM,
+                                                                CHARSET_SYM,
+                                                                IMPORT_SYM,
+                                                                NAMESPACE_SYM);
+  private static final boolean [] K_UNEXPECTED_MEDIA_OR_LAYER = _kinds (CHARSET_SYM,
+                                                                        IMPORT_SYM,
+                                                                        NAMESPACE_SYM,
+                                                                        PROPERTY_SYM);
+  private static final boolean [] K_UNEXPECTED_SUPPORTS = _kinds (CHARSET_SYM,
+                                                                  IMPORT_SYM,
+                                                                  NAMESPACE_SYM,
+                                                                  PROPERTY_SYM,
+                                                                  VIEWPORT_SYM);
+
+  private final CSSRecursiveDescentTokenManager m_aTokenManager;
+  private Consumer <CSSNode> m_aTopLevelNodeConsumer;
+
+  // The last consumed token - all following tokens that were already read are
+  // linked via "next"
+  private Token m_aToken;
+  // The pending error of the last failed production
+  private ParseException m_aError;
+
+  // The node stack
+  private CSSNode [] m_aNodes = new CSSNode [64];
+  private int m_nNodeCount;
+  private int [] m_aMarks = new int [64];
+  private int m_nMarkCount;
+  private int m_nMark;
+
+  // The state of the syntactic lookahead
+  private Token m_aScanPos;
+  private Token m_aLastPos;
+  private int m_nLookahead;
+  private boolean m_bLookaheadDone;
+
+  /**
+   * Constructor
+   *
+   * @param aCharStream
+   *        The char stream to read from. May not be <code>null</code>.
+   */
+  public CSSRecursiveDescentParser (@NonNull final CharStream aCharStream)
+  {
+    ValueEnforcer.notNull (aCharStream, "CharStream");
+    m_aTokenManager = new CSSRecursiveDescentTokenManager (aCharStream);
+    m_aToken = new Token ();
+  }
+
+  /**
+   * Start parsing a new char stream with this parser. All state of the previous parse, including
+   * the error handler and the top-level node consumer, is discarded. This is the equivalent of
+   * <code>ReInit</code> of the generated parser.
+   *
+   * @param aCharStream
+   *        The char stream to read from. May not be <code>null</code>.
+   */
+  public void reInit (@NonNull final CharStream aCharStream)
+  {
+    m_aTokenManager.reInit (aCharStream);
+    m_aTopLevelNodeConsumer = null;
+    setCustomErrorHandler (null);
+    m_aToken = new Token ();
+    m_aError = null;
+    Arrays.fill (m_aNodes, null);
+    m_nNodeCount = 0;
+    m_nMarkCount = 0;
+    m_nMark = 0;
+    m_aScanPos = null;
+    m_aLastPos = null;
+    m_nLookahead = 0;
+    m_bLookaheadDone = false;
+  }
+
+  /**
+   * Set a consumer that receives each node on the top level of a style sheet as soon as it is
+   * completely parsed. The nodes are removed from the tree and are therefore not part of the
+   * result of {@link #styleSheet()}. This is the equivalent of the same method of the generated
+   * parser.
+   *
+   * @param aTopLevelNodeConsumer
+   *        The consumer to use. May be <code>null</code> to keep all nodes in the tree.
+   */
+  public void setTopLevelNodeConsumer (@Nullable final Consumer <CSSNode> aTopLevelNodeConsumer)
+  {
+    m_aTopLevelNodeConsumer = aTopLevelNodeConsumer;
+  }
+
+  // Token handling
+
+  @NonNull
+  private Token _getToken (final int nIndex)
+  {
+    Token t = m_aToken;
+    for (int i = 0; i < nIndex; i++)
+    {
+      if (t.next == null)
+        t.next = m_aTokenManager.getNextToken ();
+      t = t.next;
+    }
+    return t;
+  }
+
+  private int _kind ()
+  {
+    Token t = m_aToken.next;
+    if (t == null)
+      t = m_aToken.next = m_aTokenManager.getNextToken ();
+    return t.kind;
+  }
+
+  @NonNull
+  private Token _nextToken ()
+  {
+    if (m_aToken.next == null)
+      m_aToken.next = m_aTokenManager.getNextToken ();
+    m_aToken = m_aToken.next;
+    return m_aToken;
+  }
+
+  private boolean _fail (@NonNull final ParseException ex)
+  {
+    m_aError = ex;
+    return false;
+  }
+
+  @NonNull
+  private ParseException _takeError ()
+  {
+    final ParseException ret = m_aError;
+    m_aError = null;
+    return ret;
+  }
+
+  /**
+   * The next token is not one of the expected ones.
+   *
+   * @return Always <code>false</code>
+   */
+  private boolean _unexpected (@NonNull final int... aExpectedKinds)
+  {
+    // Make sure the offending token is part of the chain
+    _kind ();
+    final int [] [] aExpected = new int [aExpectedKinds.length] [];
+    for (int i = 0; i < aExpectedKinds.length; ++i)
+      aExpected[i] = new int [] { aExpectedKinds[i] };
+    return _fail (new ParseException (m_aToken, aExpected, tokenImage, m_aTokenManager.getLexicalStateName ()));
+  }
+
+  private boolean _consume (final int nKind)
+  {
+    if (_kind () != nKind)
+      return _unexpected (nKind);
+    _nextToken ();
+    return true;
+  }
+
+  // ( <S> )*
+  private void _skipSpaces ()
+  {
+    while (_kind () == S)
+      _nextToken ();
+  }
+
+  // ( <S> )+
+  private boolean _spaces ()
+  {
+    if (!_consume (S))
+      return false;
+    _skipSpaces ();
+    return true;
+  }
+
+  // ( <S> | <CDO> | <CDC> )*
+  private void _skipSeparators ()
+  {
+    while (K_SEPARATOR[_kind ()])
+      _nextToken ();
+  }
+
+  // Node handling - identical to the JJTree node scopes
+
+  @NonNull
+  private CSSNode _open (final int nNodeType)
+  {
+    final CSSNode ret = new CSSNode (nNodeType);
+    if (m_nMarkCount == m_aMarks.length)
+    {
+      final int [] aNewMarks = new int [m_aMarks.length * 2];
+      System.arraycopy (m_aMarks, 0, aNewMarks, 0, m_nMarkCount);
+      m_aMarks = aNewMarks;
+    }
+    m_aMarks[m_nMarkCount++] = m_nMark;
+    m_nMark = m_nNodeCount;
+    ret.jjtOpen ();
+    ret.jjtSetFirstToken (_getToken (1));
+    return ret;
+  }
+
+  private void _pushNode (@NonNull final CSSNode aNode)
+  {
+    if (m_nNodeCount == m_aNodes.length)
+    {
+      final CSSNode [] aNewNodes = new CSSNode [m_aNodes.length * 2];
+      System.arraycopy (m_aNodes, 0, aNewNodes, 0, m_nNodeCount);
+      m_aNodes = aNewNodes;
+    }
+    m_aNodes[m_nNodeCount++] = aNode;
+  }
+
+  @NonNull
+  private CSSNode _popNode ()
+  {
+    final CSSNode ret = m_aNodes[--m_nNodeCount];
+    m_aNodes[m_nNodeCount] = null;
+    return ret;
+  }
+
+  /**
+   * Close the scope of the provided node: all nodes created since it was opened become its
+   * children.
+   *
+   * @return Always <code>true</code>
+   */
+  private boolean _close (@NonNull final CSSNode aNode)
+  {
+    int nArity = m_nNodeCount - m_nMark;
+    m_nMark = m_aMarks[--m_nMarkCount];
+    while (nArity-- > 0)
+    {
+      final CSSNode aChild = _popNode ();
+      aChild.jjtSetParent (aNode);
+      aNode.jjtAddChild (aChild, nArity);
+    }
+    aNode.jjtClose ();
+    _pushNode (aNode);
+    aNode.jjtSetLastToken (m_aToken);
+    return true;
+  }
+
+  /**
+   * Discard the scope of the provided node after an error.
+   *
+   * @return Always <code>false</code>
+   */
+  private boolean _abort (@NonNull final CSSNode aNode)
+  {
+    while (m_nNodeCount > m_nMark)
+      _popNode ();
+    m_nMark = m_aMarks[--m_nMarkCount];
+    return false;
+  }
+
+  private void _onTopLevelRuleEnd ()
+  {
+    if (m_aTopLevelNodeConsumer != null)
+    {
+      // Detach all completed nodes of the current root scope in their original
+      // order
+      final int nArity = m_nNodeCount - m_nMark;
+      final CSSNode [] aNodes = new CSSNode [nArity];
+      for (int i = nArity - 1; i >= 0; --i)
+        aNodes[i] = _popNode ();
+      for (final CSSNode aNode : aNodes)
+        m_aTopLevelNodeConsumer.accept (aNode);
+    }
+  }
+
+  // Syntactic lookahead - same semantics as the generated "jj_2_*" and
+  // "jj_3R_*" methods, but without throwing an exception on success
+
+  private void _beginScan (final int nLimit)
+  {
+    m_nLookahead = nLimit;
+    m_aLastPos = m_aScanPos = m_aToken;
+    m_bLookaheadDone = false;
+  }
+
+  private boolean _endScan (final boolean bFailed)
+  {
+    return m_bLookaheadDone || !bFailed;
+  }
+
+  /**
+   * @return <code>true</code> if the scan failed
+   */
+  private boolean _scanToken (final int nKind)
+  {
+    if (m_bLookaheadDone)
+      return false;
+    if (m_aScanPos == m_aLastPos)
+    {
+      m_nLookahead--;
+      if (m_aScanPos.next == null)
+        m_aScanPos.next = m_aTokenManager.getNextToken ();
+      m_aLastPos = m_aScanPos = m_aScanPos.next;
+    }
+    else
+      m_aScanPos = m_aScanPos.next;
+    if (m_aScanPos.kind != nKind)
+      return true;
+    if (m_nLookahead == 0 && m_aScanPos == m_aLastPos)
+      m_bLookaheadDone = true;
+    return false;
+  }
+
+  private boolean _scanAnyToken (@NonNull final boolean [] aKinds)
+  {
+    if (m_bLookaheadDone)
+      return false;
+    if (m_aScanPos == m_aLastPos)
+    {
+      m_nLookahead--;
+      if (m_aScanPos.next == null)
+        m_aScanPos.next = m_aTokenManager.getNextToken ();
+      m_aLastPos = m_aScanPos = m_aScanPos.next;
+    }
+    else
+      m_aScanPos = m_aScanPos.next;
+    if (!aKinds[m_aScanPos.kind])
+      return true;
+    if (m_nLookahead == 0 && m_aScanPos == m_aLastPos)
+      m_bLookaheadDone = true;
+    return false;
+  }
+
+  // A JAVACODE production ends a scan successfully
+  private boolean _scanJavaCode ()
+  {
+    m_nLookahead = 0;
+    m_aScanPos = m_aLastPos;
+    return false;
+  }
+
+  // ( <S> )*
+  private void _scanSpaces ()
+  {
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanToken (S))
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+  }
+
+  // ( <S> )* kind
+  private boolean _scanSpacesThen (final int nKind)
+  {
+    _scanSpaces ();
+    return _scanToken (nKind);
+  }
+
+  private static final boolean [] K_UNARY_OPERATOR = _kinds (MINUS, PLUS);
+  private static final boolean [] K_NUMERIC = _kinds (NUMBER, PERCENTAGE, DIMENSION);
+  private static final boolean [] K_STRING = _kinds (STRING1, STRING2);
+  private static final boolean [] K_ELEMENT_NAME = _kinds (IDENT, ASTERISK);
+  private static final boolean [] K_DEPRECATED_PREFIX = _kinds (ASTERISK, DOLLAR);
+  private static final boolean [] K_EXPR_OPERATOR = _kinds (SLASH, COMMA, EQUALS);
+  private static final boolean [] K_CALC_PRODUCT_OPERATOR = _kinds (ASTERISK, SLASH);
+  private static final boolean [] K_CALC_VALUE_TOKEN = _kinds (NUMBER, PERCENTAGE, DIMENSION, IDENT);
+  private static final boolean [] K_ATTRIB_VALUE = _kinds (IDENT, STRING1, STRING2);
+  private static final boolean [] K_END_OF_BLOCK = _kinds (RBRACE, EOF);
+  private static final boolean [] K_SUPPORTS_OPERATOR = _kinds (AND_SYM, OR_SYM);
+
+  // ( X )? where X is a single token out of a set
+  private void _scanOptional (@NonNull final boolean [] aKinds)
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanAnyToken (aKinds))
+      m_aScanPos = aSave;
+  }
+
+  // selectorCombinator()
+  private boolean _scanSelectorCombinator ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanSpacesThen (PLUS))
+    {
+      m_aScanPos = aSave;
+      if (_scanSpacesThen (GREATER))
+      {
+        m_aScanPos = aSave;
+        if (_scanSpacesThen (TILDE))
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (S))
+            return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // namespacePrefix()
+  private boolean _scanNamespacePrefix ()
+  {
+    _scanOptional (K_ELEMENT_NAME);
+    return _scanToken (DASH);
+  }
+
+  // typeSelector()
+  private boolean _scanTypeSelector ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanNamespacePrefix ())
+      m_aScanPos = aSave;
+    return _scanAnyToken (K_ELEMENT_NAME);
+  }
+
+  // attributeSelector()
+  private boolean _scanAttributeSelector ()
+  {
+    if (_scanToken (LSQUARE))
+      return true;
+    _scanSpaces ();
+    Token aSave = m_aScanPos;
+    if (_scanNamespacePrefix ())
+      m_aScanPos = aSave;
+    if (_scanToken (IDENT))
+      return true;
+    aSave = m_aScanPos;
+    if (_scanToken (ASTERISK))
+      m_aScanPos = aSave;
+    _scanSpaces ();
+    aSave = m_aScanPos;
+    if (_scanAnyToken (K_ATTRIB_OPERATOR) || _scanAttributeValueAndCase ())
+      m_aScanPos = aSave;
+    _scanSpaces ();
+    return _scanToken (RSQUARE);
+  }
+
+  // The rest of the optional part of attributeSelector() after the operator
+  private boolean _scanAttributeValueAndCase ()
+  {
+    _scanSpaces ();
+    if (_scanAnyToken (K_ATTRIB_VALUE))
+      return true;
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanToken (IDENT))
+      m_aScanPos = aSave;
+    return false;
+  }
+
+  // The first alternative of pseudoNth()
+  private boolean _scanPseudoNthA ()
+  {
+    _scanOptional (K_UNARY_OPERATOR);
+    _scanOptional (_kinds (INTEGER));
+    if (_scanToken (N))
+      return true;
+    final Token aSave = m_aScanPos;
+    if (_scanPseudoNthOffset ())
+      m_aScanPos = aSave;
+    return false;
+  }
+
+  // ( <S> )* unaryOperator() ( <S> )* <INTEGER>
+  private boolean _scanPseudoNthOffset ()
+  {
+    _scanSpaces ();
+    if (_scanAnyToken (K_UNARY_OPERATOR))
+      return true;
+    _scanSpaces ();
+    return _scanToken (INTEGER);
+  }
+
+  // The second alternative of pseudoNth()
+  private boolean _scanPseudoNthB ()
+  {
+    _scanOptional (K_UNARY_OPERATOR);
+    return _scanToken (INTEGER);
+  }
+
+  // pseudoNth()
+  private boolean _scanPseudoNth ()
+  {
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanPseudoNthA ())
+    {
+      m_aScanPos = aSave;
+      if (_scanPseudoNthB ())
+      {
+        m_aScanPos = aSave;
+        if (_scanToken (EVEN))
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (ODD))
+            return true;
+        }
+      }
+    }
+    _scanSpaces ();
+    return false;
+  }
+
+  // pseudoHost(), pseudoHostContext() and pseudoSlotted()
+  private boolean _scanPseudoHost ()
+  {
+    _scanSpaces ();
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanSimpleSelectorSequence ())
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+      _scanSpaces ();
+    }
+    return false;
+  }
+
+  // relativeSelector()
+  private boolean _scanRelativeSelector ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanSelectorCombinator ())
+      m_aScanPos = aSave;
+    else
+      _scanSpaces ();
+    return _scanSelector ();
+  }
+
+  // relativeSelectorList() if bRelative is true, simpleSelectorList()
+  // otherwise
+  private boolean _scanSelectorList (final boolean bRelative)
+  {
+    _scanSpaces ();
+    if (bRelative ? _scanRelativeSelector () : _scanSelector ())
+      return true;
+    _scanSpaces ();
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanToken (COMMA))
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+      _scanSpaces ();
+      if (bRelative ? _scanRelativeSelector () : _scanSelector ())
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+      _scanSpaces ();
+    }
+    return false;
+  }
+
+  // pseudoHas(), pseudoIs() and pseudoWhere()
+  private boolean _scanSelectorLists (final boolean bRelative)
+  {
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanSelectorList (bRelative))
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+    return false;
+  }
+
+  // pseudoClassSelector()
+  private boolean _scanPseudoClassSelector ()
+  {
+    if (_scanToken (COLON))
+      return true;
+    _scanOptional (_kinds (COLON));
+    final Token aSave = m_aScanPos;
+    if (_scanToken (FUNCTION_NTH) || _scanPseudoNth () || _scanToken (RROUND))
+    {
+      m_aScanPos = aSave;
+      if (_scanToken (FUNCTION_HOST) || _scanPseudoHost () || _scanToken (RROUND))
+      {
+        m_aScanPos = aSave;
+        if (_scanToken (FUNCTION_HOSTCONTEXT) || _scanPseudoHost () || _scanToken (RROUND))
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (FUNCTION_SLOTTED) || _scanPseudoHost () || _scanToken (RROUND))
+          {
+            m_aScanPos = aSave;
+            if (_scanToken (FUNCTION_HAS) || _scanSelectorLists (true) || _scanToken (RROUND))
+            {
+              m_aScanPos = aSave;
+              if (_scanToken (FUNCTION_IS) || _scanSelectorLists (false) || _scanToken (RROUND))
+              {
+                m_aScanPos = aSave;
+                if (_scanToken (FUNCTION_WHERE) || _scanSelectorLists (false) || _scanToken (RROUND))
+                {
+                  m_aScanPos = aSave;
+                  if (_scanFunctionWithArguments ())
+                  {
+                    m_aScanPos = aSave;
+                    if (_scanToken (IDENT))
+                      return true;
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  // <FUNCTION> ( <S> )* ( expr() )? <RROUND>
+  private boolean _scanFunctionWithArguments ()
+  {
+    if (_scanToken (FUNCTION))
+      return true;
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanExpr ())
+      m_aScanPos = aSave;
+    return _scanToken (RROUND);
+  }
+
+  // funcNot()
+  private boolean _scanFuncNot ()
+  {
+    if (_scanToken (FUNCTION_NOT))
+      return true;
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanSelector ())
+      m_aScanPos = aSave;
+    else
+    {
+      _scanSpaces ();
+      while (!m_bLookaheadDone)
+      {
+        final Token aSave2 = m_aScanPos;
+        if (_scanToken (COMMA))
+        {
+          m_aScanPos = aSave2;
+          break;
+        }
+        _scanSpaces ();
+        if (_scanSelector ())
+        {
+          m_aScanPos = aSave2;
+          break;
+        }
+        _scanSpaces ();
+      }
+    }
+    return _scanToken (RROUND);
+  }
+
+  // idSelector() | classSelector() | attributeSelector() | nestingSelector()
+  // | pseudoClassSelector() | funcNot()
+  private boolean _scanMember ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanToken (HASH))
+    {
+      m_aScanPos = aSave;
+      if (_scanToken (DOT) || _scanAnyToken (K_ANY_IDENTIFIER))
+      {
+        m_aScanPos = aSave;
+        if (_scanAttributeSelector ())
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (AMPERSAND))
+          {
+            m_aScanPos = aSave;
+            if (_scanPseudoClassSelector ())
+            {
+              m_aScanPos = aSave;
+              if (_scanFuncNot ())
+                return true;
+            }
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  // ( member )*
+  private void _scanMembers ()
+  {
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanMember ())
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+  }
+
+  // typeSelector() ( member )*
+  private boolean _scanTypeSelectorWithMembers ()
+  {
+    if (_scanTypeSelector ())
+      return true;
+    _scanMembers ();
+    return false;
+  }
+
+  // simpleSelectorSequence()
+  private boolean _scanSimpleSelectorSequence ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanTypeSelectorWithMembers ())
+    {
+      m_aScanPos = aSave;
+      if (_scanMember ())
+      {
+        m_aScanPos = aSave;
+        if (_scanToken (PERCENTAGE))
+          return true;
+      }
+      else
+        _scanMembers ();
+    }
+    return false;
+  }
+
+  // selectorCombinator() ( <S> )* simpleSelectorSequence()
+  private boolean _scanSelectorContinuation ()
+  {
+    if (_scanSelectorCombinator ())
+      return true;
+    _scanSpaces ();
+    return _scanSimpleSelectorSequence ();
+  }
+
+  // selector()
+  private boolean _scanSelector ()
+  {
+    if (_scanSimpleSelectorSequence ())
+      return true;
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanSelectorContinuation ())
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+    return false;
+  }
+
+  // function()
+  private boolean _scanFunction ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanFunctionWithArguments ())
+    {
+      m_aScanPos = aSave;
+      if (_scanToken (FUNCTION_EXPRESSION))
+        return true;
+      return _scanJavaCode ();
+    }
+    return false;
+  }
+
+  // calcValue()
+  private boolean _scanCalcValue ()
+  {
+    _scanOptional (K_UNARY_OPERATOR);
+    final Token aSave = m_aScanPos;
+    if (_scanAnyToken (K_CALC_VALUE_TOKEN))
+    {
+      m_aScanPos = aSave;
+      if (_scanFunction ())
+      {
+        m_aScanPos = aSave;
+        if (_scanCalc ())
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (LROUND))
+            return true;
+          _scanSpaces ();
+          if (_scanCalcSum ())
+            return true;
+          _scanSpaces ();
+          if (_scanToken (RROUND))
+            return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // ( <S> )* operator ( <S> )* calcValue()/calcProduct()
+  private boolean _scanCalcContinuation (final boolean bSum)
+  {
+    _scanSpaces ();
+    if (_scanAnyToken (bSum ? K_UNARY_OPERATOR : K_CALC_PRODUCT_OPERATOR))
+      return true;
+    _scanSpaces ();
+    return bSum ? _scanCalcProduct () : _scanCalcValue ();
+  }
+
+  // calcProduct()
+  private boolean _scanCalcProduct ()
+  {
+    if (_scanCalcValue ())
+      return true;
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanCalcContinuation (false))
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+    return false;
+  }
+
+  // calcSum()
+  private boolean _scanCalcSum ()
+  {
+    if (_scanCalcProduct ())
+      return true;
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanCalcContinuation (true))
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+    return false;
+  }
+
+  // calc()
+  private boolean _scanCalc ()
+  {
+    if (_scanToken (FUNCTION_CALC))
+      return true;
+    _scanSpaces ();
+    if (_scanCalcSum ())
+      return true;
+    _scanSpaces ();
+    return _scanToken (RROUND);
+  }
+
+  // ( <S> )* lineName()
+  private boolean _scanLineNameContinuation ()
+  {
+    return _scanSpacesThen (IDENT);
+  }
+
+  // lineNames()
+  private boolean _scanLineNames ()
+  {
+    if (_scanToken (LSQUARE))
+      return true;
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanToken (IDENT))
+      m_aScanPos = aSave;
+    else
+    {
+      while (!m_bLookaheadDone)
+      {
+        final Token aSave2 = m_aScanPos;
+        if (_scanLineNameContinuation ())
+        {
+          m_aScanPos = aSave2;
+          break;
+        }
+      }
+      _scanSpaces ();
+    }
+    return _scanToken (RSQUARE);
+  }
+
+  // exprTerm()
+  private boolean _scanExprTerm ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanNumericTerm ())
+    {
+      m_aScanPos = aSave;
+      if (_scanAnyToken (K_STRING))
+      {
+        m_aScanPos = aSave;
+        if (_scanAnyToken (K_ANY_IDENTIFIER))
+        {
+          m_aScanPos = aSave;
+          if (_scanToken (URL))
+          {
+            m_aScanPos = aSave;
+            if (_scanToken (HASH))
+            {
+              m_aScanPos = aSave;
+              if (_scanFunction ())
+              {
+                m_aScanPos = aSave;
+                if (_scanCalc ())
+                {
+                  m_aScanPos = aSave;
+                  if (_scanToken (URANGE))
+                  {
+                    m_aScanPos = aSave;
+                    if (_scanLineNames ())
+                      return true;
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    _scanSpaces ();
+    return false;
+  }
+
+  // ( unaryOperator() )? ( <NUMBER> | <PERCENTAGE> | dimension() )
+  private boolean _scanNumericTerm ()
+  {
+    _scanOptional (K_UNARY_OPERATOR);
+    return _scanAnyToken (K_NUMERIC);
+  }
+
+  // ( <S> )* ( exprOperator() ( <S> )* )? exprTerm()
+  private boolean _scanExprContinuation ()
+  {
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanAnyToken (K_EXPR_OPERATOR))
+      m_aScanPos = aSave;
+    else
+      _scanSpaces ();
+    return _scanExprTerm ();
+  }
+
+  // expr()
+  private boolean _scanExpr ()
+  {
+    if (_scanExprTerm ())
+      return true;
+    while (!m_bLookaheadDone)
+    {
+      final Token aSave = m_aScanPos;
+      if (_scanExprContinuation ())
+      {
+        m_aScanPos = aSave;
+        break;
+      }
+    }
+    return false;
+  }
+
+  // ( <ASTERISK> | <DOLLAR> ) <IDENT>
+  private boolean _scanDeprecatedProperty ()
+  {
+    if (_scanAnyToken (K_DEPRECATED_PREFIX))
+      return true;
+    return _scanToken (IDENT);
+  }
+
+  // property() <COLON>
+  private boolean _scanPropertyAndColon ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanToken (IDENT))
+    {
+      m_aScanPos = aSave;
+      if (_scanDeprecatedProperty ())
+        return true;
+    }
+    _scanSpaces ();
+    return _scanToken (COLON);
+  }
+
+  // ( <S> )* ( <RBRACE> | <EOF> )
+  private boolean _scanEndOfBlock ()
+  {
+    _scanSpaces ();
+    return _scanAnyToken (K_END_OF_BLOCK);
+  }
+
+  // <IDENT> ( <S> )* <COMMA> | <IDENT> ( <S> )* <SEMICOLON>
+  private boolean _scanLayerSelectorList ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanToken (IDENT) || _scanSpacesThen (COMMA))
+    {
+      m_aScanPos = aSave;
+      if (_scanToken (IDENT) || _scanSpacesThen (SEMICOLON))
+        return true;
+    }
+    return false;
+  }
+
+  // ( <S> )+ supportsConditionOperator() ( <S> )+ supportsConditionInParens()
+  private boolean _scanSupportsConditionContinuation ()
+  {
+    if (_scanToken (S))
+      return true;
+    _scanSpaces ();
+    if (_scanAnyToken (K_SUPPORTS_OPERATOR))
+      return true;
+    if (_scanToken (S))
+      return true;
+    _scanSpaces ();
+    return _scanSupportsConditionInParens ();
+  }
+
+  // styleDeclaration()
+  private boolean _scanStyleDeclaration ()
+  {
+    if (_scanPropertyAndColon ())
+      return true;
+    _scanSpaces ();
+    if (_scanExpr ())
+      return true;
+    final Token aSave = m_aScanPos;
+    if (_scanToken (IMPORTANT_SYM))
+      m_aScanPos = aSave;
+    else
+      _scanSpaces ();
+    return false;
+  }
+
+  // supportsConditionInParens()
+  private boolean _scanSupportsConditionInParens ()
+  {
+    if (_scanToken (LROUND))
+      return true;
+    _scanSpaces ();
+    final Token aSave = m_aScanPos;
+    if (_scanStyleDeclaration ())
+    {
+      m_aScanPos = aSave;
+      if (_scanSupportsCondition ())
+        return true;
+    }
+    return _scanToken (RROUND);
+  }
+
+  // supportsCondition()
+  private boolean _scanSupportsCondition ()
+  {
+    final Token aSave = m_aScanPos;
+    if (_scanToken (NOT_SYM) || _scanToken (S) || _scanSupportsConditionInParensAfterSpaces ())
+    {
+      m_aScanPos = aSave;
+      if (_scanSupportsConditionInParens ())
+        return true;
+      while (!m_bLookaheadDone)
+      {
+        final Token aSave2 = m_aScanPos;
+        if (_scanSupportsConditionContinuation ())
+        {
+          m_aScanPos = aSave2;
+          break;
+        }
+      }
+    }
+    _scanSpaces ();
+    return false;
+  }
+
+  // ( <S> )* supportsConditionInParens() - the rest of supportsNegation()
+  private boolean _scanSupportsConditionInParensAfterSpaces ()
+  {
+    _scanSpaces ();
+    return _scanSupportsConditionInParens ();
+  }
+
+  // Error handling and skipping - identical to the JAVACODE productions
+
+  private boolean _errorDeprecatedProperty (@NonNull final Token aPrefixToken)
+  {
+    if (m_bBrowserCompliantMode)
+    {
+      if (m_aCustomErrorHandler != null)
+      {
+        try
+        {
+          m_aCustomErrorHandler.onCSSDeprecatedProperty (aPrefixToken, m_aToken);
+        }
+        catch (final ParseException ex)
+        {
+          return _fail (ex);
+        }
+      }
+      else
+        LOGGER.warn ("[" +
+                     aPrefixToken.beginLine +
+                     ":" +
+                     aPrefixToken.beginColumn +
+                     "] Deprecated property name '" +
+                     aPrefixToken.image +
+                     m_aToken.image +
+                     "'");
+      return true;
+    }
+    return _fail (new ParseException (aPrefixToken,
+                                      new int [] [] { new int [] { IDENT } },
+                                      tokenImage,
+                                      m_aTokenManager.getLexicalStateName ()));
+  }
+
+  private boolean _errorUnexpectedRule (@NonNull final String sRule, @NonNull final String sMsg)
+  {
+    if (m_aCustomErrorHandler != null)
+    {
+      try
+      {
+        m_aCustomErrorHandler.onCSSUnexpectedRule (m_aToken, sRule, sMsg);
+      }
+      catch (final ParseException ex)
+      {
+        return _fail (ex);
+      }
+    }
+    else
+      LOGGER.warn ("[" + m_aToken.beginLine + ":" + m_aToken.beginColumn + "] Unexpected rule '" + sRule + "': " + sMsg);
+    return true;
+  }
+
+  // Creates an error node
+  private boolean _errorSkipTo (@NonNull final ParseException ex, final int nKind)
+  {
+    final CSSNode aNode = _open (JJTERRORSKIPTO);
+    Token aToken;
+    do
+    {
+      aToken = _nextToken ();
+      if (aToken.kind == EOF)
+      {
+        // Encountered EOF while skipping - use the original exception!
+        _fail (ex);
+        return _abort (aNode);
+      }
+    } while (aToken.kind != nKind);
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Skipped until token " + aToken.toString ());
+
+    if (m_aCustomErrorHandler != null)
+    {
+      try
+      {
+        m_aCustomErrorHandler.onCSSParseError (ex, aToken);
+      }
+      catch (final ParseException ex2)
+      {
+        _fail (ex2);
+        return _abort (aNode);
+      }
+    }
+    else
+      LOGGER.warn ("CSS recoverable parse error", ex);
+    return _close (aNode);
+  }
+
+  /**
+   * Skip to matching closing ')'
+   *
+   * @return all the string that was skipped or <code>null</code> on EOF.
+   */
+  @Nullable
+  private String _javaSkipToClosingParantheses ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    int nNesting = 1;
+    while (true)
+    {
+      final Token aToken = _nextToken ();
+      aSB.append (aToken.image);
+      if (aToken.kind == LROUND)
+        nNesting++;
+      else
+        if (aToken.kind == RROUND)
+        {
+          nNesting--;
+          // Use <= to handle unbalanced brackets
+          if (nNesting <= 0)
+            break;
+        }
+        else
+        {
+          if (aToken.kind == EOF)
+          {
+            _fail (new ParseEOFException ("EOF while searching for matching closing ')'."));
+            return null;
+          }
+          // Sometimes token images contain parenthesis
+          nNesting += StringCount.getCharCount (aToken.image, '(');
+          nNesting -= StringCount.getCharCount (aToken.image, ')');
+        }
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Skip to next opening '{'
+   *
+   * @return all the string that was skipped or <code>null</code> on EOF.
+   */
+  @Nullable
+  private String _javaSkipToOpeningBrace ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    while (true)
+    {
+      final Token aToken = _nextToken ();
+      if (aToken.kind == EOF)
+      {
+        _fail (new ParseEOFException ("EOF while searching for opening '{'."));
+        return null;
+      }
+      if (aToken.kind == LBRACE)
+        break;
+      aSB.append (aToken.image);
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Skip to matching closing '}' or optionally the next ';' on the same level
+   *
+   * @param nInitialNesting
+   *        Initial nesting level (0 or 1).
+   * @param bStopAtSemicolon
+   *        <code>true</code> to also stop at a ';' on nesting level 1
+   * @return all the string that was skipped or <code>null</code> on EOF.
+   */
+  @Nullable
+  private String _javaSkipToClosingBrace (final int nInitialNesting, final boolean bStopAtSemicolon)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    int nNesting = nInitialNesting;
+    while (true)
+    {
+      final Token aToken = _nextToken ();
+      if (aToken.kind == LBRACE)
+        nNesting++;
+      else
+        if (aToken.kind == RBRACE)
+        {
+          nNesting--;
+          // Use <= to handle unbalanced brackets
+          if (nNesting <= 0)
+            break;
+        }
+        else
+          if (bStopAtSemicolon && aToken.kind == SEMICOLON)
+          {
+            if (nNesting == 1)
+              break;
+          }
+          else
+            if (aToken.kind == EOF)
+            {
+              _fail (new ParseEOFException (bStopAtSemicolon ? "EOF while searching for matching closing '}' or ';'."
+                                                             : "EOF while searching for matching closing '}'."));
+              return null;
+            }
+      aSB.append (aToken.image);
+    }
+    return aSB.toString ();
+  }
+
+  private boolean _onBrowserCompliantSkip (@NonNull final ParseException ex)
+  {
+    if (m_aCustomErrorHandler != null)
+    {
+      try
+      {
+        m_aCustomErrorHandler.onCSSBrowserCompliantSkip (ex, ex.currentToken, m_aToken);
+      }
+      catch (final ParseException ex2)
+      {
+        return _fail (ex2);
+      }
+    }
+    return true;
+  }
+
+  // Browser compliant skip to matching closing '}' (being inside a '}')
+  private boolean _browserCompliantSkipInRule (@NonNull final ParseException ex)
+  {
+    if (_javaSkipToClosingBrace (1, false) == null)
+      return false;
+    // push back last token (char count!!)
+    m_aTokenManager.backup (1);
+    return _onBrowserCompliantSkip (ex);
+  }
+
+  // Browser compliant skip to the next closing '}' (not being inside a '}')
+  private boolean _browserCompliantSkipInSelector (@NonNull final ParseException ex)
+  {
+    if (_javaSkipToClosingBrace (0, false) == null)
+      return false;
+    // push back last token (char count!!)
+    m_aTokenManager.backup (1);
+    return _onBrowserCompliantSkip (ex);
+  }
+
+  // Browser compliant skip to the next closing '}' (not being inside a '}')
+  // and consuming the "}"
+  private boolean _browserCompliantSkipStylesheet (@NonNull final ParseException ex)
+  {
+    if (_javaSkipToClosingBrace (0, false) == null)
+      return false;
+    return _onBrowserCompliantSkip (ex);
+  }
+
+  // Browser compliant skip to matching closing '}' or ';'
+  private boolean _browserCompliantSkipDecl (@NonNull final ParseException ex)
+  {
+    if (_javaSkipToClosingBrace (1, true) == null)
+      return false;
+    // push back last token (char count!!)
+    m_aTokenManager.backup (1);
+    return _onBrowserCompliantSkip (ex);
+  }
+
+  // The "catch" blocks of the grammar
+
+  // styleDeclaration()
+  private boolean _recoverDeclaration (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipDecl (ex);
+    return _fail (ex);
+  }
+
+  // styleDeclarationList(), styleDeclarationListWithNested() and
+  // propertyRuleDeclarationList()
+  private boolean _recoverDeclarationList (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipDecl (ex);
+    if (!_errorSkipTo (ex, RBRACE))
+      return false;
+    m_aTokenManager.backup (1);
+    return true;
+  }
+
+  // styleDeclarationBlock() and styleDeclarationBlockWithNested()
+  private boolean _recoverDeclarationBlock (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipDecl (ex);
+    return _errorSkipTo (ex, RBRACE);
+  }
+
+  // styleRule()
+  private boolean _recoverStyleRule (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipInSelector (ex);
+    return _fail (ex);
+  }
+
+  // The blocks of the at-rules
+  private boolean _recoverRuleBlock (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipInRule (ex);
+    return _errorSkipTo (ex, RBRACE);
+  }
+
+  // propertyRuleInvalidDeclaration()
+  private boolean _recoverPropertyRuleDeclaration (@NonNull final ParseException ex)
+  {
+    if (m_bBrowserCompliantMode)
+      return _browserCompliantSkipDecl (ex);
+    if (!_errorSkipTo (ex, SEMICOLON))
+      return false;
+    m_aTokenManager.backup (1);
+    return true;
+  }
+
+  // Rules
+
+  /**
+   * Parse a complete style sheet.
+   *
+   * @return The root node. Never <code>null</code>.
+   * @throws ParseException
+   *         In case of an unrecoverable error
+   */
+  @NonNull
+  public CSSNode styleSheet () throws ParseException
+  {
+    m_aTokenManager.setCustomErrorHandler (m_aCustomErrorHandler);
+
+    // In browser compliant mode, the parsing continues after a skip with a new
+    // root node, nested into the previous one
+    final List <CSSNode> aRootNodes = new ArrayList <> ();
+    boolean bSuccess;
+    while (true)
+    {
+      aRootNodes.add (_open (JJTROOT));
+      if (_styleSheetContent ())
+      {
+        bSuccess = true;
+        break;
+      }
+
+      final ParseException ex = _takeError ();
+      if (!m_bBrowserCompliantMode)
+      {
+        _fail (ex);
+        bSuccess = false;
+        break;
+      }
+      if (ex instanceof ParseEOFException)
+      {
+        // ignore special EOF exception
+        bSuccess = true;
+        break;
+      }
+      // Found some syntax crap - try going to the next "}" and try again
+      if (!_browserCompliantSkipStylesheet (ex))
+      {
+        // EOF in searching for next - ignore finally
+        bSuccess = m_aError instanceof ParseEOFException;
+        if (bSuccess)
+          m_aError = null;
+        break;
+      }
+    }
+
+    // Close the scopes from the innermost one
+    for (int i = aRootNodes.size () - 1; i >= 0; --i)
+      if (bSuccess)
+        _close (aRootNodes.get (i));
+      else
+        _abort (aRootNodes.get (i));
+
+    if (!bSuccess)
+      throw _takeError ();
+    return aRootNodes.get (0);
+  }
+
+  private boolean _styleSheetContent ()
+  {
+    _skipSeparators ();
+    if (_kind () == CHARSET_SYM)
+    {
+      if (!_charsetRule ())
+        return false;
+      _onTopLevelRuleEnd ();
+      _skipSeparators ();
+    }
+    while (_kind () == IMPORT_SYM)
+    {
+      if (!_importRule ())
+        return false;
+      _onTopLevelRuleEnd ();
+      _skipSeparators ();
+    }
+    while (_kind () == NAMESPACE_SYM)
+    {
+      if (!_namespaceRule ())
+        return false;
+      _onTopLevelRuleEnd ();
+      _skipSeparators ();
+    }
+    while (K_ANY_RULE[_kind ()])
+    {
+      if (!_ruleInContext (K_UNEXPECTED_TOP_LEVEL, " rule in the middle of the file is not allowed!"))
+        return false;
+      _onTopLevelRuleEnd ();
+      _skipSeparators ();
+      // ignore too many closing brackets
+      // ignore empty semicolons
+      while (_kind () == RBRACE || _kind () == SEMICOLON)
+      {
+        _nextToken ();
+        _skipSeparators ();
+      }
+      // syntaxCrap()
+      if (_kind () == UNKNOWN)
+        _nextToken ();
+    }
+    return _consume (EOF);
+  }
+
+  /**
+   * Parse any rule that starts with the next token, and report it if it is not expected in the
+   * current context.
+   *
+   * @param aUnexpectedKinds
+   *        The start tokens of the rules to report.
+   * @param sMessageSuffix
+   *        The suffix of the message to report after the rule name.
+   */
+  private boolean _ruleInContext (@NonNull final boolean [] aUnexpectedKinds, @NonNull final String sMessageSuffix)
+  {
+    final int nKind = _kind ();
+    final String sRule;
+    final boolean bSuccess;
+    if (K_STYLE_RULE[nKind])
+    {
+      sRule = null;
+      bSuccess = _styleRule ();
+    }
+    else
+      switch (nKind)
+      {
+        case MEDIA_SYM:
+          sRule = "@media";
+          bSuccess = _mediaRule ();
+          break;
+        case PAGE_SYM:
+          sRule = "@page";
+          bSuccess = _pageRule ();
+          break;
+        case LAYER_SYM:
+          sRule = "@layer";
+          bSuccess = _layerRule ();
+          break;
+        case FONTFACE_SYM:
+          sRule = "@font-face";
+          bSuccess = _fontfaceRule ();
+          break;
+        case KEYFRAMES_SYM:
+          sRule = "@keyframes";
+          bSuccess = _keyframesRule ();
+          break;
+        case VIEWPORT_SYM:
+          sRule = "@viewport";
+          bSuccess = _viewportRule ();
+          break;
+        case SUPPORTS_SYM:
+          sRule = "@supports";
+          bSuccess = _supportsRule ();
+          break;
+        case PROPERTY_SYM:
+          sRule = "@property";
+          bSuccess = _propertyRule ();
+          break;
+        case CHARSET_SYM:
+          sRule = "@charset";
+          bSuccess = _charsetRule ();
+          break;
+        case IMPORT_SYM:
+          sRule = "@import";
+          bSuccess = _importRule ();
+          break;
+        case NAMESPACE_SYM:
+          sRule = "@namespace";
+          bSuccess = _namespaceRule ();
+          break;
+        default:
+          // AT_UNKNOWN and the page margin symbols
+          sRule = "@";
+          bSuccess = _unknownRule ();
+          break;
+      }
+    if (!bSuccess)
+      return false;
+    if (aUnexpectedKinds[nKind])
+    {
+      final String sName = K_UNKNOWN_RULE[nKind] ? "Unknown" : sRule.substring (1);
+      return _errorUnexpectedRule (sRule, sName + sMessageSuffix);
+    }
+    return true;
+  }
+
+  // String string() #void
+  @Nullable
+  private String _string ()
+  {
+    final int nKind = _kind ();
+    if (nKind != STRING1 && nKind != STRING2)
+    {
+      _unexpected (STRING1, STRING2);
+      return null;
+    }
+    return _nextToken ().image;
+  }
+
+  // void url()
+  private boolean _url ()
+  {
+    final CSSNode aNode = _open (JJTURL);
+    if (!_consume (URL))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    return _close (aNode);
+  }
+
+  // void function()
+  private boolean _function ()
+  {
+    final CSSNode aNode = _open (JJTFUNCTION);
+    switch (_kind ())
+    {
+      case FUNCTION:
+        aNode.setText (_nextToken ().image + ")");
+        _skipSpaces ();
+        // Support functions without parameters (e.g. "gray ()")
+        if (K_EXPR[_kind ()] && !_expr ())
+          return _abort (aNode);
+        if (!_consume (RROUND))
+          return _abort (aNode);
+        break;
+      case FUNCTION_EXPRESSION:
+      {
+        aNode.setText (_nextToken ().image);
+        // get content of all skipped chars
+        final String sPlain = _javaSkipToClosingParantheses ();
+        if (sPlain == null)
+          return _abort (aNode);
+        aNode.appendText (sPlain);
+        break;
+      }
+      default:
+        _unexpected (FUNCTION, FUNCTION_EXPRESSION);
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void calcValue()
+  private boolean _calcValue ()
+  {
+    final CSSNode aNode = _open (JJTCALCVALUE);
+    String sPrefix = null;
+    Token t = null;
+    if (K_UNARY_OPERATOR[_kind ()])
+      sPrefix = _nextToken ().image;
+    switch (_kind ())
+    {
+      case NUMBER:
+      case PERCENTAGE:
+      case DIMENSION:
+      case IDENT:
+        t = _nextToken ();
+        break;
+      case FUNCTION:
+      case FUNCTION_EXPRESSION:
+        if (!_function ())
+          return _abort (aNode);
+        break;
+      case FUNCTION_CALC:
+        if (!_calc ())
+          return _abort (aNode);
+        break;
+      case LROUND:
+        _nextToken ();
+        _skipSpaces ();
+        if (!_calcSum ())
+          return _abort (aNode);
+        _skipSpaces ();
+        if (!_consume (RROUND))
+          return _abort (aNode);
+        break;
+      default:
+        _unexpected (NUMBER,
+                     PERCENTAGE,
+                     DIMENSION,
+                     IDENT,
+                     FUNCTION,
+                     FUNCTION_EXPRESSION,
+                     FUNCTION_CALC,
+                     LROUND);
+        return _abort (aNode);
+    }
+    if (sPrefix != null)
+      aNode.appendText (sPrefix);
+    if (t != null)
+      aNode.appendText (t.image);
+    return _close (aNode);
+  }
+
+  // void calcProductOperator() and void calcSumOperator()
+  private boolean _calcOperator (final int nNodeType, final int nKind1, final int nKind2)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    final int nKind = _kind ();
+    if (nKind != nKind1 && nKind != nKind2)
+    {
+      _unexpected (nKind1, nKind2);
+      return _abort (aNode);
+    }
+    aNode.setText (_nextToken ().image);
+    return _close (aNode);
+  }
+
+  // void calcProduct()
+  private boolean _calcProduct ()
+  {
+    final CSSNode aNode = _open (JJTCALCPRODUCT);
+    if (!_calcValue ())
+      return _abort (aNode);
+    while (true)
+    {
+      _beginScan (2);
+      if (!_endScan (_scanCalcContinuation (false)))
+        break;
+      _skipSpaces ();
+      if (!_calcOperator (JJTCALCPRODUCTOPERATOR, ASTERISK, SLASH))
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_calcValue ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void calcSum() #void
+  private boolean _calcSum ()
+  {
+    if (!_calcProduct ())
+      return false;
+    while (true)
+    {
+      _beginScan (2);
+      if (!_endScan (_scanCalcContinuation (true)))
+        break;
+      _skipSpaces ();
+      if (!_calcOperator (JJTCALCSUMOPERATOR, PLUS, MINUS))
+        return false;
+      _skipSpaces ();
+      if (!_calcProduct ())
+        return false;
+    }
+    return true;
+  }
+
+  // void calc()
+  private boolean _calc ()
+  {
+    final CSSNode aNode = _open (JJTCALC);
+    if (!_consume (FUNCTION_CALC))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_calcSum ())
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_consume (RROUND))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // A node for a single token, with the token image as text
+  private boolean _tokenNode (final int nNodeType, final int nKind)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    if (!_consume (nKind))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    return _close (aNode);
+  }
+
+  // A node for a single token out of a set, with the token image as text
+  private boolean _tokenNode (final int nNodeType, @NonNull final boolean [] aKinds, @NonNull final int... aExpected)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    if (!aKinds[_kind ()])
+    {
+      _unexpected (aExpected);
+      return _abort (aNode);
+    }
+    aNode.setText (_nextToken ().image);
+    return _close (aNode);
+  }
+
+  // void lineNames()
+  private boolean _lineNames ()
+  {
+    final CSSNode aNode = _open (JJTLINENAMES);
+    if (!_consume (LSQUARE))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (_kind () == IDENT)
+    {
+      if (!_tokenNode (JJTLINENAME, IDENT))
+        return _abort (aNode);
+      while (true)
+      {
+        _beginScan (2);
+        if (!_endScan (_scanLineNameContinuation ()))
+          break;
+        _skipSpaces ();
+        if (!_tokenNode (JJTLINENAME, IDENT))
+          return _abort (aNode);
+      }
+      _skipSpaces ();
+    }
+    if (!_consume (RSQUARE))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void exprTerm()
+  private boolean _exprTerm ()
+  {
+    final CSSNode aNode = _open (JJTEXPRTERM);
+    String sPrefix = null;
+    Token t = null;
+    switch (_kind ())
+    {
+      case PLUS:
+      case MINUS:
+      case NUMBER:
+      case PERCENTAGE:
+      case DIMENSION:
+        if (K_UNARY_OPERATOR[_kind ()])
+          sPrefix = _nextToken ().image;
+        if (!K_NUMERIC[_kind ()])
+        {
+          _unexpected (NUMBER, PERCENTAGE, DIMENSION);
+          return _abort (aNode);
+        }
+        t = _nextToken ();
+        break;
+      case STRING1:
+      case STRING2:
+      // Hack to allow "from" and "to" as identifiers (e.g. in
+      // linear-gradient)
+      // Also allow "or" as parameter to "x:lang(no)"
+      case IDENT:
+      case INHERIT:
+      case AND_SYM:
+      case NOT_SYM:
+      case ONLY_SYM:
+      case FROM_SYM:
+      case TO_SYM:
+      case OR_SYM:
+        sPrefix = _nextToken ().image;
+        break;
+      case URL:
+        if (!_url ())
+          return _abort (aNode);
+        break;
+      case HASH:
+      case URANGE:
+        t = _nextToken ();
+        break;
+      case FUNCTION:
+      case FUNCTION_EXPRESSION:
+        if (!_function ())
+          return _abort (aNode);
+        break;
+      case FUNCTION_CALC:
+        if (!_calc ())
+          return _abort (aNode);
+        break;
+      case LSQUARE:
+        if (!_lineNames ())
+          return _abort (aNode);
+        break;
+      default:
+        _unexpected (PLUS,
+                     MINUS,
+                     NUMBER,
+                     PERCENTAGE,
+                     DIMENSION,
+                     STRING1,
+                     STRING2,
+                     IDENT,
+                     URL,
+                     HASH,
+                     FUNCTION,
+                     FUNCTION_EXPRESSION,
+                     FUNCTION_CALC,
+                     URANGE,
+                     LSQUARE);
+        return _abort (aNode);
+    }
+    _skipSpaces ();
+    if (sPrefix != null)
+      aNode.appendText (sPrefix);
+    if (t != null)
+      aNode.appendText (t.image);
+    return _close (aNode);
+  }
+
+  // void expr()
+  private boolean _expr ()
+  {
+    final CSSNode aNode = _open (JJTEXPR);
+    if (!_exprTerm ())
+      return _abort (aNode);
+    while (K_EXPR_CONTINUATION[_kind ()])
+    {
+      _skipSpaces ();
+      if (K_EXPR_OPERATOR[_kind ()])
+      {
+        if (!_tokenNode (JJTEXPROPERATOR, K_EXPR_OPERATOR, SLASH, COMMA, EQUALS))
+          return _abort (aNode);
+        _skipSpaces ();
+      }
+      if (!_exprTerm ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void charsetRule()
+  private boolean _charsetRule ()
+  {
+    final CSSNode aNode = _open (JJTCHARSETRULE);
+    if (!_consume (CHARSET_SYM) || !_spaces ())
+      return _abort (aNode);
+    final String sStr = _string ();
+    if (sStr == null)
+      return _abort (aNode);
+    aNode.setText (sStr);
+    _skipSpaces ();
+    if (!_consume (SEMICOLON))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void importRule()
+  private boolean _importRule ()
+  {
+    final CSSNode aNode = _open (JJTIMPORTRULE);
+    if (!_consume (IMPORT_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    switch (_kind ())
+    {
+      case STRING1:
+      case STRING2:
+        aNode.setText (_nextToken ().image);
+        break;
+      case URL:
+        if (!_url ())
+          return _abort (aNode);
+        break;
+      default:
+        _unexpected (STRING1, STRING2, URL);
+        return _abort (aNode);
+    }
+    _skipSpaces ();
+    if (K_MEDIA_QUERY[_kind ()] && !_mediaList ())
+      return _abort (aNode);
+    if (!_consume (SEMICOLON))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void namespaceRuleURL()
+  private boolean _namespaceRuleURL ()
+  {
+    final CSSNode aNode = _open (JJTNAMESPACERULEURL);
+    switch (_kind ())
+    {
+      case URL:
+        // URL tokens are always passed without the quotes!
+        aNode.setText (_nextToken ().image);
+        break;
+      case STRING1:
+      case STRING2:
+        aNode.setText (CSSParseHelper.unescapeURL (_nextToken ().image));
+        break;
+      default:
+        _unexpected (URL, STRING1, STRING2);
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void namespaceRule()
+  private boolean _namespaceRule ()
+  {
+    final CSSNode aNode = _open (JJTNAMESPACERULE);
+    if (!_consume (NAMESPACE_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (_kind () == IDENT)
+    {
+      if (!_tokenNode (JJTNAMESPACERULEPREFIX, IDENT))
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    if (!_namespaceRuleURL ())
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_consume (SEMICOLON))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void namespacePrefix()
+  private boolean _namespacePrefix ()
+  {
+    final CSSNode aNode = _open (JJTNAMESPACEPREFIX);
+    if (K_ELEMENT_NAME[_kind ()])
+      aNode.setText (_nextToken ().image);
+    if (!_consume (DASH))
+      return _abort (aNode);
+    aNode.appendText ("|");
+    return _close (aNode);
+  }
+
+  // void typeSelector() #void
+  private boolean _typeSelector ()
+  {
+    _beginScan (2);
+    if (_endScan (_scanNamespacePrefix ()) && !_namespacePrefix ())
+      return false;
+    return _tokenNode (JJTELEMENTNAME, K_ELEMENT_NAME, IDENT, ASTERISK);
+  }
+
+  // void classSelector() #Class
+  private boolean _classSelector ()
+  {
+    final CSSNode aNode = _open (JJTCLASS);
+    if (!_consume (DOT))
+      return _abort (aNode);
+    if (!K_ANY_IDENTIFIER[_kind ()])
+    {
+      _unexpected (IDENT, INHERIT, AND_SYM, NOT_SYM, ONLY_SYM, FROM_SYM, TO_SYM, OR_SYM);
+      return _abort (aNode);
+    }
+    aNode.setText ("." + _nextToken ().image);
+    return _close (aNode);
+  }
+
+  // void attribCase()
+  private boolean _attribCase ()
+  {
+    final CSSNode aNode = _open (JJTATTRIBCASE);
+    if (_kind () == IDENT)
+    {
+      final String v = _nextToken ().image;
+      if ("i".equalsIgnoreCase (v) || "s".equalsIgnoreCase (v))
+        aNode.setText (v.toLowerCase (Locale.ROOT));
+      else
+      {
+        _fail (new ParseException ("Invalid case-sensitivity flag '" + v + "'. Only 'i' or 's' are allowed."));
+        return _abort (aNode);
+      }
+    }
+    return _close (aNode);
+  }
+
+  // void attributeSelector()
+  private boolean _attributeSelector ()
+  {
+    final CSSNode aNode = _open (JJTATTRIBUTESELECTOR);
+    if (!_consume (LSQUARE))
+      return _abort (aNode);
+    _skipSpaces ();
+    _beginScan (2);
+    if (_endScan (_scanNamespacePrefix ()) && !_namespacePrefix ())
+      return _abort (aNode);
+    if (!_consume (IDENT))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    // Hack for html[xmlns*=""]
+    if (_kind () == ASTERISK)
+    {
+      _nextToken ();
+      aNode.appendText ("*");
+    }
+    _skipSpaces ();
+    if (K_ATTRIB_OPERATOR[_kind ()])
+    {
+      final CSSNode aOperatorNode = _open (JJTATTRIBOPERATOR);
+      aOperatorNode.setText (_nextToken ().image);
+      _close (aOperatorNode);
+      _skipSpaces ();
+      if (!_tokenNode (JJTATTRIBVALUE, K_ATTRIB_VALUE, IDENT, STRING1, STRING2))
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_attribCase ())
+        return _abort (aNode);
+    }
+    _skipSpaces ();
+    if (!_consume (RSQUARE))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void pseudoNth() #nth
+  private boolean _pseudoNth ()
+  {
+    final CSSNode aNode = _open (JJTNTH);
+    _skipSpaces ();
+    _beginScan (3);
+    if (_endScan (_scanPseudoNthA ()))
+    {
+      if (K_UNARY_OPERATOR[_kind ()])
+        aNode.appendText (_nextToken ().image);
+      if (_kind () == INTEGER)
+        aNode.appendText (_nextToken ().image);
+      if (!_consume (N))
+        return _abort (aNode);
+      aNode.appendText ("n");
+      _beginScan (2);
+      if (_endScan (_scanPseudoNthOffset ()))
+      {
+        _skipSpaces ();
+        if (!K_UNARY_OPERATOR[_kind ()])
+        {
+          _unexpected (MINUS, PLUS);
+          return _abort (aNode);
+        }
+        aNode.appendText (_nextToken ().image);
+        _skipSpaces ();
+        if (!_consume (INTEGER))
+          return _abort (aNode);
+        aNode.appendText (m_aToken.image);
+      }
+    }
+    else
+    {
+      _beginScan (2);
+      if (_endScan (_scanPseudoNthB ()))
+      {
+        if (K_UNARY_OPERATOR[_kind ()])
+          aNode.appendText (_nextToken ().image);
+        if (!_consume (INTEGER))
+          return _abort (aNode);
+        aNode.appendText (m_aToken.image);
+      }
+      else
+      {
+        final int nKind = _kind ();
+        if (nKind != EVEN && nKind != ODD)
+        {
+          _unexpected (PLUS, MINUS, INTEGER, N, EVEN, ODD);
+          return _abort (aNode);
+        }
+        aNode.appendText (_nextToken ().image);
+      }
+    }
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void pseudoHost() #host, void pseudoHostContext() #hostcontext and void
+  // pseudoSlotted() #slotted
+  private boolean _pseudoHost (final int nNodeType)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    _skipSpaces ();
+    while (K_SELECTOR[_kind ()])
+    {
+      if (!_simpleSelectorSequence ())
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    return _close (aNode);
+  }
+
+  // void relativeSelector()
+  private boolean _relativeSelector ()
+  {
+    final CSSNode aNode = _open (JJTRELATIVESELECTOR);
+    if (K_COMBINATOR[_kind ()])
+    {
+      if (!_selectorCombinator ())
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    if (!_selector ())
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void selectorOrRelativeSelector() #void
+  private boolean _selectorOrRelativeSelector ()
+  {
+    _beginScan (LOOKAHEAD_UNLIMITED);
+    if (_endScan (_scanSelectorCombinator ()))
+      return _relativeSelector ();
+    if (K_SELECTOR[_kind ()])
+      return _selector ();
+    return _unexpected (S,
+                        PLUS,
+                        GREATER,
+                        TILDE,
+                        IDENT,
+                        ASTERISK,
+                        DASH,
+                        HASH,
+                        DOT,
+                        LSQUARE,
+                        AMPERSAND,
+                        COLON,
+                        FUNCTION_NOT,
+                        PERCENTAGE);
+  }
+
+  // void relativeSelectorList() #void if bRelative is true, void
+  // simpleSelectorList() #void otherwise
+  private boolean _selectorList (final boolean bRelative)
+  {
+    _skipSpaces ();
+    if (!(bRelative ? _relativeSelector () : _selector ()))
+      return false;
+    _skipSpaces ();
+    while (_kind () == COMMA)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!(bRelative ? _relativeSelector () : _selector ()))
+        return false;
+      _skipSpaces ();
+    }
+    return true;
+  }
+
+  // void pseudoHas() #has, void pseudoIs() #is and void pseudoWhere() #where
+  private boolean _pseudoSelectorLists (final int nNodeType)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    final boolean bRelative = nNodeType == JJTHAS;
+    while (bRelative ? K_STYLE_RULE[_kind ()] : K_SIMPLE_SELECTOR_LIST[_kind ()])
+      if (!_selectorList (bRelative))
+        return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void pseudoClassSelector()
+  private boolean _pseudoClassSelector ()
+  {
+    final CSSNode aNode = _open (JJTPSEUDOCLASSSELECTOR);
+    if (!_consume (COLON))
+      return _abort (aNode);
+    aNode.setText (":");
+    // For pseudo elements
+    if (_kind () == COLON)
+    {
+      _nextToken ();
+      aNode.appendText (":");
+    }
+    final boolean bSuccess;
+    switch (_kind ())
+    {
+      case FUNCTION_NTH:
+        aNode.appendText (_nextToken ().image);
+        bSuccess = _pseudoNth ();
+        break;
+      case FUNCTION_HOST:
+        aNode.appendText (_nextToken ().image);
+        bSuccess = _pseudoHost (JJTHOST);
+        break;
+      case FUNCTION_HOSTCONTEXT:
+        aNode.appendText (_nextToken ().image);
+        bSuccess = _pseudoHost (JJTHOSTCONTEXT);
+        break;
+      case FUNCTION_SLOTTED:
+        aNode.appendText (_nextToken ().image);
+        bSuccess = _pseudoHost (JJTSLOTTED);
+        break;
+      case FUNCTION_HAS:
+        aNode.setText (_nextToken ().image);
+        bSuccess = _pseudoSelectorLists (JJTHAS);
+        break;
+      case FUNCTION_IS:
+        aNode.setText (_nextToken ().image);
+        bSuccess = _pseudoSelectorLists (JJTIS);
+        break;
+      case FUNCTION_WHERE:
+        aNode.setText (_nextToken ().image);
+        bSuccess = _pseudoSelectorLists (JJTWHERE);
+        break;
+      case FUNCTION:
+        aNode.appendText (_nextToken ().image);
+        _skipSpaces ();
+        bSuccess = !K_EXPR[_kind ()] || _expr ();
+        break;
+      case IDENT:
+        aNode.appendText (_nextToken ().image);
+        return _close (aNode);
+      default:
+        _unexpected (FUNCTION_NTH,
+                     FUNCTION_HOST,
+                     FUNCTION_HOSTCONTEXT,
+                     FUNCTION_SLOTTED,
+                     FUNCTION_HAS,
+                     FUNCTION_IS,
+                     FUNCTION_WHERE,
+                     FUNCTION,
+                     IDENT);
+        return _abort (aNode);
+    }
+    // do not append because of expression!
+    if (!bSuccess || !_consume (RROUND))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void funcNot()
+  private boolean _funcNot ()
+  {
+    final CSSNode aNode = _open (JJTFUNCNOT);
+    if (!_consume (FUNCTION_NOT))
+      return _abort (aNode);
+    aNode.setText (":not(");
+    _skipSpaces ();
+    if (K_SELECTOR[_kind ()] && !_selectorList (false))
+      return _abort (aNode);
+    if (!_consume (RROUND))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // idSelector() | classSelector() | attributeSelector() | nestingSelector()
+  // | pseudoClassSelector() | funcNot()
+  private boolean _member ()
+  {
+    switch (_kind ())
+    {
+      case HASH:
+        return _tokenNode (JJTIDSELECTOR, HASH);
+      case DOT:
+        return _classSelector ();
+      case LSQUARE:
+        return _attributeSelector ();
+      case AMPERSAND:
+      {
+        final CSSNode aNode = _open (JJTNESTING);
+        _nextToken ();
+        aNode.setText ("&");
+        return _close (aNode);
+      }
+      case COLON:
+        return _pseudoClassSelector ();
+      case FUNCTION_NOT:
+        return _funcNot ();
+      default:
+        return _unexpected (HASH, DOT, LSQUARE, AMPERSAND, COLON, FUNCTION_NOT);
+    }
+  }
+
+  // void simpleSelectorSequence() #void
+  private boolean _simpleSelectorSequence ()
+  {
+    _beginScan (4);
+    if (_endScan (_scanTypeSelectorWithMembers ()))
+    {
+      if (!_typeSelector ())
+        return false;
+      while (K_MEMBER[_kind ()])
+        if (!_member ())
+          return false;
+      return true;
+    }
+    if (K_MEMBER[_kind ()])
+    {
+      do
+      {
+        if (!_member ())
+          return false;
+      } while (K_MEMBER[_kind ()]);
+      return true;
+    }
+    // Extension for CSS animations (e.g. 50%)
+    if (_kind () == PERCENTAGE)
+    {
+      _nextToken ();
+      return true;
+    }
+    return _unexpected (IDENT, ASTERISK, DASH, HASH, DOT, LSQUARE, AMPERSAND, COLON, FUNCTION_NOT, PERCENTAGE);
+  }
+
+  // void selectorCombinator()
+  private boolean _selectorCombinator ()
+  {
+    final CSSNode aNode = _open (JJTSELECTORCOMBINATOR);
+    int nCombinator = -1;
+    for (final int nKind : new int [] { PLUS, GREATER, TILDE })
+    {
+      _beginScan (2);
+      if (_endScan (_scanSpacesThen (nKind)))
+      {
+        nCombinator = nKind;
+        break;
+      }
+    }
+    if (nCombinator >= 0)
+    {
+      _skipSpaces ();
+      if (!_consume (nCombinator))
+        return _abort (aNode);
+      aNode.setText (m_aToken.image);
+    }
+    else
+    {
+      if (!_consume (S))
+        return _abort (aNode);
+      aNode.setText (" ");
+    }
+    return _close (aNode);
+  }
+
+  // void selector()
+  private boolean _selector ()
+  {
+    final CSSNode aNode = _open (JJTSELECTOR);
+    if (!_simpleSelectorSequence ())
+      return _abort (aNode);
+    while (true)
+    {
+      _beginScan (4);
+      if (!_endScan (_scanSelectorContinuation ()))
+        break;
+      if (!_selectorCombinator ())
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_simpleSelectorSequence ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void property()
+  private boolean _property ()
+  {
+    final CSSNode aNode = _open (JJTPROPERTY);
+    if (_kind () == IDENT)
+      aNode.setText (_nextToken ().image);
+    else
+    {
+      _beginScan (2);
+      if (!_endScan (_scanDeprecatedProperty ()))
+      {
+        _unexpected (IDENT, ASTERISK, DOLLAR);
+        return _abort (aNode);
+      }
+      final Token aPrefixToken = _nextToken ();
+      if (!_consume (IDENT))
+        return _abort (aNode);
+      if (m_bKeepDeprecatedProperties)
+        aNode.setText (aPrefixToken.image + m_aToken.image);
+      else
+        if (!_errorDeprecatedProperty (aPrefixToken))
+          return _abort (aNode);
+    }
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void important()
+  private boolean _important ()
+  {
+    final CSSNode aNode = _open (JJTIMPORTANT);
+    if (!_consume (IMPORTANT_SYM))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void styleDeclaration()
+  private boolean _styleDeclaration ()
+  {
+    final CSSNode aNode = _open (JJTSTYLEDECLARATION);
+    if (!_styleDeclarationContent () && !_recoverDeclaration (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _styleDeclarationContent ()
+  {
+    if (!_property () || !_consume (COLON))
+      return false;
+    _skipSpaces ();
+    if (!_expr ())
+      return false;
+    return _kind () != IMPORTANT_SYM || _important ();
+  }
+
+  // void styleDeclarationOrRule() #void
+  private boolean _styleDeclarationOrRule ()
+  {
+    if (K_DECLARATION[_kind ()])
+      return _styleDeclaration ();
+    if (!_ruleInContext (K_AT_RULE, " rule in the middle of a rule-set is not allowed!"))
+      return false;
+    _skipSeparators ();
+    return true;
+  }
+
+  // void styleDeclarationOrRuleWithNested() #void
+  private boolean _styleDeclarationOrRuleWithNested ()
+  {
+    _beginScan (LOOKAHEAD_UNLIMITED);
+    if (_endScan (_scanPropertyAndColon ()))
+    {
+      if (!_styleDeclaration ())
+        return false;
+      _beginScan (LOOKAHEAD_UNLIMITED);
+      if (_endScan (_scanEndOfBlock ()))
+        _skipSpaces ();
+      else
+      {
+        final int nKind = _kind ();
+        if (nKind != S && nKind != SEMICOLON)
+          return _unexpected (S, SEMICOLON);
+        _skipSpaces ();
+        if (!_consume (SEMICOLON))
+          return false;
+        _skipSpaces ();
+      }
+      return true;
+    }
+
+    if (_kind () == SEMICOLON)
+    {
+      // final semicolon from single line comment
+      _nextToken ();
+      _skipSpaces ();
+      return true;
+    }
+
+    if (!K_ANY_RULE[_kind ()])
+      return _unexpected (IDENT, ASTERISK, DOLLAR, SEMICOLON);
+    if (!_ruleInContext (K_UNEXPECTED_NESTED, " rule is not allowed as a nested rule!"))
+      return false;
+    _skipSeparators ();
+    return true;
+  }
+
+  /**
+   * Parse the content of a style attribute.
+   *
+   * @return The declaration list node. Never <code>null</code>.
+   * @throws ParseException
+   *         In case of an unrecoverable error
+   */
+  @NonNull
+  public CSSNode styleDeclarationList () throws ParseException
+  {
+    m_aTokenManager.setCustomErrorHandler (m_aCustomErrorHandler);
+    if (!_styleDeclarationList ())
+      throw _takeError ();
+    return m_aNodes[m_nNodeCount - 1];
+  }
+
+  // CSSNode styleDeclarationList()
+  private boolean _styleDeclarationList ()
+  {
+    final CSSNode aNode = _open (JJTSTYLEDECLARATIONLIST);
+    if (!_styleDeclarationListContent () && !_recoverDeclarationList (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _styleDeclarationListContent ()
+  {
+    _skipSpaces ();
+    if (K_RULE_SET_ENTRY[_kind ()] && !_styleDeclarationOrRule ())
+      return false;
+    while (_kind () == SEMICOLON)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (K_RULE_SET_ENTRY[_kind ()] && !_styleDeclarationOrRule ())
+        return false;
+    }
+    return true;
+  }
+
+  // CSSNode styleDeclarationListWithNested()
+  private boolean _styleDeclarationListWithNested ()
+  {
+    final CSSNode aNode = _open (JJTSTYLEDECLARATIONLISTWITHNESTED);
+    if (!_styleDeclarationListWithNestedContent () && !_recoverDeclarationList (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _styleDeclarationListWithNestedContent ()
+  {
+    _skipSpaces ();
+    while (K_NESTED_ENTRY[_kind ()])
+      if (!_styleDeclarationOrRuleWithNested ())
+        return false;
+    return true;
+  }
+
+  // void styleDeclarationBlock() #void and void
+  // styleDeclarationBlockWithNested() #void
+  private boolean _styleDeclarationBlock (final boolean bWithNested)
+  {
+    if (!_consume (LBRACE))
+      return false;
+    final boolean bSuccess = bWithNested ? _styleDeclarationListWithNested () : _styleDeclarationList ();
+    if (!(bSuccess && _consume (RBRACE)) && !_recoverDeclarationBlock (_takeError ()))
+      return false;
+    return true;
+  }
+
+  // void styleRule()
+  private boolean _styleRule ()
+  {
+    final CSSNode aNode = _open (JJTSTYLERULE);
+    if (!_styleRuleContent () && !_recoverStyleRule (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _styleRuleContent ()
+  {
+    if (!_selectorOrRelativeSelector ())
+      return false;
+    _skipSpaces ();
+    while (_kind () == COMMA)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_selectorOrRelativeSelector ())
+        return false;
+      _skipSpaces ();
+    }
+    return _styleDeclarationBlock (true);
+  }
+
+  // void mediaModifier()
+  private boolean _mediaModifier ()
+  {
+    final CSSNode aNode = _open (JJTMEDIAMODIFIER);
+    final int nKind = _kind ();
+    if (nKind == ONLY_SYM || nKind == NOT_SYM)
+    {
+      aNode.setText (_nextToken ().image);
+      if (!_consume (S))
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void mediaExpr()
+  private boolean _mediaExpr ()
+  {
+    final CSSNode aNode = _open (JJTMEDIAEXPR);
+    if (!_consume (LROUND))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_tokenNode (JJTMEDIAFEATURE, IDENT))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (_kind () == COLON)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_expr ())
+        return _abort (aNode);
+    }
+    if (!_consume (RROUND))
+      return _abort (aNode);
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void mediaQuery()
+  private boolean _mediaQuery ()
+  {
+    final CSSNode aNode = _open (JJTMEDIAQUERY);
+    switch (_kind ())
+    {
+      case ONLY_SYM:
+      case NOT_SYM:
+      case IDENT:
+        if (!_mediaModifier () || !_tokenNode (JJTMEDIUM, IDENT))
+          return _abort (aNode);
+        _skipSpaces ();
+        break;
+      case LROUND:
+        if (!_mediaExpr ())
+          return _abort (aNode);
+        break;
+      default:
+        _unexpected (ONLY_SYM, NOT_SYM, IDENT, LROUND);
+        return _abort (aNode);
+    }
+    while (_kind () == AND_SYM)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_mediaExpr ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void mediaList()
+  private boolean _mediaList ()
+  {
+    final CSSNode aNode = _open (JJTMEDIALIST);
+    if (!_mediaQuery ())
+      return _abort (aNode);
+    _skipSpaces ();
+    while (_kind () == COMMA)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_mediaQuery ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void mediaRule()
+  private boolean _mediaRule ()
+  {
+    final CSSNode aNode = _open (JJTMEDIARULE);
+    if (!_consume (MEDIA_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (K_MEDIA_QUERY[_kind ()])
+    {
+      if (!_mediaList ())
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    if (!_consume (LBRACE))
+      return _abort (aNode);
+    if (!_mediaRuleBody () && !_recoverRuleBlock (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _mediaRuleBody ()
+  {
+    _skipSpaces ();
+    // mediaRuleList() #void
+    while (K_ANY_RULE[_kind ()])
+    {
+      if (!_ruleInContext (K_UNEXPECTED_MEDIA_OR_LAYER, " rule in the middle of a @media rule is not allowed!"))
+        return false;
+      _skipSpaces ();
+    }
+    return _consume (RBRACE);
+  }
+
+  // String pseudoPage() #void
+  @Nullable
+  private String _pseudoPage ()
+  {
+    if (!_consume (COLON) || !_consume (IDENT))
+      return null;
+    return ':' + m_aToken.image;
+  }
+
+  // void pageSelector()
+  private boolean _pageSelector ()
+  {
+    final CSSNode aNode = _open (JJTPAGESELECTOR);
+    switch (_kind ())
+    {
+      case COLON:
+      {
+        final String s = _pseudoPage ();
+        if (s == null)
+          return _abort (aNode);
+        aNode.setText (s);
+        break;
+      }
+      case IDENT:
+        aNode.setText (_nextToken ().image);
+        break;
+      default:
+        _unexpected (COLON, IDENT);
+        return _abort (aNode);
+    }
+    while (_kind () == COLON)
+    {
+      final String s = _pseudoPage ();
+      if (s == null)
+        return _abort (aNode);
+      aNode.appendText (s);
+    }
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void pageBody() #void - the recursion of the grammar is a loop here
+  private boolean _pageBody ()
+  {
+    while (true)
+    {
+      if (K_MARGIN_SYMBOL[_kind ()])
+      {
+        if (!_tokenNode (JJTPAGEMARGINSYMBOL, K_MARGIN_SYMBOL))
+          return false;
+        _skipSpaces ();
+        if (!_styleDeclarationBlock (false))
+          return false;
+        _skipSpaces ();
+      }
+      else
+      {
+        if (K_DECLARATION[_kind ()] && !_styleDeclaration ())
+          return false;
+        if (_kind () != SEMICOLON)
+          return true;
+        _nextToken ();
+        _skipSpaces ();
+      }
+    }
+  }
+
+  // void pageRule()
+  private boolean _pageRule ()
+  {
+    final CSSNode aNode = _open (JJTPAGERULE);
+    if (!_consume (PAGE_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    final int nKind = _kind ();
+    if (nKind == COLON || nKind == IDENT)
+    {
+      // pageSelectorList() #void
+      if (!_pageSelector ())
+        return _abort (aNode);
+      while (_kind () == COMMA)
+      {
+        _nextToken ();
+        _skipSpaces ();
+        if (!_pageSelector ())
+          return _abort (aNode);
+      }
+      _skipSpaces ();
+    }
+
+    // void pageRuleBlock()
+    final CSSNode aBlockNode = _open (JJTPAGERULEBLOCK);
+    if (!_consume (LBRACE))
+    {
+      _abort (aBlockNode);
+      return _abort (aNode);
+    }
+    if (!_pageRuleBlockContent () && !_recoverRuleBlock (_takeError ()))
+    {
+      _abort (aBlockNode);
+      return _abort (aNode);
+    }
+    _close (aBlockNode);
+    return _close (aNode);
+  }
+
+  private boolean _pageRuleBlockContent ()
+  {
+    _skipSpaces ();
+    return _pageBody () && _consume (RBRACE);
+  }
+
+  // void layerSelectorList()
+  private boolean _layerSelectorList ()
+  {
+    final CSSNode aNode = _open (JJTLAYERSELECTORLIST);
+    if (!_tokenNode (JJTLAYERSELECTOR, IDENT))
+      return _abort (aNode);
+    _skipSpaces ();
+    while (_kind () == COMMA)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_tokenNode (JJTLAYERSELECTOR, IDENT))
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    return _close (aNode);
+  }
+
+  // void layerRuleBlock()
+  private boolean _layerRuleBlock ()
+  {
+    final CSSNode aNode = _open (JJTLAYERRULEBLOCK);
+    if (!_consume (LBRACE))
+      return _abort (aNode);
+    if (!_layerRuleBlockContent () && !_recoverRuleBlock (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _layerRuleBlockContent ()
+  {
+    _skipSpaces ();
+    // layerBody() #void
+    do
+    {
+      if (!K_LAYER_RULE[_kind ()])
+        return _unexpected (IDENT, LAYER_SYM, MEDIA_SYM, SUPPORTS_SYM, KEYFRAMES_SYM, FONTFACE_SYM);
+      if (!_ruleInContext (K_UNEXPECTED_MEDIA_OR_LAYER, " rule in the middle of a @layer rule is not allowed!"))
+        return false;
+      _skipSpaces ();
+    } while (K_LAYER_RULE[_kind ()]);
+    return _consume (RBRACE);
+  }
+
+  // void layerRule()
+  private boolean _layerRule ()
+  {
+    final CSSNode aNode = _open (JJTLAYERRULE);
+    if (!_consume (LAYER_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    _beginScan (10);
+    if (_endScan (_scanLayerSelectorList ()))
+    {
+      if (!_layerSelectorList ())
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_consume (SEMICOLON))
+        return _abort (aNode);
+    }
+    else
+    {
+      final int nKind = _kind ();
+      if (nKind != IDENT && nKind != S && nKind != LBRACE)
+      {
+        _unexpected (IDENT, S, LBRACE);
+        return _abort (aNode);
+      }
+      if (nKind == IDENT && !_tokenNode (JJTLAYERSELECTOR, IDENT))
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_layerRuleBlock ())
+        return _abort (aNode);
+    }
+    return _close (aNode);
+  }
+
+  // void fontfaceRule() and void viewportRule()
+  private boolean _declarationBlockRule (final int nNodeType, final int nKind)
+  {
+    final CSSNode aNode = _open (nNodeType);
+    if (!_consume (nKind))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    _skipSpaces ();
+    if (!_styleDeclarationBlock (false))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _fontfaceRule ()
+  {
+    return _declarationBlockRule (JJTFONTFACERULE, FONTFACE_SYM);
+  }
+
+  private boolean _viewportRule ()
+  {
+    return _declarationBlockRule (JJTVIEWPORTRULE, VIEWPORT_SYM);
+  }
+
+  // void keyframesSelector()
+  private boolean _keyframesSelector ()
+  {
+    final CSSNode aNode = _open (JJTKEYFRAMESSELECTOR);
+    if (!_tokenNode (JJTSINGLEKEYFRAMESELECTOR, K_KEYFRAME_SELECTOR, FROM_SYM, TO_SYM, PERCENTAGE))
+      return _abort (aNode);
+    _skipSpaces ();
+    while (_kind () == COMMA)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (!_tokenNode (JJTSINGLEKEYFRAMESELECTOR, K_KEYFRAME_SELECTOR, FROM_SYM, TO_SYM, PERCENTAGE))
+        return _abort (aNode);
+      _skipSpaces ();
+    }
+    return _close (aNode);
+  }
+
+  // void keyframesRule()
+  private boolean _keyframesRule ()
+  {
+    final CSSNode aNode = _open (JJTKEYFRAMESRULE);
+    if (!_consume (KEYFRAMES_SYM))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    if (!_consume (S) || !_tokenNode (JJTKEYFRAMESIDENTIFIER, IDENT))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_consume (LBRACE))
+      return _abort (aNode);
+    if (!_keyframesRuleBody () && !_recoverRuleBlock (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _keyframesRuleBody ()
+  {
+    _skipSpaces ();
+    // keyframesBlocks() #void
+    while (K_KEYFRAME_SELECTOR[_kind ()])
+    {
+      if (!_keyframesSelector ())
+        return false;
+      _skipSpaces ();
+      if (!_styleDeclarationBlock (false))
+        return false;
+      _skipSpaces ();
+    }
+    return _consume (RBRACE);
+  }
+
+  // void supportsConditionInParens()
+  private boolean _supportsConditionInParens ()
+  {
+    final CSSNode aNode = _open (JJTSUPPORTSCONDITIONINPARENS);
+    if (!_consume (LROUND))
+      return _abort (aNode);
+    _skipSpaces ();
+    final int nKind = _kind ();
+    if (K_DECLARATION[nKind])
+    {
+      if (!_styleDeclaration ())
+        return _abort (aNode);
+    }
+    else
+      if (nKind == NOT_SYM || nKind == LROUND)
+      {
+        if (!_supportsCondition ())
+          return _abort (aNode);
+      }
+      else
+      {
+        _unexpected (IDENT, ASTERISK, DOLLAR, NOT_SYM, LROUND);
+        return _abort (aNode);
+      }
+    if (!_consume (RROUND))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void supportsCondition()
+  private boolean _supportsCondition ()
+  {
+    final CSSNode aNode = _open (JJTSUPPORTSCONDITION);
+    switch (_kind ())
+    {
+      case NOT_SYM:
+      {
+        // void supportsNegation()
+        final CSSNode aNegationNode = _open (JJTSUPPORTSNEGATION);
+        _nextToken ();
+        if (!_spaces () || !_supportsConditionInParens ())
+        {
+          _abort (aNegationNode);
+          return _abort (aNode);
+        }
+        _close (aNegationNode);
+        break;
+      }
+      case LROUND:
+        if (!_supportsConditionInParens ())
+          return _abort (aNode);
+        while (true)
+        {
+          _beginScan (2);
+          if (!_endScan (_scanSupportsConditionContinuation ()))
+            break;
+          if (!_spaces () ||
+              !_tokenNode (JJTSUPPORTSCONDITIONOPERATOR, K_SUPPORTS_OPERATOR, AND_SYM, OR_SYM) ||
+              !_spaces () ||
+              !_supportsConditionInParens ())
+            return _abort (aNode);
+        }
+        break;
+      default:
+        _unexpected (NOT_SYM, LROUND);
+        return _abort (aNode);
+    }
+    _skipSpaces ();
+    return _close (aNode);
+  }
+
+  // void supportsRule()
+  private boolean _supportsRule ()
+  {
+    final CSSNode aNode = _open (JJTSUPPORTSRULE);
+    if (!_consume (SUPPORTS_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_supportsCondition ())
+      return _abort (aNode);
+    _skipSpaces ();
+    // supportsRuleBody() #void
+    if (!_consume (LBRACE))
+      return _abort (aNode);
+    if (!_supportsRuleBodyContent () && !_recoverRuleBlock (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _supportsRuleBodyContent ()
+  {
+    _skipSpaces ();
+    while (K_ANY_RULE[_kind ()])
+    {
+      if (!_ruleInContext (K_UNEXPECTED_SUPPORTS, " rule in the middle of a @supports rule is not allowed!"))
+        return false;
+      _skipSpaces ();
+    }
+    return _consume (RBRACE);
+  }
+
+  // void propertyRuleExpression() #void
+  private boolean _propertyRuleExpression ()
+  {
+    if (K_PROPERTY_SIMPLE_EXPR[_kind ()])
+    {
+      // void propertyRuleSimpleExpression() #expr
+      final CSSNode aNode = _open (JJTEXPR);
+      if (!_tokenNode (JJTEXPRTERM, K_PROPERTY_SIMPLE_EXPR))
+        return _abort (aNode);
+      return _close (aNode);
+    }
+    if (K_EXPR[_kind ()])
+      return _expr ();
+    return _unexpected (STRING1, STRING2, TRUE_SYM, FALSE_SYM);
+  }
+
+  // void propertyRuleInvalidDeclaration() #void
+  private boolean _propertyRuleInvalidDeclaration ()
+  {
+    Token aPrevToken = m_aToken;
+    if (_kind () == IDENT)
+      _nextToken ();
+    else
+    {
+      _beginScan (LOOKAHEAD_UNLIMITED);
+      if (!_endScan (_scanDeprecatedProperty ()))
+      {
+        _unexpected (IDENT, ASTERISK, DOLLAR);
+        return _recoverPropertyRuleDeclaration (_takeError ());
+      }
+      aPrevToken = _nextToken ();
+      if (!_consume (IDENT))
+        return _recoverPropertyRuleDeclaration (_takeError ());
+    }
+    return _recoverPropertyRuleDeclaration (new ParseException (aPrevToken,
+                                                                new int [] [] { new int [] { SYNTAX_SYM },
+                                                                                new int [] { INHERITS_SYM },
+                                                                                new int [] { INITIALVALUE_SYM } },
+                                                                tokenImage,
+                                                                m_aTokenManager.getLexicalStateName ()));
+  }
+
+  // void propertyRuleDeclarationOrInvalid() #void
+  private boolean _propertyRuleDeclarationOrInvalid ()
+  {
+    if (K_PROPERTY_DESCRIPTOR[_kind ()])
+    {
+      // void propertyRuleDeclaration()
+      final CSSNode aNode = _open (JJTPROPERTYRULEDECLARATION);
+      final CSSNode aDescriptorNode = _open (JJTPROPERTYRULEDESCRIPTOR);
+      aDescriptorNode.setText (_nextToken ().image);
+      _skipSpaces ();
+      _close (aDescriptorNode);
+      if (!_consume (COLON))
+        return _abort (aNode);
+      _skipSpaces ();
+      if (!_propertyRuleExpression ())
+        return _abort (aNode);
+      _close (aNode);
+    }
+    else
+      if (!_propertyRuleInvalidDeclaration ())
+        return false;
+    _skipSeparators ();
+    return true;
+  }
+
+  // CSSNode propertyRuleDeclarationList()
+  private boolean _propertyRuleDeclarationList ()
+  {
+    final CSSNode aNode = _open (JJTPROPERTYRULEDECLARATIONLIST);
+    if (!_propertyRuleDeclarationListContent () && !_recoverDeclarationList (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  private boolean _propertyRuleDeclarationListContent ()
+  {
+    _skipSpaces ();
+    if (K_PROPERTY_RULE_ENTRY[_kind ()] && !_propertyRuleDeclarationOrInvalid ())
+      return false;
+    while (_kind () == SEMICOLON)
+    {
+      _nextToken ();
+      _skipSpaces ();
+      if (K_PROPERTY_RULE_ENTRY[_kind ()] && !_propertyRuleDeclarationOrInvalid ())
+        return false;
+    }
+    return true;
+  }
+
+  // void propertyRule()
+  private boolean _propertyRule ()
+  {
+    final CSSNode aNode = _open (JJTPROPERTYRULE);
+    if (!_consume (PROPERTY_SYM))
+      return _abort (aNode);
+    _skipSpaces ();
+    if (!_consume (DASHED_IDENT))
+      return _abort (aNode);
+    aNode.setText (m_aToken.image);
+    _skipSpaces ();
+    if (!_consume (LBRACE))
+      return _abort (aNode);
+    if (!(_propertyRuleDeclarationList () && _consume (RBRACE)) && !_recoverRuleBlock (_takeError ()))
+      return _abort (aNode);
+    return _close (aNode);
+  }
+
+  // void unknownRule()
+  private boolean _unknownRule ()
+  {
+    final CSSNode aNode = _open (JJTUNKNOWNRULE);
+    if (!K_UNKNOWN_RULE[_kind ()])
+    {
+      _unexpected (AT_UNKNOWN);
+      return _abort (aNode);
+    }
+    aNode.setText (_nextToken ().image);
+
+    // void unknownRuleParameterList()
+    final CSSNode aParamNode = _open (JJTUNKNOWNRULEPARAMETERLIST);
+    final String sParams = _javaSkipToOpeningBrace ();
+    if (sParams == null)
+    {
+      _abort (aParamNode);
+      return _abort (aNode);
+    }
+    aParamNode.setText (sParams);
+    _close (aParamNode);
+
+    // void unknownRuleBody()
+    final CSSNode aBodyNode = _open (JJTUNKNOWNRULEBODY);
+    final String sBody = _javaSkipToClosingBrace (1, false);
+    if (sBody == null)
+    {
+      _abort (aBodyNode);
+      return _abort (aNode);
+    }
+    aBodyNode.setText (sBody);
+    _close (aBodyNode);
+
+    // Manually switch from IN_UNKNOWN_RULE to DEFAULT again
+    m_aTokenManager.switchToDefaultState ();
+    return _close (aNode);
+  }
+}
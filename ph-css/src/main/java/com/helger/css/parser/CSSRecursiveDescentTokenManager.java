@@ -0,0 +1,1117 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * A hand-written token manager for {@link CSSRecursiveDescentParser}. It produces exactly the same
+ * tokens (kinds, images and positions) as the token manager generated from
+ * <code>ParserCSS30.jjt</code>, including the lexical states and their transitions. Instead of a
+ * generated automaton the longest match is determined by a switch on the first character.
+ * Case-insensitive comparison is only used for letters of keywords, hex digits and units.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+final class CSSRecursiveDescentTokenManager implements ParserCSS30Constants
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSRecursiveDescentTokenManager.class);
+
+  // The lexical states of the grammar (except for IN_COMMENT which is
+  // handled inline)
+  private static final int STATE_DEFAULT = 0;
+  private static final int STATE_NTH = 1;
+  private static final int STATE_PROPERTY_RULE = 2;
+  private static final int STATE_UNKNOWN_RULE = 3;
+  private static final String [] STATE_NAMES = { "DEFAULT", "IN_NTH", "IN_PROPERTY_RULE", "IN_UNKNOWN_RULE" };
+
+  private static final int EOF_CHAR = -1;
+
+  // All at-rule keywords without the leading "@"
+  private static final String [] AT_KEYWORDS = { "charset",
+                                                 "import",
+                                                 "namespace",
+                                                 "page",
+                                                 "top-left-corner",
+                                                 "top-left",
+                                                 "top-center",
+                                                 "top-right",
+                                                 "top-right-corner",
+                                                 "bottom-left-corner",
+                                                 "bottom-left",
+                                                 "bottom-center",
+                                                 "bottom-right",
+                                                 "bottom-right-corner",
+                                                 "left-top",
+                                                 "left-middle",
+                                                 "left-bottom",
+                                                 "right-top",
+                                                 "right-middle",
+                                                 "right-bottom",
+                                                 "footnote",
+                                                 "media",
+                                                 "layer",
+                                                 "font-face",
+                                                 "keyframes",
+                                                 "viewport",
+                                                 "supports",
+                                                 "property" };
+  private static final int [] AT_KEYWORD_KINDS = { CHARSET_SYM,
+                                                   IMPORT_SYM,
+                                                   NAMESPACE_SYM,
+                                                   PAGE_SYM,
+                                                   TOPLEFTCORNER_SYM,
+                                                   TOPLEFT_SYM,
+                                                   TOPCENTER_SYM,
+                                                   TOPRIGHT_SYM,
+                                                   TOPRIGHTCORNER_SYM,
+                                                   BOTTOMLEFTCORNER_SYM,
+                                                   BOTTOMLEFT_SYM,
+                                                   BOTTOMCENTER_SYM,
+                                                   BOTTOMRIGHT_SYM,
+                                                   BOTTOMRIGHTCORNER_SYM,
+                                                   LEFTTOP_SYM,
+                                                   LEFTMIDDLE_SYM,
+                                                   LEFTBOTTOM_SYM,
+                                                   RIGHTTOP_SYM,
+                                                   RIGHTMIDDLE_SYM,
+                                                   RIGHTBOTTOM_SYM,
+                                                   FOOTNOTE_SYM,
+                                                   MEDIA_SYM,
+                                                   LAYER_SYM,
+                                                   FONTFACE_SYM,
+                                                   KEYFRAMES_SYM,
+                                                   VIEWPORT_SYM,
+                                                   SUPPORTS_SYM,
+                                                   PROPERTY_SYM };
+
+  private CharStream m_aCharStream;
+  private ICSSParseErrorHandler m_aCustomErrorHandler;
+  private int m_nState = STATE_DEFAULT;
+
+  // All chars read since the begin of the current token
+  private char [] m_aBuf = new char [64];
+  private int m_nBufLen;
+  private boolean m_bEOF;
+
+  CSSRecursiveDescentTokenManager (@NonNull final CharStream aCharStream)
+  {
+    ValueEnforcer.notNull (aCharStream, "CharStream");
+    m_aCharStream = aCharStream;
+  }
+
+  /**
+   * Start reading from a new char stream. All state of the previous input is discarded.
+   *
+   * @param aCharStream
+   *        The char stream to read from. May not be <code>null</code>.
+   */
+  void reInit (@NonNull final CharStream aCharStream)
+  {
+    ValueEnforcer.notNull (aCharStream, "CharStream");
+    m_aCharStream = aCharStream;
+    m_aCustomErrorHandler = null;
+    m_nState = STATE_DEFAULT;
+    m_nBufLen = 0;
+    m_bEOF = false;
+  }
+
+  /**
+   * @param aCustomErrorHandler
+   *        The error handler to be notified about illegal characters. May be <code>null</code>.
+   */
+  void setCustomErrorHandler (@Nullable final ICSSParseErrorHandler aCustomErrorHandler)
+  {
+    m_aCustomErrorHandler = aCustomErrorHandler;
+  }
+
+  /**
+   * Push back the provided number of chars. Tokens that were already created are not affected.
+   *
+   * @param nChars
+   *        Number of chars to push back.
+   */
+  void backup (final int nChars)
+  {
+    m_aCharStream.backup (nChars);
+  }
+
+  /**
+   * Switch back to the default lexical state. This is the equivalent of
+   * <code>SwitchTo(DEFAULT)</code> at the end of an unknown rule.
+   */
+  void switchToDefaultState ()
+  {
+    m_nState = STATE_DEFAULT;
+  }
+
+  @NonNull
+  String getLexicalStateName ()
+  {
+    return STATE_NAMES[m_nState];
+  }
+
+  private static boolean _isWhitespace (final int c)
+  {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private static boolean _isDigit (final int c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean _isHex (final int c)
+  {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean _isNmStartChar (final int c)
+  {
+    return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c >= 0x80;
+  }
+
+  private static boolean _isNmChar (final int c)
+  {
+    return _isNmStartChar (c) || _isDigit (c) || c == '-';
+  }
+
+  private static boolean _isUrlChar (final int c)
+  {
+    return c == '!' ||
+           (c >= '#' && c <= '&') ||
+           (c >= '*' && c <= '[') ||
+           (c >= ']' && c <= '~') ||
+           c >= 0x80;
+  }
+
+  /**
+   * Get the char at the provided offset relative to the start of the current token. Chars are read
+   * from the char stream on demand.
+   *
+   * @param nOffset
+   *        0-based offset
+   * @return {@link #EOF_CHAR} if the input ends before
+   */
+  private int _ch (final int nOffset)
+  {
+    while (nOffset >= m_nBufLen)
+    {
+      if (m_bEOF)
+        return EOF_CHAR;
+      final char c;
+      try
+      {
+        c = m_aCharStream.readChar ();
+      }
+      catch (final IOException ex)
+      {
+        m_bEOF = true;
+        return EOF_CHAR;
+      }
+      if (m_nBufLen == m_aBuf.length)
+      {
+        final char [] aNewBuf = new char [m_aBuf.length * 2];
+        System.arraycopy (m_aBuf, 0, aNewBuf, 0, m_nBufLen);
+        m_aBuf = aNewBuf;
+      }
+      m_aBuf[m_nBufLen++] = c;
+    }
+    return m_aBuf[nOffset];
+  }
+
+  /**
+   * Check if the case-insensitive literal is present at the provided offset. The literal must be
+   * lowercase.
+   */
+  private boolean _matchesLiteral (final int nOffset, @NonNull final String sLiteral)
+  {
+    final int nLength = sLiteral.length ();
+    for (int i = 0; i < nLength; ++i)
+    {
+      int c = _ch (nOffset + i);
+      if (c >= 'A' && c <= 'Z')
+        c += 'a' - 'A';
+      if (c != sLiteral.charAt (i))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check if the buffered range equals the case-insensitive literal. The literal must be
+   * lowercase.
+   */
+  private boolean _equalsLiteral (final int nStart, final int nEnd, @NonNull final String sLiteral)
+  {
+    return nEnd - nStart == sLiteral.length () && _matchesLiteral (nStart, sLiteral);
+  }
+
+  // ESCAPE: "\\" HNUM ("\r\n" | [" ","\t","\r","\n","\f"])? | "\\" ~["\r","\n","\f",hex]
+  private int _matchEscape (final int nOffset)
+  {
+    final int c = _ch (nOffset + 1);
+    if (_isHex (c))
+    {
+      int ret = nOffset + 2;
+      while (ret < nOffset + 7 && _isHex (_ch (ret)))
+        ret++;
+      final int c2 = _ch (ret);
+      if (c2 == '\r' && _ch (ret + 1) == '\n')
+        return ret + 2;
+      if (_isWhitespace (c2))
+        return ret + 1;
+      return ret;
+    }
+    if (c == EOF_CHAR || c == '\r' || c == '\n' || c == '\f')
+      return -1;
+    return nOffset + 2;
+  }
+
+  private int _matchNmStart (final int nOffset)
+  {
+    final int c = _ch (nOffset);
+    if (_isNmStartChar (c))
+      return nOffset + 1;
+    if (c == '\\')
+      return _matchEscape (nOffset);
+    return -1;
+  }
+
+  private int _matchNmChars (final int nOffset)
+  {
+    int ret = nOffset;
+    while (true)
+    {
+      final int c = _ch (ret);
+      if (_isNmChar (c))
+        ret++;
+      else
+        if (c == '\\')
+        {
+          final int nEnd = _matchEscape (ret);
+          if (nEnd < 0)
+            break;
+          ret = nEnd;
+        }
+        else
+          break;
+    }
+    return ret;
+  }
+
+  // IDENT: ("--" | "-")? NMSTART (NMCHAR)*
+  private int _matchIdent (final int nOffset)
+  {
+    int nStart = nOffset;
+    if (_ch (nStart) == '-')
+    {
+      nStart++;
+      if (_ch (nStart) == '-')
+        nStart++;
+    }
+    final int nEnd = _matchNmStart (nStart);
+    return nEnd < 0 ? -1 : _matchNmChars (nEnd);
+  }
+
+  private boolean _isCompleteIdent (final int nStart, final int nEnd)
+  {
+    return nEnd > nStart && _matchIdent (nStart) == nEnd;
+  }
+
+  // "-" IDENT "<suffix>" where the complete range is already known to be an
+  // identifier
+  private boolean _isVendorPrefixed (final int nStart, final int nEnd, @NonNull final String sSuffix)
+  {
+    final int nSuffixStart = nEnd - sSuffix.length ();
+    return _ch (nStart) == '-' &&
+           nSuffixStart > nStart + 1 &&
+           _matchesLiteral (nSuffixStart, sSuffix) &&
+           _isCompleteIdent (nStart + 1, nSuffixStart);
+  }
+
+  private int _matchSpaces (final int nOffset)
+  {
+    int ret = nOffset;
+    while (_isWhitespace (_ch (ret)))
+      ret++;
+    return ret;
+  }
+
+  private int _matchDigits (final int nOffset)
+  {
+    int ret = nOffset;
+    while (_isDigit (_ch (ret)))
+      ret++;
+    return ret;
+  }
+
+  // STRING1/STRING2 or INVALID_STRING1/INVALID_STRING2 - returns the negative
+  // end for invalid strings
+  private int _matchString (final int nOffset)
+  {
+    final int cQuote = _ch (nOffset);
+    int ret = nOffset + 1;
+    while (true)
+    {
+      final int c = _ch (ret);
+      if (c == cQuote)
+        return ret + 1;
+      if (c == EOF_CHAR || c == '\n' || c == '\r' || c == '\f')
+        return -ret;
+      if (c == '\\')
+      {
+        final int c2 = _ch (ret + 1);
+        if (c2 == '\n' || c2 == '\f')
+          ret += 2;
+        else
+          if (c2 == '\r')
+            ret += _ch (ret + 2) == '\n' ? 3 : 2;
+          else
+          {
+            final int nEnd = _matchEscape (ret);
+            if (nEnd < 0)
+              return -ret;
+            ret = nEnd;
+          }
+      }
+      else
+        ret++;
+    }
+  }
+
+  // URL: "url(" S* (STRING1 | STRING2 | URLCHAR*) S* ")"
+  private int _matchUrl ()
+  {
+    final int nContentStart = _matchSpaces (4);
+    int ret = -1;
+
+    final int c = _ch (nContentStart);
+    if (c == '"' || c == '\'')
+    {
+      final int nStringEnd = _matchString (nContentStart);
+      if (nStringEnd > 0)
+      {
+        final int nEnd = _matchSpaces (nStringEnd);
+        if (_ch (nEnd) == ')')
+          ret = nEnd + 1;
+      }
+    }
+
+    int nEnd = nContentStart;
+    while (true)
+    {
+      final int c2 = _ch (nEnd);
+      if (_isUrlChar (c2))
+        nEnd++;
+      else
+        if (c2 == '\\')
+        {
+          final int nEscapeEnd = _matchEscape (nEnd);
+          if (nEscapeEnd < 0)
+            break;
+          nEnd = nEscapeEnd;
+        }
+        else
+          break;
+    }
+    nEnd = _matchSpaces (nEnd);
+    if (_ch (nEnd) == ')')
+      ret = Math.max (ret, nEnd + 1);
+    return ret;
+  }
+
+  // "progid" S* ":" S* IDENT ("." IDENT)* S* "("
+  private int _matchProgId ()
+  {
+    int nEnd = _matchSpaces (6);
+    if (_ch (nEnd) != ':')
+      return -1;
+    nEnd = _matchIdent (_matchSpaces (nEnd + 1));
+    if (nEnd < 0)
+      return -1;
+    while (_ch (nEnd) == '.')
+    {
+      final int nNext = _matchIdent (nEnd + 1);
+      if (nNext < 0)
+        break;
+      nEnd = nNext;
+    }
+    nEnd = _matchSpaces (nEnd);
+    return _ch (nEnd) == '(' ? nEnd + 1 : -1;
+  }
+
+  // URANGE: "u+" (HNUM | HNUM "-" HNUM | URANGE_PLACEHOLDER)
+  private int _matchUnicodeRange ()
+  {
+    int nHex = 2;
+    while (nHex < 8 && _isHex (_ch (nHex)))
+      nHex++;
+    int nPlaceholder = 2;
+    while (nPlaceholder < 8 && (_isHex (_ch (nPlaceholder)) || _ch (nPlaceholder) == '?'))
+      nPlaceholder++;
+    int ret = Math.max (nHex, nPlaceholder);
+    if (nHex > 2 && _ch (nHex) == '-' && _isHex (_ch (nHex + 1)))
+    {
+      int nEnd = nHex + 2;
+      while (nEnd < nHex + 7 && _isHex (_ch (nEnd)))
+        nEnd++;
+      ret = Math.max (ret, nEnd);
+    }
+    return ret > 2 ? ret : -1;
+  }
+
+  private int m_nMatchKind;
+  private int m_nMatchLength;
+  private final int [] m_aNumEnds = new int [4];
+
+  private void _match (final int nKind, final int nLength)
+  {
+    m_nMatchKind = nKind;
+    m_nMatchLength = nLength;
+  }
+
+  private int _getFunctionKind (final int nIdentEnd)
+  {
+    if (_equalsLiteral (0, nIdentEnd, "calc") || _isVendorPrefixed (0, nIdentEnd, "-calc"))
+      return FUNCTION_CALC;
+    switch (_ch (0) | 0x20)
+    {
+      case 'e':
+        if (_equalsLiteral (0, nIdentEnd, "expression"))
+          return FUNCTION_EXPRESSION;
+        break;
+      case 'h':
+        if (_equalsLiteral (0, nIdentEnd, "has"))
+          return FUNCTION_HAS;
+        if (_equalsLiteral (0, nIdentEnd, "host"))
+          return FUNCTION_HOST;
+        if (_equalsLiteral (0, nIdentEnd, "host-context"))
+          return FUNCTION_HOSTCONTEXT;
+        break;
+      case 'i':
+        if (_equalsLiteral (0, nIdentEnd, "is"))
+          return FUNCTION_IS;
+        break;
+      case 'n':
+        if (_equalsLiteral (0, nIdentEnd, "nth-child") ||
+            _equalsLiteral (0, nIdentEnd, "nth-last-child") ||
+            _equalsLiteral (0, nIdentEnd, "nth-of-type") ||
+            _equalsLiteral (0, nIdentEnd, "nth-last-of-type"))
+          return FUNCTION_NTH;
+        break;
+      case 's':
+        if (_equalsLiteral (0, nIdentEnd, "slotted"))
+          return FUNCTION_SLOTTED;
+        break;
+      case 'w':
+        if (_equalsLiteral (0, nIdentEnd, "where"))
+          return FUNCTION_WHERE;
+        break;
+    }
+    return FUNCTION;
+  }
+
+  private int _getKeywordKind (final int nIdentEnd)
+  {
+    if (m_nState == STATE_PROPERTY_RULE)
+    {
+      if (_equalsLiteral (0, nIdentEnd, "syntax"))
+        return SYNTAX_SYM;
+      if (_equalsLiteral (0, nIdentEnd, "inherits"))
+        return INHERITS_SYM;
+      if (_equalsLiteral (0, nIdentEnd, "initial-value"))
+        return INITIALVALUE_SYM;
+      if (_ch (0) == '-' && _ch (1) == '-')
+        return DASHED_IDENT;
+    }
+    switch (nIdentEnd)
+    {
+      case 2:
+        if (_equalsLiteral (0, nIdentEnd, "to"))
+          return TO_SYM;
+        if (_equalsLiteral (0, nIdentEnd, "or"))
+          return OR_SYM;
+        break;
+      case 3:
+        if (_equalsLiteral (0, nIdentEnd, "and"))
+          return AND_SYM;
+        if (_equalsLiteral (0, nIdentEnd, "not"))
+          return NOT_SYM;
+        break;
+      case 4:
+        if (_equalsLiteral (0, nIdentEnd, "only"))
+          return ONLY_SYM;
+        if (_equalsLiteral (0, nIdentEnd, "from"))
+          return FROM_SYM;
+        if (_equalsLiteral (0, nIdentEnd, "true"))
+          return TRUE_SYM;
+        break;
+      case 5:
+        if (_equalsLiteral (0, nIdentEnd, "false"))
+          return FALSE_SYM;
+        break;
+      case 7:
+        if (_equalsLiteral (0, nIdentEnd, "inherit"))
+          return INHERIT;
+        break;
+    }
+    return IDENT;
+  }
+
+  /**
+   * Identifiers, keywords, functions, URLs and unicode ranges.
+   *
+   * @return <code>false</code> if no identifier starts at the current position
+   */
+  private boolean _matchIdentLike ()
+  {
+    final int nIdentEnd = _matchIdent (0);
+    int nKind = -1;
+    int nLength = -1;
+    if (nIdentEnd > 0)
+    {
+      if (_ch (nIdentEnd) == '(')
+      {
+        nKind = _getFunctionKind (nIdentEnd);
+        nLength = nIdentEnd + 1;
+        if (_equalsLiteral (0, nIdentEnd, "url"))
+        {
+          final int nUrlEnd = _matchUrl ();
+          if (nUrlEnd > nLength)
+          {
+            nKind = URL;
+            nLength = nUrlEnd;
+          }
+        }
+      }
+      else
+      {
+        nKind = _getKeywordKind (nIdentEnd);
+        nLength = nIdentEnd;
+        if (_equalsLiteral (0, nIdentEnd, "progid"))
+        {
+          final int nProgIdEnd = _matchProgId ();
+          if (nProgIdEnd > 0)
+          {
+            nKind = FUNCTION;
+            nLength = nProgIdEnd;
+          }
+        }
+      }
+    }
+
+    final int c = _ch (0);
+    if ((c == 'u' || c == 'U') && _ch (1) == '+')
+    {
+      final int nRangeEnd = _matchUnicodeRange ();
+      if (nRangeEnd > nLength)
+      {
+        nKind = URANGE;
+        nLength = nRangeEnd;
+      }
+    }
+
+    if (nKind < 0)
+      return false;
+    _match (nKind, nLength);
+    return true;
+  }
+
+  // NUMBER, PERCENTAGE and DIMENSION
+  private void _matchNumeric ()
+  {
+    // All relevant end positions of NUM
+    final int [] aNumEnds = m_aNumEnds;
+    int nNumEnds = 0;
+    final int nIntEnd = _matchDigits (0);
+    if (nIntEnd > 0)
+      aNumEnds[nNumEnds++] = nIntEnd;
+    if (_ch (nIntEnd) == '.')
+    {
+      final int nFractionEnd = _matchDigits (nIntEnd + 1);
+      if (nFractionEnd > nIntEnd + 1)
+      {
+        aNumEnds[nNumEnds++] = nFractionEnd;
+        if (nIntEnd > 0)
+        {
+          final int nExponentEnd = _matchExponent (nFractionEnd);
+          if (nExponentEnd > 0)
+            aNumEnds[nNumEnds++] = nExponentEnd;
+        }
+      }
+    }
+    if (nIntEnd > 0)
+    {
+      final int nExponentEnd = _matchExponent (nIntEnd);
+      if (nExponentEnd > 0)
+        aNumEnds[nNumEnds++] = nExponentEnd;
+    }
+
+    int nNumber = -1;
+    int nPercentage = -1;
+    int nDimension = -1;
+    for (int i = 0; i < nNumEnds; ++i)
+    {
+      final int nEnd = aNumEnds[i];
+      nNumber = Math.max (nNumber, nEnd);
+      if (_ch (nEnd) == '%')
+        nPercentage = Math.max (nPercentage, nEnd + 1);
+      nDimension = Math.max (nDimension, _matchIdent (nEnd));
+    }
+
+    // On equal length NUMBER wins
+    if (nPercentage > nNumber && nPercentage >= nDimension)
+      _match (PERCENTAGE, nPercentage);
+    else
+      if (nDimension > nNumber)
+        _match (DIMENSION, nDimension);
+      else
+        _match (NUMBER, nNumber);
+  }
+
+  // [eE] [+-]? [0-9]+
+  private int _matchExponent (final int nOffset)
+  {
+    final int c = _ch (nOffset);
+    if (c != 'e' && c != 'E')
+      return -1;
+    int nStart = nOffset + 1;
+    final int c2 = _ch (nStart);
+    if (c2 == '+' || c2 == '-')
+      nStart++;
+    final int nEnd = _matchDigits (nStart);
+    return nEnd > nStart ? nEnd : -1;
+  }
+
+  private void _matchAtRule ()
+  {
+    final int nIdentEnd = _matchIdent (1);
+    if (nIdentEnd < 0)
+    {
+      _match (AT_UNKNOWN, 1);
+      return;
+    }
+
+    int nKind = AT_UNKNOWN;
+    if (_ch (1) == '-')
+    {
+      if (_isVendorPrefixed (1, nIdentEnd, "-font-face"))
+        nKind = FONTFACE_SYM;
+      else
+        if (_isVendorPrefixed (1, nIdentEnd, "-keyframes"))
+          nKind = KEYFRAMES_SYM;
+        else
+          if (_isVendorPrefixed (1, nIdentEnd, "-viewport"))
+            nKind = VIEWPORT_SYM;
+    }
+    else
+    {
+      for (int i = 0; i < AT_KEYWORDS.length; ++i)
+        if (_equalsLiteral (1, nIdentEnd, AT_KEYWORDS[i]))
+        {
+          nKind = AT_KEYWORD_KINDS[i];
+          break;
+        }
+    }
+    _match (nKind, nIdentEnd);
+  }
+
+  private void _matchInNth (final int c)
+  {
+    switch (c)
+    {
+      case '+':
+        _match (PLUS, 1);
+        return;
+      case '-':
+        _match (MINUS, 1);
+        return;
+      case '(':
+        _match (LROUND, 1);
+        return;
+      case ')':
+        _match (RROUND, 1);
+        return;
+      case 'n':
+      case 'N':
+        _match (N, 1);
+        return;
+      case 'o':
+      case 'O':
+        if (_matchesLiteral (0, "odd"))
+        {
+          _match (ODD, 3);
+          return;
+        }
+        break;
+      case 'e':
+      case 'E':
+        if (_matchesLiteral (0, "even"))
+        {
+          _match (EVEN, 4);
+          return;
+        }
+        break;
+      default:
+        if (_isWhitespace (c))
+        {
+          _match (S, _matchSpaces (1));
+          return;
+        }
+        if (_isDigit (c))
+        {
+          _match (INTEGER, _matchDigits (1));
+          return;
+        }
+    }
+    _match (UNKNOWN, 1);
+  }
+
+  private void _matchDefault (final int c)
+  {
+    switch (c)
+    {
+      case '+':
+        _match (PLUS, 1);
+        return;
+      case '(':
+        _match (LROUND, 1);
+        return;
+      case ')':
+        _match (RROUND, 1);
+        return;
+      case '{':
+        _match (LBRACE, 1);
+        return;
+      case '}':
+        _match (RBRACE, 1);
+        return;
+      case '[':
+        _match (LSQUARE, 1);
+        return;
+      case ']':
+        _match (RSQUARE, 1);
+        return;
+      case ',':
+        _match (COMMA, 1);
+        return;
+      case ';':
+        _match (SEMICOLON, 1);
+        return;
+      case '/':
+        _match (SLASH, 1);
+        return;
+      case '=':
+        _match (EQUALS, 1);
+        return;
+      case '>':
+        _match (GREATER, 1);
+        return;
+      case '&':
+        _match (AMPERSAND, 1);
+        return;
+      case ':':
+        if (_matchesLiteral (1, "not("))
+          _match (FUNCTION_NOT, 5);
+        else
+          _match (COLON, 1);
+        return;
+      case '*':
+        if (_ch (1) == '=')
+          _match (SUBSTRINGMATCH, 2);
+        else
+          _match (ASTERISK, 1);
+        return;
+      case '|':
+        if (_ch (1) == '=')
+          _match (DASHMATCH, 2);
+        else
+          _match (DASH, 1);
+        return;
+      case '~':
+        if (_ch (1) == '=')
+          _match (INCLUDES, 2);
+        else
+          _match (TILDE, 1);
+        return;
+      case '$':
+        if (_ch (1) == '=')
+          _match (SUBFIXMATCH, 2);
+        else
+          _match (DOLLAR, 1);
+        return;
+      case '^':
+        if (_ch (1) == '=')
+        {
+          _match (PREFIXMATCH, 2);
+          return;
+        }
+        break;
+      case '<':
+        if (_matchesLiteral (1, "!--"))
+        {
+          _match (CDO, 4);
+          return;
+        }
+        break;
+      case '#':
+      {
+        final int nEnd = _matchNmChars (1);
+        if (nEnd > 1)
+        {
+          _match (HASH, nEnd);
+          return;
+        }
+        break;
+      }
+      case '!':
+      {
+        final int nStart = _matchSpaces (1);
+        if (_matchesLiteral (nStart, "important"))
+        {
+          _match (IMPORTANT_SYM, nStart + 9);
+          return;
+        }
+        break;
+      }
+      case '@':
+        _matchAtRule ();
+        return;
+      case '"':
+      case '\'':
+      {
+        final int nEnd = _matchString (0);
+        if (nEnd > 0)
+          _match (c == '"' ? STRING1 : STRING2, nEnd);
+        else
+          _match (c == '"' ? INVALID_STRING1 : INVALID_STRING2, -nEnd);
+        return;
+      }
+      case '\\':
+      {
+        final int c1 = _ch (1);
+        if (c1 == '\n' || c1 == '\f')
+        {
+          _match (STRING_EOL, 2);
+          return;
+        }
+        if (c1 == '\r')
+        {
+          _match (STRING_EOL, _ch (2) == '\n' ? 3 : 2);
+          return;
+        }
+        if (_matchIdentLike ())
+          return;
+        break;
+      }
+      case '-':
+        if (_matchIdentLike ())
+          return;
+        if (_matchesLiteral (1, "->"))
+          _match (CDC, 3);
+        else
+          _match (MINUS, 1);
+        return;
+      case '.':
+        if (_isDigit (_ch (1)))
+          _matchNumeric ();
+        else
+          _match (DOT, 1);
+        return;
+      default:
+        if (_isWhitespace (c))
+        {
+          _match (S, _matchSpaces (1));
+          return;
+        }
+        if (_isDigit (c))
+        {
+          _matchNumeric ();
+          return;
+        }
+        if (_isNmStartChar (c) && _matchIdentLike ())
+          return;
+    }
+    _match (UNKNOWN, 1);
+  }
+
+  // "/*" ... "*/" - a special token, that is skipped
+  private void _skipMultiLineComment ()
+  {
+    int cPrev = 0;
+    while (true)
+    {
+      final char c;
+      try
+      {
+        c = m_aCharStream.readChar ();
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException ("Lexical error at line " +
+                                         m_aCharStream.getEndLine () +
+                                         ", column " +
+                                         m_aCharStream.getEndColumn () +
+                                         ".  Encountered: <EOF> after : \"\"");
+      }
+      if (cPrev == '*' && c == '/')
+        return;
+      cPrev = c;
+    }
+  }
+
+  // "//" (~["\n","\r",";","}"])* ("\n"|"\r"|"\r\n")? - a special token, that
+  // is skipped
+  private void _skipSingleLineComment ()
+  {
+    try
+    {
+      while (true)
+      {
+        final char c = m_aCharStream.readChar ();
+        if (c == ';' || c == '}')
+        {
+          m_aCharStream.backup (1);
+          return;
+        }
+        if (c == '\n')
+          return;
+        if (c == '\r')
+        {
+          if (m_aCharStream.readChar () != '\n')
+            m_aCharStream.backup (1);
+          return;
+        }
+      }
+    }
+    catch (final IOException ex)
+    {
+      // EOF terminates the comment
+    }
+  }
+
+  /**
+   * @return The next token. Never <code>null</code>. At the end of the input a token with kind
+   *         {@link #EOF} is returned.
+   */
+  @NonNull
+  Token getNextToken ()
+  {
+    while (true)
+    {
+      final char c;
+      try
+      {
+        c = m_aCharStream.beginToken ();
+      }
+      catch (final IOException ex)
+      {
+        final Token ret = new Token ();
+        ret.kind = EOF;
+        ret.image = "";
+        ret.beginLine = ret.endLine = m_aCharStream.getEndLine ();
+        ret.beginColumn = ret.endColumn = m_aCharStream.getEndColumn ();
+        return ret;
+      }
+      m_aBuf[0] = c;
+      m_nBufLen = 1;
+      m_bEOF = false;
+
+      if (c == '/' && m_nState != STATE_UNKNOWN_RULE)
+      {
+        final int c1 = _ch (1);
+        if (c1 == '*' && m_nState == STATE_DEFAULT)
+        {
+          _skipMultiLineComment ();
+          continue;
+        }
+        if (c1 == '/')
+        {
+          _skipSingleLineComment ();
+          continue;
+        }
+      }
+
+      if (m_nState == STATE_NTH)
+        _matchInNth (c);
+      else
+        _matchDefault (c);
+      m_aCharStream.backup (m_nBufLen - m_nMatchLength);
+
+      final int nKind = m_nMatchKind;
+      final Token ret = new Token ();
+      ret.kind = nKind;
+      ret.beginLine = m_aCharStream.getBeginLine ();
+      ret.beginColumn = m_aCharStream.getBeginColumn ();
+      ret.endLine = m_aCharStream.getEndLine ();
+      ret.endColumn = m_aCharStream.getEndColumn ();
+      switch (nKind)
+      {
+        case STRING_EOL:
+          ret.image = "";
+          break;
+        case URL:
+          ret.image = CSSParseHelper.trimUrl (m_aCharStream.getImage ());
+          break;
+        case RROUND:
+          ret.image = ")";
+          if (m_nState == STATE_NTH || m_nState == STATE_UNKNOWN_RULE)
+            m_nState = STATE_DEFAULT;
+          break;
+        case RBRACE:
+          ret.image = "}";
+          m_nState = STATE_DEFAULT;
+          break;
+        case FUNCTION_NTH:
+          ret.image = m_aCharStream.getImage ();
+          m_nState = STATE_NTH;
+          break;
+        case PROPERTY_SYM:
+          ret.image = m_aCharStream.getImage ();
+          m_nState = STATE_PROPERTY_RULE;
+          break;
+        case AT_UNKNOWN:
+          ret.image = m_aCharStream.getImage ();
+          m_nState = STATE_UNKNOWN_RULE;
+          break;
+        case UNKNOWN:
+          ret.image = m_aCharStream.getImage ();
+          if (m_aCustomErrorHandler != null)
+            m_aCustomErrorHandler.onIllegalCharacter (c);
+          else
+            LOGGER.error ("Illegal character: " + ret.image);
+          break;
+        default:
+          ret.image = m_aCharStream.getImage ();
+          break;
+      }
+      return ret;
+    }
+  }
+}
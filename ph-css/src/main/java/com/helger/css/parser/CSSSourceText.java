@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * This class is only used internally. <br>
+ * The immutable source text of a parsed style sheet together with the settings that were used to
+ * parse it, so that parts of it can be parsed again on demand with the same result. This is used to
+ * create the content of lazily read style rules without keeping their node tree in memory.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+public final class CSSSourceText
+{
+  /**
+   * Maps line and column numbers of the source text to offsets. This is efficient if the positions
+   * are requested in ascending order, as they are when the nodes of a style sheet are converted.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public final class OffsetResolver
+  {
+    // The last resolved offset and its position
+    private int m_nOffset = -1;
+    private int m_nLine = m_nLineBefore;
+    private int m_nColumn = m_nColumnBefore;
+    // The position of the char before the last resolved offset
+    private int m_nPrevLine = m_nLineBefore;
+    private int m_nPrevColumn = m_nColumnBefore;
+
+    OffsetResolver ()
+    {}
+
+    private static int _compare (final int nLine1, final int nColumn1, final int nLine2, final int nColumn2)
+    {
+      return nLine1 != nLine2 ? Integer.compare (nLine1, nLine2) : Integer.compare (nColumn1, nColumn2);
+    }
+
+    /**
+     * Get the offset of the char at the passed position.
+     *
+     * @param nLine
+     *        The line number of the char.
+     * @param nColumn
+     *        The column number of the char.
+     * @return The offset of the char or -1 if no char is at the passed position.
+     */
+    public int getOffset (final int nLine, final int nColumn)
+    {
+      if (_compare (nLine, nColumn, m_nLine, m_nColumn) < 0)
+      {
+        // Start again from the beginning
+        m_nOffset = -1;
+        m_nLine = m_nLineBefore;
+        m_nColumn = m_nColumnBefore;
+      }
+
+      // Same logic as in the char streams
+      final int nLength = m_sText.length ();
+      while (m_nOffset < nLength - 1 && _compare (m_nLine, m_nColumn, nLine, nColumn) < 0)
+      {
+        m_nPrevLine = m_nLine;
+        m_nPrevColumn = m_nColumn;
+        final int nNext = m_nOffset + 1;
+        if (m_nOffset >= 0)
+        {
+          final char cPrev = m_sText.charAt (m_nOffset);
+          if (cPrev == '\n' || (cPrev == '\r' && m_sText.charAt (nNext) != '\n'))
+          {
+            m_nLine++;
+            m_nColumn = 0;
+          }
+        }
+        if (m_sText.charAt (nNext) == '\t')
+          m_nColumn += m_nTabSize - (m_nColumn % m_nTabSize);
+        else
+          m_nColumn++;
+        m_nOffset = nNext;
+      }
+      return m_nOffset >= 0 && m_nLine == nLine && m_nColumn == nColumn ? m_nOffset : -1;
+    }
+
+    /**
+     * @return The line number to be used for a part of the text that starts at the last resolved
+     *         offset. See {@link CSSSourceText#getSubText(int, int, int, int)}.
+     */
+    public int getLineBefore ()
+    {
+      // A part that starts at the beginning of a line starts with column 0
+      return m_nPrevLine != m_nLine ? m_nLine : m_nPrevLine;
+    }
+
+    /**
+     * @return The column number to be used for a part of the text that starts at the last resolved
+     *         offset. See {@link CSSSourceText#getSubText(int, int, int, int)}.
+     */
+    public int getColumnBefore ()
+    {
+      return m_nPrevLine != m_nLine ? 0 : m_nPrevColumn;
+    }
+  }
+
+  private final String m_sText;
+  private final int m_nLineBefore;
+  private final int m_nColumnBefore;
+  private final int m_nTabSize;
+  private final boolean m_bBrowserCompliantMode;
+  private final boolean m_bKeepDeprecatedProperties;
+
+  /**
+   * Constructor
+   *
+   * @param sText
+   *        The source text. May not be <code>null</code>.
+   * @param nLineBefore
+   *        The line number of the char right before the first char of the text. Must be &gt; 0.
+   * @param nColumnBefore
+   *        The column number of the char right before the first char of the text. 0 if the text
+   *        starts at the beginning of a line.
+   * @param nTabSize
+   *        The tab size that was used to calculate the columns. Must be &gt; 0.
+   * @param bBrowserCompliantMode
+   *        The browser compliant mode that was used for parsing.
+   * @param bKeepDeprecatedProperties
+   *        Whether deprecated properties were kept when parsing.
+   */
+  public CSSSourceText (@NonNull final String sText,
+                        @Nonnegative final int nLineBefore,
+                        @Nonnegative final int nColumnBefore,
+                        @Nonnegative final int nTabSize,
+                        final boolean bBrowserCompliantMode,
+                        final boolean bKeepDeprecatedProperties)
+  {
+    ValueEnforcer.notNull (sText, "Text");
+    ValueEnforcer.isGT0 (nLineBefore, "LineBefore");
+    ValueEnforcer.isGE0 (nColumnBefore, "ColumnBefore");
+    ValueEnforcer.isGT0 (nTabSize, "TabSize");
+    m_sText = sText;
+    m_nLineBefore = nLineBefore;
+    m_nColumnBefore = nColumnBefore;
+    m_nTabSize = nTabSize;
+    m_bBrowserCompliantMode = bBrowserCompliantMode;
+    m_bKeepDeprecatedProperties = bKeepDeprecatedProperties;
+  }
+
+  /**
+   * @return The source text. Never <code>null</code>.
+   */
+  @NonNull
+  public String getText ()
+  {
+    return m_sText;
+  }
+
+  /**
+   * @return A new resolver to map positions of this text to offsets. Never <code>null</code>.
+   */
+  @NonNull
+  public OffsetResolver createOffsetResolver ()
+  {
+    return new OffsetResolver ();
+  }
+
+  /**
+   * Get a part of this text with the same settings.
+   *
+   * @param nStart
+   *        The offset of the first char. Must be &ge; 0.
+   * @param nEnd
+   *        The offset after the last char. Must be &ge; the start offset.
+   * @param nLineBefore
+   *        The line number of the char right before the first char of the part.
+   * @param nColumnBefore
+   *        The column number of the char right before the first char of the part. 0 if the part
+   *        starts at the beginning of a line.
+   * @return The part of the text. Never <code>null</code>.
+   */
+  @NonNull
+  public CSSSourceText getSubText (@Nonnegative final int nStart,
+                                   @Nonnegative final int nEnd,
+                                   @Nonnegative final int nLineBefore,
+                                   @Nonnegative final int nColumnBefore)
+  {
+    return new CSSSourceText (m_sText.substring (nStart, nEnd),
+                              nLineBefore,
+                              nColumnBefore,
+                              m_nTabSize,
+                              m_bBrowserCompliantMode,
+                              m_bKeepDeprecatedProperties);
+  }
+
+  /**
+   * Parse the complete text as the content of a style rule, i.e. as declarations and nested rules.
+   * Parse errors are not reported, as the text was already parsed before.
+   *
+   * @return The parsed node or <code>null</code> in case of an unrecoverable error.
+   */
+  @Nullable
+  public CSSNode readStyleDeclarationListWithNested ()
+  {
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (m_sText,
+                                                                                 m_nLineBefore,
+                                                                                 m_nColumnBefore);
+    aCharStream.setTabSize (m_nTabSize);
+    try
+    {
+      final ParserCSS30 aParser = new ParserCSS30 (new ParserCSS30TokenManager (aCharStream));
+      aParser.setBrowserCompliantMode (m_bBrowserCompliantMode);
+      aParser.setKeepDeprecatedProperties (m_bKeepDeprecatedProperties);
+      return aParser.styleDeclarationListWithNested ();
+    }
+    catch (final ParseException ex)
+    {
+      return null;
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("TextLength", m_sText.length ())
+                                       .append ("LineBefore", m_nLineBefore)
+                                       .append ("ColumnBefore", m_nColumnBefore)
+                                       .append ("TabSize", m_nTabSize)
+                                       .append ("BrowserCompliantMode", m_bBrowserCompliantMode)
+                                       .append ("KeepDeprecatedProperties", m_bKeepDeprecatedProperties)
+                                       .getToString ();
+  }
+}
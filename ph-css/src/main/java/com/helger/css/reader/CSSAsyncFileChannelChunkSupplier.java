@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.css.parser.CSSByteChunkCharStream;
+
+/**
+ * Provides the content of an {@link AsynchronousFileChannel} as byte chunks for a
+ * {@link CSSByteChunkCharStream}. The reads are performed asynchronously by the channel, one chunk
+ * ahead of the parser, so no I/O thread is ever blocked. Only the parsing thread waits if the
+ * parser is faster than the channel. Three buffers are rotated, so the read ahead never writes into
+ * a buffer the consumer may still access.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+final class CSSAsyncFileChannelChunkSupplier implements
+                                             CSSByteChunkCharStream.IByteChunkSupplier,
+                                             CompletionHandler <Integer, ByteBuffer>
+{
+  private static final Object EOF = new Object ();
+
+  private final AsynchronousFileChannel m_aChannel;
+  private final int m_nChunkSize;
+  private final BlockingQueue <Object> m_aQueue = new LinkedBlockingQueue <> ();
+  private final CompletableFuture <Void> m_aFirstChunk = new CompletableFuture <> ();
+  // Only modified in the completion handler - the access is ordered by the queue
+  private long m_nPosition = 0;
+  // Only accessed from the parsing thread - the buffers returned by the last two calls
+  private ByteBuffer m_aLast;
+  private ByteBuffer m_aBeforeLast;
+  private boolean m_bDone = false;
+
+  CSSAsyncFileChannelChunkSupplier (@NonNull final AsynchronousFileChannel aChannel, @Nonnegative final int nChunkSize)
+  {
+    m_aChannel = aChannel;
+    m_nChunkSize = nChunkSize;
+  }
+
+  private void _read (@Nullable final ByteBuffer aBuf)
+  {
+    final ByteBuffer aTarget = aBuf != null ? aBuf : ByteBuffer.allocate (m_nChunkSize);
+    aTarget.clear ();
+    try
+    {
+      m_aChannel.read (aTarget, m_nPosition, aTarget, this);
+    }
+    catch (final RuntimeException ex)
+    {
+      // E.g. the channel is not readable
+      failed (ex, aTarget);
+    }
+  }
+
+  /**
+   * Start reading the first chunk.
+   *
+   * @return A future that is completed as soon as the first chunk is available or reading failed.
+   */
+  @NonNull
+  CompletableFuture <Void> start ()
+  {
+    _read (null);
+    return m_aFirstChunk;
+  }
+
+  public void completed (@NonNull final Integer aResult, @NonNull final ByteBuffer aBuf)
+  {
+    final int nRead = aResult.intValue ();
+    if (nRead < 0)
+      m_aQueue.add (EOF);
+    else
+    {
+      m_nPosition += nRead;
+      aBuf.flip ();
+      m_aQueue.add (aBuf);
+    }
+    m_aFirstChunk.complete (null);
+  }
+
+  public void failed (@NonNull final Throwable ex, @Nullable final ByteBuffer aBuf)
+  {
+    m_aQueue.add (ex);
+    m_aFirstChunk.complete (null);
+  }
+
+  @Nullable
+  public ByteBuffer getNextChunk () throws IOException
+  {
+    if (m_bDone)
+      return null;
+
+    final Object aObj;
+    try
+    {
+      aObj = m_aQueue.take ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      m_bDone = true;
+      throw new InterruptedIOException ("Interrupted while waiting for the next chunk");
+    }
+
+    if (aObj == EOF)
+    {
+      m_bDone = true;
+      return null;
+    }
+    if (aObj instanceof Throwable)
+    {
+      m_bDone = true;
+      if (aObj instanceof IOException)
+        throw (IOException) aObj;
+      throw new IOException ("Failed to read from channel", (Throwable) aObj);
+    }
+
+    final ByteBuffer ret = (ByteBuffer) aObj;
+    // Read ahead into the buffer that was returned two calls ago. The buffer returned by the last
+    // call may still be accessed by the consumer while this chunk is requested.
+    _read (m_aBeforeLast);
+    m_aBeforeLast = m_aLast;
+    m_aLast = ret;
+    return ret;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.function.BiFunction;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.parser.ParseException;
+import com.helger.css.reader.errorhandler.CSSParseError;
+import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
+
+/**
+ * The result of reading a single source of many, e.g. a style sheet with the {@link CSSBatchReader}
+ * or a declaration list with
+ * {@link CSSReaderDeclarationList#readAllFromStrings(Iterable, CSSReaderSettings, CSSParserPool, java.util.concurrent.Executor)}.
+ *
+ * @author Philip Helger
+ * @param <SOURCE>
+ *        The source type
+ * @param <RESULT>
+ *        The type of the read object, e.g. {@link com.helger.css.decl.CascadingStyleSheet}
+ * @since 8.2.2
+ */
+@Immutable
+public final class CSSBatchReadResult <SOURCE, RESULT>
+{
+  private final SOURCE m_aSource;
+  private final int m_nIndex;
+  private final RESULT m_aResult;
+  private final ICommonsList <CSSParseError> m_aParseErrors;
+  private final ICommonsList <ParseException> m_aParseExceptions;
+
+  CSSBatchReadResult (@NonNull final SOURCE aSource,
+                      @Nonnegative final int nIndex,
+                      @Nullable final RESULT aResult,
+                      @NonNull final ICommonsList <CSSParseError> aParseErrors,
+                      @NonNull final ICommonsList <ParseException> aParseExceptions)
+  {
+    ValueEnforcer.notNull (aSource, "Source");
+    ValueEnforcer.isGE0 (nIndex, "Index");
+    ValueEnforcer.notNull (aParseErrors, "ParseErrors");
+    ValueEnforcer.notNull (aParseExceptions, "ParseExceptions");
+    m_aSource = aSource;
+    m_nIndex = nIndex;
+    m_aResult = aResult;
+    m_aParseErrors = aParseErrors;
+    m_aParseExceptions = aParseExceptions;
+  }
+
+  /**
+   * @return The source that was read. Never <code>null</code>.
+   */
+  @NonNull
+  public SOURCE getSource ()
+  {
+    return m_aSource;
+  }
+
+  /**
+   * @return The 0-based index of the source in the order of the input. The {@link CSSBatchReader}
+   *         reports results in the order they complete, so this can be used to restore the input
+   *         order.
+   */
+  @Nonnegative
+  public int getIndex ()
+  {
+    return m_nIndex;
+  }
+
+  /**
+   * @return The read object or <code>null</code> if the source could not be read or parsed.
+   */
+  @Nullable
+  public RESULT getResult ()
+  {
+    return m_aResult;
+  }
+
+  /**
+   * @return <code>true</code> if the source was read successfully, <code>false</code> if not.
+   */
+  public boolean isSuccess ()
+  {
+    return m_aResult != null;
+  }
+
+  /**
+   * @return <code>true</code> if at least one recoverable parse error occurred.
+   */
+  public boolean hasParseErrors ()
+  {
+    return m_aParseErrors.isNotEmpty ();
+  }
+
+  /**
+   * @return A copy of all recoverable parse errors. Never <code>null</code> but maybe empty.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <CSSParseError> getAllParseErrors ()
+  {
+    return new CommonsArrayList <> (m_aParseErrors);
+  }
+
+  /**
+   * @return <code>true</code> if at least one unrecoverable parse exception occurred.
+   */
+  public boolean hasParseExceptions ()
+  {
+    return m_aParseExceptions.isNotEmpty ();
+  }
+
+  /**
+   * @return A copy of all unrecoverable parse exceptions. Never <code>null</code> but maybe empty.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ParseException> getAllParseExceptions ()
+  {
+    return new CommonsArrayList <> (m_aParseExceptions);
+  }
+
+  /**
+   * Read a single source with a new {@link CSSParser} that collects all recoverable parse errors
+   * and all unrecoverable parse exceptions into the result. Custom error and exception handlers
+   * contained in the settings are therefore not used.
+   */
+  @NonNull
+  static <SOURCE, RESULT> CSSBatchReadResult <SOURCE, RESULT> read (@NonNull final SOURCE aSource,
+                                                                     @Nonnegative final int nIndex,
+                                                                     @NonNull final CSSReaderSettings aSettings,
+                                                                     @Nullable final CSSParserPool aPool,
+                                                                     @NonNull final BiFunction <CSSParser, SOURCE, RESULT> aReader)
+  {
+    final CollectingCSSParseErrorHandler aErrorHdl = new CollectingCSSParseErrorHandler ();
+    final ICommonsList <ParseException> aExceptions = new CommonsArrayList <> ();
+    final CSSReaderSettings aRealSettings = aSettings.getClone ()
+                                                     .setCustomErrorHandler (aErrorHdl)
+                                                     .setCustomExceptionHandler (aExceptions::add);
+    final RESULT aResult = aReader.apply (new CSSParser (aRealSettings, aPool), aSource);
+    return new CSSBatchReadResult <> (aSource, nIndex, aResult, aErrorHdl.getAllParseErrors (), aExceptions);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Source", m_aSource)
+                                       .append ("Index", m_nIndex)
+                                       .append ("Success", isSuccess ())
+                                       .append ("ParseErrors", m_aParseErrors)
+                                       .append ("ParseExceptions", m_aParseExceptions)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * The summary of a complete {@link CSSBatchReader} run.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+public final class CSSBatchReadSummary
+{
+  private final int m_nSourceCount;
+  private final int m_nSuccessCount;
+  private final int m_nFailureCount;
+  private final boolean m_bInterrupted;
+
+  CSSBatchReadSummary (@Nonnegative final int nSourceCount,
+                       @Nonnegative final int nSuccessCount,
+                       @Nonnegative final int nFailureCount,
+                       final boolean bInterrupted)
+  {
+    ValueEnforcer.isGE0 (nSourceCount, "SourceCount");
+    ValueEnforcer.isGE0 (nSuccessCount, "SuccessCount");
+    ValueEnforcer.isGE0 (nFailureCount, "FailureCount");
+    m_nSourceCount = nSourceCount;
+    m_nSuccessCount = nSuccessCount;
+    m_nFailureCount = nFailureCount;
+    m_bInterrupted = bInterrupted;
+  }
+
+  /**
+   * @return The number of sources that were submitted for reading. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSourceCount ()
+  {
+    return m_nSourceCount;
+  }
+
+  /**
+   * @return The number of sources that were read successfully. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSuccessCount ()
+  {
+    return m_nSuccessCount;
+  }
+
+  /**
+   * @return The number of sources that could not be read. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getFailureCount ()
+  {
+    return m_nFailureCount;
+  }
+
+  /**
+   * @return <code>true</code> if the reading thread was interrupted and not all sources were
+   *         submitted.
+   */
+  public boolean isInterrupted ()
+  {
+    return m_bInterrupted;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("SourceCount", m_nSourceCount)
+                                       .append ("SuccessCount", m_nSuccessCount)
+                                       .append ("FailureCount", m_nFailureCount)
+                                       .append ("Interrupted", m_bInterrupted)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.css.decl.CascadingStyleSheet;
+
+/**
+ * Read many CSS sources in parallel. Each source is parsed with its own {@link CSSParser} that
+ * collects all recoverable parse errors and all unrecoverable parse exceptions into the
+ * {@link CSSBatchReadResult} of that source. Custom error and exception handlers contained in the
+ * settings are therefore not used. The interpret error handler and all other settings are applied
+ * as usual.<br>
+ * The number of sources being parsed at the same time is bounded, so that at most that many
+ * stylesheets are in memory, independent of the number of sources. The results are passed to a
+ * callback as soon as they are available, so they are usually not reported in the input order. The
+ * callback is never invoked concurrently.<br>
+ * The executor to use is provided by the caller - e.g. a {@link ForkJoinPool} or an executor
+ * creating a virtual thread per task.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+public final class CSSBatchReader
+{
+  /** The default maximum number of sources being parsed at the same time */
+  public static final int DEFAULT_MAX_IN_FLIGHT = Math.max (2, Runtime.getRuntime ().availableProcessors () * 2);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSBatchReader.class);
+
+  private final CSSReaderSettings m_aSettings;
+  private final Executor m_aExecutor;
+  private final int m_nMaxInFlight;
+  private final CSSParserPool m_aPool;
+
+  /**
+   * Constructor using the common {@link ForkJoinPool}, {@link #DEFAULT_MAX_IN_FLIGHT} and no
+   * parser pool.
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied. May not be <code>null</code>.
+   */
+  public CSSBatchReader (@NonNull final CSSReaderSettings aSettings)
+  {
+    this (aSettings, ForkJoinPool.commonPool (), DEFAULT_MAX_IN_FLIGHT, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied. May not be <code>null</code>.
+   * @param aExecutor
+   *        The executor to run the parse tasks on. May not be <code>null</code>.
+   * @param nMaxInFlight
+   *        The maximum number of sources being parsed at the same time. Must be &gt; 0.
+   * @param aPool
+   *        The optional parser pool to use. May be <code>null</code>.
+   */
+  public CSSBatchReader (@NonNull final CSSReaderSettings aSettings,
+                         @NonNull final Executor aExecutor,
+                         @Nonnegative final int nMaxInFlight,
+                         @Nullable final CSSParserPool aPool)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    ValueEnforcer.isGT0 (nMaxInFlight, "MaxInFlight");
+
+    m_aSettings = aSettings.getClone ();
+    // Resolve once, so that the default handler is not queried per source
+    if (m_aSettings.getInterpretErrorHandler () == null)
+      m_aSettings.setInterpretErrorHandler (CSSReader.getDefaultInterpretErrorHandler ());
+    m_aExecutor = aExecutor;
+    m_nMaxInFlight = nMaxInFlight;
+    m_aPool = aPool;
+  }
+
+  /**
+   * @return The executor used. Never <code>null</code>.
+   */
+  @NonNull
+  public Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @return The maximum number of sources being parsed at the same time. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxInFlight ()
+  {
+    return m_nMaxInFlight;
+  }
+
+  /**
+   * @return The parser pool used. May be <code>null</code>.
+   */
+  @Nullable
+  public CSSParserPool getPool ()
+  {
+    return m_aPool;
+  }
+
+  @NonNull
+  private <T> CSSBatchReadSummary _readAll (@NonNull final Iterable <? extends T> aSources,
+                                            @NonNull final BiFunction <CSSParser, T, CascadingStyleSheet> aReader,
+                                            @NonNull final Consumer <? super CSSBatchReadResult <T, CascadingStyleSheet>> aResultConsumer)
+  {
+    ValueEnforcer.notNull (aSources, "Sources");
+    ValueEnforcer.notNull (aResultConsumer, "ResultConsumer");
+
+    final Semaphore aInFlight = new Semaphore (m_nMaxInFlight);
+    final Lock aConsumerLock = new ReentrantLock ();
+    final AtomicInteger aSuccessCount = new AtomicInteger (0);
+    final AtomicInteger aFailureCount = new AtomicInteger (0);
+    int nIndex = 0;
+    boolean bInterrupted = false;
+    try
+    {
+      for (final T aSource : aSources)
+      {
+        ValueEnforcer.notNull (aSource, "Source");
+
+        // Blocks until a parse task finished, if the limit is reached
+        aInFlight.acquire ();
+        final int nCurIndex = nIndex++;
+        try
+        {
+          m_aExecutor.execute ( () -> {
+            try
+            {
+              final CSSBatchReadResult <T, CascadingStyleSheet> aResult = CSSBatchReadResult.read (aSource,
+                                                                                                   nCurIndex,
+                                                                                                   m_aSettings,
+                                                                                                   m_aPool,
+                                                                                                   aReader);
+              (aResult.isSuccess () ? aSuccessCount : aFailureCount).incrementAndGet ();
+              aConsumerLock.lock ();
+              try
+              {
+                aResultConsumer.accept (aResult);
+              }
+              finally
+              {
+                aConsumerLock.unlock ();
+              }
+            }
+            catch (final RuntimeException ex)
+            {
+              LOGGER.error ("Failed to handle CSS source " + aSource, ex);
+            }
+            finally
+            {
+              aInFlight.release ();
+            }
+          });
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          aInFlight.release ();
+          throw ex;
+        }
+      }
+    }
+    catch (final InterruptedException ex)
+    {
+      // Stop submitting, but wait for the running tasks
+      bInterrupted = true;
+    }
+    finally
+    {
+      // Wait until all tasks are finished
+      aInFlight.acquireUninterruptibly (m_nMaxInFlight);
+      if (bInterrupted)
+        Thread.currentThread ().interrupt ();
+    }
+    return new CSSBatchReadSummary (nIndex, aSuccessCount.get (), aFailureCount.get (), bInterrupted);
+  }
+
+  /**
+   * Read all CSS files from the passed paths in parallel. Files that cannot be opened are reported
+   * as failures without any parse error.
+   *
+   * @param aPaths
+   *        The paths to read. May not be <code>null</code> and may not contain <code>null</code>
+   *        elements.
+   * @param aResultConsumer
+   *        The consumer that receives each result as soon as it is available. Invoked in the
+   *        threads of the executor, but never concurrently. May not be <code>null</code>.
+   * @return The summary of the batch after all sources were read. Never <code>null</code>.
+   */
+  @NonNull
+  public CSSBatchReadSummary readAllPaths (@NonNull final Iterable <? extends Path> aPaths,
+                                           @NonNull final Consumer <? super CSSBatchReadResult <Path, CascadingStyleSheet>> aResultConsumer)
+  {
+    return _readAll (aPaths, CSSParser::readFromPath, aResultConsumer);
+  }
+
+  /**
+   * Read all CSS sources from the passed input stream providers in parallel. Sources that cannot be
+   * opened are reported as failures without any parse error.
+   *
+   * @param aISPs
+   *        The input stream providers to read. May not be <code>null</code> and may not contain
+   *        <code>null</code> elements.
+   * @param aResultConsumer
+   *        The consumer that receives each result as soon as it is available. Invoked in the
+   *        threads of the executor, but never concurrently. May not be <code>null</code>.
+   * @return The summary of the batch after all sources were read. Never <code>null</code>.
+   */
+  @NonNull
+  public CSSBatchReadSummary readAllStreams (@NonNull final Iterable <? extends IHasInputStream> aISPs,
+                                             @NonNull final Consumer <? super CSSBatchReadResult <IHasInputStream, CascadingStyleSheet>> aResultConsumer)
+  {
+    return _readAll (aISPs, CSSParser::readFromStream, aResultConsumer);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Settings", m_aSettings)
+                                       .append ("Executor", m_aExecutor)
+                                       .append ("MaxInFlight", m_nMaxInFlight)
+                                       .appendIfNotNull ("Pool", m_aPool)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.WillNotClose;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.base.charset.CharsetHelper;
+import com.helger.base.charset.CharsetHelper.InputStreamAndCharset;
+import com.helger.base.charset.EUnicodeBOM;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingPushbackInputStream;
+import com.helger.css.parser.CSSParseHelper;
+
+/**
+ * Helper class to determine the charset of a CSS byte stream in a single pass. The BOM and a
+ * potential <code>@charset</code> rule are sniffed from a bounded prefix of the stream, which is
+ * afterwards pushed back so that the same stream can be used for the real parsing. This class is
+ * only used internally.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+public final class CSSCharsetHelper
+{
+  /**
+   * The maximum number of bytes (after the BOM) that are inspected to find a <code>@charset</code>
+   * rule.
+   */
+  public static final int DEFAULT_MAX_SNIFF_BYTES = 8 * 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSCharsetHelper.class);
+  private static final String CHARSET_SYM = "@charset";
+
+  /**
+   * The result of the charset sniffing.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class InputStreamAndDeclaredCharset
+  {
+    private final InputStream m_aIS;
+    private final Charset m_aCharset;
+
+    InputStreamAndDeclaredCharset (@NonNull final InputStream aIS, @Nullable final Charset aCharset)
+    {
+      m_aIS = aIS;
+      m_aCharset = aCharset;
+    }
+
+    /**
+     * @return The input stream positioned after the BOM (if any) and containing all the sniffed
+     *         bytes. Never <code>null</code>.
+     */
+    @NonNull
+    public InputStream getInputStream ()
+    {
+      return m_aIS;
+    }
+
+    /**
+     * @return The charset declared in the CSS or determined by the BOM. May be <code>null</code> if
+     *         neither a BOM nor a <code>@charset</code> rule is present.
+     */
+    @Nullable
+    public Charset getCharset ()
+    {
+      return m_aCharset;
+    }
+
+    public boolean hasCharset ()
+    {
+      return m_aCharset != null;
+    }
+  }
+
+  @PresentForCodeCoverage
+  private static final CSSCharsetHelper INSTANCE = new CSSCharsetHelper ();
+
+  private CSSCharsetHelper ()
+  {}
+
+  private static boolean _isWhitespace (final char c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
+  /**
+   * Skip all whitespaces, comments, <code>&lt;!--</code> and <code>--&gt;</code> tokens.
+   *
+   * @param s
+   *        Source string
+   * @param nStart
+   *        Start index
+   * @param bSkipCDOCDC
+   *        <code>true</code> to skip CDO and CDC tokens as well
+   * @return The index of the first relevant char or -1 if the end of the string was reached within a
+   *         comment.
+   */
+  private static int _skipIgnorables (@NonNull final String s, final int nStart, final boolean bSkipCDOCDC)
+  {
+    final int nLen = s.length ();
+    int i = nStart;
+    while (i < nLen)
+    {
+      final char c = s.charAt (i);
+      if (_isWhitespace (c))
+        i++;
+      else
+        if (s.startsWith ("/*", i))
+        {
+          final int nEnd = s.indexOf ("*/", i + 2);
+          if (nEnd < 0)
+            return -1;
+          i = nEnd + 2;
+        }
+        else
+          if (bSkipCDOCDC && s.startsWith ("<!--", i))
+            i += 4;
+          else
+            if (bSkipCDOCDC && s.startsWith ("-->", i))
+              i += 3;
+            else
+              break;
+    }
+    return i;
+  }
+
+  /**
+   * Extract the quoted charset name from the passed CSS prefix. This is the equivalent of the
+   * <code>ParserCSSCharsetDetector</code> grammar but without creating a token manager.
+   *
+   * @param sPrefix
+   *        The CSS prefix to scan. May not be <code>null</code>.
+   * @return The charset name including the surrounding quotes or <code>null</code> if no complete
+   *         <code>@charset</code> rule is contained.
+   */
+  @Nullable
+  static String getQuotedCharsetName (@NonNull final String sPrefix)
+  {
+    final int nLen = sPrefix.length ();
+    int i = _skipIgnorables (sPrefix, 0, true);
+    if (i < 0 || !sPrefix.regionMatches (true, i, CHARSET_SYM, 0, CHARSET_SYM.length ()))
+      return null;
+    i += CHARSET_SYM.length ();
+
+    // At least one whitespace is required
+    if (i >= nLen || !_isWhitespace (sPrefix.charAt (i)))
+      return null;
+    i = _skipIgnorables (sPrefix, i, false);
+    if (i < 0 || i >= nLen)
+      return null;
+
+    final char cQuote = sPrefix.charAt (i);
+    if (cQuote != '"' && cQuote != '\'')
+      return null;
+
+    final int nStringStart = i;
+    i++;
+    while (true)
+    {
+      if (i >= nLen)
+        return null;
+      final char c = sPrefix.charAt (i);
+      if (c == cQuote)
+        break;
+      if (c == '\r' || c == '\n' || c == '\f')
+        return null;
+      // Skip the escaped char
+      i += c == '\\' ? 2 : 1;
+    }
+    final String ret = sPrefix.substring (nStringStart, i + 1);
+
+    // Semicolon must follow
+    i = _skipIgnorables (sPrefix, i + 1, false);
+    if (i < 0 || i >= nLen || sPrefix.charAt (i) != ';')
+      return null;
+    return ret;
+  }
+
+  /**
+   * Determine the charset of the passed input stream by reading at most
+   * {@link #DEFAULT_MAX_SNIFF_BYTES} bytes. The logic is identical to
+   * {@link CSSReader#getCharsetDeclaredInCSS(com.helger.base.io.iface.IHasInputStream)} except that
+   * the stream is only opened once.
+   *
+   * @param aIS
+   *        The input stream to sniff. May not be <code>null</code>.
+   * @return The input stream to continue reading from and the determined charset. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         if an invalid charset is supplied or reading fails
+   */
+  @NonNull
+  public static InputStreamAndDeclaredCharset getInputStreamAndDeclaredCharset (@NonNull @WillNotClose final InputStream aIS)
+  {
+    return getInputStreamAndDeclaredCharset (aIS, DEFAULT_MAX_SNIFF_BYTES);
+  }
+
+  /**
+   * Determine the charset of the passed input stream by reading at most the provided number of
+   * bytes after an eventually present BOM. All read bytes (except the BOM) are pushed back into the
+   * returned input stream.
+   *
+   * @param aIS
+   *        The input stream to sniff. May not be <code>null</code>.
+   * @param nMaxSniffBytes
+   *        The maximum number of bytes to inspect for a <code>@charset</code> rule. Must be &gt; 0.
+   * @return The input stream to continue reading from and the determined charset. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         if an invalid charset is supplied or reading fails
+   */
+  @NonNull
+  public static InputStreamAndDeclaredCharset getInputStreamAndDeclaredCharset (@NonNull @WillNotClose final InputStream aIS,
+                                                                                @Nonnegative final int nMaxSniffBytes)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.isGT0 (nMaxSniffBytes, "MaxSniffBytes");
+
+    final InputStreamAndCharset aISAndBOM = CharsetHelper.getInputStreamAndCharsetFromBOM (aIS);
+    final Charset aBOMCharset = aISAndBOM.getCharset ();
+
+    final NonBlockingPushbackInputStream aPBIS = new NonBlockingPushbackInputStream (aISAndBOM.getInputStream (), nMaxSniffBytes);
+    final byte [] aPrefix = new byte [nMaxSniffBytes];
+    int nPrefixLen = 0;
+    try
+    {
+      // Fill the prefix buffer as far as possible
+      while (nPrefixLen < nMaxSniffBytes)
+      {
+        final int nRead = aPBIS.read (aPrefix, nPrefixLen, nMaxSniffBytes - nPrefixLen);
+        if (nRead < 0)
+          break;
+        nPrefixLen += nRead;
+      }
+      aPBIS.unread (aPrefix, 0, nPrefixLen);
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException ("Failed to read CSS charset definition", ex);
+    }
+
+    return new InputStreamAndDeclaredCharset (aPBIS, _getDeclaredCharset (aPrefix, nPrefixLen, aBOMCharset));
+  }
+
+  /**
+   * Determine the charset of the passed byte buffer by inspecting at most the provided number of
+   * bytes after an eventually present BOM. The position of the buffer is moved behind the BOM (if
+   * any) so that the buffer can directly be used for decoding.
+   *
+   * @param aBB
+   *        The byte buffer to sniff. The content between position and limit is inspected. May not
+   *        be <code>null</code>.
+   * @param nMaxSniffBytes
+   *        The maximum number of bytes to inspect for a <code>@charset</code> rule. Must be &gt; 0.
+   * @return The charset declared in the CSS or determined by the BOM. May be <code>null</code> if
+   *         neither a BOM nor a <code>@charset</code> rule is present.
+   * @throws IllegalStateException
+   *         if an invalid charset is supplied
+   */
+  @Nullable
+  public static Charset getDeclaredCharsetAndSkipBOM (@NonNull final ByteBuffer aBB,
+                                                      @Nonnegative final int nMaxSniffBytes)
+  {
+    ValueEnforcer.notNull (aBB, "ByteBuffer");
+    ValueEnforcer.isGT0 (nMaxSniffBytes, "MaxSniffBytes");
+
+    // Check for BOM
+    final byte [] aBOMBytes = new byte [Math.min (EUnicodeBOM.getMaximumByteCount (), aBB.remaining ())];
+    aBB.duplicate ().get (aBOMBytes);
+    final EUnicodeBOM eBOM = EUnicodeBOM.getFromBytesOrNull (aBOMBytes);
+    Charset aBOMCharset = null;
+    if (eBOM != null)
+    {
+      aBB.position (aBB.position () + eBOM.getByteCount ());
+      aBOMCharset = eBOM.getCharset ();
+    }
+
+    final byte [] aPrefix = new byte [Math.min (nMaxSniffBytes, aBB.remaining ())];
+    aBB.duplicate ().get (aPrefix);
+    return _getDeclaredCharset (aPrefix, aPrefix.length, aBOMCharset);
+  }
+
+  @Nullable
+  private static Charset _getDeclaredCharset (@NonNull final byte [] aPrefix,
+                                              @Nonnegative final int nPrefixLen,
+                                              @Nullable final Charset aBOMCharset)
+  {
+    // Always read as ISO-8859-1 as everything contained in the CSS charset
+    // declaration can be handled by this charset
+    // A known problem is when the file is UTF-16, UTF-16BE, UTF-16LE etc.
+    // encoded. In this case a BOM must be present to read the file correctly!
+    final Charset aStreamCharset = aBOMCharset != null ? aBOMCharset : StandardCharsets.ISO_8859_1;
+    final String sQuotedCharsetName = getQuotedCharsetName (new String (aPrefix, 0, nPrefixLen, aStreamCharset));
+    if (sQuotedCharsetName == null)
+    {
+      // No charset specified - use the one from the BOM (may be null)
+      return aBOMCharset;
+    }
+
+    final Charset aReadCharset;
+    try
+    {
+      // Remove leading and trailing quotes from value
+      aReadCharset = CharsetHelper.getCharsetFromName (CSSParseHelper.extractStringValue (sQuotedCharsetName));
+    }
+    catch (final RuntimeException ex)
+    {
+      throw new IllegalStateException ("Failed to parse CSS charset definition", ex);
+    }
+
+    if (aBOMCharset != null && !aBOMCharset.equals (aReadCharset))
+    {
+      // BOM charset different from read charset
+      LOGGER.warn ("The charset found in the CSS data (" +
+                   aReadCharset.name () +
+                   ") differs from the charset determined by the BOM (" +
+                   aBOMCharset.name () +
+                   ") -> Using the read charset");
+    }
+    return aReadCharset;
+  }
+}
@@ -0,0 +1,705 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.ESuccess;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.CSSSourceArea;
+import com.helger.css.CSSSourceLocation;
+import com.helger.css.ICSSSourceLocationAware;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.parser.CSSCharSequenceCharStream;
+
+/**
+ * Keeps a style sheet in sync with its source text while the text is edited, e.g. in an editor.
+ * For each edit only the top-level rules that overlap the edited region are parsed again, and the
+ * new rules are spliced into the existing {@link CascadingStyleSheet}. All other top-level rules
+ * keep their object identity. The effort of an edit is therefore proportional to the size of the
+ * affected rules and not to the size of the style sheet.<br>
+ * The start and end offsets of all top-level rules are kept in an index that is derived from the
+ * source locations. If the edited region cannot be parsed on its own (e.g. because the edit
+ * introduced an unbalanced brace, or if the region contains <code>@import</code> or
+ * <code>@namespace</code> rules after the beginning of the style sheet), the complete text is parsed
+ * again and all rules of the style sheet are replaced.<br>
+ * The source locations of the re-parsed rules are relative to the complete text. The unchanged
+ * rules are not modified, so the source locations stored in them (and in all objects nested in
+ * them) may refer to the text before an edit. Use {@link #isRuleSourceLocationStale(int)} to check
+ * this, and {@link #getRuleSourceLocation(int)} or
+ * {@link #getCurrentSourceLocation(int, ICSSSourceLocationAware)} to get the source location in
+ * the current text. The current locations are calculated on demand from the index. The same
+ * applies to the source location of the style sheet itself, see
+ * {@link #isStyleSheetSourceLocationStale()}.<br>
+ * All errors are passed to the handlers of the settings. Errors of a region are only reported if
+ * the region is used.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public final class CSSIncrementalReader
+{
+  private static final long NO_POSITION = -1L;
+  private static final int INITIAL_INDEX_SIZE = 64;
+
+  private final CSSReaderSettings m_aSettings;
+  private final CSSParser m_aParser;
+  private final CSSParserPool m_aPool;
+  private final int m_nTabSize;
+  private final StringBuilder m_aText;
+  private final CascadingStyleSheet m_aCSS;
+
+  // The index of all top-level rules - same order as in the style sheet
+  private int m_nRuleCount;
+  // Offset of the first char
+  private int [] m_aRuleStart = new int [INITIAL_INDEX_SIZE];
+  // Offset after the last char
+  private int [] m_aRuleEnd = new int [INITIAL_INDEX_SIZE];
+  // Packed line and column of the first char
+  private long [] m_aRuleStartPos = new long [INITIAL_INDEX_SIZE];
+  // Packed line and column of the last char
+  private long [] m_aRuleEndPos = new long [INITIAL_INDEX_SIZE];
+  // false if the index could not be created. The next edit parses the complete text.
+  private boolean m_bIndexValid;
+  // true if the source location of the style sheet may refer to an older text
+  private boolean m_bStyleSheetLocationStale = false;
+
+  /**
+   * Constructor for a style sheet that was already read.
+   *
+   * @param aSettings
+   *        The settings to use. May not be <code>null</code>. Source locations and positions are
+   *        always enabled.
+   * @param aPool
+   *        The optional parser pool to use. May be <code>null</code>.
+   * @param sCSS
+   *        The source text of the style sheet. May not be <code>null</code>.
+   * @param aCSS
+   *        The style sheet that was read from the text with source locations enabled. May not be
+   *        <code>null</code>. This object is modified by all edits.
+   */
+  public CSSIncrementalReader (@NonNull final CSSReaderSettings aSettings,
+                               @Nullable final CSSParserPool aPool,
+                               @NonNull final String sCSS,
+                               @NonNull final CascadingStyleSheet aCSS)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (sCSS, "CSS");
+    ValueEnforcer.notNull (aCSS, "CascadingStyleSheet");
+    m_aSettings = aSettings.getClone ().setUseSourceLocation (true).setTrackPositions (true);
+    m_aParser = new CSSParser (m_aSettings, aPool);
+    m_aPool = aPool;
+    m_nTabSize = m_aSettings.getTabSize ();
+    m_aText = new StringBuilder (sCSS);
+    m_aCSS = aCSS;
+    m_bIndexValid = _buildIndex ();
+  }
+
+  /**
+   * Read a style sheet from the passed text and create an incremental reader for it.
+   *
+   * @param aSettings
+   *        The settings to use. May not be <code>null</code>. Source locations and positions are
+   *        always enabled.
+   * @param aPool
+   *        The optional parser pool to use. May be <code>null</code>.
+   * @param sCSS
+   *        The source text of the style sheet. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed.
+   */
+  @Nullable
+  public static CSSIncrementalReader readFromString (@NonNull final CSSReaderSettings aSettings,
+                                                     @Nullable final CSSParserPool aPool,
+                                                     @NonNull final String sCSS)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    final CSSReaderSettings aRealSettings = aSettings.getClone ().setUseSourceLocation (true).setTrackPositions (true);
+    final CascadingStyleSheet aCSS = new CSSParser (aRealSettings, aPool).readFromString (sCSS);
+    if (aCSS == null)
+      return null;
+    return new CSSIncrementalReader (aSettings, aPool, sCSS, aCSS);
+  }
+
+  /**
+   * @return The current source text, including all edits. Never <code>null</code>.
+   */
+  @NonNull
+  public String getText ()
+  {
+    return m_aText.toString ();
+  }
+
+  /**
+   * @return The style sheet that is kept in sync with the text. Always the same object. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public CascadingStyleSheet getCascadingStyleSheet ()
+  {
+    return m_aCSS;
+  }
+
+  private static long _pack (final int nLine, final int nColumn)
+  {
+    return ((long) nLine << 32) | (nColumn & 0xffffffffL);
+  }
+
+  private static int _line (final long nPos)
+  {
+    return (int) (nPos >>> 32);
+  }
+
+  private static int _column (final long nPos)
+  {
+    return (int) nPos;
+  }
+
+  /**
+   * Get the position of a char from the position of the char before. Same logic as in the char
+   * streams.
+   */
+  private long _next (final long nPosBefore, final int nOffset)
+  {
+    final char c = m_aText.charAt (nOffset);
+    int nLine = _line (nPosBefore);
+    int nColumn = _column (nPosBefore);
+    if (nOffset > 0)
+    {
+      final char cPrev = m_aText.charAt (nOffset - 1);
+      if (cPrev == '\n' || (cPrev == '\r' && c != '\n'))
+      {
+        nLine++;
+        nColumn = 0;
+      }
+    }
+    if (c == '\t')
+      nColumn += m_nTabSize - (nColumn % m_nTabSize);
+    else
+      nColumn++;
+    return _pack (nLine, nColumn);
+  }
+
+  private long _walk (final int nStart, final int nEnd, final long nPosBefore)
+  {
+    long nPos = nPosBefore;
+    for (int i = nStart; i < nEnd; ++i)
+      nPos = _next (nPos, i);
+    return nPos;
+  }
+
+  private void _ensureIndexCapacity (final int nCount)
+  {
+    if (nCount > m_aRuleStart.length)
+    {
+      final int nNewSize = Math.max (nCount, m_aRuleStart.length * 2);
+      m_aRuleStart = Arrays.copyOf (m_aRuleStart, nNewSize);
+      m_aRuleEnd = Arrays.copyOf (m_aRuleEnd, nNewSize);
+      m_aRuleStartPos = Arrays.copyOf (m_aRuleStartPos, nNewSize);
+      m_aRuleEndPos = Arrays.copyOf (m_aRuleEndPos, nNewSize);
+    }
+  }
+
+  /**
+   * Fill the index for the passed rules, by mapping the line and column numbers of their source
+   * locations to offsets.
+   *
+   * @return The position of the last char of the text range, or {@link #NO_POSITION} if not all
+   *         rules could be found.
+   */
+  private long _indexRules (@NonNull final ICommonsList <ICSSTopLevelRule> aRules,
+                            final int nDestIndex,
+                            final int nTextStart,
+                            final int nTextEnd,
+                            final long nPosBefore)
+  {
+    final int nRuleCount = aRules.size ();
+    int nRule = 0;
+    long nStartPos = NO_POSITION;
+    long nEndPos = NO_POSITION;
+    boolean bStartFound = false;
+    long nPos = nPosBefore;
+    for (int i = nTextStart; i < nTextEnd; ++i)
+    {
+      nPos = _next (nPos, i);
+      if (nRule < nRuleCount)
+      {
+        if (nStartPos == NO_POSITION)
+        {
+          // Get the positions of the next rule
+          final ICSSTopLevelRule aRule = aRules.get (nRule);
+          if (!(aRule instanceof ICSSSourceLocationAware))
+            return NO_POSITION;
+          final CSSSourceLocation aLoc = ((ICSSSourceLocationAware) aRule).getSourceLocation ();
+          if (aLoc == null || aLoc.getFirstTokenArea () == null || aLoc.getLastTokenArea () == null)
+            return NO_POSITION;
+          final CSSSourceArea aFirst = aLoc.getFirstTokenArea ();
+          final CSSSourceArea aLast = aLoc.getLastTokenArea ();
+          nStartPos = _pack (aFirst.getTokenBeginLineNumber (), aFirst.getTokenBeginColumnNumber ());
+          nEndPos = _pack (aLast.getTokenEndLineNumber (), aLast.getTokenEndColumnNumber ());
+        }
+
+        if (!bStartFound && nPos == nStartPos)
+        {
+          m_aRuleStart[nDestIndex + nRule] = i;
+          m_aRuleStartPos[nDestIndex + nRule] = nPos;
+          bStartFound = true;
+        }
+        if (bStartFound && nPos == nEndPos)
+        {
+          m_aRuleEnd[nDestIndex + nRule] = i + 1;
+          m_aRuleEndPos[nDestIndex + nRule] = nPos;
+          nRule++;
+          nStartPos = NO_POSITION;
+          bStartFound = false;
+        }
+      }
+    }
+    return nRule == nRuleCount ? nPos : NO_POSITION;
+  }
+
+  private boolean _buildIndex ()
+  {
+    final ICommonsList <ICSSTopLevelRule> aRules = m_aCSS.getAllRules ();
+    m_nRuleCount = aRules.size ();
+    _ensureIndexCapacity (m_nRuleCount);
+    return _indexRules (aRules, 0, 0, m_aText.length (), _pack (1, 0)) != NO_POSITION;
+  }
+
+  @NonNull
+  private ESuccess _readAll ()
+  {
+    final CascadingStyleSheet aNewCSS = m_aParser.readFromString (m_aText.toString ());
+    if (aNewCSS == null)
+    {
+      // Keep the old rules, but the index no longer matches the text
+      m_bIndexValid = false;
+      return ESuccess.FAILURE;
+    }
+
+    m_aCSS.removeAllImportRules ();
+    m_aCSS.removeAllNamespaceRules ();
+    m_aCSS.removeAllRules ();
+    aNewCSS.getAllImportRules ().forEach (m_aCSS::addImportRule);
+    aNewCSS.getAllNamespaceRules ().forEach (m_aCSS::addNamespaceRule);
+    aNewCSS.getAllRules ().forEach (m_aCSS::addRule);
+    m_aCSS.setSourceLocation (aNewCSS.getSourceLocation ());
+    m_bStyleSheetLocationStale = false;
+    m_bIndexValid = _buildIndex ();
+    return ESuccess.SUCCESS;
+  }
+
+  /**
+   * Parse the region between two unchanged rules again.
+   *
+   * @return <code>null</code> if the region cannot be parsed on its own and the complete text must
+   *         be parsed.
+   */
+  @Nullable
+  private ESuccess _readRegion (final int nRuleBefore,
+                                final int nRuleAfter,
+                                final int nRegionStart,
+                                final int nRegionEnd,
+                                final long nPosBefore,
+                                final long nOldRegionLastPos,
+                                final int nDelta)
+  {
+    final String sRegion = m_aText.substring (nRegionStart, nRegionEnd);
+    if (!CSSTopLevelSplitter.isSelfContained (sRegion))
+      return null;
+
+    final CSSRecordingErrorHandler aErrors = new CSSRecordingErrorHandler ();
+    final CSSReaderSettings aSettings = m_aSettings.getClone ()
+                                                   .setCustomErrorHandler (aErrors)
+                                                   .setCustomExceptionHandler (aErrors::onParseException)
+                                                   .setInterpretErrorHandler (aErrors);
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (sRegion,
+                                                                                 _line (nPosBefore),
+                                                                                 _column (nPosBefore));
+    final CascadingStyleSheet aRegionCSS;
+    try
+    {
+      aRegionCSS = new CSSParser (aSettings, m_aPool).readFromCharStream (aCharStream);
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+    if (aRegionCSS == null)
+      return null;
+
+    // @import and @namespace rules are only handled at the beginning of the style sheet
+    if (nRuleBefore >= 0)
+    {
+      if (aRegionCSS.hasImportRules () || aRegionCSS.hasNamespaceRules ())
+        return null;
+    }
+    else
+      if (!aRegionCSS.getAllImportRules ().equals (m_aCSS.getAllImportRules ()) ||
+          !aRegionCSS.getAllNamespaceRules ().equals (m_aCSS.getAllNamespaceRules ()))
+        return null;
+
+    // Make room for the new rules in the index. All following rules are moved by the delta.
+    final ICommonsList <ICSSTopLevelRule> aNewRules = aRegionCSS.getAllRules ();
+    final int nNewRuleCount = aNewRules.size ();
+    final int nFirstNewRule = nRuleBefore + 1;
+    final int nFirstFollowingRule = nFirstNewRule + nNewRuleCount;
+    final int nFollowingRuleCount = m_nRuleCount - nRuleAfter;
+    final int nNewIndexSize = nFirstFollowingRule + nFollowingRuleCount;
+    _ensureIndexCapacity (nNewIndexSize);
+    System.arraycopy (m_aRuleStart, nRuleAfter, m_aRuleStart, nFirstFollowingRule, nFollowingRuleCount);
+    System.arraycopy (m_aRuleEnd, nRuleAfter, m_aRuleEnd, nFirstFollowingRule, nFollowingRuleCount);
+    System.arraycopy (m_aRuleStartPos, nRuleAfter, m_aRuleStartPos, nFirstFollowingRule, nFollowingRuleCount);
+    System.arraycopy (m_aRuleEndPos, nRuleAfter, m_aRuleEndPos, nFirstFollowingRule, nFollowingRuleCount);
+    m_nRuleCount = nNewIndexSize;
+    for (int i = nFirstFollowingRule; i < nNewIndexSize; ++i)
+    {
+      m_aRuleStart[i] += nDelta;
+      m_aRuleEnd[i] += nDelta;
+    }
+
+    // Index the new rules. From here on, all failures lead to a complete parse that rebuilds the
+    // index.
+    final long nRegionLastPos = _indexRules (aNewRules, nFirstNewRule, nRegionStart, nRegionEnd, nPosBefore);
+    if (nRegionLastPos == NO_POSITION)
+      return null;
+
+    // Everything between the rules must be ignorable
+    if (nNewRuleCount == 0)
+    {
+      if (!CSSTopLevelSplitter.isBlank (m_aText, nRegionStart, nRegionEnd))
+        return null;
+    }
+    else
+      if (!CSSTopLevelSplitter.isBlank (m_aText, nRegionStart, m_aRuleStart[nFirstNewRule]) ||
+          !CSSTopLevelSplitter.isBlank (m_aText, m_aRuleEnd[nFirstFollowingRule - 1], nRegionEnd))
+        return null;
+
+    // The region is used - report all errors
+    if (!aErrors.replayParseErrors (m_aParser.getParseErrorHandler (), m_aParser.getParseExceptionHandler ()))
+    {
+      // The style sheet is unchanged, but the index no longer matches the text
+      m_bIndexValid = false;
+      return ESuccess.FAILURE;
+    }
+    aErrors.replayInterpretErrors (m_aParser.getInterpretErrorHandler ());
+
+    // Replace the rules in the style sheet
+    for (int i = nRuleAfter - 1; i > nRuleBefore; --i)
+      m_aCSS.removeRule (i);
+    for (int i = 0; i < nNewRuleCount; ++i)
+      m_aCSS.addRule (nFirstNewRule + i, aNewRules.get (i));
+    m_bStyleSheetLocationStale = true;
+
+    // Update the positions of the following rules. Only the columns on the line of the region end
+    // can change, all other positions are only moved by the number of added or removed lines.
+    final int nTextLen = m_aText.length ();
+    int nRule = nFirstFollowingRule;
+    boolean bStartDone = false;
+    long nPos = nRegionLastPos;
+    for (int i = nRegionEnd; i < nTextLen && nRule < nNewIndexSize; ++i)
+    {
+      final long nNextPos = _next (nPos, i);
+      if (_line (nNextPos) != _line (nPos))
+        break;
+      nPos = nNextPos;
+      if (!bStartDone && i == m_aRuleStart[nRule])
+      {
+        m_aRuleStartPos[nRule] = nPos;
+        bStartDone = true;
+      }
+      if (bStartDone && i == m_aRuleEnd[nRule] - 1)
+      {
+        m_aRuleEndPos[nRule] = nPos;
+        nRule++;
+        bStartDone = false;
+      }
+    }
+    final long nLineDelta = (long) (_line (nRegionLastPos) - _line (nOldRegionLastPos)) << 32;
+    if (nLineDelta != 0 && nRule < nNewIndexSize)
+    {
+      if (bStartDone)
+      {
+        m_aRuleEndPos[nRule] += nLineDelta;
+        nRule++;
+      }
+      for (; nRule < nNewIndexSize; ++nRule)
+      {
+        m_aRuleStartPos[nRule] += nLineDelta;
+        m_aRuleEndPos[nRule] += nLineDelta;
+      }
+    }
+    return ESuccess.SUCCESS;
+  }
+
+  /**
+   * Apply an edit to the text and update the style sheet accordingly.
+   *
+   * @param nOffset
+   *        The offset of the edit in the text before the edit. Must be &ge; 0 and &le; the text
+   *        length.
+   * @param nRemovedLength
+   *        The number of chars that were removed at the offset. Must be &ge; 0.
+   * @param sInsertedText
+   *        The text that was inserted at the offset. May not be <code>null</code> but may be
+   *        empty.
+   * @return {@link ESuccess#SUCCESS} if the style sheet matches the new text,
+   *         {@link ESuccess#FAILURE} if the new text could not be parsed. In that case the style
+   *         sheet is unchanged and the next edit parses the complete text again.
+   */
+  @NonNull
+  public ESuccess applyEdit (@Nonnegative final int nOffset,
+                             @Nonnegative final int nRemovedLength,
+                             @NonNull final String sInsertedText)
+  {
+    final int nOldLength = m_aText.length ();
+    ValueEnforcer.isBetweenInclusive (nOffset, "Offset", 0, nOldLength);
+    ValueEnforcer.isBetweenInclusive (nRemovedLength, "RemovedLength", 0, nOldLength - nOffset);
+    ValueEnforcer.notNull (sInsertedText, "InsertedText");
+
+    final int nOldEditEnd = nOffset + nRemovedLength;
+    final int nDelta = sInsertedText.length () - nRemovedLength;
+    if (m_bIndexValid)
+    {
+      // The last rule that ends before the edit and the first rule that starts after the edit are
+      // unchanged. Everything in between is parsed again.
+      final int nRuleBefore = _getLastRuleEndingBefore (nOffset);
+      final int nRuleAfter = _getFirstRuleStartingAfter (nOldEditEnd);
+      final int nRegionStart = nRuleBefore >= 0 ? m_aRuleEnd[nRuleBefore] : 0;
+      final long nPosBefore = nRuleBefore >= 0 ? m_aRuleEndPos[nRuleBefore] : _pack (1, 0);
+      final int nOldRegionEnd = nRuleAfter < m_nRuleCount ? m_aRuleStart[nRuleAfter] : nOldLength;
+      final long nOldRegionLastPos = _walk (nRegionStart, nOldRegionEnd, nPosBefore);
+
+      m_aText.replace (nOffset, nOldEditEnd, sInsertedText);
+
+      final ESuccess eSuccess = _readRegion (nRuleBefore,
+                                             nRuleAfter,
+                                             nRegionStart,
+                                             nOldRegionEnd + nDelta,
+                                             nPosBefore,
+                                             nOldRegionLastPos,
+                                             nDelta);
+      if (eSuccess != null)
+        return eSuccess;
+    }
+    else
+      m_aText.replace (nOffset, nOldEditEnd, sInsertedText);
+
+    return _readAll ();
+  }
+
+  private int _getLastRuleEndingBefore (final int nOffset)
+  {
+    int nLow = 0;
+    int nHigh = m_nRuleCount - 1;
+    while (nLow <= nHigh)
+    {
+      final int nMid = (nLow + nHigh) >>> 1;
+      if (m_aRuleEnd[nMid] <= nOffset)
+        nLow = nMid + 1;
+      else
+        nHigh = nMid - 1;
+    }
+    return nHigh;
+  }
+
+  private int _getFirstRuleStartingAfter (final int nOffset)
+  {
+    int nLow = 0;
+    int nHigh = m_nRuleCount - 1;
+    while (nLow <= nHigh)
+    {
+      final int nMid = (nLow + nHigh) >>> 1;
+      if (m_aRuleStart[nMid] > nOffset)
+        nHigh = nMid - 1;
+      else
+        nLow = nMid + 1;
+    }
+    return nLow;
+  }
+
+  @Nullable
+  private static CSSSourceLocation _getSourceLocation (@NonNull final ICSSTopLevelRule aRule)
+  {
+    if (aRule instanceof ICSSSourceLocationAware)
+    {
+      final CSSSourceLocation aLoc = ((ICSSSourceLocationAware) aRule).getSourceLocation ();
+      if (aLoc != null && aLoc.hasFirstTokenArea ())
+        return aLoc;
+    }
+    return null;
+  }
+
+  /**
+   * Check if the source location stored in a top-level rule, and in all objects nested in it,
+   * refers to the text before an edit.
+   *
+   * @param nRuleIndex
+   *        The index of the top-level rule in the style sheet. Must be &ge; 0 and &lt; the number
+   *        of rules.
+   * @return <code>true</code> if the stored source locations are stale or if this cannot be
+   *         determined, because the last edit could not be parsed. <code>false</code> if they are
+   *         correct for the current text, or if the rule has no source location.
+   */
+  public boolean isRuleSourceLocationStale (@Nonnegative final int nRuleIndex)
+  {
+    ValueEnforcer.isBetweenInclusive (nRuleIndex, "RuleIndex", 0, m_aCSS.getRuleCount () - 1);
+    if (!m_bIndexValid)
+      return true;
+
+    final CSSSourceLocation aRuleLoc = _getSourceLocation (m_aCSS.getRuleAtIndex (nRuleIndex));
+    if (aRuleLoc == null)
+      return false;
+    // The text of an unchanged rule is never modified, so all positions are correct if the start is
+    return _pack (aRuleLoc.getFirstTokenBeginLineNumber (), aRuleLoc.getFirstTokenBeginColumnNumber ()) !=
+           m_aRuleStartPos[nRuleIndex];
+  }
+
+  /**
+   * Get the source location of a top-level rule in the current text, independent of whether the
+   * source location stored in the rule is stale or not.
+   *
+   * @param nRuleIndex
+   *        The index of the top-level rule in the style sheet. Must be &ge; 0 and &lt; the number
+   *        of rules.
+   * @return <code>null</code> if the rule has no source location or if the last edit could not be
+   *         parsed.
+   */
+  @Nullable
+  public CSSSourceLocation getRuleSourceLocation (@Nonnegative final int nRuleIndex)
+  {
+    ValueEnforcer.isBetweenInclusive (nRuleIndex, "RuleIndex", 0, m_aCSS.getRuleCount () - 1);
+    final ICSSTopLevelRule aRule = m_aCSS.getRuleAtIndex (nRuleIndex);
+    return aRule instanceof ICSSSourceLocationAware ? getCurrentSourceLocation (nRuleIndex,
+                                                                                (ICSSSourceLocationAware) aRule)
+                                                    : null;
+  }
+
+  private static long _packBegin (@Nullable final CSSSourceArea aArea)
+  {
+    return aArea == null ? NO_POSITION : _pack (aArea.getTokenBeginLineNumber (), aArea.getTokenBeginColumnNumber ());
+  }
+
+  private static long _packEnd (@Nullable final CSSSourceArea aArea)
+  {
+    return aArea == null ? NO_POSITION : _pack (aArea.getTokenEndLineNumber (), aArea.getTokenEndColumnNumber ());
+  }
+
+  /**
+   * Get the source location of the passed object in the current text. The object must be a
+   * top-level rule of the style sheet or an object nested in it.
+   *
+   * @param nRuleIndex
+   *        The index of the top-level rule that contains the object. Must be &ge; 0 and &lt; the
+   *        number of rules.
+   * @param aObject
+   *        The top-level rule itself or an object nested in it. May not be <code>null</code>.
+   * @return <code>null</code> if the object has no source location, if it is not part of the
+   *         rule, or if the last edit could not be parsed.
+   */
+  @Nullable
+  public CSSSourceLocation getCurrentSourceLocation (@Nonnegative final int nRuleIndex,
+                                                     @NonNull final ICSSSourceLocationAware aObject)
+  {
+    ValueEnforcer.isBetweenInclusive (nRuleIndex, "RuleIndex", 0, m_aCSS.getRuleCount () - 1);
+    ValueEnforcer.notNull (aObject, "Object");
+    if (!m_bIndexValid)
+      return null;
+
+    final CSSSourceLocation aLoc = aObject.getSourceLocation ();
+    final CSSSourceLocation aRuleLoc = _getSourceLocation (m_aCSS.getRuleAtIndex (nRuleIndex));
+    if (aLoc == null || aRuleLoc == null)
+      return null;
+
+    // The stored locations are based on an older start position of the rule. As the text of the
+    // rule itself is unchanged, walking through it from the old and the new start position in
+    // parallel maps all old positions to the new ones.
+    final long [] aOld = { _packBegin (aLoc.getFirstTokenArea ()),
+                           _packEnd (aLoc.getFirstTokenArea ()),
+                           _packBegin (aLoc.getLastTokenArea ()),
+                           _packEnd (aLoc.getLastTokenArea ()) };
+    final long [] aNew = new long [aOld.length];
+    Arrays.fill (aNew, NO_POSITION);
+    int nMissing = 0;
+    for (final long nOld : aOld)
+      if (nOld != NO_POSITION)
+        nMissing++;
+
+    final int nRuleEnd = m_aRuleEnd[nRuleIndex];
+    long nOldPos = _pack (aRuleLoc.getFirstTokenBeginLineNumber (), aRuleLoc.getFirstTokenBeginColumnNumber ());
+    long nNewPos = m_aRuleStartPos[nRuleIndex];
+    for (int nOffset = m_aRuleStart[nRuleIndex]; nMissing > 0 && nOffset < nRuleEnd; ++nOffset)
+    {
+      if (nOffset > m_aRuleStart[nRuleIndex])
+      {
+        nOldPos = _next (nOldPos, nOffset);
+        nNewPos = _next (nNewPos, nOffset);
+      }
+      for (int i = 0; i < aOld.length; ++i)
+        if (aOld[i] == nOldPos && aNew[i] == NO_POSITION)
+        {
+          aNew[i] = nNewPos;
+          nMissing--;
+        }
+    }
+    if (nMissing > 0)
+    {
+      // Not part of the rule
+      return null;
+    }
+
+    final CSSSourceArea aFirst = aOld[0] == NO_POSITION ? null : new CSSSourceArea (_line (aNew[0]),
+                                                                                   _column (aNew[0]),
+                                                                                   _line (aNew[1]),
+                                                                                   _column (aNew[1]));
+    final CSSSourceArea aLast = aOld[2] == NO_POSITION ? null : new CSSSourceArea (_line (aNew[2]),
+                                                                                  _column (aNew[2]),
+                                                                                  _line (aNew[3]),
+                                                                                  _column (aNew[3]));
+    return new CSSSourceLocation (aFirst, aLast);
+  }
+
+  /**
+   * @return <code>true</code> if the source location of the style sheet itself may refer to the
+   *         text before an edit. This is the case after every edit that did not parse the complete
+   *         text again.
+   */
+  public boolean isStyleSheetSourceLocationStale ()
+  {
+    return m_bStyleSheetLocationStale;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Settings", m_aSettings)
+                                       .append ("Pool", m_aPool)
+                                       .append ("TextLength", m_aText.length ())
+                                       .append ("RuleCount", m_nRuleCount)
+                                       .append ("IndexValid", m_bIndexValid)
+                                       .append ("StyleSheetLocationStale", m_bStyleSheetLocationStale)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.CSSSourceLocation;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.ICSSParseExceptionCallback;
+import com.helger.css.parser.CSSCharSequenceCharStream;
+import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * Read a single large style sheet with multiple threads. A fast scanner first determines the
+ * boundaries of the top-level rules (see {@link CSSTopLevelSplitter}), the resulting chunks are
+ * parsed concurrently and the results are combined into a single {@link CascadingStyleSheet} in the
+ * original order. All line and column numbers are relative to the complete style sheet.<br>
+ * The recoverable parse errors, the unrecoverable parse exceptions and the interpretation errors of
+ * all chunks are collected and passed to the handlers of the settings in the original order, after
+ * all chunks were parsed. So the handlers are never invoked concurrently. If a chunk fails with an
+ * unrecoverable error, the errors of all following chunks are not reported, just like with a
+ * sequential parse.<br>
+ * For well-formed style sheets the result is identical to the one of {@link CSSParser}. In browser
+ * compliant mode, the error recovery of broken rules never continues into the next chunk. Style
+ * sheets that cannot be split (because they are too small or contain no suitable boundary) are
+ * parsed sequentially with {@link CSSParser}.<br>
+ * The executor to use is provided by the caller. The calling thread blocks until all chunks are
+ * parsed, so it should not be a thread of a bounded executor that is also used for the chunks.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+public final class CSSParallelReader
+{
+  /** The default minimum number of chars per chunk */
+  public static final int DEFAULT_MIN_CHUNK_SIZE = 1024 * 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSParallelReader.class);
+
+  private final CSSReaderSettings m_aSettings;
+  private final CSSParser m_aParser;
+  private final Executor m_aExecutor;
+  private final int m_nMinChunkSize;
+  private final CSSParserPool m_aPool;
+
+  /**
+   * Constructor using the common {@link ForkJoinPool}, {@link #DEFAULT_MIN_CHUNK_SIZE} and no
+   * parser pool.
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied. May not be <code>null</code>.
+   */
+  public CSSParallelReader (@NonNull final CSSReaderSettings aSettings)
+  {
+    this (aSettings, ForkJoinPool.commonPool (), DEFAULT_MIN_CHUNK_SIZE, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied. May not be <code>null</code>.
+   * @param aExecutor
+   *        The executor to run the chunk parse tasks on. May not be <code>null</code>.
+   * @param nMinChunkSize
+   *        The minimum number of chars per chunk. Style sheets smaller than twice this size are
+   *        parsed sequentially. Must be &gt; 0.
+   * @param aPool
+   *        The optional parser pool to use. May be <code>null</code>.
+   */
+  public CSSParallelReader (@NonNull final CSSReaderSettings aSettings,
+                            @NonNull final Executor aExecutor,
+                            @Nonnegative final int nMinChunkSize,
+                            @Nullable final CSSParserPool aPool)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    ValueEnforcer.isGT0 (nMinChunkSize, "MinChunkSize");
+
+    m_aSettings = aSettings.getClone ();
+    // Resolves all the handlers and is used for the sequential fallback
+    m_aParser = new CSSParser (m_aSettings, aPool);
+    m_aExecutor = aExecutor;
+    m_nMinChunkSize = nMinChunkSize;
+    m_aPool = aPool;
+  }
+
+  /**
+   * @return The executor used. Never <code>null</code>.
+   */
+  @NonNull
+  public Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @return The minimum number of chars per chunk. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMinChunkSize ()
+  {
+    return m_nMinChunkSize;
+  }
+
+  /**
+   * @return The parser pool used. May be <code>null</code>.
+   */
+  @Nullable
+  public CSSParserPool getPool ()
+  {
+    return m_aPool;
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readChunk (@NonNull final CharSequence aChunk,
+                                          final int nLineBefore,
+                                          final int nColumnBefore,
+                                          @NonNull final CSSRecordingErrorHandler aErrors)
+  {
+    final CSSReaderSettings aSettings = m_aSettings.getClone ()
+                                                   .setCustomErrorHandler (aErrors)
+                                                   .setCustomExceptionHandler (aErrors::onParseException)
+                                                   .setInterpretErrorHandler (aErrors);
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (aChunk, nLineBefore, nColumnBefore);
+    try
+    {
+      return new CSSParser (aSettings, m_aPool).readFromCharStream (aCharStream);
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readCharBuffer (@NonNull final CharBuffer aCB)
+  {
+    final int [] aChunkStarts = CSSTopLevelSplitter.getChunkStartOffsets (aCB, m_nMinChunkSize);
+    if (aChunkStarts.length == 0)
+    {
+      // Nothing to split
+      final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (aCB);
+      try
+      {
+        return m_aParser.readFromCharStream (aCharStream);
+      }
+      finally
+      {
+        aCharStream.done ();
+      }
+    }
+
+    final int nChunkCount = aChunkStarts.length + 1;
+    final boolean bTrackPositions = m_aSettings.isTrackPositions ();
+    final int nTabSize = m_aSettings.getTabSize ();
+    final CSSRecordingErrorHandler [] aErrors = new CSSRecordingErrorHandler [nChunkCount];
+    final ICommonsList <CompletableFuture <CascadingStyleSheet>> aFutures = new CommonsArrayList <> (nChunkCount);
+
+    // Line and column of the char before the current chunk - same logic as in the char streams
+    int nLine = 1;
+    int nColumn = 0;
+    int nOffset = 0;
+    for (int nChunk = 0; nChunk < nChunkCount; ++nChunk)
+    {
+      final int nChunkStart = nChunk == 0 ? 0 : aChunkStarts[nChunk - 1];
+      final int nChunkEnd = nChunk == nChunkCount - 1 ? aCB.length () : aChunkStarts[nChunk];
+      if (bTrackPositions)
+        for (; nOffset < nChunkStart; ++nOffset)
+        {
+          if (nOffset > 0)
+          {
+            final char cPrev = aCB.charAt (nOffset - 1);
+            if (cPrev == '\n' || (cPrev == '\r' && aCB.charAt (nOffset) != '\n'))
+            {
+              nLine++;
+              nColumn = 0;
+            }
+          }
+          if (aCB.charAt (nOffset) == '\t')
+            nColumn += nTabSize - (nColumn % nTabSize);
+          else
+            nColumn++;
+        }
+
+      // The sub sequence is a view and does not copy the content
+      final CharSequence aChunk = aCB.subSequence (nChunkStart, nChunkEnd);
+      final int nChunkLine = nLine;
+      final int nChunkColumn = nColumn;
+      final CSSRecordingErrorHandler aCSSRecordingErrorHandler = new CSSRecordingErrorHandler ();
+      aErrors[nChunk] = aCSSRecordingErrorHandler;
+      aFutures.add (CompletableFuture.supplyAsync ( () -> _readChunk (aChunk, nChunkLine, nChunkColumn, aCSSRecordingErrorHandler),
+                                                   m_aExecutor));
+    }
+
+    // Wait for all chunks
+    final CascadingStyleSheet [] aChunkCSS = new CascadingStyleSheet [nChunkCount];
+    try
+    {
+      for (int nChunk = 0; nChunk < nChunkCount; ++nChunk)
+        aChunkCSS[nChunk] = aFutures.get (nChunk).join ();
+    }
+    catch (final CompletionException ex)
+    {
+      if (ex.getCause () instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause ();
+      throw ex;
+    }
+
+    // Report all parse errors in the original order
+    final ICSSParseErrorHandler aParseErrorHandler = m_aParser.getParseErrorHandler ();
+    final ICSSParseExceptionCallback aParseExceptionHandler = m_aParser.getParseExceptionHandler ();
+    for (final CSSRecordingErrorHandler aCSSRecordingErrorHandler : aErrors)
+      if (!aCSSRecordingErrorHandler.replayParseErrors (aParseErrorHandler, aParseExceptionHandler))
+        return null;
+
+    // Report all interpretation errors in the original order
+    final ICSSInterpretErrorHandler aInterpretErrorHandler = m_aParser.getInterpretErrorHandler ();
+    for (final CSSRecordingErrorHandler aCSSRecordingErrorHandler : aErrors)
+      aCSSRecordingErrorHandler.replayInterpretErrors (aInterpretErrorHandler);
+
+    // Combine all chunks
+    final CascadingStyleSheet ret = new CascadingStyleSheet ();
+    for (final CascadingStyleSheet aCSS : aChunkCSS)
+    {
+      aCSS.getAllImportRules ().forEach (ret::addImportRule);
+      aCSS.getAllNamespaceRules ().forEach (ret::addNamespaceRule);
+      aCSS.getAllRules ().forEach (ret::addRule);
+    }
+    if (m_aParser.isUseSourceLocation ())
+    {
+      final CSSSourceLocation aFirst = aChunkCSS[0].getSourceLocation ();
+      final CSSSourceLocation aLast = aChunkCSS[nChunkCount - 1].getSourceLocation ();
+      ret.setSourceLocation (new CSSSourceLocation (aFirst == null ? null : aFirst.getFirstTokenArea (),
+                                                    aLast == null ? null : aLast.getLastTokenArea ()));
+    }
+    return ret;
+  }
+
+  /**
+   * Read the CSS from the passed String. An eventually contained <code>@charset</code> rule is
+   * ignored.
+   *
+   * @param sCSS
+   *        The source string containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromString (@NonNull final String sCSS)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+
+    if (sCSS.length () < 2 * m_nMinChunkSize)
+      return m_aParser.readFromString (sCSS);
+
+    return _readCharBuffer (CharBuffer.wrap (sCSS));
+  }
+
+  /**
+   * Read the CSS from the passed file. The charset is determined from the BOM or the
+   * <code>@charset</code> rule, and the fallback charset of the settings is used if neither is
+   * present. The complete file is decoded into memory before it is parsed.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromPath (@NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+
+    final CharBuffer aCB;
+    try (final FileChannel aChannel = FileChannel.open (aPath, StandardOpenOption.READ))
+    {
+      final long nSize = aChannel.size ();
+      if (nSize < 2L * m_nMinChunkSize || nSize > Integer.MAX_VALUE)
+      {
+        // Too small to be split or too large to be mapped into a single buffer
+        return m_aParser.readFromPath (aPath);
+      }
+
+      final MappedByteBuffer aBB = aChannel.map (FileChannel.MapMode.READ_ONLY, 0, nSize);
+
+      // Check if the CSS contains a declared charset or as an alternative use the
+      // Charset from the BOM
+      final Charset aDeclaredCharset;
+      try
+      {
+        aDeclaredCharset = CSSCharsetHelper.getDeclaredCharsetAndSkipBOM (aBB, CSSCharsetHelper.DEFAULT_MAX_SNIFF_BYTES);
+      }
+      catch (final IllegalStateException ex)
+      {
+        // Failed to parse CSS at a very low level
+        return null;
+      }
+      final Charset aCharsetToUse = aDeclaredCharset != null ? aDeclaredCharset : m_aParser.getFallbackCharset ();
+      // Malformed input is replaced, as in the char streams
+      aCB = aCharsetToUse.decode (aBB);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to open CSS file " + aPath, ex);
+      return null;
+    }
+    return _readCharBuffer (aCB);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Settings", m_aSettings)
+                                       .append ("Executor", m_aExecutor)
+                                       .append ("MinChunkSize", m_nMinChunkSize)
+                                       .appendIfNotNull ("Pool", m_aPool)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.css.parser.CSSNode;
+
+/**
+ * A bounded cache for parse results of CSS strings that are read over and over again (like theme
+ * fragments or inline styles). The cache is keyed by the CSS source plus all settings that influence
+ * parsing. Sources up to {@link #MAX_STRING_KEY_LENGTH} chars are compared directly, longer sources
+ * are compared by their SHA-256 hash. It is used by passing it to
+ * {@link CSSReaderSettings#setParseCache(CSSParseCache)}, and currently applies to
+ * {@link CSSParser#readFromString(String)} and {@link CSSParser#readDeclarationListFromString(String)}
+ * only. As the cache stores complete trees, style sheets are always read with
+ * {@link ECSSParserEngine#TREE} if a cache is used.
+ * <p>
+ * The cache stores the parsed, but not yet interpreted, node tree. On every hit, new domain objects
+ * are created from the cached tree, so callers always receive their own objects that can be
+ * modified without affecting the cache. The cached tree is only read and never modified, so it can
+ * be shared between threads: the text of all nodes is complete after parsing, and lazily read
+ * declarations are parsed again from the source string instead of retaining parts of the cached
+ * tree (if positions are disabled, declarations of cached style sheets are read immediately). Only sources that were parsed without any parse error are
+ * cached, so that a hit never hides an error from the parse error handler. Interpretation errors
+ * are reported on every read.
+ * <p>
+ * The cache is bounded by the number of entries and by the estimated memory of the cached trees.
+ * If one of the limits is exceeded, the least recently used entries are evicted.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+public final class CSSParseCache
+{
+  /** The default maximum number of cached entries */
+  public static final int DEFAULT_MAX_ENTRY_COUNT = 1_024;
+  /** The default maximum estimated number of bytes of all cached entries */
+  public static final long DEFAULT_MAX_ESTIMATED_BYTES = 32L * 1024 * 1024;
+
+  /** The maximum length of sources that are used as the key directly, without hashing */
+  public static final int MAX_STRING_KEY_LENGTH = 4 * 1024;
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  // Rough estimations of the retained size of a node
+  private static final int ESTIMATED_NODE_BYTES = 80;
+  private static final int ESTIMATED_STRING_BYTES = 40;
+
+  /**
+   * The key of a cache entry.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  static final class Key
+  {
+    private final boolean m_bStyleSheet;
+    private final String m_sSettings;
+    // Either the source or its hash is present
+    private final String m_sCSS;
+    private final byte [] m_aHash;
+    private final int m_nHashCode;
+
+    Key (final boolean bStyleSheet,
+         @NonNull final String sSettings,
+         @Nullable final String sCSS,
+         @Nullable final byte [] aHash)
+    {
+      m_bStyleSheet = bStyleSheet;
+      m_sSettings = sSettings;
+      m_sCSS = sCSS;
+      m_aHash = aHash;
+      final int nSourceHashCode = sCSS != null ? sCSS.hashCode () : Arrays.hashCode (aHash);
+      m_nHashCode = (nSourceHashCode * 31 + sSettings.hashCode ()) * 31 + (bStyleSheet ? 1 : 0);
+    }
+
+    long getEstimatedBytes ()
+    {
+      return m_sCSS != null ? ESTIMATED_STRING_BYTES + 2L * m_sCSS.length () : ESTIMATED_STRING_BYTES + 32L;
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final Key rhs = (Key) o;
+      return m_nHashCode == rhs.m_nHashCode &&
+             m_bStyleSheet == rhs.m_bStyleSheet &&
+             m_sSettings.equals (rhs.m_sSettings) &&
+             Objects.equals (m_sCSS, rhs.m_sCSS) &&
+             Arrays.equals (m_aHash, rhs.m_aHash);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+  }
+
+  /**
+   * A single cache entry.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class Entry
+  {
+    private final CSSNode m_aNode;
+    private final long m_nEstimatedBytes;
+
+    Entry (@NonNull final CSSNode aNode, final long nEstimatedBytes)
+    {
+      m_aNode = aNode;
+      m_nEstimatedBytes = nEstimatedBytes;
+    }
+  }
+
+  private final int m_nMaxEntryCount;
+  private final long m_nMaxEstimatedBytes;
+  private final Lock m_aLock = new ReentrantLock ();
+  @GuardedBy ("m_aLock")
+  private final LinkedHashMap <Key, Entry> m_aMap = new LinkedHashMap <> (16, 0.75f, true);
+  @GuardedBy ("m_aLock")
+  private long m_nEstimatedBytes = 0;
+  private final AtomicLong m_aHitCount = new AtomicLong (0);
+  private final AtomicLong m_aMissCount = new AtomicLong (0);
+  private final AtomicLong m_aEvictionCount = new AtomicLong (0);
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_ENTRY_COUNT} and {@link #DEFAULT_MAX_ESTIMATED_BYTES}.
+   */
+  public CSSParseCache ()
+  {
+    this (DEFAULT_MAX_ENTRY_COUNT, DEFAULT_MAX_ESTIMATED_BYTES);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxEntryCount
+   *        The maximum number of cached entries. Must be &gt; 0.
+   * @param nMaxEstimatedBytes
+   *        The maximum estimated memory of all cached entries in bytes. Must be &gt; 0. Sources
+   *        that alone exceed this limit are never cached.
+   */
+  public CSSParseCache (@Nonnegative final int nMaxEntryCount, @Nonnegative final long nMaxEstimatedBytes)
+  {
+    ValueEnforcer.isGT0 (nMaxEntryCount, "MaxEntryCount");
+    ValueEnforcer.isGT0 (nMaxEstimatedBytes, "MaxEstimatedBytes");
+    m_nMaxEntryCount = nMaxEntryCount;
+    m_nMaxEstimatedBytes = nMaxEstimatedBytes;
+  }
+
+  /**
+   * @return The maximum number of cached entries. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxEntryCount ()
+  {
+    return m_nMaxEntryCount;
+  }
+
+  /**
+   * @return The maximum estimated memory of all cached entries in bytes. Always &gt; 0.
+   */
+  @Nonnegative
+  public long getMaxEstimatedBytes ()
+  {
+    return m_nMaxEstimatedBytes;
+  }
+
+  /**
+   * @return The number of currently cached entries. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getEntryCount ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_aMap.size ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The estimated memory of all currently cached entries in bytes. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getEstimatedBytes ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_nEstimatedBytes;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * @return The number of lookups that were answered from the cache. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHitCount.get ();
+  }
+
+  /**
+   * @return The number of lookups that were not answered from the cache. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMissCount.get ();
+  }
+
+  /**
+   * @return The number of entries that were evicted because a limit was exceeded. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictionCount.get ();
+  }
+
+  /**
+   * Remove all entries from the cache. The statistics are not changed.
+   */
+  public void clear ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      m_aMap.clear ();
+      m_nEstimatedBytes = 0;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @NonNull
+  static Key createKey (final boolean bStyleSheet, @NonNull final String sSettings, @NonNull final String sCSS)
+  {
+    final int nLength = sCSS.length ();
+    if (nLength <= MAX_STRING_KEY_LENGTH)
+    {
+      // Comparing the string is cheaper than hashing it
+      return new Key (bStyleSheet, sSettings, sCSS, null);
+    }
+
+    final MessageDigest aMD;
+    try
+    {
+      aMD = MessageDigest.getInstance (HASH_ALGORITHM);
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      // Every Java platform must support SHA-256
+      throw new IllegalStateException ("Hash algorithm " + HASH_ALGORITHM + " is not supported", ex);
+    }
+
+    // Hash the UTF-16 code units, so that no encoding step is needed
+    final byte [] aBuffer = new byte [Math.min (nLength, 4096) * 2];
+    int nBufferPos = 0;
+    for (int i = 0; i < nLength; ++i)
+    {
+      final char c = sCSS.charAt (i);
+      aBuffer[nBufferPos++] = (byte) c;
+      aBuffer[nBufferPos++] = (byte) (c >> 8);
+      if (nBufferPos == aBuffer.length)
+      {
+        aMD.update (aBuffer, 0, nBufferPos);
+        nBufferPos = 0;
+      }
+    }
+    aMD.update (aBuffer, 0, nBufferPos);
+    return new Key (bStyleSheet, sSettings, null, aMD.digest ());
+  }
+
+  @Nullable
+  CSSNode get (@NonNull final Key aKey)
+  {
+    final Entry aEntry;
+    m_aLock.lock ();
+    try
+    {
+      aEntry = m_aMap.get (aKey);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+
+    if (aEntry == null)
+    {
+      m_aMissCount.incrementAndGet ();
+      return null;
+    }
+    m_aHitCount.incrementAndGet ();
+    return aEntry.m_aNode;
+  }
+
+  private static long _estimate (@NonNull final CSSNode aNode)
+  {
+    long ret = ESTIMATED_NODE_BYTES + 4L * aNode.jjtGetNumChildren ();
+    final String sText = aNode.getText ();
+    if (sText != null)
+      ret += ESTIMATED_STRING_BYTES + 2L * sText.length ();
+    for (final CSSNode aChild : aNode)
+      ret += _estimate (aChild);
+    return ret;
+  }
+
+  void put (@NonNull final Key aKey, @NonNull final CSSNode aNode)
+  {
+    final long nEstimatedBytes = aKey.getEstimatedBytes () + _estimate (aNode);
+    if (nEstimatedBytes > m_nMaxEstimatedBytes)
+    {
+      // Too large to be cached at all
+      return;
+    }
+
+    m_aLock.lock ();
+    try
+    {
+      final Entry aOld = m_aMap.put (aKey, new Entry (aNode, nEstimatedBytes));
+      if (aOld != null)
+        m_nEstimatedBytes -= aOld.m_nEstimatedBytes;
+      m_nEstimatedBytes += nEstimatedBytes;
+
+      // Evict the least recently used entries
+      final Iterator <Map.Entry <Key, Entry>> it = m_aMap.entrySet ().iterator ();
+      while ((m_aMap.size () > m_nMaxEntryCount || m_nEstimatedBytes > m_nMaxEstimatedBytes) && it.hasNext ())
+      {
+        m_nEstimatedBytes -= it.next ().getValue ().m_nEstimatedBytes;
+        it.remove ();
+        m_aEvictionCount.incrementAndGet ();
+      }
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxEntryCount", m_nMaxEntryCount)
+                                       .append ("MaxEstimatedBytes", m_nMaxEstimatedBytes)
+                                       .append ("EntryCount", getEntryCount ())
+                                       .append ("EstimatedBytes", getEstimatedBytes ())
+                                       .append ("HitCount", m_aHitCount.get ())
+                                       .append ("MissCount", m_aMissCount.get ())
+                                       .append ("EvictionCount", m_aEvictionCount.get ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,1223 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.WillClose;
+import com.helger.annotation.WillNotClose;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.base.state.ESuccess;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSNamespaceRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.ICSSVisitor;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.handler.ICSSParseExceptionCallback;
+import com.helger.css.parser.CSSByteBufferCharStream;
+import com.helger.css.parser.CSSByteChunkCharStream;
+import com.helger.css.parser.CSSCharSequenceCharStream;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.CSSRecursiveDescentParser;
+import com.helger.css.parser.CSSSourceText;
+import com.helger.css.parser.CharStream;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
+import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * An immutable CSS parser that is created once from a {@link CSSReaderSettings} object. All
+ * settings are copied and all error handlers are resolved upon construction (the default handlers
+ * are taken from {@link CSSReader}), so parsing does not need any global lock. An instance can be
+ * shared between an arbitrary number of threads, as long as the contained error handlers are thread
+ * safe (which is the case for all default handlers).<br>
+ * Optionally a {@link CSSParserPool} can be provided, to reuse the generated parser objects across
+ * parse operations.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+public final class CSSParser
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSParser.class);
+  // The number of bytes read from a channel at once
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final Charset m_aFallbackCharset;
+  private final ICSSParseErrorHandler m_aParseErrorHandler;
+  private final ICSSParseExceptionCallback m_aParseExceptionHandler;
+  private final ICSSInterpretErrorHandler m_aInterpretErrorHandler;
+  private final boolean m_bBrowserCompliantMode;
+  private final boolean m_bKeepDeprecatedProperties;
+  private final boolean m_bTrackPositions;
+  private final boolean m_bUseSourceLocation;
+  private final boolean m_bLazyDeclarations;
+  private final ECSSParserEngine m_eParserEngine;
+  private final ECSSParserImplementation m_eParserImplementation;
+  private final CSSParseCache m_aParseCache;
+  // All settings that influence the parse result, as part of the cache key
+  private final String m_sCacheSettings;
+  private final int m_nTabSize;
+  private final CSSParserPool m_aPool;
+
+  /**
+   * Constructor without a parser pool.
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied, so later modifications of the settings
+   *        object have no impact on this parser. May not be <code>null</code>.
+   */
+  public CSSParser (@NonNull final CSSReaderSettings aSettings)
+  {
+    this (aSettings, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSettings
+   *        The settings to use. The settings are copied, so later modifications of the settings
+   *        object have no impact on this parser. May not be <code>null</code>.
+   * @param aPool
+   *        The optional pool to take the generated parsers and char streams from. If
+   *        <code>null</code> new objects are created for every parse. A pool may be shared between
+   *        multiple {@link CSSParser} objects.
+   */
+  public CSSParser (@NonNull final CSSReaderSettings aSettings, @Nullable final CSSParserPool aPool)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    m_aFallbackCharset = aSettings.getFallbackCharset ();
+
+    // Use the default CSS parse error handler if none is provided
+    final ICSSParseErrorHandler aCustomErrorHandler = aSettings.getCustomErrorHandler ();
+    m_aParseErrorHandler = aCustomErrorHandler != null ? aCustomErrorHandler
+                                                       : CSSReader.getDefaultParseErrorHandler ();
+
+    // Use the default CSS exception handler if none is provided
+    final ICSSParseExceptionCallback aCustomExceptionHandler = aSettings.getCustomExceptionHandler ();
+    m_aParseExceptionHandler = aCustomExceptionHandler != null ? aCustomExceptionHandler
+                                                               : CSSReader.getDefaultParseExceptionHandler ();
+
+    // Use the default interpret error handler if none is provided
+    final ICSSInterpretErrorHandler aInterpretErrorHandler = aSettings.getInterpretErrorHandler ();
+    m_aInterpretErrorHandler = aInterpretErrorHandler != null ? aInterpretErrorHandler
+                                                              : CSSReader.getDefaultInterpretErrorHandler ();
+
+    m_bBrowserCompliantMode = aSettings.isBrowserCompliantMode ();
+    m_bKeepDeprecatedProperties = aSettings.isKeepDeprecatedProperties ();
+    m_bTrackPositions = aSettings.isTrackPositions ();
+    // Without positions there is no source location
+    m_bUseSourceLocation = aSettings.isUseSourceLocation () && m_bTrackPositions;
+    m_bLazyDeclarations = aSettings.isLazyDeclarations ();
+    m_eParserEngine = aSettings.getParserEngine ();
+    m_eParserImplementation = aSettings.getParserImplementation ();
+    m_aParseCache = aSettings.getParseCache ();
+    m_sCacheSettings = m_bBrowserCompliantMode +
+                       "," +
+                       m_bKeepDeprecatedProperties +
+                       "," +
+                       m_bTrackPositions +
+                       "," +
+                       aSettings.getTabSize ();
+    m_nTabSize = aSettings.getTabSize ();
+    m_aPool = aPool;
+  }
+
+  /**
+   * @return The charset to be used if neither a BOM nor a <code>@charset</code> rule is present.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public Charset getFallbackCharset ()
+  {
+    return m_aFallbackCharset;
+  }
+
+  /**
+   * @return The resolved handler for recoverable parse errors. May be <code>null</code> if neither
+   *         a custom nor a default handler is present.
+   */
+  @Nullable
+  public ICSSParseErrorHandler getParseErrorHandler ()
+  {
+    return m_aParseErrorHandler;
+  }
+
+  /**
+   * @return The resolved handler for unrecoverable parse errors. Never <code>null</code>.
+   */
+  @NonNull
+  public ICSSParseExceptionCallback getParseExceptionHandler ()
+  {
+    return m_aParseExceptionHandler;
+  }
+
+  /**
+   * @return The resolved handler for errors while interpreting the parsed CSS. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public ICSSInterpretErrorHandler getInterpretErrorHandler ()
+  {
+    return m_aInterpretErrorHandler;
+  }
+
+  public boolean isBrowserCompliantMode ()
+  {
+    return m_bBrowserCompliantMode;
+  }
+
+  public boolean isKeepDeprecatedProperties ()
+  {
+    return m_bKeepDeprecatedProperties;
+  }
+
+  public boolean isTrackPositions ()
+  {
+    return m_bTrackPositions;
+  }
+
+  /**
+   * @return <code>true</code> if source locations are stored in the created objects. This is always
+   *         <code>false</code> if positions are not tracked.
+   */
+  public boolean isUseSourceLocation ()
+  {
+    return m_bUseSourceLocation;
+  }
+
+  /**
+   * @return <code>true</code> if the declarations of style rules are created on first access only.
+   * @since 8.2.2
+   */
+  public boolean isLazyDeclarations ()
+  {
+    return m_bLazyDeclarations;
+  }
+
+  /**
+   * @return The engine used to create complete style sheets. Never <code>null</code>.
+   * @since 8.2.2
+   */
+  @NonNull
+  public ECSSParserEngine getParserEngine ()
+  {
+    return m_eParserEngine;
+  }
+
+  /**
+   * @return The implementation of the CSS grammar used for parsing. Never <code>null</code>.
+   * @since 8.2.2
+   */
+  @NonNull
+  public ECSSParserImplementation getParserImplementation ()
+  {
+    return m_eParserImplementation;
+  }
+
+  /**
+   * @return The parse cache in use. May be <code>null</code>.
+   * @since 8.2.2
+   */
+  @Nullable
+  public CSSParseCache getParseCache ()
+  {
+    return m_aParseCache;
+  }
+
+  @Nonnegative
+  public int getTabSize ()
+  {
+    return m_nTabSize;
+  }
+
+  /**
+   * @return The parser pool in use. May be <code>null</code>.
+   */
+  @Nullable
+  public CSSParserPool getPool ()
+  {
+    return m_aPool;
+  }
+
+  @Nullable
+  private CSSNode _readNode (@NonNull final CharStream aCharStream,
+                            final boolean bStyleSheet,
+                            @Nullable final Consumer <CSSNode> aTopLevelNodeConsumer)
+  {
+    return _readNode (aCharStream, bStyleSheet, aTopLevelNodeConsumer, m_aParseErrorHandler);
+  }
+
+  @Nullable
+  private CSSNode _readNode (@NonNull final CharStream aCharStream,
+                            final boolean bStyleSheet,
+                            @Nullable final Consumer <CSSNode> aTopLevelNodeConsumer,
+                            @Nullable final ICSSParseErrorHandler aParseErrorHandler)
+  {
+    aCharStream.setTabSize (m_nTabSize);
+    aCharStream.setTrackLineColumn (m_bTrackPositions);
+
+    if (m_eParserImplementation == ECSSParserImplementation.RECURSIVE_DESCENT)
+      return _readNodeRecursiveDescent (aCharStream, bStyleSheet, aTopLevelNodeConsumer, aParseErrorHandler);
+
+    final ParserCSS30 aParser = m_aPool != null ? m_aPool.borrowParser (aCharStream)
+                                                : new ParserCSS30 (new ParserCSS30TokenManager (aCharStream));
+    try
+    {
+      aParser.token_source.setCustomErrorHandler (aParseErrorHandler);
+      aParser.setCustomErrorHandler (aParseErrorHandler);
+      aParser.setBrowserCompliantMode (m_bBrowserCompliantMode);
+      aParser.setKeepDeprecatedProperties (m_bKeepDeprecatedProperties);
+      aParser.setTopLevelNodeConsumer (aTopLevelNodeConsumer);
+      // Main parsing
+      return bStyleSheet ? aParser.styleSheet () : aParser.styleDeclarationList ();
+    }
+    catch (final ParseException ex)
+    {
+      // Unrecoverable error
+      m_aParseExceptionHandler.onException (ex);
+      return null;
+    }
+    catch (final Exception ex)
+    {
+      // As e.g. indicated by https://github.com/phax/ph-css/issues/9
+      m_aParseExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      return null;
+    }
+    finally
+    {
+      if (m_aPool != null)
+        m_aPool.returnParser (aParser);
+    }
+  }
+
+  @Nullable
+  private CSSNode _readNodeRecursiveDescent (@NonNull final CharStream aCharStream,
+                                            final boolean bStyleSheet,
+                                            @Nullable final Consumer <CSSNode> aTopLevelNodeConsumer,
+                                            @Nullable final ICSSParseErrorHandler aParseErrorHandler)
+  {
+    final CSSRecursiveDescentParser aParser = m_aPool != null ? m_aPool.borrowRecursiveDescentParser (aCharStream)
+                                                              : new CSSRecursiveDescentParser (aCharStream);
+    try
+    {
+      aParser.setCustomErrorHandler (aParseErrorHandler);
+      aParser.setBrowserCompliantMode (m_bBrowserCompliantMode);
+      aParser.setKeepDeprecatedProperties (m_bKeepDeprecatedProperties);
+      aParser.setTopLevelNodeConsumer (aTopLevelNodeConsumer);
+      // Main parsing
+      return bStyleSheet ? aParser.styleSheet () : aParser.styleDeclarationList ();
+    }
+    catch (final ParseException ex)
+    {
+      // Unrecoverable error
+      m_aParseExceptionHandler.onException (ex);
+      return null;
+    }
+    catch (final Exception ex)
+    {
+      m_aParseExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      return null;
+    }
+    finally
+    {
+      if (m_aPool != null)
+        m_aPool.returnRecursiveDescentParser (aParser);
+    }
+  }
+
+  /**
+   * Parse the passed char stream into a CSS node, without interpreting it.
+   *
+   * @param aCharStream
+   *        The stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if parsing failed with an unrecoverable error (and no throwing
+   *         exception handler is used), or <code>null</code> if a recoverable error occurred and no
+   *         {@link com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler} was used or
+   *         non-<code>null</code> if parsing succeeded.
+   */
+  @Nullable
+  CSSNode readStyleSheetNode (@NonNull final CharStream aCharStream)
+  {
+    return _readNode (aCharStream, true, null);
+  }
+
+  /**
+   * Parse the passed char stream into a CSS declaration list node, without interpreting it.
+   *
+   * @param aCharStream
+   *        The stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if parsing failed, the node otherwise.
+   */
+  @Nullable
+  CSSNode readDeclarationListNode (@NonNull final CharStream aCharStream)
+  {
+    return _readNode (aCharStream, false, null);
+  }
+
+  /**
+   * Parse the passed string into a node, using the parse cache.
+   *
+   * @param sCSS
+   *        The CSS to parse. May not be <code>null</code>.
+   * @param bStyleSheet
+   *        <code>true</code> for a complete style sheet, <code>false</code> for a declaration
+   *        list.
+   * @return <code>null</code> if parsing failed. The returned node may be shared and must not be
+   *         modified.
+   */
+  @Nullable
+  private CSSNode _readNodeCached (@NonNull final String sCSS, final boolean bStyleSheet)
+  {
+    final CSSParseCache.Key aKey = CSSParseCache.createKey (bStyleSheet, m_sCacheSettings, sCSS);
+    CSSNode aNode = m_aParseCache.get (aKey);
+    if (aNode == null)
+    {
+      // Detect all recoverable errors, to not cache them
+      final CollectingCSSParseErrorHandler aErrors = new CollectingCSSParseErrorHandler ();
+      final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (sCSS);
+      try
+      {
+        aNode = _readNode (aCharStream,
+                           bStyleSheet,
+                           null,
+                           m_aParseErrorHandler == null ? aErrors : aErrors.and (m_aParseErrorHandler));
+      }
+      finally
+      {
+        aCharStream.done ();
+      }
+      if (aNode != null && !aErrors.hasParseErrors ())
+        m_aParseCache.put (aKey, aNode);
+    }
+    return aNode;
+  }
+
+  /**
+   * Get the source text of the passed char stream, so that lazily created declarations can be
+   * parsed again from the text on first access instead of retaining their node tree. This is only
+   * possible for immutable texts with positions.
+   *
+   * @param aCharStream
+   *        The stream that is about to be read. May not be <code>null</code>.
+   * @return <code>null</code> if declarations are not read lazily or if the source text is not
+   *         available.
+   */
+  @Nullable
+  CSSSourceText getSourceText (@NonNull final CharStream aCharStream)
+  {
+    if (aCharStream instanceof CSSCharSequenceCharStream)
+    {
+      final CSSCharSequenceCharStream aCSCharStream = (CSSCharSequenceCharStream) aCharStream;
+      final CharSequence aCS = aCSCharStream.getCharSequence ();
+      if (aCS instanceof String)
+        return _getSourceText ((String) aCS, aCSCharStream.getLineBefore (), aCSCharStream.getColumnBefore ());
+    }
+    return null;
+  }
+
+  @Nullable
+  private CSSSourceText _getSourceText (@NonNull final String sCSS, final int nLineBefore, final int nColumnBefore)
+  {
+    if (!m_bLazyDeclarations || !m_bTrackPositions)
+      return null;
+    return new CSSSourceText (sCSS,
+                              nLineBefore,
+                              nColumnBefore,
+                              m_nTabSize,
+                              m_bBrowserCompliantMode,
+                              m_bKeepDeprecatedProperties);
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readFromCharStreamDirect (@NonNull final CharStream aCharStream)
+  {
+    final CSSSourceText aSourceText = getSourceText (aCharStream);
+    final CascadingStyleSheet ret = new CascadingStyleSheet ();
+    final Consumer <CSSNode> aTopLevelNodeConsumer = x -> CSSHandler.readTopLevelRulesFromNode (m_aInterpretErrorHandler,
+                                                                                              m_bUseSourceLocation,
+                                                                                              m_bLazyDeclarations,
+                                                                                              aSourceText,
+                                                                                              x,
+                                                                                              ret::addImportRule,
+                                                                                              ret::addNamespaceRule,
+                                                                                              ret::addRule);
+    // Each top-level rule is converted and released as soon as it is parsed
+    final CSSNode aRootNode = _readNode (aCharStream, true, aTopLevelNodeConsumer);
+    if (aRootNode == null)
+      return null;
+
+    // Convert the nodes that are left over from an error recovery
+    aTopLevelNodeConsumer.accept (aRootNode);
+    if (m_bUseSourceLocation)
+      ret.setSourceLocation (aRootNode.getSourceLocation ());
+    return ret;
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readFromCharStream (@NonNull final CharStream aCharStream)
+  {
+    if (m_eParserEngine == ECSSParserEngine.DIRECT)
+      return _readFromCharStreamDirect (aCharStream);
+
+    final CSSSourceText aSourceText = getSourceText (aCharStream);
+    return _convertStyleSheetNode (readStyleSheetNode (aCharStream), aSourceText);
+  }
+
+  /**
+   * Parse and interpret the passed char stream with the configured parser engine. The parse cache
+   * is not used.
+   *
+   * @param aCharStream
+   *        The stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if parsing failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  CascadingStyleSheet readFromCharStream (@NonNull final CharStream aCharStream)
+  {
+    return _readFromCharStream (aCharStream);
+  }
+
+  @Nullable
+  private CascadingStyleSheet _convertStyleSheetNode (@Nullable final CSSNode aNode,
+                                                      @Nullable final CSSSourceText aSourceText)
+  {
+    // Failed to parse content as CSS?
+    if (aNode == null)
+      return null;
+
+    // Convert the AST to a domain object
+    return CSSHandler.readCascadingStyleSheetFromNode (m_aInterpretErrorHandler,
+                                                       m_bUseSourceLocation,
+                                                       m_bLazyDeclarations,
+                                                       aSourceText,
+                                                       aNode);
+  }
+
+  @Nullable
+  private CSSDeclarationList _convertDeclarationListNode (@Nullable final CSSNode aNode)
+  {
+    // Failed to parse content as CSS?
+    if (aNode == null)
+      return null;
+
+    // Convert the AST to a domain object
+    return CSSHandler.readDeclarationListFromNode (m_aInterpretErrorHandler, m_bUseSourceLocation, aNode);
+  }
+
+  @NonNull
+  private ESuccess _visitTopLevelRules (@NonNull final CharStream aCharStream, @NonNull final ICSSVisitor aVisitor)
+  {
+    final Consumer <CSSImportRule> aImportRuleConsumer = x -> CSSVisitor.visitImportRule (x, aVisitor);
+    final Consumer <CSSNamespaceRule> aNamespaceRuleConsumer = x -> CSSVisitor.visitNamespaceRule (x, aVisitor);
+    final Consumer <ICSSTopLevelRule> aRuleConsumer = x -> CSSVisitor.visitTopLevelRule (x, aVisitor);
+    final Consumer <CSSNode> aTopLevelNodeConsumer = x -> CSSHandler.readTopLevelRulesFromNode (m_aInterpretErrorHandler,
+                                                                                              m_bUseSourceLocation,
+                                                                                              false,
+                                                                                              null,
+                                                                                              x,
+                                                                                              aImportRuleConsumer,
+                                                                                              aNamespaceRuleConsumer,
+                                                                                              aRuleConsumer);
+    aVisitor.begin ();
+    try
+    {
+      // Each top-level rule is visited and released as soon as it is parsed
+      final CSSNode aRootNode = _readNode (aCharStream, true, aTopLevelNodeConsumer);
+      if (aRootNode == null)
+        return ESuccess.FAILURE;
+
+      // Visit the nodes that are left over from an error recovery
+      aTopLevelNodeConsumer.accept (aRootNode);
+      return ESuccess.SUCCESS;
+    }
+    finally
+    {
+      aVisitor.end ();
+    }
+  }
+
+  /**
+   * Read the CSS from the passed String. The String is parsed directly, without an intermediate
+   * reader. An eventually contained <code>@charset</code> rule is ignored.<br>
+   * If a parse cache is present, the parser engine {@link ECSSParserEngine#TREE} is always used,
+   * independent of {@link #getParserEngine()}, because the cache stores the complete node tree.
+   *
+   * @param sCSS
+   *        The source string containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromString (@NonNull final String sCSS)
+  {
+    if (m_aParseCache != null)
+    {
+      ValueEnforcer.notNull (sCSS, "CSS");
+      // The cache needs the complete tree, so the DIRECT engine cannot be used
+      final CSSNode aNode = _readNodeCached (sCSS, true);
+      if (aNode == null)
+        return null;
+
+      // The cached tree is shared and must not be modified or retained, so lazy declarations are
+      // only possible if they can be parsed again from the string
+      final CSSSourceText aSourceText = _getSourceText (sCSS, 1, 0);
+      return CSSHandler.readCascadingStyleSheetFromNode (m_aInterpretErrorHandler,
+                                                         m_bUseSourceLocation,
+                                                         aSourceText != null,
+                                                         aSourceText,
+                                                         aNode);
+    }
+    return _readString (sCSS, this::_readFromCharStream);
+  }
+
+  @Nullable
+  private <T> T _readString (@NonNull final String sCSS, @NonNull final Function <CharStream, T> aHandler)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (sCSS);
+    try
+    {
+      return aHandler.apply (aCharStream);
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+  }
+
+  /**
+   * Read the CSS from the passed {@link Reader}. If the CSS contains an explicit
+   * <code>@charset</code> rule, it is ignored and the charset used to create the reader is used
+   * instead! Also the fallback charset is ignored.
+   *
+   * @param aReader
+   *        The reader to use. Will be closed automatically after reading - independent of success
+   *        or error. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromReader (@NonNull @WillClose final Reader aReader)
+  {
+    return _readReader (aReader, this::_readFromCharStream);
+  }
+
+  @Nullable
+  private <T> T _readReader (@NonNull @WillClose final Reader aReader, @NonNull final Function <CharStream, T> aHandler)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+
+    final CSSCharStream aCharStream = m_aPool != null ? m_aPool.borrowCharStream (aReader) : new CSSCharStream (aReader);
+    try
+    {
+      return aHandler.apply (aCharStream);
+    }
+    finally
+    {
+      StreamHelper.close (aReader);
+      if (m_aPool != null)
+        m_aPool.returnCharStream (aCharStream);
+    }
+  }
+
+  /**
+   * Read the CSS from the passed {@link InputStream}. The stream is read only once, so it does not
+   * need to be re-openable. An explicit charset or a BOM is determined from a bounded prefix of the
+   * stream (see {@link CSSCharsetHelper}) and the remaining content is decoded with this charset.
+   *
+   * @param aIS
+   *        The input stream to use. Will be closed automatically after reading - independent of
+   *        success or error. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromStream (@NonNull @WillClose final InputStream aIS)
+  {
+    return _readStream (aIS, this::_readFromCharStream);
+  }
+
+  @Nullable
+  private <T> T _readStream (@NonNull @WillClose final InputStream aIS, @NonNull final Function <CharStream, T> aHandler)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    // Check if the CSS contains a declared charset or as an alternative use the
+    // Charset from the BOM
+    final CSSCharsetHelper.InputStreamAndDeclaredCharset aISAndCharset;
+    try
+    {
+      aISAndCharset = CSSCharsetHelper.getInputStreamAndDeclaredCharset (aIS);
+    }
+    catch (final IllegalStateException ex)
+    {
+      // Failed to parse CSS at a very low level
+      StreamHelper.close (aIS);
+      return null;
+    }
+
+    final Charset aCharsetToUse;
+    if (aISAndCharset.hasCharset ())
+    {
+      aCharsetToUse = aISAndCharset.getCharset ();
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Reading CSS definition with explicit charset '" + aCharsetToUse.name () + "'");
+    }
+    else
+    {
+      // No charset declared - use fallback
+      aCharsetToUse = m_aFallbackCharset;
+    }
+
+    return _readReader (StreamHelper.createReader (aISAndCharset.getInputStream (), aCharsetToUse), aHandler);
+  }
+
+  /**
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once.
+   *
+   * @param aISP
+   *        The input stream provider to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @see #readFromStream(InputStream)
+   */
+  @Nullable
+  public CascadingStyleSheet readFromStream (@NonNull final IHasInputStream aISP)
+  {
+    ValueEnforcer.notNull (aISP, "InputStreamProvider");
+
+    // Try to open input stream
+    final InputStream aIS = aISP.getInputStream ();
+    if (aIS == null)
+      return null;
+
+    return readFromStream (aIS);
+  }
+
+  /**
+   * Read the CSS from the passed {@link File}.
+   *
+   * @param aFile
+   *        The file containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @see #readFromPath(Path)
+   */
+  @Nullable
+  public CascadingStyleSheet readFromFile (@NonNull final File aFile)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    return readFromPath (aFile.toPath ());
+  }
+
+  /**
+   * Read the CSS from the passed {@link Path}. The file is memory mapped and decoded directly into
+   * the parser buffer, without any intermediate stream or reader. The charset is determined from a
+   * BOM or a <code>@charset</code> rule at the beginning of the file (see {@link CSSCharsetHelper}).
+   * Files that are too large to be mapped at once are read via a regular input stream. The file is
+   * closed after reading, the mapping itself is released by the JVM as soon as it is no longer
+   * referenced.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet readFromPath (@NonNull final Path aPath)
+  {
+    return _readPath (aPath, this::_readFromCharStream);
+  }
+
+  @Nullable
+  private <T> T _readPath (@NonNull final Path aPath, @NonNull final Function <CharStream, T> aHandler)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+
+    try (final FileChannel aChannel = FileChannel.open (aPath, StandardOpenOption.READ))
+    {
+      final long nSize = aChannel.size ();
+      if (nSize > Integer.MAX_VALUE)
+      {
+        // Too large to be mapped into a single buffer
+        return _readStream (Channels.newInputStream (aChannel), aHandler);
+      }
+
+      final MappedByteBuffer aBB = aChannel.map (FileChannel.MapMode.READ_ONLY, 0, nSize);
+
+      // Check if the CSS contains a declared charset or as an alternative use the
+      // Charset from the BOM
+      final Charset aDeclaredCharset;
+      try
+      {
+        aDeclaredCharset = CSSCharsetHelper.getDeclaredCharsetAndSkipBOM (aBB, CSSCharsetHelper.DEFAULT_MAX_SNIFF_BYTES);
+      }
+      catch (final IllegalStateException ex)
+      {
+        // Failed to parse CSS at a very low level
+        return null;
+      }
+      final Charset aCharsetToUse = aDeclaredCharset != null ? aDeclaredCharset : m_aFallbackCharset;
+
+      final CSSByteBufferCharStream aCharStream = new CSSByteBufferCharStream (aBB, aCharsetToUse);
+      try
+      {
+        return aHandler.apply (aCharStream);
+      }
+      finally
+      {
+        // Drop all references to the mapped buffer
+        aCharStream.done ();
+      }
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to open CSS file " + aPath, ex);
+      return null;
+    }
+  }
+
+  /**
+   * Sniff the charset from the first chunks and parse all chunks.
+   *
+   * @param aSupplier
+   *        The chunk supplier. May not be <code>null</code>.
+   * @return <code>null</code> if parsing failed, the CSS declarations otherwise.
+   * @throws IOException
+   *         If the supplier failed to deliver a chunk
+   */
+  @Nullable
+  private CascadingStyleSheet _readFromChunks (@NonNull final CSSByteChunkCharStream.IByteChunkSupplier aSupplier) throws IOException
+  {
+    // Remember read errors, as the parser treats them like the end of input
+    final IOException [] aReadError = new IOException [1];
+    final CSSByteChunkCharStream.IByteChunkSupplier aRecordingSupplier = () -> {
+      try
+      {
+        return aSupplier.getNextChunk ();
+      }
+      catch (final IOException ex)
+      {
+        aReadError[0] = ex;
+        throw ex;
+      }
+    };
+
+    // Collect enough bytes to determine the charset
+    ByteBuffer aFirst = ByteBuffer.allocate (0);
+    boolean bEndOfInput = false;
+    while (aFirst.remaining () < CSSCharsetHelper.DEFAULT_MAX_SNIFF_BYTES)
+    {
+      final ByteBuffer aNext = aSupplier.getNextChunk ();
+      if (aNext == null)
+      {
+        bEndOfInput = true;
+        break;
+      }
+      // The supplier may reuse the chunk buffer, so copy it
+      final ByteBuffer aCombined = ByteBuffer.allocate (aFirst.remaining () + aNext.remaining ());
+      aCombined.put (aFirst).put (aNext).flip ();
+      aFirst = aCombined;
+    }
+
+    final Charset aDeclaredCharset;
+    try
+    {
+      aDeclaredCharset = CSSCharsetHelper.getDeclaredCharsetAndSkipBOM (aFirst, CSSCharsetHelper.DEFAULT_MAX_SNIFF_BYTES);
+    }
+    catch (final IllegalStateException ex)
+    {
+      // Failed to parse CSS at a very low level
+      return null;
+    }
+    final Charset aCharsetToUse = aDeclaredCharset != null ? aDeclaredCharset : m_aFallbackCharset;
+
+    final CSSByteChunkCharStream aCharStream = new CSSByteChunkCharStream (aFirst,
+                                                                           bEndOfInput ? null : aRecordingSupplier,
+                                                                           aCharsetToUse);
+    final CascadingStyleSheet ret;
+    try
+    {
+      ret = _readFromCharStream (aCharStream);
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+    if (aReadError[0] != null)
+      throw aReadError[0];
+    return ret;
+  }
+
+  /**
+   * Read the CSS from the passed {@link ReadableByteChannel} in the calling thread. The bytes are
+   * decoded chunk by chunk directly into the parser buffer, without any intermediate stream or
+   * reader. The charset is determined from a BOM or a <code>@charset</code> rule at the beginning
+   * of the content (see {@link CSSCharsetHelper}).
+   *
+   * @param aChannel
+   *        The blocking channel to read from. It is not closed by this method. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @see #readFromChannelAsync(ReadableByteChannel, Executor)
+   */
+  @Nullable
+  public CascadingStyleSheet readFromChannel (@NonNull @WillNotClose final ReadableByteChannel aChannel)
+  {
+    try
+    {
+      return _readFromChunks (_createChunkSupplier (aChannel));
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to read CSS from channel " + aChannel, ex);
+      return null;
+    }
+  }
+
+  @NonNull
+  private static CSSByteChunkCharStream.IByteChunkSupplier _createChunkSupplier (@NonNull final ReadableByteChannel aChannel)
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+    ValueEnforcer.isFalse (aChannel instanceof SelectableChannel && !((SelectableChannel) aChannel).isBlocking (),
+                           "Non-blocking channels are not supported");
+
+    // The buffer is reused for all chunks
+    final ByteBuffer aBuf = ByteBuffer.allocate (CHUNK_SIZE);
+    return () -> {
+      aBuf.clear ();
+      final int nRead = aChannel.read (aBuf);
+      if (nRead < 0)
+        return null;
+      aBuf.flip ();
+      return aBuf;
+    };
+  }
+
+  /**
+   * Read the CSS from the passed {@link ReadableByteChannel} on the provided executor. The channel
+   * is read and parsed chunk by chunk in the same task, so parsing starts with the first chunk.
+   *
+   * @param aChannel
+   *        The blocking channel to read from. It is not closed by this method. May not be
+   *        <code>null</code>.
+   * @param aExecutor
+   *        The executor to read and parse on. May not be <code>null</code>.
+   * @return A future that completes with <code>null</code> if parsing failed, or the CSS
+   *         declarations otherwise. It completes exceptionally if reading from the channel fails.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public CompletableFuture <CascadingStyleSheet> readFromChannelAsync (@NonNull @WillNotClose final ReadableByteChannel aChannel,
+                                                                       @NonNull final Executor aExecutor)
+  {
+    final CSSByteChunkCharStream.IByteChunkSupplier aSupplier = _createChunkSupplier (aChannel);
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    return CompletableFuture.supplyAsync ( () -> {
+      try
+      {
+        return _readFromChunks (aSupplier);
+      }
+      catch (final IOException ex)
+      {
+        throw new CompletionException (ex);
+      }
+    }, aExecutor);
+  }
+
+  /**
+   * Read the CSS from the passed {@link AsynchronousFileChannel}, starting at position 0. The
+   * channel reads each chunk asynchronously, one chunk ahead of the parser, so no thread is blocked
+   * on I/O. Parsing starts on the provided executor as soon as the first chunk is available.
+   *
+   * @param aChannel
+   *        The channel to read from. It is not closed by this method. May not be
+   *        <code>null</code>.
+   * @param aExecutor
+   *        The executor to parse on. May not be <code>null</code>.
+   * @return A future that completes with <code>null</code> if parsing failed, or the CSS
+   *         declarations otherwise. It completes exceptionally if reading from the channel fails.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public CompletableFuture <CascadingStyleSheet> readFromChannelAsync (@NonNull @WillNotClose final AsynchronousFileChannel aChannel,
+                                                                       @NonNull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    final CSSAsyncFileChannelChunkSupplier aSupplier = new CSSAsyncFileChannelChunkSupplier (aChannel, CHUNK_SIZE);
+    return aSupplier.start ().thenApplyAsync (x -> {
+      try
+      {
+        return _readFromChunks (aSupplier);
+      }
+      catch (final IOException ex)
+      {
+        throw new CompletionException (ex);
+      }
+    }, aExecutor);
+  }
+
+  /**
+   * Parse the CSS from the passed String and pass all elements to the provided visitor, without
+   * building a {@link CascadingStyleSheet}. This is streaming on the granularity of top-level rules
+   * and not an event based (SAX like) parser: each top-level rule is completely parsed and converted
+   * into its domain object, then visited and released afterwards. So the memory consumption is
+   * bounded by the largest top-level rule and not by the size of the input - but a single top-level
+   * rule (like one <code>@media</code> rule spanning the whole file) is always held in memory
+   * completely. The order of the callbacks is the order of the rules in the source.
+   *
+   * @param sCSS
+   *        The source string containing the CSS to be parsed. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the CSS was parsed successfully, {@link ESuccess#FAILURE}
+   *         if reading failed. In case of an unrecoverable parse error, the rules before the error
+   *         were already visited.
+   * @see #readFromString(String)
+   */
+  @NonNull
+  public ESuccess visitTopLevelRulesFromString (@NonNull final String sCSS, @NonNull final ICSSVisitor aVisitor)
+  {
+    ValueEnforcer.notNull (aVisitor, "Visitor");
+    return _readString (sCSS, x -> _visitTopLevelRules (x, aVisitor));
+  }
+
+  /**
+   * Parse the CSS from the passed {@link Reader} and pass all elements to the provided visitor,
+   * without building a {@link CascadingStyleSheet}. See
+   * {@link #visitTopLevelRulesFromString(String, ICSSVisitor)} for details.
+   *
+   * @param aReader
+   *        The reader to use. Will be closed automatically after reading - independent of success
+   *        or error. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the CSS was parsed successfully, {@link ESuccess#FAILURE}
+   *         if reading failed.
+   * @see #readFromReader(Reader)
+   */
+  @NonNull
+  public ESuccess visitTopLevelRulesFromReader (@NonNull @WillClose final Reader aReader, @NonNull final ICSSVisitor aVisitor)
+  {
+    ValueEnforcer.notNull (aVisitor, "Visitor");
+    return _readReader (aReader, x -> _visitTopLevelRules (x, aVisitor));
+  }
+
+  /**
+   * Parse the CSS from the passed {@link InputStream} and pass all elements to the provided
+   * visitor, without building a {@link CascadingStyleSheet}. See
+   * {@link #visitTopLevelRulesFromString(String, ICSSVisitor)} for details.
+   *
+   * @param aIS
+   *        The input stream to use. Will be closed automatically after reading - independent of
+   *        success or error. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the CSS was parsed successfully, {@link ESuccess#FAILURE}
+   *         if reading failed.
+   * @see #readFromStream(InputStream)
+   */
+  @NonNull
+  public ESuccess visitTopLevelRulesFromStream (@NonNull @WillClose final InputStream aIS, @NonNull final ICSSVisitor aVisitor)
+  {
+    ValueEnforcer.notNull (aVisitor, "Visitor");
+    final ESuccess eSuccess = _readStream (aIS, x -> _visitTopLevelRules (x, aVisitor));
+    return eSuccess != null ? eSuccess : ESuccess.FAILURE;
+  }
+
+  /**
+   * Parse the CSS from the passed {@link Path} and pass all elements to the provided visitor,
+   * without building a {@link CascadingStyleSheet}. See
+   * {@link #visitTopLevelRulesFromString(String, ICSSVisitor)} for details.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the CSS was parsed successfully, {@link ESuccess#FAILURE}
+   *         if reading failed.
+   * @see #readFromPath(Path)
+   */
+  @NonNull
+  public ESuccess visitTopLevelRulesFromPath (@NonNull final Path aPath, @NonNull final ICSSVisitor aVisitor)
+  {
+    ValueEnforcer.notNull (aVisitor, "Visitor");
+    final ESuccess eSuccess = _readPath (aPath, x -> _visitTopLevelRules (x, aVisitor));
+    return eSuccess != null ? eSuccess : ESuccess.FAILURE;
+  }
+
+  /**
+   * Create a pull based iterator over the top-level rules of the passed String. See
+   * {@link CSSTopLevelRuleIterator} for details. Pull based parsing always uses
+   * {@link ECSSParserImplementation#GENERATED}, independent of {@link #getParserImplementation()}.
+   * A parser pool is used if present.
+   *
+   * @param sCSS
+   *        The source string containing the CSS to be parsed. May not be <code>null</code>.
+   * @return The iterator. Never <code>null</code>.
+   */
+  @NonNull
+  public CSSTopLevelRuleIterator iterateRules (@NonNull final String sCSS)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+
+    return new CSSTopLevelRuleIterator (this, new CSSCharSequenceCharStream (sCSS), null);
+  }
+
+  /**
+   * Create a pull based iterator over the top-level rules read from the passed {@link Reader}. See
+   * {@link CSSTopLevelRuleIterator} for details, also on the parser being used.
+   *
+   * @param aReader
+   *        The reader to use. Will be closed when the iteration ends or the iterator is closed. May
+   *        not be <code>null</code>.
+   * @return The iterator. Never <code>null</code>.
+   */
+  @NonNull
+  public CSSTopLevelRuleIterator iterateRules (@NonNull @WillClose final Reader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+
+    return new CSSTopLevelRuleIterator (this, new CSSCharStream (aReader), aReader);
+  }
+
+  /**
+   * Create a pull based iterator over the top-level rules of the passed file. The charset is
+   * determined like in {@link #readFromStream(InputStream)}. See {@link CSSTopLevelRuleIterator} for
+   * details, also on the parser being used.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if the file could not be opened, the iterator otherwise.
+   */
+  @Nullable
+  public CSSTopLevelRuleIterator iterateRules (@NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+
+    final InputStream aIS;
+    try
+    {
+      aIS = Files.newInputStream (aPath);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to open CSS file " + aPath, ex);
+      return null;
+    }
+
+    final CSSCharsetHelper.InputStreamAndDeclaredCharset aISAndCharset;
+    try
+    {
+      aISAndCharset = CSSCharsetHelper.getInputStreamAndDeclaredCharset (aIS);
+    }
+    catch (final IllegalStateException ex)
+    {
+      // Failed to parse CSS at a very low level
+      StreamHelper.close (aIS);
+      return null;
+    }
+    final Charset aCharsetToUse = aISAndCharset.hasCharset () ? aISAndCharset.getCharset () : m_aFallbackCharset;
+    return iterateRules (StreamHelper.createReader (aISAndCharset.getInputStream (), aCharsetToUse));
+  }
+
+  /**
+   * Read a declaration list (like from an HTML <code>style</code> attribute) from the passed String.
+   * The String is parsed directly, without an intermediate reader.
+   *
+   * @param sCSS
+   *        The source string containing the CSS declarations to be parsed. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   */
+  @Nullable
+  public CSSDeclarationList readDeclarationListFromString (@NonNull final String sCSS)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+
+    if (m_aParseCache != null)
+      return _convertDeclarationListNode (_readNodeCached (sCSS, false));
+
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (sCSS);
+    try
+    {
+      return _convertDeclarationListNode (readDeclarationListNode (aCharStream));
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("FallbackCharset", m_aFallbackCharset)
+                                       .append ("ParseErrorHandler", m_aParseErrorHandler)
+                                       .append ("ParseExceptionHandler", m_aParseExceptionHandler)
+                                       .append ("InterpretErrorHandler", m_aInterpretErrorHandler)
+                                       .append ("BrowserCompliantMode", m_bBrowserCompliantMode)
+                                       .append ("KeepDeprecatedProperties", m_bKeepDeprecatedProperties)
+                                       .append ("TrackPositions", m_bTrackPositions)
+                                       .append ("UseSourceLocation", m_bUseSourceLocation)
+                                       .append ("LazyDeclarations", m_bLazyDeclarations)
+                                       .append ("ParserEngine", m_eParserEngine)
+                                       .append ("ParserImplementation", m_eParserImplementation)
+                                       .append ("ParseCache", m_aParseCache)
+                                       .append ("TabSize", m_nTabSize)
+                                       .appendIfNotNull ("Pool", m_aPool)
+                                       .getToString ();
+  }
+}
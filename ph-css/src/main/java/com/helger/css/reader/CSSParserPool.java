@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.Reader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.css.parser.CSSCharSequenceCharStream;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSRecursiveDescentParser;
+import com.helger.css.parser.CharStream;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+
+/**
+ * A bounded pool of reusable parser objects. The generated parser, the recursive-descent parser
+ * (see {@link ECSSParserImplementation}), their token managers and the buffers of
+ * {@link CSSCharStream} are re-initialized instead of being created for every parse.
+ * This pays off if many small sources (like inline styles) are parsed. The pool is lock free and can
+ * be used from platform and virtual threads alike - it does not bind objects to threads. A pool
+ * is used by passing it to {@link CSSParser#CSSParser(CSSReaderSettings, CSSParserPool)}.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@ThreadSafe
+public final class CSSParserPool
+{
+  /** The default maximum number of idle objects per type */
+  public static final int DEFAULT_MAX_SIZE = 64;
+
+  // Assigned to idle parsers, so that they don't reference the last input. It is never read.
+  private static final CharStream EMPTY_CHAR_STREAM = new CSSCharSequenceCharStream ("");
+
+  private final int m_nMaxSize;
+  private final Queue <ParserCSS30> m_aParsers = new ConcurrentLinkedQueue <> ();
+  private final AtomicInteger m_aParserCount = new AtomicInteger (0);
+  private final Queue <CSSRecursiveDescentParser> m_aRDParsers = new ConcurrentLinkedQueue <> ();
+  private final AtomicInteger m_aRDParserCount = new AtomicInteger (0);
+  private final Queue <CSSCharStream> m_aCharStreams = new ConcurrentLinkedQueue <> ();
+  private final AtomicInteger m_aCharStreamCount = new AtomicInteger (0);
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_SIZE} as the maximum size.
+   */
+  public CSSParserPool ()
+  {
+    this (DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of idle parsers per implementation and the maximum number of idle
+   *        char streams to be kept. Should roughly be the number of concurrent parses. Must be &ge; 0.
+   */
+  public CSSParserPool (@Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.isGE0 (nMaxSize, "MaxSize");
+    m_nMaxSize = nMaxSize;
+  }
+
+  /**
+   * @return The maximum number of idle parsers and char streams kept. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * @return The number of currently idle generated parsers in the pool. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getIdleParserCount ()
+  {
+    return m_aParserCount.get ();
+  }
+
+  /**
+   * @return The number of currently idle recursive-descent parsers in the pool. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getIdleRecursiveDescentParserCount ()
+  {
+    return m_aRDParserCount.get ();
+  }
+
+  /**
+   * @return The number of currently idle char streams in the pool. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getIdleCharStreamCount ()
+  {
+    return m_aCharStreamCount.get ();
+  }
+
+  private static <T> void _offer (@NonNull final Queue <T> aQueue,
+                                  @NonNull final AtomicInteger aCount,
+                                  final int nMaxSize,
+                                  @NonNull final T aObj)
+  {
+    if (aCount.incrementAndGet () > nMaxSize)
+    {
+      // Pool is full
+      aCount.decrementAndGet ();
+    }
+    else
+      aQueue.offer (aObj);
+  }
+
+  @NonNull
+  ParserCSS30 borrowParser (@NonNull final CharStream aCharStream)
+  {
+    final ParserCSS30 aParser = m_aParsers.poll ();
+    if (aParser == null)
+      return new ParserCSS30 (new ParserCSS30TokenManager (aCharStream));
+
+    m_aParserCount.decrementAndGet ();
+    aParser.ReInit (aCharStream);
+    return aParser;
+  }
+
+  void returnParser (@NonNull final ParserCSS30 aParser)
+  {
+    // Release all references to the last input (char stream, token chain and
+    // node stack)
+    aParser.ReInit (EMPTY_CHAR_STREAM);
+    aParser.setCustomErrorHandler (null);
+    aParser.token_source.setCustomErrorHandler (null);
+    aParser.setTopLevelNodeConsumer (null);
+    aParser.resetPullState ();
+    _offer (m_aParsers, m_aParserCount, m_nMaxSize, aParser);
+  }
+
+  @NonNull
+  CSSRecursiveDescentParser borrowRecursiveDescentParser (@NonNull final CharStream aCharStream)
+  {
+    final CSSRecursiveDescentParser aParser = m_aRDParsers.poll ();
+    if (aParser == null)
+      return new CSSRecursiveDescentParser (aCharStream);
+
+    m_aRDParserCount.decrementAndGet ();
+    aParser.reInit (aCharStream);
+    return aParser;
+  }
+
+  void returnRecursiveDescentParser (@NonNull final CSSRecursiveDescentParser aParser)
+  {
+    // Release all references to the last input (char stream, tokens and nodes)
+    aParser.reInit (EMPTY_CHAR_STREAM);
+    _offer (m_aRDParsers, m_aRDParserCount, m_nMaxSize, aParser);
+  }
+
+  @NonNull
+  CSSCharStream borrowCharStream (@NonNull final Reader aReader)
+  {
+    final CSSCharStream aCharStream = m_aCharStreams.poll ();
+    if (aCharStream == null)
+      return new CSSCharStream (aReader);
+
+    m_aCharStreamCount.decrementAndGet ();
+    aCharStream.reInit (aReader);
+    return aCharStream;
+  }
+
+  void returnCharStream (@NonNull final CSSCharStream aCharStream)
+  {
+    // Release the reference to the last reader and shrink grown buffers
+    aCharStream.releaseReader ();
+    _offer (m_aCharStreams, m_aCharStreamCount, m_nMaxSize, aCharStream);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxSize", m_nMaxSize)
+                                       .append ("IdleParsers", m_aParserCount.get ())
+                                       .append ("IdleRecursiveDescentParsers", m_aRDParserCount.get ())
+                                       .append ("IdleCharStreams", m_aCharStreamCount.get ())
+                                       .getToString ();
+  }
+}
@@ -19,8 +19,13 @@ package com.helger.css.reader;
 import java.io.File;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -28,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.WillClose;
+import com.helger.annotation.WillNotClose;
 import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.misc.DevelopersNote;
@@ -38,22 +44,16 @@ import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.iface.IHasInputStream;
 import com.helger.base.io.iface.IHasReader;
-import com.helger.base.io.nonblocking.NonBlockingStringReader;
 import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.io.streamprovider.StringInputStreamProvider;
-import com.helger.base.io.streamprovider.StringReaderProvider;
 import com.helger.css.decl.CascadingStyleSheet;
-import com.helger.css.handler.CSSHandler;
 import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
 import com.helger.css.handler.ICSSParseExceptionCallback;
 import com.helger.css.handler.LoggingCSSParseExceptionCallback;
+import com.helger.css.parser.CSSCharSequenceCharStream;
 import com.helger.css.parser.CSSCharStream;
-import com.helger.css.parser.CSSNode;
 import com.helger.css.parser.CSSParseHelper;
 import com.helger.css.parser.CharStream;
-import com.helger.css.parser.ParseException;
-import com.helger.css.parser.ParserCSS30;
-import com.helger.css.parser.ParserCSS30TokenManager;
 import com.helger.css.parser.ParserCSSCharsetDetector;
 import com.helger.css.parser.ParserCSSCharsetDetectorTokenManager;
 import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
@@ -66,7 +66,9 @@ import com.helger.io.resource.IReadableResource;
 /**
  * This is the central user class for reading and parsing CSS from different sources. This class
  * reads full CSS declarations only. To read only a declaration list (like from an HTML
- * <code>&lt;style&gt;</code> attribute) the {@link CSSReaderDeclarationList} is available.
+ * <code>&lt;style&gt;</code> attribute) the {@link CSSReaderDeclarationList} is available.<br>
+ * If the same settings are used for many invocations, consider creating a {@link CSSParser} once and
+ * use it instead.
  *
  * @author Philip Helger
  */
@@ -169,57 +171,6 @@ public final class CSSReader
     RW_LOCK.writeLocked ( () -> s_aDefaultInterpretErrorHandler = aDefaultErrorHandler);
   }
 
-  /**
-   * Main reading of the CSS
-   *
-   * @param aCharStream
-   *        The stream to read from. May not be <code>null</code>.
-   * @param aCustomErrorHandler
-   *        A custom handler for recoverable errors. May be <code>null</code>.
-   * @param aCustomExceptionHandler
-   *        A custom handler for unrecoverable errors. May not be <code>null</code>.
-   * @param bBrowserCompliantMode
-   *        <code>true</code> for browser compliant parsing, <code>false</code> for default parsing.
-   * @param bKeepDeprecatedProperties
-   *        <code>true</code> to keep deprecated properties (e.g. <code>*zoom</code>) or
-   *        <code>false</code> to ignore them.
-   * @return <code>null</code> if parsing failed with an unrecoverable error (and no throwing
-   *         exception handler is used), or <code>null</code> if a recoverable error occurred and no
-   *         {@link com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler} was used or
-   *         non-<code>null</code> if parsing succeeded.
-   */
-  @Nullable
-  private static CSSNode _readStyleSheet (@NonNull final CharStream aCharStream,
-                                          @Nullable final ICSSParseErrorHandler aCustomErrorHandler,
-                                          @NonNull final ICSSParseExceptionCallback aCustomExceptionHandler,
-                                          final boolean bBrowserCompliantMode,
-                                          final boolean bKeepDeprecatedProperties)
-  {
-    try
-    {
-      final ParserCSS30TokenManager aTokenHdl = new ParserCSS30TokenManager (aCharStream);
-      aTokenHdl.setCustomErrorHandler (aCustomErrorHandler);
-      final ParserCSS30 aParser = new ParserCSS30 (aTokenHdl);
-      aParser.setCustomErrorHandler (aCustomErrorHandler);
-      aParser.setBrowserCompliantMode (bBrowserCompliantMode);
-      aParser.setKeepDeprecatedProperties (bKeepDeprecatedProperties);
-      // Main parsing
-      return aParser.styleSheet ();
-    }
-    catch (final ParseException ex)
-    {
-      // Unrecoverable error
-      aCustomExceptionHandler.onException (ex);
-      return null;
-    }
-    catch (final Exception ex)
-    {
-      // As e.g. indicated by https://github.com/phax/ph-css/issues/9
-      aCustomExceptionHandler.onException (new ParseException (ex.getMessage ()));
-      return null;
-    }
-  }
-
   /**
    * Check if the passed CSS file can be parsed without error
    *
@@ -295,7 +246,7 @@ public final class CSSReader
   {
     ValueEnforcer.notNull (sCSS, "CSS");
 
-    return isValidCSS (new NonBlockingStringReader (sCSS));
+    return _isValidCSS (new CSSCharSequenceCharStream (sCSS));
   }
 
   /**
@@ -315,17 +266,7 @@ public final class CSSReader
 
     try
     {
-      final CSSCharStream aCharStream = new CSSCharStream (aReader);
-
-      final boolean bBrowserCompliantMode = false;
-      final boolean bKeepDeprecatedProperties = false;
-
-      final CSSNode aNode = _readStyleSheet (aCharStream,
-                                             getDefaultParseErrorHandler (),
-                                             new DoNothingCSSParseExceptionCallback (),
-                                             bBrowserCompliantMode,
-                                             bKeepDeprecatedProperties);
-      return aNode != null;
+      return _isValidCSS (new CSSCharStream (aReader));
     }
     finally
     {
@@ -333,6 +274,12 @@ public final class CSSReader
     }
   }
 
+  private static boolean _isValidCSS (@NonNull final CharStream aCharStream)
+  {
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ()));
+    return aParser.readStyleSheetNode (aCharStream) != null;
+  }
+
   /**
    * Read the CSS from the passed String using a character stream. An eventually contained
    * <code>@charset</code> rule is ignored.
@@ -479,7 +426,7 @@ public final class CSSReader
   public static CascadingStyleSheet readFromStringReader (@NonNull final String sCSS,
                                                           @NonNull final CSSReaderSettings aSettings)
   {
-    return readFromReader (new StringReaderProvider (sCSS), aSettings);
+    return new CSSParser (aSettings).readFromString (sCSS);
   }
 
   /**
@@ -679,13 +626,138 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link Path} using the default settings.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @since 8.2.2
+   * @see #readFromPath(Path, CSSReaderSettings)
+   */
+  @Nullable
+  public static CascadingStyleSheet readFromPath (@NonNull final Path aPath)
+  {
+    return readFromPath (aPath, new CSSReaderSettings ());
+  }
+
+  /**
+   * Read the CSS from the passed {@link Path}. The file is memory mapped and decoded directly into
+   * the parser buffer, without any intermediate stream or reader. The charset is determined from a
+   * BOM or a <code>@charset</code> rule at the beginning of the file (see {@link CSSCharsetHelper}).
+   * Files that are too large to be mapped at once are read via a regular input stream. The file is
+   * closed after reading, the mapping itself is released by the JVM as soon as it is no longer
+   * referenced.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @since 8.2.2
+   */
+  @Nullable
+  public static CascadingStyleSheet readFromPath (@NonNull final Path aPath, @NonNull final CSSReaderSettings aSettings)
+  {
+    return new CSSParser (aSettings).readFromPath (aPath);
+  }
+
+  /**
+   * Create a pull based iterator over the top-level rules of the passed file. Each top-level rule is
+   * only parsed and converted when it is requested, so the memory consumption does not depend on
+   * the size of the file. See {@link CSSTopLevelRuleIterator} for details.
+   *
+   * @param aPath
+   *        The path of the file containing the CSS to be parsed. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @return <code>null</code> if the file could not be opened, the iterator otherwise.
+   * @since 8.2.2
+   * @see CSSParser#iterateRules(Path)
+   */
+  @Nullable
+  public static CSSTopLevelRuleIterator iterateRules (@NonNull final Path aPath, @NonNull final CSSReaderSettings aSettings)
+  {
+    return new CSSParser (aSettings).iterateRules (aPath);
+  }
+
+  /**
+   * Create a pull based iterator over the top-level rules read from the passed {@link Reader}. See
+   * {@link CSSTopLevelRuleIterator} for details.
+   *
+   * @param aReader
+   *        The reader to use. Will be closed when the iteration ends or the iterator is closed. May
+   *        not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @return The iterator. Never <code>null</code>.
+   * @since 8.2.2
+   * @see CSSParser#iterateRules(Reader)
+   */
+  @NonNull
+  public static CSSTopLevelRuleIterator iterateRules (@NonNull @WillClose final Reader aReader,
+                                                      @NonNull final CSSReaderSettings aSettings)
+  {
+    return new CSSParser (aSettings).iterateRules (aReader);
+  }
+
+  /**
+   * Read the CSS from the passed {@link ReadableByteChannel} asynchronously. The channel is read
+   * chunk by chunk and the bytes are decoded directly into the parser buffer, without an
+   * intermediate {@link InputStream}.
+   *
+   * @param aChannel
+   *        The blocking channel to read from. It is not closed. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @param aExecutor
+   *        The executor to read and parse on. May not be <code>null</code>.
+   * @return A future that completes with <code>null</code> if parsing failed, or the CSS
+   *         declarations otherwise. It completes exceptionally if reading from the channel fails.
+   *         Never <code>null</code>.
+   * @since 8.2.2
+   * @see CSSParser#readFromChannelAsync(ReadableByteChannel, Executor)
+   */
+  @NonNull
+  public static CompletableFuture <CascadingStyleSheet> readFromChannelAsync (@NonNull @WillNotClose final ReadableByteChannel aChannel,
+                                                                              @NonNull final CSSReaderSettings aSettings,
+                                                                              @NonNull final Executor aExecutor)
+  {
+    return new CSSParser (aSettings).readFromChannelAsync (aChannel, aExecutor);
+  }
+
+  /**
+   * Read the CSS from the passed {@link AsynchronousFileChannel}. No thread is blocked while the
+   * channel reads, and parsing starts on the provided executor as soon as the first chunk is
+   * available.
+   *
+   * @param aChannel
+   *        The channel to read from. It is not closed. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @param aExecutor
+   *        The executor to parse on. May not be <code>null</code>.
+   * @return A future that completes with <code>null</code> if parsing failed, or the CSS
+   *         declarations otherwise. It completes exceptionally if reading from the channel fails.
+   *         Never <code>null</code>.
+   * @since 8.2.2
+   * @see CSSParser#readFromChannelAsync(AsynchronousFileChannel, Executor)
+   */
+  @NonNull
+  public static CompletableFuture <CascadingStyleSheet> readFromChannelAsync (@NonNull @WillNotClose final AsynchronousFileChannel aChannel,
+                                                                              @NonNull final CSSReaderSettings aSettings,
+                                                                              @NonNull final Executor aExecutor)
+  {
+    return new CSSParser (aSettings).readFromChannelAsync (aChannel, aExecutor);
+  }
+
+  /**
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @return <code>null</code> if reading failed, the CSS declarations otherwise.
    */
   @Nullable
@@ -695,13 +767,13 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @param aFallbackCharset
    *        The charset to be used in case neither a <code>@charset</code> rule nor a BOM is
    *        present. May not be <code>null</code>.
@@ -717,13 +789,13 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @param aFallbackCharset
    *        The charset to be used in case neither a <code>@charset</code> rule nor a BOM is
    *        present. May not be <code>null</code>.
@@ -827,13 +899,13 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @param aFallbackCharset
    *        The charset to be used in case neither a <code>@charset</code> rule nor a BOM is
    *        present. May not be <code>null</code>.
@@ -855,13 +927,13 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @param aFallbackCharset
    *        The charset to be used in case neither a <code>@charset</code> rule nor a BOM is
    *        present. May not be <code>null</code>.
@@ -888,13 +960,13 @@ public final class CSSReader
   }
 
   /**
-   * Read the CSS from the passed {@link IHasInputStream}. If the CSS contains an explicit charset,
-   * the whole CSS is parsed again, with the charset found inside the file, so the passed
-   * {@link IHasInputStream} must be able to create a new input stream on second invocation!
+   * Read the CSS from the passed {@link IHasInputStream}. The input stream is opened exactly once -
+   * an explicit charset or a BOM is determined from a bounded prefix of the stream (see
+   * {@link CSSCharsetHelper}).
    *
    * @param aISP
-   *        The input stream provider to use. Must be able to create new input streams on every
-   *        invocation, in case an explicit charset node was found. May not be <code>null</code>.
+   *        The input stream provider to use. The input stream is retrieved exactly once and closed
+   *        anyway. May not be <code>null</code>.
    * @param aSettings
    *        The settings to be used for reading the CSS. May not be <code>null</code>.
    * @return <code>null</code> if reading failed, the CSS declarations otherwise.
@@ -907,84 +979,32 @@ public final class CSSReader
     ValueEnforcer.notNull (aISP, "InputStreamProvider");
     ValueEnforcer.notNull (aSettings, "Settings");
 
-    Charset aCharsetToUse;
-
-    // Check if the CSS contains a declared charset or as an alternative use the
-    // Charset from the BOM
-    Charset aDeclaredCharset;
-    try
-    {
-      aDeclaredCharset = getCharsetDeclaredInCSS (aISP);
-    }
-    catch (final IllegalStateException ex)
-    {
-      // Failed to parse CSS at a very low level
-      return null;
-    }
-    if (aDeclaredCharset != null)
-    {
-      if (LOGGER.isDebugEnabled ())
-        LOGGER.debug ("Reading CSS definition again with explicit charset '" + aDeclaredCharset.name () + "'");
-      aCharsetToUse = aDeclaredCharset;
-    }
-    else
-    {
-      // No charset declared - use fallback
-      aCharsetToUse = aSettings.getFallbackCharset ();
-    }
-
     // Try to open input stream
-    final InputStream aISOrig = aISP.getInputStream ();
-    if (aISOrig == null)
+    final InputStream aIS = aISP.getInputStream ();
+    if (aIS == null)
       return null;
 
-    // Open input stream
-    final InputStreamAndCharset aISAndBOM = CharsetHelper.getInputStreamAndCharsetFromBOM (aISOrig);
-
-    final InputStream aIS = aISAndBOM.getInputStream ();
-    final Reader aReader = StreamHelper.createReader (aIS, aCharsetToUse);
-    try
-    {
-      final CSSCharStream aCharStream = new CSSCharStream (aReader);
-      aCharStream.setTabSize (aSettings.getTabSize ());
-
-      // Use the default CSS parse error handler if none is provided
-      ICSSParseErrorHandler aRealParseErrorHandler = aSettings.getCustomErrorHandler ();
-      if (aRealParseErrorHandler == null)
-        aRealParseErrorHandler = getDefaultParseErrorHandler ();
-
-      // Use the default CSS exception handler if none is provided
-      ICSSParseExceptionCallback aRealParseExceptionHandler = aSettings.getCustomExceptionHandler ();
-      if (aRealParseExceptionHandler == null)
-        aRealParseExceptionHandler = getDefaultParseExceptionHandler ();
-
-      final boolean bBrowserCompliantMode = aSettings.isBrowserCompliantMode ();
-      final boolean bKeepDeprecatedProperties = aSettings.isKeepDeprecatedProperties ();
-
-      final CSSNode aNode = _readStyleSheet (aCharStream,
-                                             aRealParseErrorHandler,
-                                             aRealParseExceptionHandler,
-                                             bBrowserCompliantMode,
-                                             bKeepDeprecatedProperties);
-
-      // Failed to parse content as CSS?
-      if (aNode == null)
-        return null;
-
-      // Get the interpret error handler
-      ICSSInterpretErrorHandler aRealInterpretErrorHandler = aSettings.getInterpretErrorHandler ();
-      if (aRealInterpretErrorHandler == null)
-        aRealInterpretErrorHandler = getDefaultInterpretErrorHandler ();
-
-      final boolean bUseSourceLocation = aSettings.isUseSourceLocation ();
+    return readFromStream (aIS, aSettings);
+  }
 
-      // Convert the AST to a domain object
-      return CSSHandler.readCascadingStyleSheetFromNode (aRealInterpretErrorHandler, bUseSourceLocation, aNode);
-    }
-    finally
-    {
-      StreamHelper.close (aReader);
-    }
+  /**
+   * Read the CSS from the passed {@link InputStream}. The stream is read only once, so it does not
+   * need to be re-openable. An explicit charset or a BOM is determined from a bounded prefix of the
+   * stream (see {@link CSSCharsetHelper}) and the remaining content is decoded with this charset.
+   *
+   * @param aIS
+   *        The input stream to use. Will be closed automatically after reading - independent of
+   *        success or error. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations otherwise.
+   * @since 8.2.2
+   */
+  @Nullable
+  public static CascadingStyleSheet readFromStream (@NonNull @WillClose final InputStream aIS,
+                                                    @NonNull final CSSReaderSettings aSettings)
+  {
+    return new CSSParser (aSettings).readFromStream (aIS);
   }
 
   /**
@@ -1045,48 +1065,6 @@ public final class CSSReader
     }
 
     // No charset determination, as the Reader already has an implicit Charset
-
-    try
-    {
-      final CSSCharStream aCharStream = new CSSCharStream (aReader);
-      aCharStream.setTabSize (aSettings.getTabSize ());
-
-      // Use the default CSS parse error handler if none is provided
-      ICSSParseErrorHandler aRealParseErrorHandler = aSettings.getCustomErrorHandler ();
-      if (aRealParseErrorHandler == null)
-        aRealParseErrorHandler = getDefaultParseErrorHandler ();
-
-      // Use the default CSS exception handler if none is provided
-      ICSSParseExceptionCallback aRealParseExceptionHandler = aSettings.getCustomExceptionHandler ();
-      if (aRealParseExceptionHandler == null)
-        aRealParseExceptionHandler = getDefaultParseExceptionHandler ();
-
-      final boolean bBrowserCompliantMode = aSettings.isBrowserCompliantMode ();
-      final boolean bKeepDeprecatedProperties = aSettings.isKeepDeprecatedProperties ();
-
-      final CSSNode aNode = _readStyleSheet (aCharStream,
-                                             aRealParseErrorHandler,
-                                             aRealParseExceptionHandler,
-                                             bBrowserCompliantMode,
-                                             bKeepDeprecatedProperties);
-
-      // Failed to parse content as CSS?
-      if (aNode == null)
-        return null;
-
-      // Get the interpret error handler
-      ICSSInterpretErrorHandler aRealInterpretErrorHandler = aSettings.getInterpretErrorHandler ();
-      if (aRealInterpretErrorHandler == null)
-        aRealInterpretErrorHandler = getDefaultInterpretErrorHandler ();
-
-      final boolean bUseSourceLocation = aSettings.isUseSourceLocation ();
-
-      // Convert the AST to a domain object
-      return CSSHandler.readCascadingStyleSheetFromNode (aRealInterpretErrorHandler, bUseSourceLocation, aNode);
-    }
-    finally
-    {
-      StreamHelper.close (aReader);
-    }
+    return new CSSParser (aSettings).readFromReader (aReader);
   }
 }
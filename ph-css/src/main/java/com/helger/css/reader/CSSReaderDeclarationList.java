@@ -20,6 +20,9 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -31,16 +34,19 @@ import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.misc.DevelopersNote;
 import com.helger.annotation.style.PresentForCodeCoverage;
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.iface.IHasInputStream;
-import com.helger.base.io.nonblocking.NonBlockingStringReader;
 import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.css.decl.CSSDeclarationList;
 import com.helger.css.handler.CSSHandler;
 import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
 import com.helger.css.handler.ICSSParseExceptionCallback;
 import com.helger.css.handler.LoggingCSSParseExceptionCallback;
+import com.helger.css.parser.CSSCharSequenceCharStream;
 import com.helger.css.parser.CSSCharStream;
 import com.helger.css.parser.CSSNode;
 import com.helger.css.parser.CharStream;
@@ -64,6 +70,8 @@ import com.helger.io.resource.IReadableResource;
 public final class CSSReaderDeclarationList
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (CSSReaderDeclarationList.class);
+  // The minimum number of sources read by a single task of a concurrent batch
+  private static final int BATCH_MIN_ITEMS_PER_TASK = 64;
   private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
 
   // Use the ThrowingCSSParseErrorHandler for maximum backward compatibility
@@ -268,7 +276,7 @@ public final class CSSReaderDeclarationList
   {
     ValueEnforcer.notNull (sCSS, "CSS");
 
-    return isValidCSS (new NonBlockingStringReader (sCSS));
+    return _isValidCSS (new CSSCharSequenceCharStream (sCSS));
   }
 
   /**
@@ -288,11 +296,7 @@ public final class CSSReaderDeclarationList
 
     try
     {
-      final CSSCharStream aCharStream = new CSSCharStream (aReader);
-      final CSSNode aNode = _readStyleDeclaration (aCharStream,
-                                                   getDefaultParseErrorHandler (),
-                                                   new DoNothingCSSParseExceptionCallback ());
-      return aNode != null;
+      return _isValidCSS (new CSSCharStream (aReader));
     }
     finally
     {
@@ -300,6 +304,14 @@ public final class CSSReaderDeclarationList
     }
   }
 
+  private static boolean _isValidCSS (@NonNull final CharStream aCharStream)
+  {
+    final CSSNode aNode = _readStyleDeclaration (aCharStream,
+                                                 getDefaultParseErrorHandler (),
+                                                 new DoNothingCSSParseExceptionCallback ());
+    return aNode != null;
+  }
+
   /**
    * Read the CSS from the passed String.
    *
@@ -310,7 +322,7 @@ public final class CSSReaderDeclarationList
   @Nullable
   public static CSSDeclarationList readFromString (@NonNull final String sCSS)
   {
-    return readFromReader (new NonBlockingStringReader (sCSS), new CSSReaderSettings ());
+    return readFromString (sCSS, new CSSReaderSettings ());
   }
 
   /**
@@ -390,7 +402,152 @@ public final class CSSReaderDeclarationList
   public static CSSDeclarationList readFromString (@NonNull final String sCSS,
                                                    @NonNull final CSSReaderSettings aSettings)
   {
-    return readFromReader (new NonBlockingStringReader (sCSS), aSettings);
+    ValueEnforcer.notNull (sCSS, "CSS");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    // No need for a Reader - the String is directly indexed
+    final CSSCharSequenceCharStream aCharStream = new CSSCharSequenceCharStream (sCSS);
+    try
+    {
+      return _readFromCharStream (aCharStream, aSettings);
+    }
+    finally
+    {
+      aCharStream.done ();
+    }
+  }
+
+  private static void _readBatchRange (@NonNull final ICommonsList <String> aSources,
+                                       final int nStart,
+                                       final int nEnd,
+                                       @NonNull final CSSReaderSettings aSettings,
+                                       @NonNull final CSSParserPool aPool,
+                                       @NonNull final ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> aResults)
+  {
+    // The parser objects are reused via the pool
+    for (int i = nStart; i < nEnd; ++i)
+      aResults.set (i,
+                    CSSBatchReadResult.read (aSources.get (i),
+                                             i,
+                                             aSettings,
+                                             aPool,
+                                             CSSParser::readDeclarationListFromString));
+  }
+
+  /**
+   * Read many declaration lists, like the values of HTML <code>style</code> attributes, in the
+   * current thread.
+   *
+   * @param aCSSs
+   *        The source strings to be parsed. May not be <code>null</code> and may not contain
+   *        <code>null</code> elements.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @return One result per source string in the order of the input. Never <code>null</code>.
+   * @see #readAllFromStrings(Iterable, CSSReaderSettings, CSSParserPool, Executor)
+   * @since 8.2.2
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> readAllFromStrings (@NonNull final Iterable <String> aCSSs,
+                                                                                                   @NonNull final CSSReaderSettings aSettings)
+  {
+    return readAllFromStrings (aCSSs, aSettings, null, null);
+  }
+
+  /**
+   * Read many declaration lists, like the values of HTML <code>style</code> attributes. In contrast
+   * to calling {@link #readFromString(String, CSSReaderSettings)} for every source, the parser
+   * objects are set up only once and reused for all sources. All recoverable parse errors and all
+   * unrecoverable parse exceptions are collected into the result of each source, so custom error
+   * and exception handlers contained in the settings are not used. The interpret error handler and
+   * all other settings are applied as usual.<br>
+   * If the settings contain a {@link CSSParseCache}, repeated identical sources are parsed only
+   * once, which pays off for the repetitive style attributes of generated HTML.<br>
+   * If an executor is provided, the sources are split into ranges that are read concurrently. In
+   * that case the interpret error handler must be thread-safe. The calling thread blocks until all
+   * sources are read.
+   *
+   * @param aCSSs
+   *        The source strings to be parsed. May not be <code>null</code> and may not contain
+   *        <code>null</code> elements.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. May not be <code>null</code>.
+   * @param aPool
+   *        The optional parser pool to use. If <code>null</code> a new pool is used for this call
+   *        only.
+   * @param aExecutor
+   *        The optional executor to read the sources concurrently. May be <code>null</code> to read
+   *        all sources in the current thread.
+   * @return One result per source string in the order of the input. Never <code>null</code>.
+   * @since 8.2.2
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> readAllFromStrings (@NonNull final Iterable <String> aCSSs,
+                                                                                                   @NonNull final CSSReaderSettings aSettings,
+                                                                                                   @Nullable final CSSParserPool aPool,
+                                                                                                   @Nullable final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aCSSs, "CSSs");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    final ICommonsList <String> aSources = new CommonsArrayList <> ();
+    for (final String sCSS : aCSSs)
+    {
+      ValueEnforcer.notNull (sCSS, "CSS");
+      aSources.add (sCSS);
+    }
+
+    final int nCount = aSources.size ();
+    final int nTaskCount = aExecutor == null ? Math.min (nCount, 1)
+                                             : Math.min ((nCount + BATCH_MIN_ITEMS_PER_TASK - 1) /
+                                                         BATCH_MIN_ITEMS_PER_TASK,
+                                                         Runtime.getRuntime ().availableProcessors () * 4);
+
+    // Resolve once, so that the default handler is not queried per source
+    final CSSReaderSettings aRealSettings = aSettings.getClone ();
+    if (aRealSettings.getInterpretErrorHandler () == null)
+      aRealSettings.setInterpretErrorHandler (getDefaultInterpretErrorHandler ());
+    final CSSParserPool aRealPool = aPool != null ? aPool : new CSSParserPool (nTaskCount);
+
+    // Filled at the index of each source - the size never changes, so concurrent ranges don't
+    // interfere
+    final ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> aResults = new CommonsArrayList <> (nCount);
+    for (int i = 0; i < nCount; ++i)
+      aResults.add (null);
+    if (nTaskCount <= 1)
+      _readBatchRange (aSources, 0, nCount, aRealSettings, aRealPool, aResults);
+    else
+    {
+      final ICommonsList <CompletableFuture <Void>> aFutures = new CommonsArrayList <> (nTaskCount);
+      for (int nTask = 0; nTask < nTaskCount; ++nTask)
+      {
+        final int nStart = (int) ((long) nCount * nTask / nTaskCount);
+        final int nEnd = (int) ((long) nCount * (nTask + 1) / nTaskCount);
+        aFutures.add (CompletableFuture.runAsync ( () -> _readBatchRange (aSources,
+                                                                          nStart,
+                                                                          nEnd,
+                                                                          aRealSettings,
+                                                                          aRealPool,
+                                                                          aResults),
+                                                   aExecutor));
+      }
+
+      // Wait for all ranges
+      try
+      {
+        for (final CompletableFuture <Void> aFuture : aFutures)
+          aFuture.join ();
+      }
+      catch (final CompletionException ex)
+      {
+        if (ex.getCause () instanceof RuntimeException)
+          throw (RuntimeException) ex.getCause ();
+        throw ex;
+      }
+    }
+    return aResults;
   }
 
   @Nullable
@@ -860,37 +1017,46 @@ public final class CSSReaderDeclarationList
 
     try
     {
-      final CSSCharStream aCharStream = new CSSCharStream (aReader);
+      return _readFromCharStream (new CSSCharStream (aReader), aSettings);
+    }
+    finally
+    {
+      StreamHelper.close (aReader);
+    }
+  }
 
-      // Use the default CSS parse error handler if none is provided
-      ICSSParseErrorHandler aRealParseErrorHandler = aSettings.getCustomErrorHandler ();
-      if (aRealParseErrorHandler == null)
-        aRealParseErrorHandler = getDefaultParseErrorHandler ();
+  @Nullable
+  private static CSSDeclarationList _readFromCharStream (@NonNull final CharStream aCharStream,
+                                                         @NonNull final CSSReaderSettings aSettings)
+  {
+    aCharStream.setTabSize (aSettings.getTabSize ());
+    aCharStream.setTrackLineColumn (aSettings.isTrackPositions ());
 
-      // Use the default CSS exception handler if none is provided
-      ICSSParseExceptionCallback aRealParseExceptionHandler = aSettings.getCustomExceptionHandler ();
-      if (aRealParseExceptionHandler == null)
-        aRealParseExceptionHandler = getDefaultParseExceptionHandler ();
+    // Use the default CSS parse error handler if none is provided
+    ICSSParseErrorHandler aRealParseErrorHandler = aSettings.getCustomErrorHandler ();
+    if (aRealParseErrorHandler == null)
+      aRealParseErrorHandler = getDefaultParseErrorHandler ();
 
-      final CSSNode aNode = _readStyleDeclaration (aCharStream, aRealParseErrorHandler, aRealParseExceptionHandler);
+    // Use the default CSS exception handler if none is provided
+    ICSSParseExceptionCallback aRealParseExceptionHandler = aSettings.getCustomExceptionHandler ();
+    if (aRealParseExceptionHandler == null)
+      aRealParseExceptionHandler = getDefaultParseExceptionHandler ();
 
-      // Failed to parse content as CSS?
-      if (aNode == null)
-        return null;
+    final CSSNode aNode = _readStyleDeclaration (aCharStream, aRealParseErrorHandler, aRealParseExceptionHandler);
 
-      // Get the interpret error handler
-      ICSSInterpretErrorHandler aRealInterpretErrorHandler = aSettings.getInterpretErrorHandler ();
-      if (aRealInterpretErrorHandler == null)
-        aRealInterpretErrorHandler = getDefaultInterpretErrorHandler ();
+    // Failed to parse content as CSS?
+    if (aNode == null)
+      return null;
 
-      final boolean bUseSourceLocation = aSettings.isUseSourceLocation ();
+    // Get the interpret error handler
+    ICSSInterpretErrorHandler aRealInterpretErrorHandler = aSettings.getInterpretErrorHandler ();
+    if (aRealInterpretErrorHandler == null)
+      aRealInterpretErrorHandler = getDefaultInterpretErrorHandler ();
 
-      // Convert the AST to a domain object
-      return CSSHandler.readDeclarationListFromNode (aRealInterpretErrorHandler, bUseSourceLocation, aNode);
-    }
-    finally
-    {
-      StreamHelper.close (aReader);
-    }
+    // Without positions there is no source location
+    final boolean bUseSourceLocation = aSettings.isUseSourceLocation () && aSettings.isTrackPositions ();
+
+    // Convert the AST to a domain object
+    return CSSHandler.readDeclarationListFromNode (aRealInterpretErrorHandler, bUseSourceLocation, aNode);
   }
 }
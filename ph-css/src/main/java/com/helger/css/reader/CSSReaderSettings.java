@@ -43,6 +43,10 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
   public static final boolean DEFAULT_BROWSER_COMPLIANT_MODE = false;
   public static final boolean DEFAULT_KEEP_DEPRECATED_PROPERTIES = false;
   public static final boolean DEFAULT_USE_SOURCE_LOCATION = true;
+  public static final boolean DEFAULT_TRACK_POSITIONS = true;
+  public static final boolean DEFAULT_LAZY_DECLARATIONS = false;
+  public static final ECSSParserEngine DEFAULT_PARSER_ENGINE = ECSSParserEngine.TREE;
+  public static final ECSSParserImplementation DEFAULT_PARSER_IMPLEMENTATION = ECSSParserImplementation.GENERATED;
   public static final int DEFAULT_TAB_SIZE = 8;
 
   private Charset m_aFallbackCharset = DEFAULT_CHARSET;
@@ -51,6 +55,11 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
   private boolean m_bBrowserCompliantMode = DEFAULT_BROWSER_COMPLIANT_MODE;
   private boolean m_bKeepDeprecatedProperties = DEFAULT_KEEP_DEPRECATED_PROPERTIES;
   private boolean m_bUseSourceLocation = DEFAULT_USE_SOURCE_LOCATION;
+  private boolean m_bTrackPositions = DEFAULT_TRACK_POSITIONS;
+  private boolean m_bLazyDeclarations = DEFAULT_LAZY_DECLARATIONS;
+  private ECSSParserEngine m_eParserEngine = DEFAULT_PARSER_ENGINE;
+  private ECSSParserImplementation m_eParserImplementation = DEFAULT_PARSER_IMPLEMENTATION;
+  private CSSParseCache m_aParseCache;
   private int m_nTabSize = DEFAULT_TAB_SIZE;
   private ICSSInterpretErrorHandler m_aInterpretErrorHandler;
 
@@ -66,6 +75,11 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
     m_bBrowserCompliantMode = aOther.m_bBrowserCompliantMode;
     m_bKeepDeprecatedProperties = aOther.m_bKeepDeprecatedProperties;
     m_bUseSourceLocation = aOther.m_bUseSourceLocation;
+    m_bTrackPositions = aOther.m_bTrackPositions;
+    m_bLazyDeclarations = aOther.m_bLazyDeclarations;
+    m_eParserEngine = aOther.m_eParserEngine;
+    m_eParserImplementation = aOther.m_eParserImplementation;
+    m_aParseCache = aOther.m_aParseCache;
     m_nTabSize = aOther.m_nTabSize;
     m_aInterpretErrorHandler = aOther.m_aInterpretErrorHandler;
   }
@@ -228,6 +242,163 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
     return this;
   }
 
+  /**
+   * @return <code>true</code> if line and column numbers are tracked while parsing,
+   *         <code>false</code> if not. The default is {@link #DEFAULT_TRACK_POSITIONS}.
+   * @since 8.2.2
+   */
+  public boolean isTrackPositions ()
+  {
+    return m_bTrackPositions;
+  }
+
+  /**
+   * Change if line and column numbers should be tracked while parsing. If disabled, the lexer does
+   * not maintain any per character position information, all tokens report line and column 0, no
+   * source location is stored (independent of {@link #isUseSourceLocation()}) and error messages
+   * contain no usable positions. This is the fastest mode for throughput bound use cases like
+   * minification.
+   *
+   * @param bTrackPositions
+   *        <code>true</code> to track line and column numbers, <code>false</code> to not do it.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public CSSReaderSettings setTrackPositions (final boolean bTrackPositions)
+  {
+    m_bTrackPositions = bTrackPositions;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the declarations and nested rules of style rules are created on
+   *         first access only, <code>false</code> if they are created while reading. The default is
+   *         {@link #DEFAULT_LAZY_DECLARATIONS}.
+   * @since 8.2.2
+   */
+  public boolean isLazyDeclarations ()
+  {
+    return m_bLazyDeclarations;
+  }
+
+  /**
+   * Change if the declarations and nested rules of style rules should be created lazily. If
+   * enabled, the selectors are still read immediately, but the parsed declaration block is only
+   * converted when a declaration or nested rule of the style rule is accessed the first time (this
+   * includes writing it). This is fastest for use cases that only look at the selectors or at a few
+   * rules of a large style sheet. Interpretation errors inside a declaration block are reported on
+   * first access. This is only used when reading complete style sheets.<br>
+   * When reading from a <code>String</code> with positions enabled (see
+   * {@link #setTrackPositions(boolean)}), only the offsets of each declaration block are kept and
+   * the block is parsed again from the string on first access, so no parsed nodes are retained.
+   * For all other sources the parsed nodes of each declaration block are retained until first
+   * access.
+   *
+   * @param bLazyDeclarations
+   *        <code>true</code> to create declarations on first access, <code>false</code> to create
+   *        them while reading.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public CSSReaderSettings setLazyDeclarations (final boolean bLazyDeclarations)
+  {
+    m_bLazyDeclarations = bLazyDeclarations;
+    return this;
+  }
+
+  /**
+   * @return The engine used to create complete style sheets. Never <code>null</code>. The default
+   *         is {@link #DEFAULT_PARSER_ENGINE}.
+   * @since 8.2.2
+   */
+  @NonNull
+  public ECSSParserEngine getParserEngine ()
+  {
+    return m_eParserEngine;
+  }
+
+  /**
+   * Set the engine used to create complete style sheets. All engines create the same result, but
+   * differ in speed and memory usage. If a parse cache is set (see
+   * {@link #setParseCache(CSSParseCache)}), strings are always read with
+   * {@link ECSSParserEngine#TREE}, because the cache stores complete node trees. The engine is
+   * independent of {@link #setParserImplementation(ECSSParserImplementation)}.
+   *
+   * @param eParserEngine
+   *        The engine to use. May not be <code>null</code>.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public CSSReaderSettings setParserEngine (@NonNull final ECSSParserEngine eParserEngine)
+  {
+    ValueEnforcer.notNull (eParserEngine, "ParserEngine");
+    m_eParserEngine = eParserEngine;
+    return this;
+  }
+
+  /**
+   * @return The implementation of the CSS grammar used for parsing. Never <code>null</code>. The
+   *         default is {@link #DEFAULT_PARSER_IMPLEMENTATION}.
+   * @since 8.2.2
+   */
+  @NonNull
+  public ECSSParserImplementation getParserImplementation ()
+  {
+    return m_eParserImplementation;
+  }
+
+  /**
+   * Choose between the parser generated from the grammar and the hand-written recursive-descent
+   * parser for the same grammar. This is independent of {@link #setParserEngine(ECSSParserEngine)}
+   * - all combinations are supported and create the same result. Both implementations are taken
+   * from the parser pool of {@link CSSParser} if one is present. See
+   * {@link ECSSParserImplementation} for the details.
+   *
+   * @param eParserImplementation
+   *        The implementation to use. May not be <code>null</code>.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public CSSReaderSettings setParserImplementation (@NonNull final ECSSParserImplementation eParserImplementation)
+  {
+    ValueEnforcer.notNull (eParserImplementation, "ParserImplementation");
+    m_eParserImplementation = eParserImplementation;
+    return this;
+  }
+
+  /**
+   * @return The cache for parse results of strings. May be <code>null</code>. By default no cache
+   *         is used.
+   * @since 8.2.2
+   */
+  @Nullable
+  public CSSParseCache getParseCache ()
+  {
+    return m_aParseCache;
+  }
+
+  /**
+   * Set the cache for parse results of strings. A cache pays off if the same CSS strings are read
+   * over and over again. The cache object is not copied and may be shared between many settings
+   * objects. If a cache is set, strings are always read with {@link ECSSParserEngine#TREE}
+   * independent of {@link #setParserEngine(ECSSParserEngine)}.
+   *
+   * @param aParseCache
+   *        The cache to use. May be <code>null</code> to use no cache.
+   * @return this for chaining
+   * @since 8.2.2
+   */
+  @NonNull
+  public CSSReaderSettings setParseCache (@Nullable final CSSParseCache aParseCache)
+  {
+    m_aParseCache = aParseCache;
+    return this;
+  }
+
   /**
    * @return The tab size to be used to determine the source location. Always &gt; 0. Default value
    *         is {@link #DEFAULT_TAB_SIZE}.
@@ -297,6 +468,11 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
                                        .append ("CustomExceptionHandler", m_aCustomExceptionHandler)
                                        .append ("BrowserCompliantMode", m_bBrowserCompliantMode)
                                        .append ("UseSourceLocation", m_bUseSourceLocation)
+                                       .append ("TrackPositions", m_bTrackPositions)
+                                       .append ("LazyDeclarations", m_bLazyDeclarations)
+                                       .append ("ParserEngine", m_eParserEngine)
+                                       .append ("ParserImplementation", m_eParserImplementation)
+                                       .append ("ParseCache", m_aParseCache)
                                        .append ("TabSize", m_nTabSize)
                                        .append ("InterpretErrorHandler", m_aInterpretErrorHandler)
                                        .getToString ();
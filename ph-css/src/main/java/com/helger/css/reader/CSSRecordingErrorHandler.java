@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.handler.ICSSParseExceptionCallback;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.Token;
+import com.helger.css.reader.errorhandler.ICSSInterpretErrorHandler;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * Records all errors of a parse, so that they can be passed to the real handlers later on, e.g.
+ * in the original order after all chunks of a style sheet were parsed. This class is only used
+ * internally.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+final class CSSRecordingErrorHandler implements ICSSParseErrorHandler, ICSSInterpretErrorHandler
+{
+  @FunctionalInterface
+  private interface IParseError
+  {
+    void replay (@NonNull ICSSParseErrorHandler aHandler) throws ParseException;
+  }
+
+  @FunctionalInterface
+  private interface IInterpretError
+  {
+    void replay (@NonNull ICSSInterpretErrorHandler aHandler);
+  }
+
+  private final ICommonsList <IParseError> m_aParseErrors = new CommonsArrayList <> ();
+  private final ICommonsList <ParseException> m_aParseExceptions = new CommonsArrayList <> ();
+  private ICommonsList <IInterpretError> m_aInterpretErrors = new CommonsArrayList <> ();
+  // Set upon replay. Used for interpretation errors of lazily created objects
+  private ICSSInterpretErrorHandler m_aInterpretErrorHandler;
+
+  public void onCSSParseError (@NonNull final ParseException aParseEx, @Nullable final Token aLastSkippedToken)
+  {
+    m_aParseErrors.add (x -> x.onCSSParseError (aParseEx, aLastSkippedToken));
+  }
+
+  public void onCSSUnexpectedRule (@NonNull final Token aCurrentToken,
+                                   @NonNull @Nonempty final String sRule,
+                                   @NonNull @Nonempty final String sMsg)
+  {
+    m_aParseErrors.add (x -> x.onCSSUnexpectedRule (aCurrentToken, sRule, sMsg));
+  }
+
+  public void onCSSDeprecatedProperty (@NonNull final Token aPrefixToken, @NonNull final Token aIdentifierToken)
+  {
+    m_aParseErrors.add (x -> x.onCSSDeprecatedProperty (aPrefixToken, aIdentifierToken));
+  }
+
+  public void onCSSBrowserCompliantSkip (@Nullable final ParseException ex,
+                                         @NonNull final Token aFromToken,
+                                         @NonNull final Token aToToken)
+  {
+    m_aParseErrors.add (x -> x.onCSSBrowserCompliantSkip (ex, aFromToken, aToToken));
+  }
+
+  @Override
+  public void onIllegalCharacter (final char cIllegalChar)
+  {
+    m_aParseErrors.add (x -> x.onIllegalCharacter (cIllegalChar));
+  }
+
+  void onParseException (@NonNull final ParseException ex)
+  {
+    m_aParseExceptions.add (ex);
+  }
+
+  public synchronized void onCSSInterpretationWarning (@NonNull @Nonempty final String sMessage)
+  {
+    if (m_aInterpretErrorHandler != null)
+      m_aInterpretErrorHandler.onCSSInterpretationWarning (sMessage);
+    else
+      m_aInterpretErrors.add (x -> x.onCSSInterpretationWarning (sMessage));
+  }
+
+  public synchronized void onCSSInterpretationError (@NonNull @Nonempty final String sMessage)
+  {
+    if (m_aInterpretErrorHandler != null)
+      m_aInterpretErrorHandler.onCSSInterpretationError (sMessage);
+    else
+      m_aInterpretErrors.add (x -> x.onCSSInterpretationError (sMessage));
+  }
+
+  /**
+   * Pass all recorded parse errors and parse exceptions to the provided handlers.
+   *
+   * @return <code>true</code> if the chunk was parsed successfully and no parse error handler
+   *         threw an exception, <code>false</code> otherwise.
+   */
+  boolean replayParseErrors (@Nullable final ICSSParseErrorHandler aParseErrorHandler,
+                             @NonNull final ICSSParseExceptionCallback aParseExceptionHandler)
+  {
+    if (aParseErrorHandler != null)
+      try
+      {
+        for (final IParseError aParseError : m_aParseErrors)
+          aParseError.replay (aParseErrorHandler);
+      }
+      catch (final ParseException ex)
+      {
+        // Fatal error - as in the sequential case
+        aParseExceptionHandler.onException (ex);
+        return false;
+      }
+    for (final ParseException ex : m_aParseExceptions)
+      aParseExceptionHandler.onException (ex);
+    return m_aParseExceptions.isEmpty ();
+  }
+
+  synchronized void replayInterpretErrors (@NonNull final ICSSInterpretErrorHandler aInterpretErrorHandler)
+  {
+    for (final IInterpretError aInterpretError : m_aInterpretErrors)
+      aInterpretError.replay (aInterpretErrorHandler);
+    m_aInterpretErrors = null;
+    m_aInterpretErrorHandler = aInterpretErrorHandler;
+  }
+}
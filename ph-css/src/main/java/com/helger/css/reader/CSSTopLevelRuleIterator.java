@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.WillClose;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.CSSSourceText;
+import com.helger.css.parser.CharStream;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+
+/**
+ * A pull based iterator over the top-level rules of a style sheet. Only the next top-level rule is
+ * parsed and converted, when it is requested, so the rules that were already handled can be
+ * garbage collected. The memory consumption is therefore bounded by the largest top-level rule and
+ * not by the size of the input.<br>
+ * <code>@charset</code>, <code>@import</code> and <code>@namespace</code> rules are no top-level
+ * rules in the domain model and are therefore skipped.<br>
+ * The underlying source is closed as soon as the end of the input or an unrecoverable error is
+ * reached. If the iteration is stopped earlier, {@link #close()} should be called.<br>
+ * The parser is taken from the {@link CSSParserPool} of the {@link CSSParser} if one is present,
+ * and returned when the iterator is closed. {@link ECSSParserImplementation#GENERATED} is always
+ * used, independent of {@link CSSReaderSettings#getParserImplementation()}, because only the
+ * generated parser supports pull based parsing. The result is the same for all implementations.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public final class CSSTopLevelRuleIterator implements Iterator <ICSSTopLevelRule>, Closeable
+{
+  private final CSSParser m_aCSSParser;
+  private final Deque <ICSSTopLevelRule> m_aPending = new ArrayDeque <> ();
+  private CharStream m_aCharStream;
+  private Closeable m_aSource;
+  private ParserCSS30 m_aParser;
+  private final CSSSourceText m_aSourceText;
+
+  CSSTopLevelRuleIterator (@NonNull final CSSParser aCSSParser,
+                           @NonNull final CharStream aCharStream,
+                           @Nullable @WillClose final Closeable aSource)
+  {
+    m_aCSSParser = aCSSParser;
+    m_aCharStream = aCharStream;
+    m_aSource = aSource;
+    m_aSourceText = aCSSParser.getSourceText (aCharStream);
+
+    aCharStream.setTabSize (aCSSParser.getTabSize ());
+    aCharStream.setTrackLineColumn (aCSSParser.isTrackPositions ());
+    final CSSParserPool aPool = aCSSParser.getPool ();
+    m_aParser = aPool != null ? aPool.borrowParser (aCharStream)
+                              : new ParserCSS30 (new ParserCSS30TokenManager (aCharStream));
+    m_aParser.token_source.setCustomErrorHandler (aCSSParser.getParseErrorHandler ());
+    m_aParser.setCustomErrorHandler (aCSSParser.getParseErrorHandler ());
+    m_aParser.setBrowserCompliantMode (aCSSParser.isBrowserCompliantMode ());
+    m_aParser.setKeepDeprecatedProperties (aCSSParser.isKeepDeprecatedProperties ());
+  }
+
+  private void _fill ()
+  {
+    while (m_aPending.isEmpty () && m_aParser != null)
+    {
+      final CSSNode [] aNodes;
+      try
+      {
+        aNodes = m_aParser.readNextTopLevelNodes ();
+      }
+      catch (final ParseException ex)
+      {
+        // Unrecoverable error
+        close ();
+        m_aCSSParser.getParseExceptionHandler ().onException (ex);
+        return;
+      }
+      catch (final Exception ex)
+      {
+        close ();
+        m_aCSSParser.getParseExceptionHandler ().onException (new ParseException (ex.getMessage ()));
+        return;
+      }
+
+      if (aNodes == null)
+      {
+        // End of input
+        close ();
+        return;
+      }
+
+      for (final CSSNode aNode : aNodes)
+        CSSHandler.readTopLevelRulesFromNode (m_aCSSParser.getInterpretErrorHandler (),
+                                              m_aCSSParser.isUseSourceLocation (),
+                                              m_aCSSParser.isLazyDeclarations (),
+                                              m_aSourceText,
+                                              aNode,
+                                              x -> {},
+                                              x -> {},
+                                              m_aPending::add);
+    }
+  }
+
+  public boolean hasNext ()
+  {
+    _fill ();
+    return !m_aPending.isEmpty ();
+  }
+
+  @NonNull
+  public ICSSTopLevelRule next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+    return m_aPending.removeFirst ();
+  }
+
+  /**
+   * Stop parsing and close the underlying source. Rules that were already parsed can still be
+   * retrieved. Calling this method more than once has no effect.
+   */
+  public void close ()
+  {
+    if (m_aParser != null)
+    {
+      final CSSParserPool aPool = m_aCSSParser.getPool ();
+      if (aPool != null)
+        aPool.returnParser (m_aParser);
+      m_aParser = null;
+      m_aCharStream.done ();
+      m_aCharStream = null;
+      StreamHelper.close (m_aSource);
+      m_aSource = null;
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.PresentForCodeCoverage;
+
+/**
+ * A fast scanner that finds the offsets at which a style sheet can be split into chunks that can be
+ * parsed independently of each other. A chunk always ends after the closing brace of a top-level
+ * rule. Strings, comments, escapes and unquoted <code>url()</code> values are skipped, so that
+ * braces contained therein are not counted.<br>
+ * The scanner is conservative: a chunk never starts with anything but a regular rule, so that
+ * <code>@charset</code>, <code>@import</code> and <code>@namespace</code> rules at the beginning of
+ * the style sheet always stay in the first chunk, and misplaced ones are still reported as
+ * misplaced. If anything unexpected is found (like an unterminated string or comment or an
+ * unbalanced closing brace), the rest of the input is not split any further, so that the error
+ * handling is the same as for a sequential parse.<br>
+ * This class is only used internally.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@Immutable
+final class CSSTopLevelSplitter
+{
+  private static final int NOT_FOUND = -1;
+
+  @PresentForCodeCoverage
+  private static final CSSTopLevelSplitter INSTANCE = new CSSTopLevelSplitter ();
+
+  private CSSTopLevelSplitter ()
+  {}
+
+  private static boolean _isNameChar (final char c)
+  {
+    return (c >= 'a' && c <= 'z') ||
+           (c >= 'A' && c <= 'Z') ||
+           (c >= '0' && c <= '9') ||
+           c == '-' ||
+           c == '_' ||
+           c == '\\' ||
+           c >= 0x80;
+  }
+
+  private static boolean _isWhitespace (final char c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
+  /**
+   * @return The offset after the closing <code>*&#47;</code> or {@link #NOT_FOUND}
+   */
+  private static int _skipComment (@NonNull final CharSequence aCS, final int nStart)
+  {
+    final int nLen = aCS.length ();
+    for (int i = nStart; i + 1 < nLen; ++i)
+      if (aCS.charAt (i) == '*' && aCS.charAt (i + 1) == '/')
+        return i + 2;
+    return NOT_FOUND;
+  }
+
+  /**
+   * @return The offset after the closing quote or {@link #NOT_FOUND} for unterminated strings
+   */
+  private static int _skipString (@NonNull final CharSequence aCS, final int nStart, final char cQuote)
+  {
+    final int nLen = aCS.length ();
+    int i = nStart;
+    while (i < nLen)
+    {
+      final char c = aCS.charAt (i);
+      if (c == cQuote)
+        return i + 1;
+      if (c == '\\')
+      {
+        // Escaped char or escaped line break
+        if (i + 2 < nLen && aCS.charAt (i + 1) == '\r' && aCS.charAt (i + 2) == '\n')
+          i += 3;
+        else
+          i += 2;
+      }
+      else
+        if (c == '\n' || c == '\r' || c == '\f')
+        {
+          // Bad string
+          return NOT_FOUND;
+        }
+        else
+          i++;
+    }
+    return NOT_FOUND;
+  }
+
+  private static boolean _isURLStart (@NonNull final CharSequence aCS, final int nStart)
+  {
+    if (nStart + 4 > aCS.length ())
+      return false;
+    if (nStart > 0 && _isNameChar (aCS.charAt (nStart - 1)))
+      return false;
+    return (aCS.charAt (nStart + 1) == 'r' || aCS.charAt (nStart + 1) == 'R') &&
+           (aCS.charAt (nStart + 2) == 'l' || aCS.charAt (nStart + 2) == 'L') &&
+           aCS.charAt (nStart + 3) == '(';
+  }
+
+  /**
+   * @param nStart
+   *        The offset after <code>url(</code>
+   * @return The offset after the closing parenthesis of an unquoted URL, the offset of the opening
+   *         quote of a quoted URL or {@link #NOT_FOUND} for invalid URLs.
+   */
+  private static int _skipURL (@NonNull final CharSequence aCS, final int nStart)
+  {
+    final int nLen = aCS.length ();
+    int i = nStart;
+    while (i < nLen && _isWhitespace (aCS.charAt (i)))
+      i++;
+    if (i < nLen && (aCS.charAt (i) == '"' || aCS.charAt (i) == '\''))
+    {
+      // Quoted URL - handled as a regular string
+      return i;
+    }
+
+    while (i < nLen)
+    {
+      final char c = aCS.charAt (i);
+      if (c == ')')
+        return i + 1;
+      if (c == '\\')
+        i += 2;
+      else
+        if (_isWhitespace (c))
+        {
+          // Only whitespace may follow
+          while (i < nLen && _isWhitespace (aCS.charAt (i)))
+            i++;
+          return i < nLen && aCS.charAt (i) == ')' ? i + 1 : NOT_FOUND;
+        }
+        else
+          if (c == '"' || c == '\'' || c == '(')
+          {
+            // Bad URL
+            return NOT_FOUND;
+          }
+          else
+            i++;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Check if a new chunk may start at the passed offset. This is only the case, if the next
+   * relevant content is the start of a style rule or of an at-rule that is not <code>@charset</code>,
+   * <code>@import</code> or <code>@namespace</code>.
+   */
+  private static boolean _isChunkStart (@NonNull final CharSequence aCS, final int nStart)
+  {
+    final int nLen = aCS.length ();
+    int i = nStart;
+    while (i < nLen)
+    {
+      final char c = aCS.charAt (i);
+      if (_isWhitespace (c))
+        i++;
+      else
+        if (c == '/' && i + 1 < nLen && aCS.charAt (i + 1) == '*')
+        {
+          i = _skipComment (aCS, i + 2);
+          if (i == NOT_FOUND)
+            return false;
+        }
+        else
+          break;
+    }
+    if (i >= nLen)
+    {
+      // Only whitespace and comments left
+      return false;
+    }
+
+    final char c = aCS.charAt (i);
+    if (c == '@')
+    {
+      int nEnd = i + 1;
+      while (nEnd < nLen && _isNameChar (aCS.charAt (nEnd)))
+        nEnd++;
+      final String sName = aCS.subSequence (i + 1, nEnd).toString ().toLowerCase (Locale.ROOT);
+      return nEnd > i + 1 && !sName.equals ("charset") && !sName.equals ("import") && !sName.equals ("namespace");
+    }
+    if (c == '-')
+    {
+      // Exclude "-->"
+      return !(i + 2 < nLen && aCS.charAt (i + 1) == '-' && aCS.charAt (i + 2) == '>');
+    }
+    return (c >= 'a' && c <= 'z') ||
+           (c >= 'A' && c <= 'Z') ||
+           c == '_' ||
+           c == '\\' ||
+           c >= 0x80 ||
+           c == '.' ||
+           c == '#' ||
+           c == '[' ||
+           c == ':' ||
+           c == '*' ||
+           c == '&' ||
+           c == '|';
+  }
+
+  /**
+   * Scan the passed style sheet.
+   *
+   * @param nMinChunkSize
+   *        The minimum number of chars per chunk.
+   * @param aChunkStartConsumer
+   *        The consumer for the start offsets of all chunks except for the first one.
+   * @return <code>true</code> if the complete input was scanned and all braces are balanced,
+   *         <code>false</code> if the scan stopped early.
+   */
+  private static boolean _scan (@NonNull final CharSequence aCS,
+                                final int nMinChunkSize,
+                                @NonNull final IntConsumer aChunkStartConsumer)
+  {
+    final int nLen = aCS.length ();
+    int nChunkStart = 0;
+    int nDepth = 0;
+    int i = 0;
+    // A negative offset indicates an error
+    while (i >= 0 && i < nLen)
+    {
+      final char c = aCS.charAt (i);
+      switch (c)
+      {
+        case '/':
+          if (i + 1 < nLen && aCS.charAt (i + 1) == '*')
+            i = _skipComment (aCS, i + 2);
+          else
+            i++;
+          break;
+        case '"':
+        case '\'':
+          i = _skipString (aCS, i + 1, c);
+          break;
+        case '\\':
+          // Escaped char
+          i += 2;
+          break;
+        case 'u':
+        case 'U':
+          if (_isURLStart (aCS, i))
+            i = _skipURL (aCS, i + 4);
+          else
+            i++;
+          break;
+        case '{':
+          nDepth++;
+          i++;
+          break;
+        case '}':
+          nDepth--;
+          i++;
+          if (nDepth < 0)
+          {
+            // Unbalanced - let the parser handle it
+            i = NOT_FOUND;
+          }
+          else
+            if (nDepth == 0 && i - nChunkStart >= nMinChunkSize && _isChunkStart (aCS, i))
+            {
+              aChunkStartConsumer.accept (i);
+              nChunkStart = i;
+            }
+          break;
+        default:
+          i++;
+          break;
+      }
+    }
+    return i >= nLen && nDepth == 0;
+  }
+
+  /**
+   * Find the offsets at which the passed style sheet can be split into chunks.
+   *
+   * @param aCS
+   *        The complete style sheet. May not be <code>null</code>.
+   * @param nMinChunkSize
+   *        The minimum number of chars per chunk. The last chunk may be smaller. Must be &gt; 0.
+   * @return The start offsets of all chunks except for the first one, in ascending order. Never
+   *         <code>null</code> but maybe empty, if the style sheet cannot be split.
+   */
+  @NonNull
+  static int [] getChunkStartOffsets (@NonNull final CharSequence aCS, @Nonnegative final int nMinChunkSize)
+  {
+    final int [] [] aRet = { new int [Math.max (1, Math.min (aCS.length () / nMinChunkSize, 1024))] };
+    final int [] aCount = { 0 };
+    _scan (aCS, nMinChunkSize, x -> {
+      if (aCount[0] == aRet[0].length)
+        aRet[0] = Arrays.copyOf (aRet[0], aCount[0] * 2);
+      aRet[0][aCount[0]++] = x;
+    });
+    return Arrays.copyOf (aRet[0], aCount[0]);
+  }
+
+  /**
+   * Check if the passed text can be parsed on its own, so that it cannot influence the parsing of
+   * any text following it. That is the case if it contains no unterminated string, comment or URL
+   * and if all braces are balanced.
+   *
+   * @param aCS
+   *        The text to check. May not be <code>null</code>.
+   * @return <code>true</code> if the text is self-contained.
+   */
+  static boolean isSelfContained (@NonNull final CharSequence aCS)
+  {
+    return _scan (aCS, Integer.MAX_VALUE, x -> {});
+  }
+
+  /**
+   * Check if the passed range only consists of whitespace and comments.
+   *
+   * @param aCS
+   *        The text to check. May not be <code>null</code>.
+   * @param nStart
+   *        The start offset (inclusive).
+   * @param nEnd
+   *        The end offset (exclusive).
+   * @return <code>true</code> if the range contains nothing but whitespace and complete comments.
+   */
+  static boolean isBlank (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int i = nStart;
+    while (i < nEnd)
+    {
+      final char c = aCS.charAt (i);
+      if (_isWhitespace (c))
+        i++;
+      else
+        if (c == '/' && i + 1 < nEnd && aCS.charAt (i + 1) == '*')
+        {
+          i = _skipComment (aCS, i + 2);
+          if (i == NOT_FOUND || i > nEnd)
+            return false;
+        }
+        else
+          return false;
+    }
+    return true;
+  }
+}
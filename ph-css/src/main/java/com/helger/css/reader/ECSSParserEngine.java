@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+/**
+ * The different ways a complete style sheet can be turned into a
+ * {@link com.helger.css.decl.CascadingStyleSheet}. The engine is independent of the
+ * {@link ECSSParserImplementation} - every engine works with every implementation.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public enum ECSSParserEngine
+{
+  /**
+   * Build the node tree of the complete style sheet first and convert it to domain objects
+   * afterwards. This is the classic behaviour.
+   */
+  TREE,
+  /**
+   * Convert each top-level rule to its domain objects directly after it was parsed. The nodes of a
+   * rule are released right after conversion, so the node tree of the complete style sheet never
+   * exists. This reduces the peak memory usage for large style sheets. The result is identical to
+   * {@link #TREE}. Strings that are read with a {@link CSSParseCache} always use {@link #TREE},
+   * because the cache stores the complete tree.
+   */
+  DIRECT;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+/**
+ * The different implementations of the CSS grammar that can be used to parse a source. This is
+ * independent of the {@link ECSSParserEngine}: every implementation supports every engine, and all
+ * combinations create the same result and report recoverable errors at the same places.<br>
+ * The only exception is the pull based {@link CSSTopLevelRuleIterator}, which always uses
+ * {@link #GENERATED}, because only the generated parser can be suspended after each top-level
+ * rule.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public enum ECSSParserImplementation
+{
+  /**
+   * The parser generated from the grammar. This is the classic behaviour.
+   */
+  GENERATED,
+  /**
+   * The hand-written recursive-descent parser for the same grammar. It does not use exceptions to
+   * recover from errors, which makes it faster on erroneous CSS in browser compliant mode.
+   */
+  RECURSIVE_DESCENT;
+}
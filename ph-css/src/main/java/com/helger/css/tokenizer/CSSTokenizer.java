@@ -0,0 +1,996 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tokenizer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A tokenizer that follows the CSS Syntax Module Level 3 (https://www.w3.org/TR/css-syntax-3/). It
+ * is independent of the JavaCC based parser and is meant for token level tools like minifiers,
+ * linters or URL scanners.
+ * <p>
+ * The tokenizer is a cursor: {@link #next()} moves to the next token, and the getters return the
+ * information of the current token. No objects are created per token - the token image and the
+ * token value are only created as strings when they are requested. An instance can be re-used for
+ * another input via {@link #reset(CharSequence)}. Offsets are char indices into the input. Line
+ * and column numbers are 1-based and only calculated on request.
+ * <p>
+ * As required by the specification the tokenizer never fails: invalid input results in
+ * {@link ECSSTokenType#BAD_STRING}, {@link ECSSTokenType#BAD_URL} or {@link ECSSTokenType#DELIM}
+ * tokens. In contrast to the specification, comments are emitted as
+ * {@link ECSSTokenType#COMMENT} tokens, so that the concatenation of all token images is always
+ * identical to the input.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public class CSSTokenizer
+{
+  private static final int EOF = -1;
+  private static final int REPLACEMENT_CHARACTER = 0xfffd;
+  private static final int MAX_CODEPOINT = 0x10ffff;
+  private static final int NONE = -1;
+
+  private CharSequence m_aInput;
+  private int m_nLength;
+  private int m_nPos;
+
+  // Current token
+  private ECSSTokenType m_eType;
+  private int m_nTokenStart;
+  private int m_nTokenEnd;
+  private int m_nValueStart;
+  private int m_nValueEnd;
+  private boolean m_bValueNeedsDecoding;
+  private String m_sValue;
+  private int m_nNumberEnd;
+  private boolean m_bNumberInteger;
+  private boolean m_bHashID;
+  private int m_nDelim;
+  private final StringBuilder m_aSB = new StringBuilder ();
+
+  // Lazy line counting - separate cursors for token start and end, so that asking for the end
+  // position and then for the start position of the same token does not rescan the input
+  private final LineCursor m_aStartCursor = new LineCursor ();
+  private final LineCursor m_aEndCursor = new LineCursor ();
+
+  /**
+   * A forward-only cursor that remembers the line number and the offset of the line start for a
+   * position in the input.
+   */
+  private static final class LineCursor
+  {
+    private int m_nOffset;
+    private int m_nLine;
+    private int m_nLineStart;
+
+    void reset ()
+    {
+      m_nOffset = 0;
+      m_nLine = 1;
+      m_nLineStart = 0;
+    }
+
+    void moveTo (@NonNull final CharSequence aInput, final int nLength, final int nOffset)
+    {
+      if (nOffset < m_nOffset)
+      {
+        if (nOffset >= m_nLineStart)
+        {
+          // Still on the same line
+          m_nOffset = nOffset;
+          return;
+        }
+        // Start from the beginning
+        reset ();
+      }
+      for (int i = m_nOffset; i < nOffset; ++i)
+      {
+        final char c = aInput.charAt (i);
+        if (c == '\n' || c == '\f' || (c == '\r' && (i + 1 >= nLength || aInput.charAt (i + 1) != '\n')))
+        {
+          m_nLine++;
+          m_nLineStart = i + 1;
+        }
+      }
+      m_nOffset = nOffset;
+    }
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aInput
+   *        The input to be tokenized. May not be <code>null</code>.
+   */
+  public CSSTokenizer (@NonNull final CharSequence aInput)
+  {
+    reset (aInput);
+  }
+
+  /**
+   * Start tokenizing a new input. All state of the previous input is discarded.
+   *
+   * @param aInput
+   *        The input to be tokenized. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public final CSSTokenizer reset (@NonNull final CharSequence aInput)
+  {
+    ValueEnforcer.notNull (aInput, "Input");
+    m_aInput = aInput;
+    m_nLength = aInput.length ();
+    m_nPos = 0;
+    m_eType = null;
+    m_nTokenStart = 0;
+    m_nTokenEnd = 0;
+    _resetTokenData ();
+    m_aStartCursor.reset ();
+    m_aEndCursor.reset ();
+    return this;
+  }
+
+  private void _resetTokenData ()
+  {
+    m_nValueStart = NONE;
+    m_nValueEnd = NONE;
+    m_bValueNeedsDecoding = false;
+    m_sValue = null;
+    m_nNumberEnd = NONE;
+    m_bNumberInteger = false;
+    m_bHashID = false;
+    m_nDelim = NONE;
+  }
+
+  // Code point handling incl. the input preprocessing of
+  // https://www.w3.org/TR/css-syntax-3/#input-preprocessing
+
+  private int _cp (final int nPos)
+  {
+    if (nPos >= m_nLength)
+      return EOF;
+    final char c = m_aInput.charAt (nPos);
+    if (c < 0x20)
+    {
+      if (c == '\r' || c == '\f')
+        return '\n';
+      if (c == 0)
+        return REPLACEMENT_CHARACTER;
+      return c;
+    }
+    if (Character.isSurrogate (c))
+    {
+      if (Character.isHighSurrogate (c) && nPos + 1 < m_nLength)
+      {
+        final char cLow = m_aInput.charAt (nPos + 1);
+        if (Character.isLowSurrogate (cLow))
+          return Character.toCodePoint (c, cLow);
+      }
+      // Lone surrogate
+      return REPLACEMENT_CHARACTER;
+    }
+    return c;
+  }
+
+  /**
+   * @return The number of chars used by the code point at the passed position. Always &ge; 1.
+   */
+  private int _len (final int nPos)
+  {
+    if (nPos + 1 < m_nLength)
+    {
+      final char c = m_aInput.charAt (nPos);
+      final char cNext = m_aInput.charAt (nPos + 1);
+      if ((c == '\r' && cNext == '\n') || (Character.isHighSurrogate (c) && Character.isLowSurrogate (cNext)))
+        return 2;
+    }
+    return 1;
+  }
+
+  private int _posAfter (final int nPos)
+  {
+    return nPos >= m_nLength ? nPos : nPos + _len (nPos);
+  }
+
+  private int _consume ()
+  {
+    if (m_nPos >= m_nLength)
+      return EOF;
+    final int ret = _cp (m_nPos);
+    m_nPos += _len (m_nPos);
+    return ret;
+  }
+
+  /**
+   * Remember if the code point at the passed position differs from the raw input, because then
+   * the value cannot be taken from the input as is.
+   */
+  private void _checkRaw (final int nPos, final int nCP)
+  {
+    if (nCP != m_aInput.charAt (nPos) && _len (nPos) == 1)
+      m_bValueNeedsDecoding = true;
+  }
+
+  private static boolean _isDigit (final int c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean _isHexDigit (final int c)
+  {
+    return _isDigit (c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean _isNameStart (final int c)
+  {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c >= 0x80;
+  }
+
+  private static boolean _isName (final int c)
+  {
+    return _isNameStart (c) || _isDigit (c) || c == '-';
+  }
+
+  private static boolean _isNonPrintable (final int c)
+  {
+    return (c >= 0 && c <= 0x08) || c == 0x0b || (c >= 0x0e && c <= 0x1f) || c == 0x7f;
+  }
+
+  private static boolean _isWhitespace (final int c)
+  {
+    return c == '\n' || c == '\t' || c == ' ';
+  }
+
+  private static boolean _isValidEscape (final int c1, final int c2)
+  {
+    return c1 == '\\' && c2 != '\n';
+  }
+
+  private boolean _wouldStartIdentAt (final int nPos)
+  {
+    final int c1 = _cp (nPos);
+    final int nPos2 = _posAfter (nPos);
+    final int c2 = _cp (nPos2);
+    if (c1 == '-')
+      return _isNameStart (c2) || c2 == '-' || _isValidEscape (c2, _cp (_posAfter (nPos2)));
+    if (_isNameStart (c1))
+      return true;
+    return _isValidEscape (c1, c2);
+  }
+
+  private boolean _wouldStartNumberAt (final int nPos)
+  {
+    // All relevant characters are single chars
+    final int c1 = _cp (nPos);
+    if (c1 == '+' || c1 == '-')
+    {
+      final int c2 = _cp (nPos + 1);
+      return _isDigit (c2) || (c2 == '.' && _isDigit (_cp (nPos + 2)));
+    }
+    if (c1 == '.')
+      return _isDigit (_cp (nPos + 1));
+    return _isDigit (c1);
+  }
+
+  /**
+   * Consume an escape. The backslash was already consumed.
+   *
+   * @return The escaped code point
+   */
+  private int _consumeEscape ()
+  {
+    final int c = _consume ();
+    if (c == EOF)
+      return REPLACEMENT_CHARACTER;
+    if (!_isHexDigit (c))
+      return c;
+
+    int nValue = Character.digit (c, 16);
+    int nDigits = 1;
+    while (nDigits < 6 && _isHexDigit (_cp (m_nPos)))
+    {
+      nValue = nValue * 16 + Character.digit (_cp (m_nPos), 16);
+      m_nPos++;
+      nDigits++;
+    }
+    // A single whitespace after the hex digits belongs to the escape
+    if (_isWhitespace (_cp (m_nPos)))
+      m_nPos += _len (m_nPos);
+    if (nValue == 0 || (nValue >= 0xd800 && nValue <= 0xdfff) || nValue > MAX_CODEPOINT)
+      return REPLACEMENT_CHARACTER;
+    return nValue;
+  }
+
+  private void _consumeName ()
+  {
+    while (true)
+    {
+      final int c = _cp (m_nPos);
+      if (_isName (c))
+      {
+        _checkRaw (m_nPos, c);
+        m_nPos += _len (m_nPos);
+      }
+      else
+        if (_isValidEscape (c, _cp (m_nPos + 1)))
+        {
+          m_nPos++;
+          _consumeEscape ();
+          m_bValueNeedsDecoding = true;
+        }
+        else
+          break;
+    }
+  }
+
+  @NonNull
+  private ECSSTokenType _consumeNumeric ()
+  {
+    m_bNumberInteger = true;
+    int c = _cp (m_nPos);
+    if (c == '+' || c == '-')
+      m_nPos++;
+    while (_isDigit (_cp (m_nPos)))
+      m_nPos++;
+    if (_cp (m_nPos) == '.' && _isDigit (_cp (m_nPos + 1)))
+    {
+      m_bNumberInteger = false;
+      m_nPos += 2;
+      while (_isDigit (_cp (m_nPos)))
+        m_nPos++;
+    }
+    c = _cp (m_nPos);
+    if (c == 'e' || c == 'E')
+    {
+      final int c1 = _cp (m_nPos + 1);
+      int nSkip = 0;
+      if (_isDigit (c1))
+        nSkip = 2;
+      else
+        if ((c1 == '+' || c1 == '-') && _isDigit (_cp (m_nPos + 2)))
+          nSkip = 3;
+      if (nSkip > 0)
+      {
+        m_bNumberInteger = false;
+        m_nPos += nSkip;
+        while (_isDigit (_cp (m_nPos)))
+          m_nPos++;
+      }
+    }
+    m_nNumberEnd = m_nPos;
+
+    if (_wouldStartIdentAt (m_nPos))
+    {
+      m_nValueStart = m_nPos;
+      _consumeName ();
+      m_nValueEnd = m_nPos;
+      return ECSSTokenType.DIMENSION;
+    }
+    if (_cp (m_nPos) == '%')
+    {
+      m_nPos++;
+      return ECSSTokenType.PERCENTAGE;
+    }
+    return ECSSTokenType.NUMBER;
+  }
+
+  private void _consumeBadURLRemnants ()
+  {
+    while (true)
+    {
+      final int c = _consume ();
+      if (c == ')' || c == EOF)
+        return;
+      if (_isValidEscape (c, _cp (m_nPos)))
+        _consumeEscape ();
+    }
+  }
+
+  @NonNull
+  private ECSSTokenType _consumeURL ()
+  {
+    while (_isWhitespace (_cp (m_nPos)))
+      m_nPos += _len (m_nPos);
+
+    // The value is now the URL and no longer the function name
+    m_nValueStart = m_nPos;
+    m_bValueNeedsDecoding = false;
+    m_sValue = null;
+    while (true)
+    {
+      final int nCPStart = m_nPos;
+      final int c = _consume ();
+      if (c == ')')
+      {
+        m_nValueEnd = nCPStart;
+        return ECSSTokenType.URL;
+      }
+      if (c == EOF)
+      {
+        m_nValueEnd = m_nPos;
+        return ECSSTokenType.URL;
+      }
+      if (_isWhitespace (c))
+      {
+        m_nValueEnd = nCPStart;
+        while (_isWhitespace (_cp (m_nPos)))
+          m_nPos += _len (m_nPos);
+        final int cNext = _cp (m_nPos);
+        if (cNext == ')')
+        {
+          m_nPos++;
+          return ECSSTokenType.URL;
+        }
+        if (cNext == EOF)
+          return ECSSTokenType.URL;
+        _consumeBadURLRemnants ();
+        return ECSSTokenType.BAD_URL;
+      }
+      if (c == '"' || c == '\'' || c == '(' || _isNonPrintable (c))
+      {
+        _consumeBadURLRemnants ();
+        return ECSSTokenType.BAD_URL;
+      }
+      if (c == '\\')
+      {
+        if (!_isValidEscape (c, _cp (m_nPos)))
+        {
+          _consumeBadURLRemnants ();
+          return ECSSTokenType.BAD_URL;
+        }
+        _consumeEscape ();
+        m_bValueNeedsDecoding = true;
+      }
+      else
+        _checkRaw (nCPStart, c);
+    }
+  }
+
+  @NonNull
+  private ECSSTokenType _consumeIdentLike ()
+  {
+    m_nValueStart = m_nPos;
+    _consumeName ();
+    m_nValueEnd = m_nPos;
+    if (_cp (m_nPos) != '(')
+      return ECSSTokenType.IDENT;
+
+    m_nPos++;
+    if (isValueEqualIgnoreCase ("url"))
+    {
+      // Keep one whitespace for the quoted version
+      while (_isWhitespace (_cp (m_nPos)) && _isWhitespace (_cp (_posAfter (m_nPos))))
+        m_nPos += _len (m_nPos);
+      final int c = _cp (m_nPos);
+      final int cQuote = _isWhitespace (c) ? _cp (_posAfter (m_nPos)) : c;
+      if (cQuote == '"' || cQuote == '\'')
+        return ECSSTokenType.FUNCTION;
+      return _consumeURL ();
+    }
+    return ECSSTokenType.FUNCTION;
+  }
+
+  @NonNull
+  private ECSSTokenType _consumeString (final int cQuote)
+  {
+    m_nValueStart = m_nPos;
+    while (true)
+    {
+      final int nCPStart = m_nPos;
+      final int c = _cp (m_nPos);
+      if (c == EOF)
+      {
+        m_nValueEnd = m_nPos;
+        return ECSSTokenType.STRING;
+      }
+      if (c == '\n')
+      {
+        // The newline is not part of the token
+        m_nValueEnd = m_nPos;
+        return ECSSTokenType.BAD_STRING;
+      }
+      m_nPos += _len (m_nPos);
+      if (c == cQuote)
+      {
+        m_nValueEnd = nCPStart;
+        return ECSSTokenType.STRING;
+      }
+      if (c == '\\')
+      {
+        final int cNext = _cp (m_nPos);
+        if (cNext == '\n')
+          m_nPos += _len (m_nPos);
+        else
+          if (cNext != EOF)
+            _consumeEscape ();
+        m_bValueNeedsDecoding = true;
+      }
+      else
+        _checkRaw (nCPStart, c);
+    }
+  }
+
+  @NonNull
+  private ECSSTokenType _delim (final int c)
+  {
+    m_nDelim = c;
+    return ECSSTokenType.DELIM;
+  }
+
+  @NonNull
+  private ECSSTokenType _consumeToken ()
+  {
+    // https://www.w3.org/TR/css-syntax-3/#consume-token
+    final int c = _consume ();
+    switch (c)
+    {
+      case EOF:
+        return ECSSTokenType.EOF;
+      case '\n':
+      case '\t':
+      case ' ':
+        while (_isWhitespace (_cp (m_nPos)))
+          m_nPos += _len (m_nPos);
+        return ECSSTokenType.WHITESPACE;
+      case '"':
+      case '\'':
+        return _consumeString (c);
+      case '#':
+      {
+        final int c1 = _cp (m_nPos);
+        if (_isName (c1) || _isValidEscape (c1, _cp (m_nPos + 1)))
+        {
+          m_bHashID = _wouldStartIdentAt (m_nPos);
+          m_nValueStart = m_nPos;
+          _consumeName ();
+          m_nValueEnd = m_nPos;
+          return ECSSTokenType.HASH;
+        }
+        return _delim (c);
+      }
+      case '(':
+        return ECSSTokenType.LEFT_PARENTHESIS;
+      case ')':
+        return ECSSTokenType.RIGHT_PARENTHESIS;
+      case '[':
+        return ECSSTokenType.LEFT_SQUARE_BRACKET;
+      case ']':
+        return ECSSTokenType.RIGHT_SQUARE_BRACKET;
+      case '{':
+        return ECSSTokenType.LEFT_CURLY_BRACKET;
+      case '}':
+        return ECSSTokenType.RIGHT_CURLY_BRACKET;
+      case ',':
+        return ECSSTokenType.COMMA;
+      case ':':
+        return ECSSTokenType.COLON;
+      case ';':
+        return ECSSTokenType.SEMICOLON;
+      case '+':
+      case '.':
+        if (_wouldStartNumberAt (m_nTokenStart))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeNumeric ();
+        }
+        return _delim (c);
+      case '-':
+        if (_wouldStartNumberAt (m_nTokenStart))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeNumeric ();
+        }
+        if (_cp (m_nPos) == '-' && _cp (m_nPos + 1) == '>')
+        {
+          m_nPos += 2;
+          return ECSSTokenType.CDC;
+        }
+        if (_wouldStartIdentAt (m_nTokenStart))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeIdentLike ();
+        }
+        return _delim (c);
+      case '<':
+        if (_cp (m_nPos) == '!' && _cp (m_nPos + 1) == '-' && _cp (m_nPos + 2) == '-')
+        {
+          m_nPos += 3;
+          return ECSSTokenType.CDO;
+        }
+        return _delim (c);
+      case '@':
+        if (_wouldStartIdentAt (m_nPos))
+        {
+          m_nValueStart = m_nPos;
+          _consumeName ();
+          m_nValueEnd = m_nPos;
+          return ECSSTokenType.AT_KEYWORD;
+        }
+        return _delim (c);
+      case '\\':
+        if (_isValidEscape (c, _cp (m_nPos)))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeIdentLike ();
+        }
+        return _delim (c);
+      case '/':
+        if (_cp (m_nPos) == '*')
+        {
+          // Comment - unterminated comments end at EOF
+          m_nPos++;
+          while (m_nPos < m_nLength)
+          {
+            if (m_aInput.charAt (m_nPos) == '*' && m_nPos + 1 < m_nLength && m_aInput.charAt (m_nPos + 1) == '/')
+            {
+              m_nPos += 2;
+              return ECSSTokenType.COMMENT;
+            }
+            m_nPos++;
+          }
+          return ECSSTokenType.COMMENT;
+        }
+        return _delim (c);
+      default:
+        if (_isDigit (c))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeNumeric ();
+        }
+        if (_isNameStart (c))
+        {
+          m_nPos = m_nTokenStart;
+          return _consumeIdentLike ();
+        }
+        return _delim (c);
+    }
+  }
+
+  /**
+   * Move to the next token.
+   *
+   * @return The type of the new current token. Never <code>null</code>. At the end of the input
+   *         {@link ECSSTokenType#EOF} is returned, also for all further calls.
+   */
+  @NonNull
+  public ECSSTokenType next ()
+  {
+    m_nTokenStart = m_nPos;
+    _resetTokenData ();
+    m_eType = _consumeToken ();
+    m_nTokenEnd = m_nPos;
+    return m_eType;
+  }
+
+  /**
+   * @return The type of the current token. <code>null</code> before the first call to
+   *         {@link #next()}.
+   */
+  @Nullable
+  public ECSSTokenType getTokenType ()
+  {
+    return m_eType;
+  }
+
+  /**
+   * @return The offset of the first char of the current token in the input (inclusive).
+   */
+  @Nonnegative
+  public int getTokenStartOffset ()
+  {
+    return m_nTokenStart;
+  }
+
+  /**
+   * @return The offset after the last char of the current token in the input (exclusive).
+   */
+  @Nonnegative
+  public int getTokenEndOffset ()
+  {
+    return m_nTokenEnd;
+  }
+
+  /**
+   * @return The length of the current token in chars. Only 0 for {@link ECSSTokenType#EOF}.
+   */
+  @Nonnegative
+  public int getTokenLength ()
+  {
+    return m_nTokenEnd - m_nTokenStart;
+  }
+
+  /**
+   * @return The unmodified text of the current token as a new string. Never <code>null</code>.
+   * @see #appendTokenImageTo(StringBuilder)
+   */
+  @NonNull
+  public String getTokenImage ()
+  {
+    return m_aInput.subSequence (m_nTokenStart, m_nTokenEnd).toString ();
+  }
+
+  /**
+   * Append the unmodified text of the current token to the passed string builder, without creating
+   * a new string.
+   *
+   * @param aSB
+   *        The string builder to append to. May not be <code>null</code>.
+   */
+  public void appendTokenImageTo (@NonNull final StringBuilder aSB)
+  {
+    aSB.append (m_aInput, m_nTokenStart, m_nTokenEnd);
+  }
+
+  /**
+   * @return The 1-based line number of the first char of the current token.
+   */
+  @Nonnegative
+  public int getTokenStartLineNumber ()
+  {
+    m_aStartCursor.moveTo (m_aInput, m_nLength, m_nTokenStart);
+    return m_aStartCursor.m_nLine;
+  }
+
+  /**
+   * @return The 1-based column number of the first char of the current token.
+   */
+  @Nonnegative
+  public int getTokenStartColumnNumber ()
+  {
+    m_aStartCursor.moveTo (m_aInput, m_nLength, m_nTokenStart);
+    return m_nTokenStart - m_aStartCursor.m_nLineStart + 1;
+  }
+
+  private int _getLastCharOffset ()
+  {
+    return Math.max (m_nTokenStart, m_nTokenEnd - 1);
+  }
+
+  /**
+   * @return The 1-based line number of the last char of the current token.
+   */
+  @Nonnegative
+  public int getTokenEndLineNumber ()
+  {
+    m_aEndCursor.moveTo (m_aInput, m_nLength, _getLastCharOffset ());
+    return m_aEndCursor.m_nLine;
+  }
+
+  /**
+   * @return The 1-based column number of the last char of the current token.
+   */
+  @Nonnegative
+  public int getTokenEndColumnNumber ()
+  {
+    final int nOffset = _getLastCharOffset ();
+    m_aEndCursor.moveTo (m_aInput, m_nLength, nOffset);
+    return nOffset - m_aEndCursor.m_nLineStart + 1;
+  }
+
+  @NonNull
+  private String _getValue ()
+  {
+    String ret = m_sValue;
+    if (ret == null)
+    {
+      if (m_bValueNeedsDecoding)
+        ret = _decode (m_nValueStart, m_nValueEnd, m_eType == ECSSTokenType.STRING);
+      else
+        ret = m_aInput.subSequence (m_nValueStart, m_nValueEnd).toString ();
+      m_sValue = ret;
+    }
+    return ret;
+  }
+
+  @NonNull
+  private String _decode (final int nStart, final int nEnd, final boolean bString)
+  {
+    final StringBuilder aSB = m_aSB;
+    aSB.setLength (0);
+    final int nSavedPos = m_nPos;
+    m_nPos = nStart;
+    while (m_nPos < nEnd)
+    {
+      final int c = _consume ();
+      if (c == '\\')
+      {
+        final int cNext = _cp (m_nPos);
+        if (bString && (cNext == '\n' || cNext == EOF))
+        {
+          // Escaped newline or trailing backslash in a string
+          if (cNext == '\n')
+            m_nPos += _len (m_nPos);
+        }
+        else
+          aSB.appendCodePoint (_consumeEscape ());
+      }
+      else
+        aSB.appendCodePoint (c);
+    }
+    m_nPos = nSavedPos;
+    return aSB.toString ();
+  }
+
+  /**
+   * Get the value of the current token with all escapes resolved. This is the name for
+   * {@link ECSSTokenType#IDENT}, {@link ECSSTokenType#FUNCTION} (without the opening parenthesis),
+   * {@link ECSSTokenType#AT_KEYWORD} (without the <code>@</code>) and {@link ECSSTokenType#HASH}
+   * (without the <code>#</code>), the content of {@link ECSSTokenType#STRING} (without the quotes)
+   * and the URL of {@link ECSSTokenType#URL}.
+   *
+   * @return <code>null</code> for all other token types.
+   * @see #getUnit()
+   */
+  @Nullable
+  public String getValue ()
+  {
+    if (m_nValueStart == NONE ||
+        m_eType == ECSSTokenType.DIMENSION ||
+        m_eType == ECSSTokenType.BAD_STRING ||
+        m_eType == ECSSTokenType.BAD_URL)
+      return null;
+    return _getValue ();
+  }
+
+  /**
+   * Check if the value of the current token is equal to the passed string, ignoring the case of
+   * ASCII letters. If the value contains no escapes, no string is created.
+   *
+   * @param s
+   *        The string to compare to. May be <code>null</code>.
+   * @return <code>true</code> if the current token has a value that is equal to the passed string.
+   * @see #getValue()
+   */
+  public boolean isValueEqualIgnoreCase (@Nullable final String s)
+  {
+    if (s == null || m_nValueStart == NONE)
+      return false;
+    if (m_sValue != null || m_bValueNeedsDecoding)
+      return _getValue ().equalsIgnoreCase (s);
+
+    final int nLen = m_nValueEnd - m_nValueStart;
+    if (nLen != s.length ())
+      return false;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c1 = m_aInput.charAt (m_nValueStart + i);
+      final char c2 = s.charAt (i);
+      if (c1 != c2 && _toLowerASCII (c1) != _toLowerASCII (c2))
+        return false;
+    }
+    return true;
+  }
+
+  private static char _toLowerASCII (final char c)
+  {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  /**
+   * @return <code>true</code> if the current token is a {@link ECSSTokenType#HASH} whose value is a
+   *         valid identifier (type flag "id" of the specification), <code>false</code> otherwise.
+   */
+  public boolean isHashID ()
+  {
+    return m_bHashID;
+  }
+
+  /**
+   * @return The code point of the current {@link ECSSTokenType#DELIM} token or -1 for all other
+   *         token types.
+   */
+  @CheckForSigned
+  public int getDelimCodepoint ()
+  {
+    return m_nDelim;
+  }
+
+  /**
+   * @return <code>true</code> if the current token is a {@link ECSSTokenType#NUMBER},
+   *         {@link ECSSTokenType#PERCENTAGE} or {@link ECSSTokenType#DIMENSION}.
+   */
+  public boolean isNumeric ()
+  {
+    return m_nNumberEnd != NONE;
+  }
+
+  /**
+   * @return <code>true</code> if the current token is numeric and the number is an integer (type
+   *         flag "integer" of the specification), <code>false</code> otherwise.
+   */
+  public boolean isNumberInteger ()
+  {
+    return m_bNumberInteger;
+  }
+
+  /**
+   * @return The number part of the current numeric token as written in the input (e.g.
+   *         <code>-1.5</code> for <code>-1.5em</code>) or <code>null</code> if the current token
+   *         is not numeric.
+   */
+  @Nullable
+  public String getNumberText ()
+  {
+    if (m_nNumberEnd == NONE)
+      return null;
+    return m_aInput.subSequence (m_nTokenStart, m_nNumberEnd).toString ();
+  }
+
+  /**
+   * @return The numeric value of the current numeric token or <code>NaN</code> if the current
+   *         token is not numeric. Integers with up to 18 digits are converted without creating a
+   *         string.
+   */
+  public double getNumberValue ()
+  {
+    if (m_nNumberEnd == NONE)
+      return Double.NaN;
+
+    if (m_bNumberInteger && m_nNumberEnd - m_nTokenStart <= 18)
+    {
+      int nIndex = m_nTokenStart;
+      boolean bNegative = false;
+      final char cSign = m_aInput.charAt (nIndex);
+      if (cSign == '+' || cSign == '-')
+      {
+        bNegative = cSign == '-';
+        nIndex++;
+      }
+      long nValue = 0;
+      for (; nIndex < m_nNumberEnd; ++nIndex)
+        nValue = nValue * 10 + (m_aInput.charAt (nIndex) - '0');
+      // Keep the sign of -0
+      return bNegative ? -(double) nValue : nValue;
+    }
+    return Double.parseDouble (getNumberText ());
+  }
+
+  /**
+   * @return The unit of the current {@link ECSSTokenType#DIMENSION} token with all escapes
+   *         resolved (e.g. <code>px</code>), <code>%</code> for {@link ECSSTokenType#PERCENTAGE}
+   *         and <code>null</code> for all other token types.
+   */
+  @Nullable
+  public String getUnit ()
+  {
+    if (m_eType == ECSSTokenType.PERCENTAGE)
+      return "%";
+    if (m_eType != ECSSTokenType.DIMENSION)
+      return null;
+    return _getValue ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Length", m_nLength)
+                                       .append ("Pos", m_nPos)
+                                       .append ("TokenType", m_eType)
+                                       .append ("TokenStart", m_nTokenStart)
+                                       .append ("TokenEnd", m_nTokenEnd)
+                                       .getToString ();
+  }
+}
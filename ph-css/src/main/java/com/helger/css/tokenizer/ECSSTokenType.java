@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tokenizer;
+
+/**
+ * The token types of the CSS Syntax Module Level 3, as emitted by {@link CSSTokenizer}. See
+ * https://www.w3.org/TR/css-syntax-3/#tokenization
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+public enum ECSSTokenType
+{
+  /** An identifier like <code>color</code> */
+  IDENT,
+  /** A function name including the opening parenthesis like <code>rgb(</code> */
+  FUNCTION,
+  /** An at-keyword like <code>@media</code> */
+  AT_KEYWORD,
+  /** A hash like <code>#fff</code> or <code>#main</code> */
+  HASH,
+  /** A quoted string */
+  STRING,
+  /** A string that contains an unescaped newline */
+  BAD_STRING,
+  /** An unquoted <code>url(...)</code> */
+  URL,
+  /** An unquoted URL with invalid content */
+  BAD_URL,
+  /** A single code point that is not part of any other token */
+  DELIM,
+  /** A number like <code>1</code> or <code>-1.5e3</code> */
+  NUMBER,
+  /** A number followed by <code>%</code> */
+  PERCENTAGE,
+  /** A number followed by a unit like <code>10px</code> */
+  DIMENSION,
+  /** Whitespace */
+  WHITESPACE,
+  /** <code>&lt;!--</code> */
+  CDO,
+  /** <code>--&gt;</code> */
+  CDC,
+  /** <code>:</code> */
+  COLON,
+  /** <code>;</code> */
+  SEMICOLON,
+  /** <code>,</code> */
+  COMMA,
+  /** <code>[</code> */
+  LEFT_SQUARE_BRACKET,
+  /** <code>]</code> */
+  RIGHT_SQUARE_BRACKET,
+  /** <code>(</code> */
+  LEFT_PARENTHESIS,
+  /** <code>)</code> */
+  RIGHT_PARENTHESIS,
+  /** <code>{</code> */
+  LEFT_CURLY_BRACKET,
+  /** <code>}</code> */
+  RIGHT_CURLY_BRACKET,
+  /**
+   * A comment. The specification drops comments while tokenizing, but they are emitted so that
+   * tools can preserve them.
+   */
+  COMMENT,
+  /** End of input */
+  EOF;
+}
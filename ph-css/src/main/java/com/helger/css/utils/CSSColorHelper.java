@@ -21,12 +21,10 @@ import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
-import com.helger.annotation.RegEx;
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.style.PresentForCodeCoverage;
 import com.helger.base.string.StringHelper;
 import com.helger.base.string.StringHex;
-import com.helger.cache.regex.RegExHelper;
 import com.helger.css.decl.CSSHSL;
 import com.helger.css.decl.CSSHSLA;
 import com.helger.css.decl.CSSRGB;
@@ -62,65 +60,150 @@ public final class CSSColorHelper
   /** Maximum opacity value */
   public static final float OPACITY_MAX = 1f;
 
-  @RegEx
-  private static final String PATTERN_PART_VALUE = "((?:\\+|\\-)?(?:[0-9]*\\.[0-9]*|[0-9]+)%?)";
-  @RegEx
-  private static final String PATTERN_PART_PERCENTAGE = "((?:\\+|\\-)?(?:(?:[0-9]*\\.[0-9]*|[0-9]+)%|0))";
-  @RegEx
-  private static final String PATTERN_PART_OPACITY = "([0-9]*\\.[0-9]*|[0-9]+)";
-  @RegEx
-  private static final String PATTERN_RGB = "^" +
-                                            CCSSValue.PREFIX_RGB +
-                                            "\\s*\\(\\s*" +
-                                            PATTERN_PART_VALUE +
-                                            "\\s*,\\s*" +
-                                            PATTERN_PART_VALUE +
-                                            "\\s*,\\s*" +
-                                            PATTERN_PART_VALUE +
-                                            "\\s*\\)$";
-  @RegEx
-  private static final String PATTERN_RGBA = "^" +
-                                             CCSSValue.PREFIX_RGBA +
-                                             "\\s*\\(\\s*" +
-                                             PATTERN_PART_VALUE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_VALUE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_VALUE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_OPACITY +
-                                             "\\s*\\)$";
-  @RegEx
-  private static final String PATTERN_HSL = "^" +
-                                            CCSSValue.PREFIX_HSL +
-                                            "\\s*\\(\\s*" +
-                                            PATTERN_PART_VALUE +
-                                            "\\s*,\\s*" +
-                                            PATTERN_PART_PERCENTAGE +
-                                            "\\s*,\\s*" +
-                                            PATTERN_PART_PERCENTAGE +
-                                            "\\s*\\)$";
-  @RegEx
-  private static final String PATTERN_HSLA = "^" +
-                                             CCSSValue.PREFIX_HSLA +
-                                             "\\s*\\(\\s*" +
-                                             PATTERN_PART_VALUE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_PERCENTAGE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_PERCENTAGE +
-                                             "\\s*,\\s*" +
-                                             PATTERN_PART_OPACITY +
-                                             "\\s*\\)$";
-  @RegEx
-  private static final String PATTERN_HEX = "^" + CCSSValue.PREFIX_HEX + "([0-9a-fA-F]{3}|[0-9a-fA-F]{6})$";
-
   @PresentForCodeCoverage
   private static final CSSColorHelper INSTANCE = new CSSColorHelper ();
 
   private CSSColorHelper ()
   {}
 
+  private static boolean _isWhitespace (final char c)
+  {
+    // Same as "\s" in a regular expression
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0b || c == '\f' || c == '\r';
+  }
+
+  private static int _skipWhitespaces (@NonNull final String sValue, final int nStart)
+  {
+    int i = nStart;
+    while (i < sValue.length () && _isWhitespace (sValue.charAt (i)))
+      i++;
+    return i;
+  }
+
+  private static boolean _isDigit (@NonNull final String sValue, final int nIndex)
+  {
+    if (nIndex >= sValue.length ())
+      return false;
+    final char c = sValue.charAt (nIndex);
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Match an opacity value: <code>[0-9]*\.[0-9]*|[0-9]+</code>
+   *
+   * @return The end index or -1 if there is no match.
+   */
+  private static int _matchOpacity (@NonNull final String sValue, final int nStart)
+  {
+    int i = nStart;
+    while (_isDigit (sValue, i))
+      i++;
+    if (i < sValue.length () && sValue.charAt (i) == '.')
+    {
+      i++;
+      while (_isDigit (sValue, i))
+        i++;
+      return i;
+    }
+    return i > nStart ? i : -1;
+  }
+
+  private static int _skipSign (@NonNull final String sValue, final int nStart)
+  {
+    if (nStart < sValue.length () && (sValue.charAt (nStart) == '+' || sValue.charAt (nStart) == '-'))
+      return nStart + 1;
+    return nStart;
+  }
+
+  /**
+   * Match a number with an optional percentage sign:
+   * <code>(\+|\-)?([0-9]*\.[0-9]*|[0-9]+)%?</code>
+   *
+   * @return The end index or -1 if there is no match.
+   */
+  private static int _matchValue (@NonNull final String sValue, final int nStart)
+  {
+    final int nEnd = _matchOpacity (sValue, _skipSign (sValue, nStart));
+    if (nEnd >= 0 && nEnd < sValue.length () && sValue.charAt (nEnd) == '%')
+      return nEnd + 1;
+    return nEnd;
+  }
+
+  /**
+   * Match a percentage or zero: <code>(\+|\-)?(([0-9]*\.[0-9]*|[0-9]+)%|0)</code>
+   *
+   * @return The end index or -1 if there is no match.
+   */
+  private static int _matchPercentage (@NonNull final String sValue, final int nStart)
+  {
+    final int nNumberStart = _skipSign (sValue, nStart);
+    final int nEnd = _matchOpacity (sValue, nNumberStart);
+    if (nEnd < 0)
+      return -1;
+    if (nEnd < sValue.length () && sValue.charAt (nEnd) == '%')
+      return nEnd + 1;
+    return nEnd == nNumberStart + 1 && sValue.charAt (nNumberStart) == '0' ? nEnd : -1;
+  }
+
+  /**
+   * Match the legacy comma separated color function syntax, e.g. <code>rgb(1, 2, 3)</code>. The
+   * first argument is a value, the second and third argument are values or percentages and the
+   * optional fourth argument is an opacity.
+   *
+   * @param sValue
+   *        The trimmed value to check. May not be <code>null</code>.
+   * @param sPrefix
+   *        The function name. May not be <code>null</code>.
+   * @param bPercentages
+   *        <code>true</code> if the second and third argument must be percentages
+   * @param bOpacity
+   *        <code>true</code> if the fourth argument is expected
+   * @param aParts
+   *        The array to be filled with the arguments. May be <code>null</code> if the arguments are
+   *        not needed.
+   * @return <code>true</code> if the value matches.
+   */
+  private static boolean _matchesLegacyFunction (@NonNull final String sValue,
+                                                 @NonNull final String sPrefix,
+                                                 final boolean bPercentages,
+                                                 final boolean bOpacity,
+                                                 @Nullable final String [] aParts)
+  {
+    if (!sValue.startsWith (sPrefix))
+      return false;
+
+    int i = _skipWhitespaces (sValue, sPrefix.length ());
+    if (i >= sValue.length () || sValue.charAt (i) != '(')
+      return false;
+    i = _skipWhitespaces (sValue, i + 1);
+
+    final int nParts = bOpacity ? 4 : 3;
+    for (int nPart = 0; nPart < nParts; ++nPart)
+    {
+      if (nPart > 0)
+      {
+        if (i >= sValue.length () || sValue.charAt (i) != ',')
+          return false;
+        i = _skipWhitespaces (sValue, i + 1);
+      }
+
+      final int nPartEnd;
+      if (nPart == 3)
+        nPartEnd = _matchOpacity (sValue, i);
+      else
+        if (nPart > 0 && bPercentages)
+          nPartEnd = _matchPercentage (sValue, i);
+        else
+          nPartEnd = _matchValue (sValue, i);
+      if (nPartEnd < 0)
+        return false;
+      if (aParts != null)
+        aParts[nPart] = sValue.substring (i, nPartEnd);
+      i = _skipWhitespaces (sValue, nPartEnd);
+    }
+    return i == sValue.length () - 1 && sValue.charAt (i) == ')';
+  }
+
   /**
    * Check if the passed string is any color value.
    *
@@ -128,6 +211,7 @@ public final class CSSColorHelper
    *        The value to check. May be <code>null</code>.
    * @return <code>true</code> if the passed value is not <code>null</code>, not empty and a valid
    *         CSS color value.
+   * @see CSSColorParser#isColor(CharSequence)
    * @see #isRGBColorValue(String)
    * @see #isRGBAColorValue(String)
    * @see #isHSLColorValue(String)
@@ -144,15 +228,13 @@ public final class CSSColorHelper
     if (StringHelper.isEmpty (sRealValue))
       return false;
 
-    return isRGBColorValue (sRealValue) ||
+    // The legacy checks accept some values that are not valid according to CSS Color 4, like a
+    // percentage as the hue
+    return CSSColorParser.isColor (sRealValue) ||
+           isRGBColorValue (sRealValue) ||
            isRGBAColorValue (sRealValue) ||
            isHSLColorValue (sRealValue) ||
-           isHSLAColorValue (sRealValue) ||
-           isHexColorValue (sRealValue) ||
-           ECSSColor.isDefaultColorName (sRealValue) ||
-           ECSSColorName.isDefaultColorName (sRealValue) ||
-           sRealValue.equals (CCSSValue.CURRENTCOLOR) ||
-           sRealValue.equals (CCSSValue.TRANSPARENT);
+           isHSLAColorValue (sRealValue);
   }
 
   /**
@@ -166,10 +248,8 @@ public final class CSSColorHelper
   public static boolean isRGBColorValue (@Nullable final String sValue)
   {
     final String sRealValue = StringHelper.trim (sValue);
-    // startsWith as speedup
     return StringHelper.isNotEmpty (sRealValue) &&
-           sRealValue.startsWith (CCSSValue.PREFIX_RGB) &&
-           RegExHelper.stringMatchesPattern (PATTERN_RGB, sRealValue);
+           _matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_RGB, false, false, null);
   }
 
   /**
@@ -184,10 +264,10 @@ public final class CSSColorHelper
   public static CSSRGB getParsedRGBColorValue (@Nullable final String sValue)
   {
     final String sRealValue = StringHelper.trim (sValue);
-    if (StringHelper.isNotEmpty (sRealValue) && sRealValue.startsWith (CCSSValue.PREFIX_RGB))
+    if (StringHelper.isNotEmpty (sRealValue))
     {
-      final String [] aValues = RegExHelper.getAllMatchingGroupValues (PATTERN_RGB, sRealValue);
-      if (aValues != null)
+      final String [] aValues = new String [3];
+      if (_matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_RGB, false, false, aValues))
         return new CSSRGB (aValues[0], aValues[1], aValues[2]);
     }
     return null;
@@ -205,18 +285,17 @@ public final class CSSColorHelper
   {
     final String sRealValue = StringHelper.trim (sValue);
     return StringHelper.isNotEmpty (sRealValue) &&
-           sRealValue.startsWith (CCSSValue.PREFIX_RGBA) &&
-           RegExHelper.stringMatchesPattern (PATTERN_RGBA, sRealValue);
+           _matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_RGBA, false, true, null);
   }
 
   @Nullable
   public static CSSRGBA getParsedRGBAColorValue (@Nullable final String sValue)
   {
     final String sRealValue = StringHelper.trim (sValue);
-    if (StringHelper.isNotEmpty (sRealValue) && sRealValue.startsWith (CCSSValue.PREFIX_RGBA))
+    if (StringHelper.isNotEmpty (sRealValue))
     {
-      final String [] aValues = RegExHelper.getAllMatchingGroupValues (PATTERN_RGBA, sRealValue);
-      if (aValues != null)
+      final String [] aValues = new String [4];
+      if (_matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_RGBA, false, true, aValues))
         return new CSSRGBA (aValues[0], aValues[1], aValues[2], aValues[3]);
     }
     return null;
@@ -234,18 +313,17 @@ public final class CSSColorHelper
   {
     final String sRealValue = StringHelper.trim (sValue);
     return StringHelper.isNotEmpty (sRealValue) &&
-           sRealValue.startsWith (CCSSValue.PREFIX_HSL) &&
-           RegExHelper.stringMatchesPattern (PATTERN_HSL, sRealValue);
+           _matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_HSL, true, false, null);
   }
 
   @Nullable
   public static CSSHSL getParsedHSLColorValue (@Nullable final String sValue)
   {
     final String sRealValue = StringHelper.trim (sValue);
-    if (StringHelper.isNotEmpty (sRealValue) && sRealValue.startsWith (CCSSValue.PREFIX_HSL))
+    if (StringHelper.isNotEmpty (sRealValue))
     {
-      final String [] aValues = RegExHelper.getAllMatchingGroupValues (PATTERN_HSL, sRealValue);
-      if (aValues != null)
+      final String [] aValues = new String [3];
+      if (_matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_HSL, true, false, aValues))
         return new CSSHSL (aValues[0], aValues[1], aValues[2]);
     }
     return null;
@@ -263,18 +341,17 @@ public final class CSSColorHelper
   {
     final String sRealValue = StringHelper.trim (sValue);
     return StringHelper.isNotEmpty (sRealValue) &&
-           sRealValue.startsWith (CCSSValue.PREFIX_HSLA) &&
-           RegExHelper.stringMatchesPattern (PATTERN_HSLA, sRealValue);
+           _matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_HSLA, true, true, null);
   }
 
   @Nullable
   public static CSSHSLA getParsedHSLAColorValue (@Nullable final String sValue)
   {
     final String sRealValue = StringHelper.trim (sValue);
-    if (StringHelper.isNotEmpty (sRealValue) && sRealValue.startsWith (CCSSValue.PREFIX_HSLA))
+    if (StringHelper.isNotEmpty (sRealValue))
     {
-      final String [] aValues = RegExHelper.getAllMatchingGroupValues (PATTERN_HSLA, sRealValue);
-      if (aValues != null)
+      final String [] aValues = new String [4];
+      if (_matchesLegacyFunction (sRealValue, CCSSValue.PREFIX_HSLA, true, true, aValues))
         return new CSSHSLA (aValues[0], aValues[1], aValues[2], aValues[3]);
     }
     return null;
@@ -291,8 +368,20 @@ public final class CSSColorHelper
   {
     final String sRealValue = StringHelper.trim (sValue);
     return StringHelper.isNotEmpty (sRealValue) &&
+           (sRealValue.length () == 4 || sRealValue.length () == 7) &&
            sRealValue.charAt (0) == CCSSValue.PREFIX_HEX &&
-           RegExHelper.stringMatchesPattern (PATTERN_HEX, sRealValue);
+           _isHexDigits (sRealValue, 1);
+  }
+
+  private static boolean _isHexDigits (@NonNull final String sValue, final int nStart)
+  {
+    for (int i = nStart; i < sValue.length (); ++i)
+    {
+      final char c = sValue.charAt (i);
+      if ((c < '0' || c > '9') && (c < 'a' || c > 'f') && (c < 'A' || c > 'F'))
+        return false;
+    }
+    return true;
   }
 
   @Nonnegative
@@ -0,0 +1,787 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.utils;
+
+import java.util.Locale;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.css.ECSSUnit;
+
+/**
+ * A hand-written parser for CSS color values that works directly on the chars of the input. The
+ * result is a packed 32-bit <code>0xRRGGBBAA</code> value, so no intermediate objects are created.
+ * Supported are:
+ * <ul>
+ * <li>Hex colors with 3, 4, 6 or 8 digits</li>
+ * <li>The named colors of {@link ECSSColor}, <code>transparent</code>, <code>currentcolor</code>
+ * and the system colors of {@link ECSSColorName}</li>
+ * <li>The functions <code>rgb()</code>, <code>rgba()</code>, <code>hsl()</code> and
+ * <code>hsla()</code> in the legacy comma separated syntax and in the modern space separated
+ * syntax with an optional <code>/ alpha</code></li>
+ * <li>The functions <code>hwb()</code>, <code>lab()</code>, <code>lch()</code>,
+ * <code>oklab()</code> and <code>oklch()</code> in the modern syntax</li>
+ * </ul>
+ * The keyword <code>none</code> is handled as zero. All function and keyword names are case
+ * insensitive. Colors outside of the sRGB gamut are clipped channel by channel. As
+ * <code>currentcolor</code> and the system colors have no fixed value, they are reported as
+ * {@link #UNRESOLVED}.<br>
+ * The methods returning a <code>long</code> use the lower 32 bits for the packed color, so the
+ * negative values {@link #INVALID} and {@link #UNRESOLVED} can never be a valid color. An instance
+ * can be reused for an arbitrary number of values.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public final class CSSColorParser
+{
+  /** The result if the passed value is not a color */
+  public static final long INVALID = -1L;
+  /**
+   * The result if the passed value is a color without a fixed value, like
+   * <code>currentcolor</code> or a system color
+   */
+  public static final long UNRESOLVED = -2L;
+
+  private static final int KIND_NUMBER = 0;
+  private static final int KIND_PERCENTAGE = 1;
+  private static final int KIND_ANGLE = 2;
+  private static final int KIND_NONE = 3;
+
+  private static final int FUNC_RGB = 0;
+  private static final int FUNC_HSL = 1;
+  private static final int FUNC_HWB = 2;
+  private static final int FUNC_LAB = 3;
+  private static final int FUNC_LCH = 4;
+  private static final int FUNC_OKLAB = 5;
+  private static final int FUNC_OKLCH = 6;
+
+  private static final String CURRENTCOLOR = "currentcolor";
+  private static final String TRANSPARENT = "transparent";
+  private static final String NONE = "none";
+
+  // Must be a power of 2 and at least twice the number of named colors
+  private static final int NAME_TABLE_SIZE = 512;
+  private static final ICSSNamedColor [] NAME_TABLE = new ICSSNamedColor [NAME_TABLE_SIZE];
+  private static final int MAX_NAME_LENGTH;
+
+  private static final char [] HEX_DIGITS = "0123456789abcdef".toCharArray ();
+
+  static
+  {
+    int nMaxNameLength = CURRENTCOLOR.length ();
+    for (final ECSSColor eColor : ECSSColor.values ())
+      nMaxNameLength = Math.max (nMaxNameLength, _addName (eColor));
+    for (final ECSSColorName eColorName : ECSSColorName.values ())
+      nMaxNameLength = Math.max (nMaxNameLength, _addName (eColorName));
+    MAX_NAME_LENGTH = nMaxNameLength;
+  }
+
+  private CharSequence m_aCS;
+  private int m_nPos;
+  private int m_nEnd;
+  // The last component read by _readComponent
+  private double m_dValue;
+  private int m_nKind;
+
+  public CSSColorParser ()
+  {}
+
+  private static int _addName (@NonNull final ICSSNamedColor aColor)
+  {
+    final String sName = aColor.getName ().toLowerCase (Locale.ROOT);
+    int nIndex = _hashLowerCase (sName, 0, sName.length ()) & (NAME_TABLE_SIZE - 1);
+    while (NAME_TABLE[nIndex] != null)
+      nIndex = (nIndex + 1) & (NAME_TABLE_SIZE - 1);
+    NAME_TABLE[nIndex] = aColor;
+    return sName.length ();
+  }
+
+  private static char _toLowerCase (final char c)
+  {
+    // Only ASCII letters are relevant
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  private static int _hashLowerCase (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int ret = 0;
+    for (int i = nStart; i < nEnd; ++i)
+      ret = 31 * ret + _toLowerCase (aCS.charAt (i));
+    return ret ^ (ret >>> 7);
+  }
+
+  private static boolean _equalsIgnoreCase (@NonNull final String sLowerCase,
+                                            @NonNull final CharSequence aCS,
+                                            final int nStart,
+                                            final int nEnd)
+  {
+    final int nLength = sLowerCase.length ();
+    if (nEnd - nStart != nLength)
+      return false;
+    for (int i = 0; i < nLength; ++i)
+      if (_toLowerCase (aCS.charAt (nStart + i)) != sLowerCase.charAt (i))
+        return false;
+    return true;
+  }
+
+  private static boolean _isWhitespace (final char c)
+  {
+    // Same as String.trim
+    return c <= ' ';
+  }
+
+  private static boolean _isIdentChar (final char c)
+  {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+  }
+
+  private static int _getHexValue (final char c)
+  {
+    if (c >= '0' && c <= '9')
+      return c - '0';
+    if (c >= 'a' && c <= 'f')
+      return c - 'a' + 10;
+    if (c >= 'A' && c <= 'F')
+      return c - 'A' + 10;
+    return -1;
+  }
+
+  /**
+   * Find the named color with the passed name. The comparison is case insensitive.
+   *
+   * @param aCS
+   *        The char sequence to use. May not be <code>null</code>.
+   * @param nStart
+   *        The start offset of the name (inclusive).
+   * @param nEnd
+   *        The end offset of the name (exclusive).
+   * @return <code>null</code> if no {@link ECSSColor} or {@link ECSSColorName} has the passed name.
+   */
+  @Nullable
+  public static ICSSNamedColor getNamedColorOrNull (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    final int nLength = nEnd - nStart;
+    if (nLength <= 0 || nLength > MAX_NAME_LENGTH)
+      return null;
+
+    int nIndex = _hashLowerCase (aCS, nStart, nEnd) & (NAME_TABLE_SIZE - 1);
+    ICSSNamedColor aColor;
+    while ((aColor = NAME_TABLE[nIndex]) != null)
+    {
+      final String sName = aColor.getName ();
+      if (sName.length () == nLength)
+      {
+        int i = 0;
+        while (i < nLength && _toLowerCase (sName.charAt (i)) == _toLowerCase (aCS.charAt (nStart + i)))
+          i++;
+        if (i == nLength)
+          return aColor;
+      }
+      nIndex = (nIndex + 1) & (NAME_TABLE_SIZE - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Pack the passed channels into a single int.
+   *
+   * @param nRed
+   *        Red value. Only the lower 8 bits are used.
+   * @param nGreen
+   *        Green value. Only the lower 8 bits are used.
+   * @param nBlue
+   *        Blue value. Only the lower 8 bits are used.
+   * @param nAlpha
+   *        Alpha value, where 255 is opaque. Only the lower 8 bits are used.
+   * @return The packed <code>0xRRGGBBAA</code> value.
+   */
+  public static int getPackedRGBA (final int nRed, final int nGreen, final int nBlue, final int nAlpha)
+  {
+    return (nRed & 0xff) << 24 | (nGreen & 0xff) << 16 | (nBlue & 0xff) << 8 | (nAlpha & 0xff);
+  }
+
+  /**
+   * @param nRGBA
+   *        The packed color
+   * @return The red value in the range 0-255.
+   */
+  @Nonnegative
+  public static int getRed (final int nRGBA)
+  {
+    return nRGBA >>> 24;
+  }
+
+  /**
+   * @param nRGBA
+   *        The packed color
+   * @return The green value in the range 0-255.
+   */
+  @Nonnegative
+  public static int getGreen (final int nRGBA)
+  {
+    return (nRGBA >>> 16) & 0xff;
+  }
+
+  /**
+   * @param nRGBA
+   *        The packed color
+   * @return The blue value in the range 0-255.
+   */
+  @Nonnegative
+  public static int getBlue (final int nRGBA)
+  {
+    return (nRGBA >>> 8) & 0xff;
+  }
+
+  /**
+   * @param nRGBA
+   *        The packed color
+   * @return The alpha value in the range 0-255, where 255 is opaque.
+   */
+  @Nonnegative
+  public static int getAlpha (final int nRGBA)
+  {
+    return nRGBA & 0xff;
+  }
+
+  /**
+   * Get the shortest hex representation of the passed packed color. The alpha digits are omitted
+   * for opaque colors and the 3 or 4 digit form is used if possible. This is e.g. the preferred
+   * output of color optimizing writers.
+   *
+   * @param nRGBA
+   *        The packed color
+   * @return The hex color value like <code>#f00</code> or <code>#ff000080</code>. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  public static String getAsShortestHexColorValue (final int nRGBA)
+  {
+    final boolean bOpaque = getAlpha (nRGBA) == 0xff;
+    final int nBytes = bOpaque ? 3 : 4;
+    boolean bShort = true;
+    for (int i = 0; i < nBytes && bShort; ++i)
+    {
+      final int nByte = (nRGBA >>> (24 - i * 8)) & 0xff;
+      bShort = (nByte >>> 4) == (nByte & 0xf);
+    }
+
+    final StringBuilder aSB = new StringBuilder (9).append ('#');
+    for (int i = 0; i < nBytes; ++i)
+    {
+      final int nByte = (nRGBA >>> (24 - i * 8)) & 0xff;
+      if (!bShort)
+        aSB.append (HEX_DIGITS[nByte >>> 4]);
+      aSB.append (HEX_DIGITS[nByte & 0xf]);
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Check if the passed value is a valid color.
+   *
+   * @param aCS
+   *        The value to check. May be <code>null</code>.
+   * @return <code>true</code> if it is a color value, including <code>currentcolor</code> and the
+   *         system colors.
+   */
+  public static boolean isColor (@Nullable final CharSequence aCS)
+  {
+    return aCS != null && new CSSColorParser ().parse (aCS) != INVALID;
+  }
+
+  /**
+   * Parse the passed color value with a new parser instance.
+   *
+   * @param aCS
+   *        The value to parse. May not be <code>null</code>.
+   * @return The packed <code>0xRRGGBBAA</code> value in the lower 32 bits, {@link #INVALID} or
+   *         {@link #UNRESOLVED}.
+   * @see #parse(CharSequence)
+   */
+  public static long parseRGBA (@NonNull final CharSequence aCS)
+  {
+    return new CSSColorParser ().parse (aCS);
+  }
+
+  /**
+   * Parse the passed color value. Leading and trailing whitespaces are ignored.
+   *
+   * @param aCS
+   *        The value to parse. May not be <code>null</code>.
+   * @return The packed <code>0xRRGGBBAA</code> value in the lower 32 bits, {@link #INVALID} or
+   *         {@link #UNRESOLVED}.
+   */
+  public long parse (@NonNull final CharSequence aCS)
+  {
+    ValueEnforcer.notNull (aCS, "CharSequence");
+    return parse (aCS, 0, aCS.length ());
+  }
+
+  /**
+   * Parse the color value in the passed range. Leading and trailing whitespaces are ignored.
+   *
+   * @param aCS
+   *        The value to parse. May not be <code>null</code>.
+   * @param nStart
+   *        The start offset (inclusive).
+   * @param nEnd
+   *        The end offset (exclusive).
+   * @return The packed <code>0xRRGGBBAA</code> value in the lower 32 bits, {@link #INVALID} or
+   *         {@link #UNRESOLVED}.
+   */
+  public long parse (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    ValueEnforcer.notNull (aCS, "CharSequence");
+    ValueEnforcer.isTrue (nStart >= 0 && nStart <= nEnd && nEnd <= aCS.length (), "Invalid range");
+
+    m_aCS = aCS;
+    m_nPos = nStart;
+    m_nEnd = nEnd;
+    try
+    {
+      _skipWhitespaces ();
+      while (m_nEnd > m_nPos && _isWhitespace (aCS.charAt (m_nEnd - 1)))
+        m_nEnd--;
+      if (m_nPos == m_nEnd)
+        return INVALID;
+
+      if (aCS.charAt (m_nPos) == '#')
+        return _parseHex ();
+
+      final int nNameStart = m_nPos;
+      while (m_nPos < m_nEnd && _isIdentChar (aCS.charAt (m_nPos)))
+        m_nPos++;
+      final int nNameEnd = m_nPos;
+      if (nNameEnd == nNameStart)
+        return INVALID;
+
+      if (nNameEnd == m_nEnd)
+        return _getKeywordValue (nNameStart, nNameEnd);
+
+      // Whitespaces before the opening brace are accepted for compatibility
+      _skipWhitespaces ();
+      if (m_nPos == m_nEnd || aCS.charAt (m_nPos) != '(')
+        return INVALID;
+      m_nPos++;
+      return _parseFunction (nNameStart, nNameEnd);
+    }
+    finally
+    {
+      m_aCS = null;
+    }
+  }
+
+  private void _skipWhitespaces ()
+  {
+    while (m_nPos < m_nEnd && _isWhitespace (m_aCS.charAt (m_nPos)))
+      m_nPos++;
+  }
+
+  private boolean _skipChar (final char c)
+  {
+    if (m_nPos < m_nEnd && m_aCS.charAt (m_nPos) == c)
+    {
+      m_nPos++;
+      _skipWhitespaces ();
+      return true;
+    }
+    return false;
+  }
+
+  private long _parseHex ()
+  {
+    final int nDigits = m_nEnd - m_nPos - 1;
+    if (nDigits != 3 && nDigits != 4 && nDigits != 6 && nDigits != 8)
+      return INVALID;
+
+    int ret = 0;
+    for (int i = m_nPos + 1; i < m_nEnd; ++i)
+    {
+      final int nValue = _getHexValue (m_aCS.charAt (i));
+      if (nValue < 0)
+        return INVALID;
+      if (nDigits <= 4)
+      {
+        // Each digit is duplicated
+        ret = (ret << 8) | (nValue << 4) | nValue;
+      }
+      else
+        ret = (ret << 4) | nValue;
+    }
+    // Add opaque alpha if not present
+    return (nDigits == 3 || nDigits == 6 ? (ret << 8) | 0xff : ret) & 0xffffffffL;
+  }
+
+  private long _getKeywordValue (final int nStart, final int nEnd)
+  {
+    if (_equalsIgnoreCase (TRANSPARENT, m_aCS, nStart, nEnd))
+      return 0;
+    if (_equalsIgnoreCase (CURRENTCOLOR, m_aCS, nStart, nEnd))
+      return UNRESOLVED;
+
+    final ICSSNamedColor aColor = getNamedColorOrNull (m_aCS, nStart, nEnd);
+    if (aColor instanceof ECSSColor)
+    {
+      final ECSSColor eColor = (ECSSColor) aColor;
+      return getPackedRGBA (eColor.getRed (), eColor.getGreen (), eColor.getBlue (), 0xff) & 0xffffffffL;
+    }
+    return aColor != null ? UNRESOLVED : INVALID;
+  }
+
+  private int _getFunction (final int nStart, final int nEnd)
+  {
+    final int nLength = nEnd - nStart;
+    if (nLength == 3 || nLength == 4)
+    {
+      // rgba and hsla are aliases of rgb and hsl
+      if (nLength == 4 && _toLowerCase (m_aCS.charAt (nEnd - 1)) != 'a')
+        return -1;
+      final int nEnd3 = nStart + 3;
+      if (_equalsIgnoreCase ("rgb", m_aCS, nStart, nEnd3))
+        return FUNC_RGB;
+      if (_equalsIgnoreCase ("hsl", m_aCS, nStart, nEnd3))
+        return FUNC_HSL;
+      if (nLength == 3)
+      {
+        if (_equalsIgnoreCase ("hwb", m_aCS, nStart, nEnd))
+          return FUNC_HWB;
+        if (_equalsIgnoreCase ("lab", m_aCS, nStart, nEnd))
+          return FUNC_LAB;
+        if (_equalsIgnoreCase ("lch", m_aCS, nStart, nEnd))
+          return FUNC_LCH;
+      }
+      return -1;
+    }
+    if (_equalsIgnoreCase ("oklab", m_aCS, nStart, nEnd))
+      return FUNC_OKLAB;
+    if (_equalsIgnoreCase ("oklch", m_aCS, nStart, nEnd))
+      return FUNC_OKLCH;
+    return -1;
+  }
+
+  /**
+   * Read a single function argument into {@link #m_dValue} and {@link #m_nKind}. Angles are
+   * converted to degrees.
+   *
+   * @return <code>false</code> if no valid argument was found.
+   */
+  private boolean _readComponent ()
+  {
+    final CharSequence aCS = m_aCS;
+    int i = m_nPos;
+    if (i < m_nEnd && (aCS.charAt (i) == '+' || aCS.charAt (i) == '-'))
+      i++;
+    int nNumberEnd = CSSNumberScanner.getNumberEnd (aCS, i, m_nEnd);
+    if (nNumberEnd == i)
+    {
+      // Not a number - the only allowed keyword is "none"
+      while (nNumberEnd < m_nEnd && _isIdentChar (aCS.charAt (nNumberEnd)))
+        nNumberEnd++;
+      if (i != m_nPos || !_equalsIgnoreCase (NONE, aCS, i, nNumberEnd))
+        return false;
+      m_dValue = 0;
+      m_nKind = KIND_NONE;
+      m_nPos = nNumberEnd;
+      return true;
+    }
+
+    // A trailing dot like in "1." was always accepted
+    if (nNumberEnd < m_nEnd && aCS.charAt (nNumberEnd) == '.')
+      nNumberEnd++;
+    m_dValue = CSSNumberScanner.parseDouble (aCS, m_nPos, nNumberEnd);
+
+    int nUnitEnd = nNumberEnd;
+    while (nUnitEnd < m_nEnd && _isIdentChar (aCS.charAt (nUnitEnd)))
+      nUnitEnd++;
+    if (nUnitEnd > nNumberEnd)
+    {
+      final ECSSUnit eUnit = CSSNumberScanner.getUnitFromNameOrNull (aCS, nNumberEnd, nUnitEnd);
+      if (eUnit == null)
+        return false;
+      switch (eUnit)
+      {
+        case ANGLE_DEG:
+          break;
+        case ANGLE_GRAD:
+          m_dValue *= 0.9;
+          break;
+        case ANGLE_RAD:
+          m_dValue = Math.toDegrees (m_dValue);
+          break;
+        case ANGLE_TURN:
+          m_dValue *= 360;
+          break;
+        default:
+          return false;
+      }
+      m_nKind = KIND_ANGLE;
+    }
+    else
+      if (nUnitEnd < m_nEnd && aCS.charAt (nUnitEnd) == '%')
+      {
+        nUnitEnd++;
+        m_nKind = KIND_PERCENTAGE;
+      }
+      else
+        m_nKind = KIND_NUMBER;
+    m_nPos = nUnitEnd;
+    return true;
+  }
+
+  private static boolean _isKindAllowed (final int nKind, final boolean bHue, final boolean bLegacy)
+  {
+    switch (nKind)
+    {
+      case KIND_PERCENTAGE:
+        return !bHue;
+      case KIND_ANGLE:
+        return bHue;
+      case KIND_NONE:
+        return !bLegacy;
+      default:
+        return true;
+    }
+  }
+
+  private long _parseFunction (final int nNameStart, final int nNameEnd)
+  {
+    final int nFunction = _getFunction (nNameStart, nNameEnd);
+    if (nFunction < 0)
+      return INVALID;
+
+    _skipWhitespaces ();
+    if (!_readComponent ())
+      return INVALID;
+    final double d0 = m_dValue;
+    final int nKind0 = m_nKind;
+    _skipWhitespaces ();
+
+    // The comma separated syntax is only supported for rgb and hsl
+    final boolean bLegacy = _skipChar (',');
+    if (bLegacy && nFunction != FUNC_RGB && nFunction != FUNC_HSL)
+      return INVALID;
+
+    if (!_readComponent ())
+      return INVALID;
+    final double d1 = m_dValue;
+    final int nKind1 = m_nKind;
+    _skipWhitespaces ();
+    if (bLegacy && !_skipChar (','))
+      return INVALID;
+
+    if (!_readComponent ())
+      return INVALID;
+    final double d2 = m_dValue;
+    final int nKind2 = m_nKind;
+    _skipWhitespaces ();
+
+    double dAlpha = 1;
+    if (_skipChar (bLegacy ? ',' : '/'))
+    {
+      if (!_readComponent () || !_isKindAllowed (m_nKind, false, bLegacy))
+        return INVALID;
+      dAlpha = m_nKind == KIND_PERCENTAGE ? m_dValue / 100 : m_dValue;
+      _skipWhitespaces ();
+    }
+    if (!_skipChar (')') || m_nPos != m_nEnd)
+      return INVALID;
+
+    // Check the argument types
+    final boolean bHue0 = nFunction == FUNC_HSL || nFunction == FUNC_HWB;
+    final boolean bHue2 = nFunction == FUNC_LCH || nFunction == FUNC_OKLCH;
+    if (!_isKindAllowed (nKind0, bHue0, bLegacy) ||
+        !_isKindAllowed (nKind1, false, bLegacy) ||
+        !_isKindAllowed (nKind2, bHue2, bLegacy))
+      return INVALID;
+
+    final int nAlpha = _toByte (dAlpha);
+    switch (nFunction)
+    {
+      case FUNC_RGB:
+        return _pack (_getRGBChannel (d0, nKind0),
+                      _getRGBChannel (d1, nKind1),
+                      _getRGBChannel (d2, nKind2),
+                      nAlpha);
+      case FUNC_HSL:
+        return _packHSL (d0, d1 / 100, d2 / 100, nAlpha);
+      case FUNC_HWB:
+        return _packHWB (d0, d1 / 100, d2 / 100, nAlpha);
+      case FUNC_LAB:
+        return _packLab (_getPercentage (d0, nKind0, 100),
+                         _getPercentage (d1, nKind1, 125),
+                         _getPercentage (d2, nKind2, 125),
+                         nAlpha);
+      case FUNC_LCH:
+      {
+        final double dC = _getPercentage (d1, nKind1, 150);
+        final double dH = Math.toRadians (d2);
+        return _packLab (_getPercentage (d0, nKind0, 100), dC * Math.cos (dH), dC * Math.sin (dH), nAlpha);
+      }
+      case FUNC_OKLAB:
+        return _packOKLab (_getPercentage (d0, nKind0, 1),
+                           _getPercentage (d1, nKind1, 0.4),
+                           _getPercentage (d2, nKind2, 0.4),
+                           nAlpha);
+      case FUNC_OKLCH:
+      {
+        final double dC = _getPercentage (d1, nKind1, 0.4);
+        final double dH = Math.toRadians (d2);
+        return _packOKLab (_getPercentage (d0, nKind0, 1), dC * Math.cos (dH), dC * Math.sin (dH), nAlpha);
+      }
+      default:
+        throw new IllegalStateException ("Unsupported function " + nFunction);
+    }
+  }
+
+  /**
+   * @return The value to use, if 100% is the passed reference value.
+   */
+  private static double _getPercentage (final double dValue, final int nKind, final double dReference)
+  {
+    return nKind == KIND_PERCENTAGE ? dValue * dReference / 100 : dValue;
+  }
+
+  private static int _getRGBChannel (final double dValue, final int nKind)
+  {
+    return _toByte (nKind == KIND_PERCENTAGE ? dValue / 100 : dValue / 255);
+  }
+
+  /**
+   * @return The passed value in the range 0-1 clamped and scaled to 0-255.
+   */
+  private static int _toByte (final double dValue)
+  {
+    if (!(dValue > 0))
+      return 0;
+    if (dValue >= 1)
+      return 0xff;
+    return (int) Math.round (dValue * 255);
+  }
+
+  private static long _pack (final int nRed, final int nGreen, final int nBlue, final int nAlpha)
+  {
+    return getPackedRGBA (nRed, nGreen, nBlue, nAlpha) & 0xffffffffL;
+  }
+
+  private static double _getHSLChannel (final int n, final double dHue, final double dSat, final double dLight)
+  {
+    final double k = (n + dHue / 30) % 12;
+    final double a = dSat * Math.min (dLight, 1 - dLight);
+    return dLight - a * Math.max (-1, Math.min (Math.min (k - 3, 9 - k), 1));
+  }
+
+  private static long _packHSL (final double dHue, final double dSat, final double dLight, final int nAlpha)
+  {
+    double dH = dHue % 360;
+    if (dH < 0)
+      dH += 360;
+    final double dS = Math.max (0, Math.min (dSat, 1));
+    final double dL = Math.max (0, Math.min (dLight, 1));
+    return _pack (_toByte (_getHSLChannel (0, dH, dS, dL)),
+                  _toByte (_getHSLChannel (8, dH, dS, dL)),
+                  _toByte (_getHSLChannel (4, dH, dS, dL)),
+                  nAlpha);
+  }
+
+  private static long _packHWB (final double dHue, final double dWhite, final double dBlack, final int nAlpha)
+  {
+    final double dW = Math.max (0, Math.min (dWhite, 1));
+    final double dB = Math.max (0, Math.min (dBlack, 1));
+    if (dW + dB >= 1)
+    {
+      final int nGray = _toByte (dW / (dW + dB));
+      return _pack (nGray, nGray, nGray, nAlpha);
+    }
+
+    double dH = dHue % 360;
+    if (dH < 0)
+      dH += 360;
+    final double dFactor = 1 - dW - dB;
+    return _pack (_toByte (_getHSLChannel (0, dH, 1, 0.5) * dFactor + dW),
+                  _toByte (_getHSLChannel (8, dH, 1, 0.5) * dFactor + dW),
+                  _toByte (_getHSLChannel (4, dH, 1, 0.5) * dFactor + dW),
+                  nAlpha);
+  }
+
+  /**
+   * Convert a linear-light sRGB value to gamma encoded sRGB
+   */
+  private static double _gamma (final double dValue)
+  {
+    final double dAbs = Math.abs (dValue);
+    if (dAbs <= 0.0031308)
+      return 12.92 * dValue;
+    return Math.signum (dValue) * (1.055 * Math.pow (dAbs, 1 / 2.4) - 0.055);
+  }
+
+  private static long _packLinearSRGB (final double dRed, final double dGreen, final double dBlue, final int nAlpha)
+  {
+    return _pack (_toByte (_gamma (dRed)), _toByte (_gamma (dGreen)), _toByte (_gamma (dBlue)), nAlpha);
+  }
+
+  private static long _packLab (final double dL, final double dA, final double dB, final int nAlpha)
+  {
+    // CIE Lab (D50) to XYZ (D50)
+    final double dKappa = 24389.0 / 27;
+    final double dEpsilon = 216.0 / 24389;
+    final double f1 = (dL + 16) / 116;
+    final double f0 = dA / 500 + f1;
+    final double f2 = f1 - dB / 200;
+    final double x = (f0 * f0 * f0 > dEpsilon ? f0 * f0 * f0 : (116 * f0 - 16) / dKappa) * 0.3457 / 0.3585;
+    final double y = dL > dKappa * dEpsilon ? f1 * f1 * f1 : dL / dKappa;
+    final double z = (f2 * f2 * f2 > dEpsilon ? f2 * f2 * f2 : (116 * f2 - 16) / dKappa) *
+                     (1 - 0.3457 - 0.3585) /
+                     0.3585;
+
+    // Bradford chromatic adaptation from D50 to D65
+    final double x65 = 0.955473421488075 * x - 0.02309845494876471 * y + 0.06325924320057072 * z;
+    final double y65 = -0.0283697093338637 * x + 1.0099953980813041 * y + 0.021041441191917323 * z;
+    final double z65 = 0.012314014864481998 * x - 0.020507649298898964 * y + 1.330365926242124 * z;
+
+    // XYZ (D65) to linear sRGB
+    return _packLinearSRGB (3.2409699419045226 * x65 - 1.537383177570094 * y65 - 0.4986107602930034 * z65,
+                            -0.9692436362808796 * x65 + 1.8759675015077202 * y65 + 0.04155505740717559 * z65,
+                            0.05563007969699366 * x65 - 0.20397695888897652 * y65 + 1.0569715142428786 * z65,
+                            nAlpha);
+  }
+
+  private static long _packOKLab (final double dL, final double dA, final double dB, final int nAlpha)
+  {
+    // OKLab to LMS
+    final double l1 = dL + 0.3963377774 * dA + 0.2158037573 * dB;
+    final double m1 = dL - 0.1055613458 * dA - 0.0638541728 * dB;
+    final double s1 = dL - 0.0894841775 * dA - 1.2914855480 * dB;
+    final double l = l1 * l1 * l1;
+    final double m = m1 * m1 * m1;
+    final double s = s1 * s1 * s1;
+
+    // LMS to linear sRGB
+    return _packLinearSRGB (4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s,
+                            -1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s,
+                            -0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s,
+                            nAlpha);
+  }
+}
@@ -17,7 +17,6 @@
 package com.helger.css.utils;
 
 import java.math.BigDecimal;
-import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -27,11 +26,8 @@ import com.helger.annotation.style.PresentForCodeCoverage;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.string.StringHelper;
 import com.helger.base.string.StringParser;
-import com.helger.collection.commons.CommonsHashMap;
-import com.helger.collection.commons.ICommonsMap;
 import com.helger.css.ECSSUnit;
 import com.helger.css.propertyvalue.CSSSimpleValueWithUnit;
-import com.helger.text.compare.ComparatorHelper;
 
 /**
  * Provides number handling sanity methods.
@@ -41,19 +37,6 @@ import com.helger.text.compare.ComparatorHelper;
 @Immutable
 public final class CSSNumberHelper
 {
-  // Map from unit name to enum
-  private static final ICommonsMap <String, ECSSUnit> s_aNameToUnitMap;
-
-  static
-  {
-    final ICommonsMap <String, ECSSUnit> aNameToUnitMap = new CommonsHashMap <> ();
-    for (final ECSSUnit eUnit : ECSSUnit.values ())
-      aNameToUnitMap.put (eUnit.getName (), eUnit);
-    // Now sort, so that the longest matches are upfront so that they are
-    // determined first
-    s_aNameToUnitMap = aNameToUnitMap.getSortedByKey (ComparatorHelper.getComparatorStringLongestFirst ());
-  }
-
   @PresentForCodeCoverage
   private static final CSSNumberHelper INSTANCE = new CSSNumberHelper ();
 
@@ -74,12 +57,8 @@ public final class CSSNumberHelper
   public static ECSSUnit getMatchingUnitInclPercentage (@NonNull final String sCSSValue)
   {
     ValueEnforcer.notNull (sCSSValue, "CSSValue");
-    // Search units, the ones with the longest names come first
-    // Don't use Lambda here - occurs quite often (performance)
-    for (final Map.Entry <String, ECSSUnit> aEntry : s_aNameToUnitMap.entrySet ())
-      if (sCSSValue.endsWith (aEntry.getKey ()))
-        return aEntry.getValue ();
-    return null;
+    // The unit with the longest name comes first
+    return CSSNumberScanner.getUnitOfSuffixOrNull (sCSSValue);
   }
 
   /**
@@ -143,7 +122,23 @@ public final class CSSNumberHelper
    */
   public static boolean isValueWithUnit (@Nullable final String sCSSValue, final boolean bWithPerc)
   {
-    return getValueWithUnit (sCSSValue, bWithPerc) != null;
+    return sCSSValue != null && _scanValueWithUnit (new CSSNumberScanner (), sCSSValue, bWithPerc);
+  }
+
+  private static boolean _scanValueWithUnit (@NonNull final CSSNumberScanner aScanner,
+                                             @NonNull final String sCSSValue,
+                                             final boolean bWithPerc)
+  {
+    if (!aScanner.scan (sCSSValue))
+      return false;
+
+    final ECSSUnit eUnit = aScanner.getUnit ();
+    if (eUnit == null)
+    {
+      // Special case for 0!
+      return sCSSValue.trim ().equals ("0");
+    }
+    return bWithPerc || eUnit != ECSSUnit.PERCENTAGE;
   }
 
   /**
@@ -177,20 +172,20 @@ public final class CSSNumberHelper
   @Nullable
   public static CSSSimpleValueWithUnit getValueWithUnit (@Nullable final String sCSSValue, final boolean bWithPerc)
   {
-    String sRealValue = StringHelper.trim (sCSSValue);
-    if (StringHelper.isNotEmpty (sRealValue))
+    if (sCSSValue != null)
     {
-      // Special case for 0!
-      if (sRealValue.equals ("0"))
-        return new CSSSimpleValueWithUnit (BigDecimal.ZERO, ECSSUnit.PX);
-
-      final ECSSUnit eUnit = bWithPerc ? getMatchingUnitInclPercentage (sRealValue) : getMatchingUnitExclPercentage (
-                                                                                                                     sRealValue);
-      if (eUnit != null)
+      final CSSNumberScanner aScanner = new CSSNumberScanner ();
+      if (_scanValueWithUnit (aScanner, sCSSValue, bWithPerc))
       {
-        // Cut the unit off
-        sRealValue = sRealValue.substring (0, sRealValue.length () - eUnit.getName ().length ()).trim ();
-        final BigDecimal aValue = StringParser.parseBigDecimal (sRealValue);
+        final ECSSUnit eUnit = aScanner.getUnit ();
+        if (eUnit == null)
+        {
+          // Special case for 0!
+          return new CSSSimpleValueWithUnit (BigDecimal.ZERO, ECSSUnit.PX);
+        }
+
+        final BigDecimal aValue = StringParser.parseBigDecimal (sCSSValue.substring (aScanner.getScannedNumberStart (),
+                                                                                     aScanner.getScannedNumberEnd ()));
         if (aValue != null)
           return new CSSSimpleValueWithUnit (aValue, eUnit);
       }
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.utils;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.css.ECSSUnit;
+
+/**
+ * A scanner for numeric values with an optional unit, like <code>5px</code>, <code>-1.5e3</code> or
+ * <code>50 %</code>. The number is converted to a primitive <code>double</code> and the unit is
+ * resolved via a hash table over the chars of the input, so no intermediate objects are created.
+ * An instance can be reused for an arbitrary number of values.
+ *
+ * @author Philip Helger
+ * @since 8.2.2
+ */
+@NotThreadSafe
+public final class CSSNumberScanner
+{
+  // Must be a power of 2 and at least twice the number of units
+  private static final int UNIT_TABLE_SIZE = 128;
+  private static final ECSSUnit [] UNIT_TABLE = new ECSSUnit [UNIT_TABLE_SIZE];
+  private static final int MAX_UNIT_LENGTH;
+
+  // All powers of 10 that can be represented exactly as a double
+  private static final double [] EXACT_POWERS_OF_10 = { 1e0,
+                                                        1e1,
+                                                        1e2,
+                                                        1e3,
+                                                        1e4,
+                                                        1e5,
+                                                        1e6,
+                                                        1e7,
+                                                        1e8,
+                                                        1e9,
+                                                        1e10,
+                                                        1e11,
+                                                        1e12,
+                                                        1e13,
+                                                        1e14,
+                                                        1e15,
+                                                        1e16,
+                                                        1e17,
+                                                        1e18,
+                                                        1e19,
+                                                        1e20,
+                                                        1e21,
+                                                        1e22 };
+  // The maximum mantissa that can be represented exactly as a double
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  private static final int MAX_MANTISSA_DIGITS = 18;
+
+  static
+  {
+    int nMaxUnitLength = 0;
+    for (final ECSSUnit eUnit : ECSSUnit.values ())
+    {
+      final String sName = eUnit.getName ();
+      int nIndex = _hash (sName, 0, sName.length ()) & (UNIT_TABLE_SIZE - 1);
+      while (UNIT_TABLE[nIndex] != null)
+        nIndex = (nIndex + 1) & (UNIT_TABLE_SIZE - 1);
+      UNIT_TABLE[nIndex] = eUnit;
+      nMaxUnitLength = Math.max (nMaxUnitLength, sName.length ());
+    }
+    MAX_UNIT_LENGTH = nMaxUnitLength;
+  }
+
+  private double m_dValue = Double.NaN;
+  private ECSSUnit m_eUnit;
+  private int m_nNumberStart = -1;
+  private int m_nNumberEnd = -1;
+
+  public CSSNumberScanner ()
+  {}
+
+  private static int _hash (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int ret = 0;
+    for (int i = nStart; i < nEnd; ++i)
+      ret = 31 * ret + aCS.charAt (i);
+    return ret ^ (ret >>> 7);
+  }
+
+  private static boolean _isDigit (final char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean _isWhitespace (final char c)
+  {
+    // Same as String.trim
+    return c <= ' ';
+  }
+
+  /**
+   * Find the unit with the passed name. The comparison is case sensitive.
+   *
+   * @param aCS
+   *        The char sequence to use. May not be <code>null</code>.
+   * @param nStart
+   *        The start offset of the name (inclusive).
+   * @param nEnd
+   *        The end offset of the name (exclusive).
+   * @return <code>null</code> if no unit has the passed name.
+   */
+  @Nullable
+  public static ECSSUnit getUnitFromNameOrNull (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    final int nLength = nEnd - nStart;
+    if (nLength <= 0 || nLength > MAX_UNIT_LENGTH)
+      return null;
+
+    int nIndex = _hash (aCS, nStart, nEnd) & (UNIT_TABLE_SIZE - 1);
+    ECSSUnit eUnit;
+    while ((eUnit = UNIT_TABLE[nIndex]) != null)
+    {
+      final String sName = eUnit.getName ();
+      if (sName.length () == nLength)
+      {
+        int i = 0;
+        while (i < nLength && sName.charAt (i) == aCS.charAt (nStart + i))
+          i++;
+        if (i == nLength)
+          return eUnit;
+      }
+      nIndex = (nIndex + 1) & (UNIT_TABLE_SIZE - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Find the unit with the longest name that is a suffix of the passed char sequence. The comparison
+   * is case sensitive.
+   *
+   * @param aCS
+   *        The char sequence to use. May not be <code>null</code>.
+   * @return <code>null</code> if the char sequence does not end with a unit.
+   */
+  @Nullable
+  public static ECSSUnit getUnitOfSuffixOrNull (@NonNull final CharSequence aCS)
+  {
+    final int nEnd = aCS.length ();
+    for (int nLength = Math.min (MAX_UNIT_LENGTH, nEnd); nLength > 0; --nLength)
+    {
+      final ECSSUnit eUnit = getUnitFromNameOrNull (aCS, nEnd - nLength, nEnd);
+      if (eUnit != null)
+        return eUnit;
+    }
+    return null;
+  }
+
+  /**
+   * Find the end of an unsigned number, as in <code>[0-9]* ( "." [0-9]+ )? ( [eE] [+-]? [0-9]+ )?</code>
+   * with at least one digit before the exponent.
+   *
+   * @param aCS
+   *        The char sequence to use. May not be <code>null</code>.
+   * @param nStart
+   *        The offset where the number starts.
+   * @param nEnd
+   *        The maximum end offset (exclusive).
+   * @return The offset after the number or <code>nStart</code> if there is no number at the start
+   *         offset.
+   */
+  public static int getNumberEnd (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int i = nStart;
+    while (i < nEnd && _isDigit (aCS.charAt (i)))
+      i++;
+    if (i + 1 < nEnd && aCS.charAt (i) == '.' && _isDigit (aCS.charAt (i + 1)))
+    {
+      i += 2;
+      while (i < nEnd && _isDigit (aCS.charAt (i)))
+        i++;
+    }
+    if (i == nStart)
+      return nStart;
+
+    if (i + 1 < nEnd && (aCS.charAt (i) == 'e' || aCS.charAt (i) == 'E'))
+    {
+      int nExponentStart = i + 1;
+      if (aCS.charAt (nExponentStart) == '+' || aCS.charAt (nExponentStart) == '-')
+        nExponentStart++;
+      if (nExponentStart < nEnd && _isDigit (aCS.charAt (nExponentStart)))
+      {
+        i = nExponentStart + 1;
+        while (i < nEnd && _isDigit (aCS.charAt (i)))
+          i++;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Convert a number that was found with {@link #getNumberEnd(CharSequence, int, int)}, optionally
+   * preceded by a sign. If the number has not more than 18 significant digits and the exponent is
+   * small enough, the result is calculated exactly without any object creation. Otherwise
+   * {@link Double#parseDouble(String)} is used.
+   */
+  static double parseDouble (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int i = nStart;
+    boolean bNegative = false;
+    if (aCS.charAt (i) == '+' || aCS.charAt (i) == '-')
+    {
+      bNegative = aCS.charAt (i) == '-';
+      i++;
+    }
+
+    long nMantissa = 0;
+    int nDigits = 0;
+    int nExponent = 0;
+    boolean bFraction = false;
+    boolean bExact = true;
+    for (; i < nEnd; ++i)
+    {
+      final char c = aCS.charAt (i);
+      if (c == '.')
+        bFraction = true;
+      else
+        if (_isDigit (c))
+        {
+          if (nMantissa != 0 || c != '0')
+          {
+            if (++nDigits > MAX_MANTISSA_DIGITS)
+            {
+              bExact = false;
+              break;
+            }
+            nMantissa = nMantissa * 10 + (c - '0');
+          }
+          if (bFraction)
+            nExponent--;
+        }
+        else
+          break;
+    }
+
+    if (bExact && i < nEnd)
+    {
+      // Exponent
+      i++;
+      boolean bNegativeExponent = false;
+      if (aCS.charAt (i) == '+' || aCS.charAt (i) == '-')
+      {
+        bNegativeExponent = aCS.charAt (i) == '-';
+        i++;
+      }
+      int nExplicitExponent = 0;
+      for (; i < nEnd && nExplicitExponent < 1000; ++i)
+        nExplicitExponent = nExplicitExponent * 10 + (aCS.charAt (i) - '0');
+      nExponent += bNegativeExponent ? -nExplicitExponent : nExplicitExponent;
+    }
+
+    if (bExact && nMantissa <= MAX_EXACT_MANTISSA)
+    {
+      if (nMantissa == 0)
+        return bNegative ? -0d : 0d;
+      if (nExponent >= -22 && nExponent <= 22)
+      {
+        // Both values are exact, so the result is correctly rounded
+        double ret = nMantissa;
+        if (nExponent >= 0)
+          ret *= EXACT_POWERS_OF_10[nExponent];
+        else
+          ret /= EXACT_POWERS_OF_10[-nExponent];
+        return bNegative ? -ret : ret;
+      }
+    }
+    return Double.parseDouble (aCS.subSequence (nStart, nEnd).toString ());
+  }
+
+  private void _reset ()
+  {
+    m_dValue = Double.NaN;
+    m_eUnit = null;
+    m_nNumberStart = -1;
+    m_nNumberEnd = -1;
+  }
+
+  /**
+   * Scan the passed char sequence.
+   *
+   * @param aCS
+   *        The char sequence to scan. May not be <code>null</code>.
+   * @return <code>true</code> if the complete char sequence is a number with an optional unit.
+   * @see #scan(CharSequence, int, int)
+   */
+  public boolean scan (@NonNull final CharSequence aCS)
+  {
+    ValueEnforcer.notNull (aCS, "CharSequence");
+    return scan (aCS, 0, aCS.length ());
+  }
+
+  /**
+   * Scan the passed range. The range must consist of an optional sign, a number and an optional
+   * unit. Whitespace is allowed before and after the number and after the unit. The unit names are
+   * case sensitive.
+   *
+   * @param aCS
+   *        The char sequence to scan. May not be <code>null</code>.
+   * @param nStart
+   *        The start offset (inclusive).
+   * @param nEnd
+   *        The end offset (exclusive).
+   * @return <code>true</code> if the complete range is a number with an optional unit. In that case
+   *         {@link #getValue()} and {@link #getUnit()} contain the results.
+   */
+  public boolean scan (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    ValueEnforcer.notNull (aCS, "CharSequence");
+    ValueEnforcer.isTrue (nStart >= 0 && nStart <= nEnd && nEnd <= aCS.length (), "Invalid range");
+    _reset ();
+
+    int nTrimmedEnd = nEnd;
+    while (nTrimmedEnd > nStart && _isWhitespace (aCS.charAt (nTrimmedEnd - 1)))
+      nTrimmedEnd--;
+    int i = nStart;
+    while (i < nTrimmedEnd && _isWhitespace (aCS.charAt (i)))
+      i++;
+
+    final int nNumberStart = i;
+    if (i < nTrimmedEnd && (aCS.charAt (i) == '+' || aCS.charAt (i) == '-'))
+      i++;
+    final int nNumberEnd = getNumberEnd (aCS, i, nTrimmedEnd);
+    if (nNumberEnd == i)
+      return false;
+
+    i = nNumberEnd;
+    while (i < nTrimmedEnd && _isWhitespace (aCS.charAt (i)))
+      i++;
+    ECSSUnit eUnit = null;
+    if (i < nTrimmedEnd)
+    {
+      eUnit = getUnitFromNameOrNull (aCS, i, nTrimmedEnd);
+      if (eUnit == null)
+        return false;
+    }
+
+    m_dValue = parseDouble (aCS, nNumberStart, nNumberEnd);
+    m_eUnit = eUnit;
+    m_nNumberStart = nNumberStart;
+    m_nNumberEnd = nNumberEnd;
+    return true;
+  }
+
+  /**
+   * @return The numeric value of the last successful scan or {@link Double#NaN} if the last scan was
+   *         not successful.
+   */
+  public double getValue ()
+  {
+    return m_dValue;
+  }
+
+  /**
+   * @return The unit of the last successful scan. <code>null</code> if the value has no unit or if
+   *         the last scan was not successful.
+   */
+  @Nullable
+  public ECSSUnit getUnit ()
+  {
+    return m_eUnit;
+  }
+
+  /**
+   * @return <code>true</code> if the last scan was successful and the value has a unit.
+   */
+  public boolean hasUnit ()
+  {
+    return m_eUnit != null;
+  }
+
+  /**
+   * @return The start offset of the number (including the sign) of the last successful scan or -1.
+   */
+  int getScannedNumberStart ()
+  {
+    return m_nNumberStart;
+  }
+
+  /**
+   * @return The end offset of the number of the last successful scan or -1.
+   */
+  int getScannedNumberEnd ()
+  {
+    return m_nNumberEnd;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.CSSSourceLocation;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSSelector;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.DefaultCSSVisitor;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for classes {@link CSSBinaryReader} and {@link CSSBinaryWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSBinaryReaderTest
+{
+  @NonNull
+  private static ICommonsList <CSSSourceLocation> _getAllSourceLocations (@NonNull final CascadingStyleSheet aCSS)
+  {
+    final ICommonsList <CSSSourceLocation> ret = new CommonsArrayList <> ();
+    ret.add (aCSS.getSourceLocation ());
+    CSSVisitor.visitCSS (aCSS, new DefaultCSSVisitor ()
+    {
+      @Override
+      public void onDeclaration (@NonNull final CSSDeclaration aDeclaration)
+      {
+        ret.add (aDeclaration.getSourceLocation ());
+        ret.add (aDeclaration.getExpression ().getSourceLocation ());
+      }
+
+      @Override
+      public void onBeginStyleRule (@NonNull final CSSStyleRule aStyleRule)
+      {
+        ret.add (aStyleRule.getSourceLocation ());
+      }
+
+      @Override
+      public void onStyleRuleSelector (@NonNull final CSSSelector aSelector)
+      {
+        ret.add (aSelector.getSourceLocation ());
+      }
+    });
+    return ret;
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("@import url(a.css) screen;" +
+                                                               "div > p.x[title~=\"a\" i]:not(.y){color:red!important;width:calc(100% - 2*3px)}" +
+                                                               "@media print and (min-width:10px){a{margin:0 auto}}" +
+                                                               "@supports (display:grid) and (not (display:inline-grid)){b{grid-template-columns:[a] 1fr [b]}}" +
+                                                               "@font-face{font-family:x;src:url(x.woff)}" +
+                                                               "@keyframes k{from{top:0}50%{top:1px}}" +
+                                                               "@page :first{margin:1in;@top-left{content:'x'}}" +
+                                                               "@layer base{c{color:blue}}" +
+                                                               "p{color:red;&:hover{color:green}}");
+    assertNotNull (aCSS);
+
+    for (final boolean bSourceLocations : new boolean [] { true, false })
+    {
+      final byte [] aBytes = new CSSBinaryWriter (bSourceLocations).getAsBytes (aCSS);
+      final CascadingStyleSheet aRead = CSSBinaryReader.readFromBytes (aBytes);
+      assertNotNull (aRead);
+      assertEquals (aCSS, aRead);
+      assertEquals (new CSSWriter ().getCSSAsString (aCSS), new CSSWriter ().getCSSAsString (aRead));
+      if (bSourceLocations)
+        assertEquals (_getAllSourceLocations (aCSS), _getAllSourceLocations (aRead));
+      else
+        assertNull (aRead.getSourceLocation ());
+
+      // Reading from a stream gives the same result
+      assertEquals (aRead, CSSBinaryReader.readFromStream (new NonBlockingByteArrayInputStream (aBytes)));
+      // Writing again gives the same bytes
+      assertArrayEquals (aBytes, new CSSBinaryWriter (bSourceLocations).getAsBytes (aRead));
+    }
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    assertNull (CSSBinaryReader.readFromBytes (new byte [0]));
+    assertNull (CSSBinaryReader.readFromBytes ("div{color:red}".getBytes (StandardCharsets.ISO_8859_1)));
+
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("div{color:red}");
+    assertNotNull (aCSS);
+    final byte [] aBytes = new CSSBinaryWriter ().getAsBytes (aCSS);
+
+    // Unsupported version
+    final byte [] aWrongVersion = aBytes.clone ();
+    aWrongVersion[4] = (byte) (CSSBinaryFormat.CURRENT_VERSION + 1);
+    assertNull (CSSBinaryReader.readFromBytes (aWrongVersion));
+
+    // Truncated data
+    for (int i = 0; i < aBytes.length; ++i)
+    {
+      final byte [] aTruncated = new byte [i];
+      System.arraycopy (aBytes, 0, aTruncated, 0, i);
+      assertNull (CSSBinaryReader.readFromBytes (aTruncated));
+    }
+  }
+
+  @Test
+  public void testRoundTripAllGoodFiles ()
+  {
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final String sKey = aFile.getAbsolutePath ();
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, StandardCharsets.UTF_8);
+      assertNotNull (sKey, aCSS);
+
+      final byte [] aBytes = new CSSBinaryWriter ().getAsBytes (aCSS);
+      final CascadingStyleSheet aRead = CSSBinaryReader.readFromBytes (aBytes);
+      assertNotNull (sKey, aRead);
+      assertEquals (sKey, aCSS, aRead);
+      assertEquals (sKey, _getAllSourceLocations (aCSS), _getAllSourceLocations (aRead));
+
+      // Without source locations the output is smaller
+      final byte [] aBytesNoLoc = new CSSBinaryWriter (false).getAsBytes (aCSS);
+      assertTrue (sKey, aBytesNoLoc.length < aBytes.length);
+      assertEquals (sKey, aCSS, CSSBinaryReader.readFromBytes (aBytesNoLoc));
+    }
+  }
+}
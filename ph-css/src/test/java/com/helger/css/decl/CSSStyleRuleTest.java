@@ -17,9 +17,13 @@
 package com.helger.css.decl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.ref.WeakReference;
+
 import com.helger.css.reader.CSSReaderSettings;
 import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
 import org.jspecify.annotations.NonNull;
@@ -464,4 +468,30 @@ public final class CSSStyleRuleTest
     assertEquals (0, aSR.getDeclarationCount ());
     assertEquals (0, aSR.getRuleCount ());
   }
+
+  @Test
+  public void testDeferredContentIsReleased ()
+  {
+    final CSSStyleRule aSR = new CSSStyleRule ();
+    aSR.addSelector (new CSSSelectorSimpleMember ("div"));
+    final int [] aCalls = { 0 };
+    CSSStyleRule.IDeferredContent aContent = (aDeclarationConsumer, aRuleConsumer) -> {
+      aCalls[0]++;
+      aDeclarationConsumer.accept (new CSSDeclaration ("color", CSSExpression.createSimple ("red")));
+    };
+    final WeakReference <CSSStyleRule.IDeferredContent> aRef = new WeakReference <> (aContent);
+    aSR.setDeferredContent (aContent);
+    aContent = null;
+
+    assertFalse (aSR.isContentLoaded ());
+    assertEquals (1, aSR.getDeclarationCount ());
+    assertTrue (aSR.isContentLoaded ());
+    assertEquals (1, aSR.getDeclarationCount ());
+    assertEquals (1, aCalls[0]);
+
+    // The rule no longer references the callback (and therefore the source nodes)
+    for (int i = 0; i < 10 && aRef.get () != null; ++i)
+      System.gc ();
+    assertNull (aRef.get ());
+  }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSUnit;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSExpressionMemberTermSimple;
+import com.helger.css.decl.CSSSelectorSimpleMember;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSStringInterner}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSStringInternerTest
+{
+  @Test
+  public void testIntern ()
+  {
+    assertNull (CSSStringInterner.intern (null));
+
+    // Predefined
+    assertSame (ECSSProperty.COLOR.getName (), CSSStringInterner.intern (new String ("color")));
+    assertSame (ECSSUnit.PX.getName (), CSSStringInterner.intern (new String ("px")));
+
+    // Dynamic
+    final String s = CSSStringInterner.intern (new String (".my-class"));
+    assertSame (s, CSSStringInterner.intern (new String (".my-class")));
+
+    // Too long
+    final String sLong = "a".repeat (CSSStringInterner.MAX_LENGTH + 1);
+    assertSame (sLong, CSSStringInterner.intern (sLong));
+    assertNotSame (sLong, CSSStringInterner.intern (new String (sLong)));
+  }
+
+  @Test
+  public void testParsedStyleSheet ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (".x{color:red;width:auto}\n.x{color:red;width:auto}");
+    assertNotNull (aCSS);
+    final CSSStyleRule aRule1 = aCSS.getAllStyleRules ().get (0);
+    final CSSStyleRule aRule2 = aCSS.getAllStyleRules ().get (1);
+    assertEquals (aRule1, aRule2);
+
+    final CSSDeclaration aDecl1 = aRule1.getDeclarationAtIndex (0);
+    final CSSDeclaration aDecl2 = aRule2.getDeclarationAtIndex (0);
+    assertSame (ECSSProperty.COLOR.getName (), aDecl1.getProperty ());
+    assertSame (aDecl1.getProperty (), aDecl2.getProperty ());
+    assertTrue (aDecl1.hasProperty (ECSSProperty.COLOR));
+    assertSame (((CSSExpressionMemberTermSimple) aDecl1.getExpression ().getMemberAtIndex (0)).getValue (),
+                ((CSSExpressionMemberTermSimple) aDecl2.getExpression ().getMemberAtIndex (0)).getValue ());
+    assertSame (((CSSSelectorSimpleMember) aRule1.getSelectorAtIndex (0).getMemberAtIndex (0)).getValue (),
+                ((CSSSelectorSimpleMember) aRule2.getSelectorAtIndex (0).getMemberAtIndex (0)).getValue ());
+
+    // The property is lowercased before it is interned
+    final CascadingStyleSheet aCSS2 = CSSReader.readFromString (".x{COLOR:red;Width:auto}");
+    assertNotNull (aCSS2);
+    final CSSStyleRule aRule3 = aCSS2.getAllStyleRules ().get (0);
+    assertSame (ECSSProperty.COLOR.getName (), aRule3.getDeclarationAtIndex (0).getProperty ());
+    assertSame (aDecl1.getProperty (), aRule3.getDeclarationAtIndex (0).getProperty ());
+    assertSame (aRule1.getDeclarationAtIndex (1).getProperty (), aRule3.getDeclarationAtIndex (1).getProperty ());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link CSSByteBufferCharStream}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSByteBufferCharStreamTest
+{
+  @NonNull
+  private static String _readAll (@NonNull final String sSrc, @NonNull final Charset aCharset)
+  {
+    final CSSByteBufferCharStream aCS = new CSSByteBufferCharStream (ByteBuffer.wrap (sSrc.getBytes (aCharset)), aCharset);
+    final StringBuilder aSB = new StringBuilder ();
+    try
+    {
+      while (true)
+        aSB.append (aCS.readChar ());
+    }
+    catch (final IOException ex)
+    {
+      // EOF
+    }
+    return aSB.toString ();
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final String sSrc = "div{content:\"äöü € 😀\"}\np { color : red }";
+    assertEquals (sSrc, _readAll (sSrc, StandardCharsets.UTF_8));
+    assertEquals (sSrc, _readAll (sSrc, StandardCharsets.UTF_16BE));
+    assertEquals ("", _readAll ("", StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testSurrogatePairAtBufferEnd ()
+  {
+    // The surrogate pair does not fit into the remaining char buffer
+    for (int nPrefix = 4090; nPrefix < 4100; ++nPrefix)
+    {
+      final String sSrc = "a".repeat (nPrefix) + "😀" + "b".repeat (10);
+      assertEquals (sSrc, _readAll (sSrc, StandardCharsets.UTF_8));
+      assertEquals (sSrc, _readAll (sSrc, StandardCharsets.UTF_16BE));
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingStringReader;
+
+/**
+ * Test class for class {@link CSSCharSequenceCharStream}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSCharSequenceCharStreamTest
+{
+  private static void _assertSameAsReaderStream (final String sSrc, final int nTabSize)
+  {
+    final CharStream aExpected = new CSSCharStream (new NonBlockingStringReader (sSrc));
+    aExpected.setTabSize (nTabSize);
+    final CharStream aActual = new CSSCharSequenceCharStream (sSrc);
+    aActual.setTabSize (nTabSize);
+
+    int nToken = 0;
+    while (true)
+    {
+      char cExpected;
+      try
+      {
+        cExpected = aExpected.beginToken ();
+      }
+      catch (final IOException ex)
+      {
+        try
+        {
+          aActual.beginToken ();
+          throw new IllegalStateException ("EOF expected");
+        }
+        catch (final IOException ex2)
+        {
+          // expected
+        }
+        break;
+      }
+      try
+      {
+        assertEquals (cExpected, aActual.beginToken ());
+
+        // Read a varying number of chars and back up some of them
+        final int nRead = nToken % 7;
+        for (int i = 0; i < nRead; ++i)
+          assertEquals (aExpected.readChar (), aActual.readChar ());
+        final int nBackup = nToken % 3 == 0 ? Math.min (nRead, 2) : 0;
+        aExpected.backup (nBackup);
+        aActual.backup (nBackup);
+      }
+      catch (final IOException ex)
+      {
+        // EOF inside a token
+      }
+
+      assertEquals (aExpected.getBeginLine (), aActual.getBeginLine ());
+      assertEquals (aExpected.getBeginColumn (), aActual.getBeginColumn ());
+      assertEquals (aExpected.getEndLine (), aActual.getEndLine ());
+      assertEquals (aExpected.getEndColumn (), aActual.getEndColumn ());
+      assertEquals (aExpected.getImage (), aActual.getImage ());
+      assertArrayEquals (aExpected.getSuffix (1), aActual.getSuffix (1));
+      ++nToken;
+    }
+  }
+
+  @Test
+  public void testSameAsReaderStream ()
+  {
+    for (final int nTabSize : new int [] { 1, 4, 8 })
+    {
+      _assertSameAsReaderStream ("", nTabSize);
+      _assertSameAsReaderStream ("a", nTabSize);
+      _assertSameAsReaderStream ("div{color:red}", nTabSize);
+      _assertSameAsReaderStream ("div {\n\tcolor: red;\n}\n", nTabSize);
+      _assertSameAsReaderStream ("\r\n\r\n\ta\r\rb\n\r\tc\t\td\n", nTabSize);
+      _assertSameAsReaderStream ("/* comment */\r\n@media print {\r\n  p { margin : 0 }\r\n}", nTabSize);
+    }
+  }
+
+  @Test
+  public void testBackwardsPositions () throws IOException
+  {
+    final CSSCharSequenceCharStream aCS = new CSSCharSequenceCharStream ("ab\ncd\r\nef");
+    for (int i = 0; i < 8; ++i)
+      aCS.readChar ();
+    assertEquals (3, aCS.getEndLine ());
+    assertEquals (1, aCS.getEndColumn ());
+
+    // Go back to the first line
+    aCS.backup (7);
+    assertEquals (1, aCS.getEndLine ());
+    assertEquals (1, aCS.getEndColumn ());
+
+    // And to the middle line
+    for (int i = 0; i < 5; ++i)
+      aCS.readChar ();
+    assertEquals (2, aCS.getEndLine ());
+    assertEquals (3, aCS.getEndColumn ());
+  }
+}
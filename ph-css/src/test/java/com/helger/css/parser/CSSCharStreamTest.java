@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingStringReader;
+import com.helger.base.io.streamprovider.StringReaderProvider;
+import com.helger.css.decl.CSSExpressionMemberTermURI;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+
+/**
+ * Test class for class {@link CSSCharStream}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSCharStreamTest
+{
+  @Test
+  public void testHugeToken () throws IOException
+  {
+    final int nPrefixLen = 3000;
+    final int nTokenLen = 3 * 1024 * 1024;
+    final String sSrc = " ".repeat (nPrefixLen) + "a".repeat (nTokenLen);
+
+    final CSSCharStream aCS = new CSSCharStream (new NonBlockingStringReader (sSrc));
+    // Move the token start into the middle of the ring buffer
+    for (int i = 0; i < nPrefixLen; ++i)
+      assertEquals (' ', aCS.beginToken ());
+
+    assertEquals ('a', aCS.beginToken ());
+    for (int i = 1; i < nTokenLen; ++i)
+      assertEquals ('a', aCS.readChar ());
+
+    assertEquals (1, aCS.getBeginLine ());
+    assertEquals (nPrefixLen + 1, aCS.getBeginColumn ());
+    assertEquals (1, aCS.getEndLine ());
+    assertEquals (nPrefixLen + nTokenLen, aCS.getEndColumn ());
+    assertEquals (nTokenLen, aCS.getImage ().length ());
+
+    // Backup and re-read must still work
+    aCS.backup (10);
+    assertEquals (nPrefixLen + nTokenLen - 10, aCS.getEndColumn ());
+    for (int i = 0; i < 10; ++i)
+      assertEquals ('a', aCS.readChar ());
+    assertEquals (nTokenLen, aCS.getImage ().length ());
+    aCS.done ();
+  }
+
+  @Test
+  public void testHugeDataURL ()
+  {
+    final String sData = "data:font/woff2;base64," + "A".repeat (2 * 1024 * 1024);
+    final String sCSS = "@font-face{font-family:x;src:url(" + sData + ")}";
+    final CascadingStyleSheet aCSS = CSSReader.readFromReader (new StringReaderProvider (sCSS),
+                                                               new CSSReaderSettings ());
+    assertNotNull (aCSS);
+    final CSSExpressionMemberTermURI aURI = (CSSExpressionMemberTermURI) aCSS.getAllFontFaceRules ()
+                                                                             .getFirstOrNull ()
+                                                                             .getDeclarationAtIndex (1)
+                                                                             .getExpression ()
+                                                                             .getMemberAtIndex (0);
+    assertEquals (sData, aURI.getURIString ());
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import com.helger.css.CSSSourceLocation;
+
+/**
+ * Test class for class {@link CSSNode}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSNodeTest
+{
+  @Test
+  public void testText ()
+  {
+    final CSSNode aNode = new CSSNode (0);
+    assertFalse (aNode.isNotEmpty ());
+    assertNull (aNode.getText ());
+
+    aNode.appendText ("a");
+    assertTrue (aNode.isNotEmpty ());
+    assertEquals ("a", aNode.getText ());
+    aNode.appendText ("b");
+    aNode.appendText ("c");
+    assertTrue (aNode.isNotEmpty ());
+    assertEquals ("abc", aNode.getText ());
+    aNode.appendText ("d");
+    assertEquals ("abcd", aNode.getText ());
+
+    aNode.setText ("x");
+    assertEquals ("x", aNode.getText ());
+    aNode.setText (null);
+    assertFalse (aNode.isNotEmpty ());
+
+    // Closing the node finishes the text, so reading does not create new strings
+    aNode.appendText ("a");
+    aNode.appendText ("b");
+    aNode.jjtClose ();
+    final String sText = aNode.getText ();
+    assertEquals ("ab", sText);
+    assertSame (sText, aNode.getText ());
+  }
+
+  @Test
+  public void testChildren ()
+  {
+    final CSSNode aNode = new CSSNode (0);
+    assertFalse (aNode.iterator ().hasNext ());
+
+    final CSSNode aChild0 = new CSSNode (1);
+    final CSSNode aChild2 = new CSSNode (2);
+    aNode.jjtAddChild (aChild2, 2);
+    aNode.jjtAddChild (aChild0, 0);
+    assertEquals (3, aNode.jjtGetNumChildren ());
+
+    // null children are skipped
+    final Iterator <CSSNode> it = aNode.iterator ();
+    assertTrue (it.hasNext ());
+    assertSame (aChild0, it.next ());
+    assertTrue (it.hasNext ());
+    assertSame (aChild2, it.next ());
+    assertFalse (it.hasNext ());
+  }
+
+  @Test
+  public void testPositions ()
+  {
+    final CSSNode aNode = new CSSNode (0);
+    assertNull (aNode.getSourceLocation ());
+    assertFalse (aNode.hasFirstToken ());
+    assertEquals (-1, aNode.getFirstTokenBeginLine ());
+    assertEquals (-1, aNode.getFirstTokenBeginColumn ());
+    assertFalse (aNode.hasLastToken ());
+
+    final Token aFirst = new Token (1, "a");
+    aFirst.beginLine = 1;
+    aFirst.beginColumn = 2;
+    aFirst.endLine = 3;
+    aFirst.endColumn = 4;
+    // Must not be retained
+    aFirst.next = new Token (1, "b");
+    aNode.jjtSetFirstToken (aFirst);
+
+    final Token aLast = new Token (1, "c");
+    aLast.beginLine = 100000;
+    aLast.beginColumn = 200000;
+    aLast.endLine = 300000;
+    aLast.endColumn = 400000;
+    aNode.jjtSetLastToken (aLast);
+
+    assertTrue (aNode.hasFirstToken ());
+    assertEquals (1, aNode.getFirstTokenBeginLine ());
+    assertEquals (2, aNode.getFirstTokenBeginColumn ());
+    assertEquals (3, aNode.getFirstTokenEndLine ());
+    assertEquals (4, aNode.getFirstTokenEndColumn ());
+    assertTrue (aNode.hasLastToken ());
+    assertEquals (100000, aNode.getLastTokenBeginLine ());
+    assertEquals (200000, aNode.getLastTokenBeginColumn ());
+    assertEquals (300000, aNode.getLastTokenEndLine ());
+    assertEquals (400000, aNode.getLastTokenEndColumn ());
+
+    final CSSSourceLocation aLoc = aNode.getSourceLocation ();
+    assertNotNull (aLoc);
+    assertEquals (1, aLoc.getFirstTokenBeginLineNumber ());
+    assertEquals (2, aLoc.getFirstTokenBeginColumnNumber ());
+    assertEquals (3, aLoc.getFirstTokenEndLineNumber ());
+    assertEquals (4, aLoc.getFirstTokenEndColumnNumber ());
+    assertEquals (100000, aLoc.getLastTokenBeginLineNumber ());
+    assertEquals (200000, aLoc.getLastTokenBeginColumnNumber ());
+    assertEquals (300000, aLoc.getLastTokenEndLineNumber ());
+    assertEquals (400000, aLoc.getLastTokenEndColumnNumber ());
+  }
+}
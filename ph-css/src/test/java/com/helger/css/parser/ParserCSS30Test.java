@@ -86,4 +86,14 @@ public final class ParserCSS30Test extends AbstractCSSTestCase
     assertEquals (1, aCSS.getAllImportRules ().size ());
     assertEquals (0, aCSS.getAllRules ().size ());
   }
+
+  @Test
+  public void testNoJavaUnicodeEscape ()
+  {
+    // A backslash followed by "u0041" is a CSS escape of "u" and not a Java escape of "A"
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("div{content:\"\\u0041\"}");
+    assertNotNull (aCSS);
+    assertEquals ("\"\\u0041\"",
+                  aCSS.getStyleRuleAtIndex (0).getDeclarationAtIndex (0).getExpression ().getAsCSSString ());
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+import com.helger.io.resource.FileSystemResource;
+
+/**
+ * Test class for class {@link CSSBatchReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSBatchReaderTest
+{
+  @Test
+  public void testReadAllPaths ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8);
+    final ICommonsList <Path> aPaths = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+      aPaths.add (aFile.toPath ());
+
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final CSSBatchReadResult <?, ?> [] aResults = new CSSBatchReadResult <?, ?> [aPaths.size ()];
+      final CSSBatchReadSummary aSummary = new CSSBatchReader (aSettings, aES, 3, new CSSParserPool ()).readAllPaths (aPaths,
+                                                                                                                      r -> aResults[r.getIndex ()] = r);
+      assertEquals (aPaths.size (), aSummary.getSourceCount ());
+      assertEquals (aPaths.size (), aSummary.getSuccessCount ());
+      assertEquals (0, aSummary.getFailureCount ());
+      assertFalse (aSummary.isInterrupted ());
+
+      final CSSReaderSettings aCmpSettings = aSettings.getClone ().setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+      for (int i = 0; i < aPaths.size (); ++i)
+      {
+        final Path aPath = aPaths.get (i);
+        final CSSBatchReadResult <?, ?> aResult = aResults[i];
+        assertNotNull (aPath.toString (), aResult);
+        assertEquals (aPath, aResult.getSource ());
+        assertTrue (aResult.isSuccess ());
+        assertFalse (aResult.hasParseExceptions ());
+        assertEquals (aPath.toString (), CSSReader.readFromFile (aPath.toFile (), aCmpSettings), aResult.getResult ());
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testReadAllStreamsWithErrors ()
+  {
+    final ICommonsList <FileSystemResource> aSources = new CommonsArrayList <> ();
+    aSources.add (new FileSystemResource ("src/test/resources/testfiles/css30/good/issue35.css"));
+    aSources.add (new FileSystemResource ("src/test/resources/testfiles/css30/good/does-not-exist.css"));
+
+    final ICommonsList <CSSBatchReadResult <?, CascadingStyleSheet>> aResults = new CommonsArrayList <> ();
+    // Run in the calling thread
+    final CSSBatchReadSummary aSummary = new CSSBatchReader (new CSSReaderSettings (), Runnable::run, 1, null).readAllStreams (aSources,
+                                                                                                                           aResults::add);
+    assertEquals (2, aSummary.getSourceCount ());
+    assertEquals (1, aSummary.getSuccessCount ());
+    assertEquals (1, aSummary.getFailureCount ());
+    assertEquals (2, aResults.size ());
+
+    final CascadingStyleSheet aCSS = aResults.get (0).getResult ();
+    assertNotNull (aCSS);
+    assertNull (aResults.get (1).getResult ());
+    assertFalse (aResults.get (1).hasParseErrors ());
+    assertFalse (aResults.get (1).hasParseExceptions ());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+
+/**
+ * Test class for class {@link CSSCharsetHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSCharsetHelperTest
+{
+  @Test
+  public void testGetQuotedCharsetName ()
+  {
+    assertEquals ("\"UTF-8\"", CSSCharsetHelper.getQuotedCharsetName ("@charset \"UTF-8\";"));
+    assertEquals ("'utf-8'", CSSCharsetHelper.getQuotedCharsetName ("@CHARSET 'utf-8';div{}"));
+    assertEquals ("\"UTF-8\"", CSSCharsetHelper.getQuotedCharsetName (" <!-- /* x */\n@charset  \"UTF-8\" ;"));
+    assertEquals ("\"a\\\"b\"", CSSCharsetHelper.getQuotedCharsetName ("@charset \"a\\\"b\";"));
+
+    assertNull (CSSCharsetHelper.getQuotedCharsetName (""));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("div{}"));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("@charset\"UTF-8\";"));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("@charset UTF-8;"));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("@charset \"UTF-8\""));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("@charset \"UTF-8"));
+    assertNull (CSSCharsetHelper.getQuotedCharsetName ("/* unterminated @charset \"UTF-8\";"));
+  }
+
+  @Test
+  public void testSniff ()
+  {
+    final String sCSS = "@charset \"UTF-8\";\ndiv{content:\"äöü\"}";
+    final byte [] aBytes = sCSS.getBytes (StandardCharsets.UTF_8);
+
+    final CSSCharsetHelper.InputStreamAndDeclaredCharset aRes = CSSCharsetHelper.getInputStreamAndDeclaredCharset (new NonBlockingByteArrayInputStream (aBytes),
+                                                                                                                   32);
+    assertTrue (aRes.hasCharset ());
+    assertEquals (StandardCharsets.UTF_8, aRes.getCharset ());
+    // All bytes must still be available
+    assertEquals (sCSS, new String (StreamHelper.getAllBytes (aRes.getInputStream ()), StandardCharsets.UTF_8));
+
+    final CSSCharsetHelper.InputStreamAndDeclaredCharset aRes2 = CSSCharsetHelper.getInputStreamAndDeclaredCharset (new NonBlockingByteArrayInputStream ("div{}".getBytes (StandardCharsets.ISO_8859_1)));
+    assertFalse (aRes2.hasCharset ());
+  }
+
+  @Test
+  public void testReadFromNonReopenableStream ()
+  {
+    final String sCSS = "@charset \"UTF-8\";\ndiv{content:\"äöü\"}";
+    // The fallback charset would break the umlauts
+    final CascadingStyleSheet aCSS = CSSReader.readFromStream (new NonBlockingByteArrayInputStream (sCSS.getBytes (StandardCharsets.UTF_8)),
+                                                               new CSSReaderSettings ().setFallbackCharset (StandardCharsets.ISO_8859_1));
+    assertNotNull (aCSS);
+    assertEquals (1, aCSS.getStyleRuleCount ());
+    final CSSStyleRule aRule = aCSS.getStyleRuleAtIndex (0);
+    assertEquals ("\"äöü\"", aRule.getDeclarationAtIndex (0).getExpression ().getAsCSSString ());
+  }
+}
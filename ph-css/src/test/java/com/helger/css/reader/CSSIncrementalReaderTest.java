@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.helger.css.ICSSSourceLocationAware;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for class {@link CSSIncrementalReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSIncrementalReaderTest
+{
+  private static CSSReaderSettings _createSettings ()
+  {
+    return new CSSReaderSettings ().setCustomErrorHandler (new DoNothingCSSParseErrorHandler ())
+                                   .setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ())
+                                   .setUseSourceLocation (true);
+  }
+
+  /**
+   * Apply the edit and compare the result with a complete parse of the new text.
+   */
+  private static void _edit (final CSSIncrementalReader aReader,
+                             final int nOffset,
+                             final int nRemovedLength,
+                             final String sInsertedText)
+  {
+    final boolean bSuccess = aReader.applyEdit (nOffset, nRemovedLength, sInsertedText).isSuccess ();
+    final String sText = aReader.getText ();
+    final CascadingStyleSheet aExpected = new CSSParser (_createSettings ()).readFromString (sText);
+    assertEquals (sText, aExpected != null, bSuccess);
+    if (bSuccess)
+    {
+      assertEquals (sText, aExpected, aReader.getCascadingStyleSheet ());
+      // The current source locations are the ones of a complete parse
+      for (int i = 0; i < aExpected.getRuleCount (); ++i)
+        assertEquals (sText,
+                      ((ICSSSourceLocationAware) aExpected.getRuleAtIndex (i)).getSourceLocation (),
+                      aReader.getRuleSourceLocation (i));
+    }
+  }
+
+  private static void _assertSameSourceLocation (final String sCSS, final ICSSTopLevelRule aExpected, final ICSSTopLevelRule aRule)
+  {
+    assertEquals (sCSS,
+                  ((ICSSSourceLocationAware) aExpected).getSourceLocation (),
+                  ((ICSSSourceLocationAware) aRule).getSourceLocation ());
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final CSSIncrementalReader aReader = CSSIncrementalReader.readFromString (_createSettings (),
+                                                                              null,
+                                                                              "@import 'x';\na{color:red}\nb{color:blue}\nc{}\n");
+    assertNotNull (aReader);
+    final CascadingStyleSheet aCSS = aReader.getCascadingStyleSheet ();
+    assertEquals (3, aCSS.getRuleCount ());
+    final ICSSTopLevelRule aRuleA = aCSS.getRuleAtIndex (0);
+    final ICSSTopLevelRule aRuleB = aCSS.getRuleAtIndex (1);
+    final ICSSTopLevelRule aRuleC = aCSS.getRuleAtIndex (2);
+
+    // Edit inside of rule b: "blue" to "green"
+    _edit (aReader, 34, 4, "green");
+    assertSame (aCSS, aReader.getCascadingStyleSheet ());
+    assertSame (aRuleA, aCSS.getRuleAtIndex (0));
+    assertNotSame (aRuleB, aCSS.getRuleAtIndex (1));
+    assertSame (aRuleC, aCSS.getRuleAtIndex (2));
+    // The re-parsed rule has the correct source location
+    final String sText = aReader.getText ();
+    final CascadingStyleSheet aExpected = new CSSParser (_createSettings ()).readFromString (sText);
+    _assertSameSourceLocation (sText, aExpected.getRuleAtIndex (1), aCSS.getRuleAtIndex (1));
+
+    // Insert a new rule between a and b
+    _edit (aReader, 25, 0, "d{}");
+    assertEquals (4, aCSS.getRuleCount ());
+    assertSame (aRuleA, aCSS.getRuleAtIndex (0));
+    assertSame (aRuleC, aCSS.getRuleAtIndex (3));
+
+    // Delete the new rule again
+    _edit (aReader, 25, 3, "");
+    assertEquals (3, aCSS.getRuleCount ());
+    assertSame (aRuleA, aCSS.getRuleAtIndex (0));
+    assertSame (aRuleC, aCSS.getRuleAtIndex (2));
+
+    // Edit in the first rule, after the @import
+    _edit (aReader, 15, 0, " ");
+    assertSame (aRuleC, aCSS.getRuleAtIndex (2));
+  }
+
+  @Test
+  public void testLineChange ()
+  {
+    final String sCSS = "a{}\nb{x:y}\n\tc{}  d{}\ne{}";
+    final CSSIncrementalReader aReader = CSSIncrementalReader.readFromString (_createSettings (), null, sCSS);
+    assertNotNull (aReader);
+    final CascadingStyleSheet aCSS = aReader.getCascadingStyleSheet ();
+    final ICSSTopLevelRule aRuleE = aCSS.getRuleAtIndex (4);
+
+    // Add lines to rule b
+    _edit (aReader, 6, 0, "\n\n");
+    // Change the column of c and d
+    _edit (aReader, 13, 1, "  ");
+    assertSame (aRuleE, aCSS.getRuleAtIndex (4));
+
+    // Edits after the changed lines must still find the correct rules
+    _edit (aReader, aReader.getText ().indexOf ("d{}") + 2, 0, "z:1");
+    _edit (aReader, aReader.getText ().indexOf ("c{}") + 2, 0, "z:2");
+    assertSame (aRuleE, aCSS.getRuleAtIndex (4));
+
+    // The re-parsed rules have the correct source locations
+    final String sText = aReader.getText ();
+    final CascadingStyleSheet aExpected = new CSSParser (_createSettings ()).readFromString (sText);
+    _assertSameSourceLocation (sText, aExpected.getRuleAtIndex (2), aCSS.getRuleAtIndex (2));
+    _assertSameSourceLocation (sText, aExpected.getRuleAtIndex (3), aCSS.getRuleAtIndex (3));
+    assertFalse (aReader.isRuleSourceLocationStale (2));
+    assertFalse (aReader.isRuleSourceLocationStale (3));
+
+    // The unchanged rule e moved by two lines
+    assertTrue (aReader.isRuleSourceLocationStale (4));
+    assertNotEquals (((ICSSSourceLocationAware) aExpected.getRuleAtIndex (4)).getSourceLocation (),
+                     ((ICSSSourceLocationAware) aRuleE).getSourceLocation ());
+    assertEquals (((ICSSSourceLocationAware) aExpected.getRuleAtIndex (4)).getSourceLocation (),
+                  aReader.getRuleSourceLocation (4));
+    assertTrue (aReader.isStyleSheetSourceLocationStale ());
+  }
+
+  @Test
+  public void testNestedSourceLocation ()
+  {
+    final String sCSS = "a{} b{\tcolor:red;\n  margin:\t0}\n@media print{c{x:y}}";
+    final CSSIncrementalReader aReader = CSSIncrementalReader.readFromString (_createSettings (), null, sCSS);
+    assertNotNull (aReader);
+    final CascadingStyleSheet aCSS = aReader.getCascadingStyleSheet ();
+    final CSSStyleRule aRuleB = (CSSStyleRule) aCSS.getRuleAtIndex (1);
+    assertFalse (aReader.isRuleSourceLocationStale (1));
+
+    // Move rule b to the next line after a tab - the columns in the first line of b change by
+    // different amounts because of the tab in b
+    _edit (aReader, 3, 0, "\n\t");
+    assertSame (aRuleB, aCSS.getRuleAtIndex (1));
+    assertTrue (aReader.isRuleSourceLocationStale (1));
+
+    final String sText = aReader.getText ();
+    final CascadingStyleSheet aExpected = new CSSParser (_createSettings ()).readFromString (sText);
+    final CSSStyleRule aExpectedB = (CSSStyleRule) aExpected.getRuleAtIndex (1);
+    for (int i = 0; i < aRuleB.getDeclarationCount (); ++i)
+      assertEquals (sText,
+                    aExpectedB.getDeclarationAtIndex (i).getSourceLocation (),
+                    aReader.getCurrentSourceLocation (1, aRuleB.getDeclarationAtIndex (i)));
+    assertEquals (aExpectedB.getSelectorAtIndex (0).getSourceLocation (),
+                  aReader.getCurrentSourceLocation (1, aRuleB.getSelectorAtIndex (0)));
+
+    // Not part of the rule
+    assertNull (aReader.getCurrentSourceLocation (2, aRuleB.getDeclarationAtIndex (0)));
+
+    // An @import after a rule leads to a complete parse, that updates all source locations
+    _edit (aReader, 3, 0, "@import 'x';");
+    assertFalse (aReader.isStyleSheetSourceLocationStale ());
+    for (int i = 0; i < aCSS.getRuleCount (); ++i)
+      assertFalse (aReader.isRuleSourceLocationStale (i));
+  }
+
+  @Test
+  public void testFallbackToCompleteParse ()
+  {
+    final CSSIncrementalReader aReader = CSSIncrementalReader.readFromString (_createSettings (), null, "a{}\nb{}\nc{}");
+    assertNotNull (aReader);
+    final CascadingStyleSheet aCSS = aReader.getCascadingStyleSheet ();
+
+    // Unbalanced brace - everything is parsed again
+    _edit (aReader, 5, 1, "");
+    // Unterminated comment that hides the following rules
+    _edit (aReader, 4, 0, "/*");
+    _edit (aReader, 4, 2, "");
+    // Restore
+    _edit (aReader, 5, 0, "{");
+    assertEquals (3, aCSS.getRuleCount ());
+
+    // @import in the middle of the style sheet
+    _edit (aReader, 4, 0, "@import 'x';");
+    _edit (aReader, 4, 12, "");
+    assertEquals (3, aCSS.getRuleCount ());
+  }
+
+  @Test
+  public void testAllGoodFiles () throws IOException
+  {
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final String sCSS = new String (Files.readAllBytes (aFile.toPath ()), StandardCharsets.UTF_8);
+      final CSSIncrementalReader aReader = CSSIncrementalReader.readFromString (_createSettings (), null, sCSS);
+      assertNotNull (aFile.getAbsolutePath (), aReader);
+
+      final int nLen = sCSS.length ();
+      // Insert and remove line breaks and spaces at different positions
+      for (final int nOffset : new int [] { nLen / 2, nLen / 3, nLen - 1, 0 })
+        if (nOffset >= 0)
+        {
+          _edit (aReader, nOffset, 0, "\n ");
+          _edit (aReader, nOffset, 2, "");
+        }
+      assertEquals (aFile.getAbsolutePath (), sCSS, aReader.getText ());
+    }
+  }
+}
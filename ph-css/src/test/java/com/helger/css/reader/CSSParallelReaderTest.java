@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.helger.css.ICSSSourceLocationAware;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
+import com.helger.css.reader.errorhandler.CSSParseError;
+import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for class {@link CSSParallelReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSParallelReaderTest
+{
+  private static void _assertSame (final String sMsg, final CascadingStyleSheet aExpected, final CascadingStyleSheet aCSS)
+  {
+    assertEquals (sMsg, aExpected, aCSS);
+    if (aExpected != null)
+    {
+      assertEquals (sMsg, aExpected.getSourceLocation (), aCSS.getSourceLocation ());
+      for (int i = 0; i < aExpected.getRuleCount (); ++i)
+      {
+        final ICSSTopLevelRule aRule = aExpected.getRuleAtIndex (i);
+        if (aRule instanceof ICSSSourceLocationAware)
+          assertEquals (sMsg,
+                        ((ICSSSourceLocationAware) aRule).getSourceLocation (),
+                        ((ICSSSourceLocationAware) aCSS.getRuleAtIndex (i)).getSourceLocation ());
+      }
+    }
+  }
+
+  private static String [] _getErrorMessages (final CollectingCSSParseErrorHandler aErrorHdl)
+  {
+    return aErrorHdl.getAllParseErrors ().getAllMapped (CSSParseError::getErrorMessage).toArray (new String [0]);
+  }
+
+  @Test
+  public void testSameAsSequential () throws IOException
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+      {
+        final String sCSS = new String (Files.readAllBytes (aFile.toPath ()), StandardCharsets.UTF_8);
+
+        final CollectingCSSParseErrorHandler aExpectedErrors = new CollectingCSSParseErrorHandler ();
+        final CascadingStyleSheet aExpected = new CSSParser (new CSSReaderSettings ().setCustomErrorHandler (aExpectedErrors)
+                                                                                     .setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ())).readFromString (sCSS);
+
+        // Use the smallest chunk size, to split as often as possible
+        final CollectingCSSParseErrorHandler aErrors = new CollectingCSSParseErrorHandler ();
+        final CascadingStyleSheet aCSS = new CSSParallelReader (new CSSReaderSettings ().setCustomErrorHandler (aErrors)
+                                                                                        .setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ()),
+                                                                aES,
+                                                                1,
+                                                                null).readFromString (sCSS);
+        final String sMsg = aFile.getAbsolutePath ();
+        _assertSame (sMsg, aExpected, aCSS);
+        assertArrayEquals (sMsg, _getErrorMessages (aExpectedErrors), _getErrorMessages (aErrors));
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testChunkBoundaries ()
+  {
+    assertArrayEquals (new int [0], CSSTopLevelSplitter.getChunkStartOffsets ("", 1));
+    assertArrayEquals (new int [0], CSSTopLevelSplitter.getChunkStartOffsets ("a{}  ", 1));
+    assertArrayEquals (new int [] { 3 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{} b{}", 1));
+    assertArrayEquals (new int [] { 7 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{} b{} c{}", 5));
+    // Braces in strings, comments and URLs are ignored
+    assertArrayEquals (new int [] { 24 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{b:'}';c:url(x}y)/*}*/} d{}", 1));
+    // Never start a chunk with @charset, @import or @namespace
+    assertArrayEquals (new int [] { 20 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{} @IMPORT 'x'; b{} c{}", 1));
+    assertArrayEquals (new int [] { 3 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{} @media x{b{}} -->", 1));
+    // Stop at unbalanced braces and unterminated strings
+    assertArrayEquals (new int [] { 3 }, CSSTopLevelSplitter.getChunkStartOffsets ("a{} b{}} c{} d{}", 1));
+    assertArrayEquals (new int [0], CSSTopLevelSplitter.getChunkStartOffsets ("a{b:'x\n} c{}", 1));
+  }
+
+  @Test
+  public void testMisplacedImport ()
+  {
+    final String sCSS = "@import 'a';\na{}\n\tb{}\n@import 'b';\nc{}";
+    final CollectingCSSParseErrorHandler aExpectedErrors = new CollectingCSSParseErrorHandler ();
+    final CascadingStyleSheet aExpected = new CSSParser (new CSSReaderSettings ().setCustomErrorHandler (aExpectedErrors)).readFromString (sCSS);
+    assertNotNull (aExpected);
+    assertEquals (1, aExpectedErrors.getParseErrorCount ());
+
+    final CollectingCSSParseErrorHandler aErrors = new CollectingCSSParseErrorHandler ();
+    final CascadingStyleSheet aCSS = new CSSParallelReader (new CSSReaderSettings ().setCustomErrorHandler (aErrors),
+                                                            Runnable::run,
+                                                            1,
+                                                            null).readFromString (sCSS);
+    _assertSame (sCSS, aExpected, aCSS);
+    assertArrayEquals (_getErrorMessages (aExpectedErrors), _getErrorMessages (aErrors));
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for class {@link CSSParseCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSParseCacheTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache));
+    assertSame (aCache, aParser.getParseCache ());
+
+    final String sCSS = "div{color:red}p{margin:0}";
+    final CascadingStyleSheet aCSS1 = aParser.readFromString (sCSS);
+    assertNotNull (aCSS1);
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (1, aCache.getEntryCount ());
+
+    // Modifying the result does not modify the cache
+    aCSS1.getAllStyleRules ().get (0).removeAllDeclarations ();
+
+    final CascadingStyleSheet aCSS2 = aParser.readFromString (sCSS);
+    assertNotNull (aCSS2);
+    assertNotSame (aCSS1, aCSS2);
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (1, aCSS2.getAllStyleRules ().get (0).getDeclarationCount ());
+    assertEquals (new CSSParser (new CSSReaderSettings ()).readFromString (sCSS), aCSS2);
+
+    // Declaration lists are cached separately
+    final CSSDeclarationList aDecls = aParser.readDeclarationListFromString ("color:red");
+    assertNotNull (aDecls);
+    assertEquals (1, aDecls.getDeclarationCount ());
+    assertEquals (2, aCache.getMissCount ());
+    assertNotNull (aParser.readDeclarationListFromString ("color:red"));
+    assertEquals (2, aCache.getHitCount ());
+    assertEquals (2, aCache.getEntryCount ());
+
+    // Different settings use different entries
+    final CSSParser aParser2 = new CSSParser (new CSSReaderSettings ().setParseCache (aCache)
+                                                                      .setBrowserCompliantMode (true));
+    assertNotNull (aParser2.readFromString (sCSS));
+    assertEquals (3, aCache.getMissCount ());
+    assertEquals (3, aCache.getEntryCount ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.getEntryCount ());
+    assertEquals (0, aCache.getEstimatedBytes ());
+  }
+
+  @Test
+  public void testParserEngine ()
+  {
+    // The cache always uses the tree engine
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache)
+                                                                     .setParserEngine (ECSSParserEngine.DIRECT));
+    final String sCSS = "@import 'a.css';div{color:red}@media print{p{margin:0}}";
+    final CascadingStyleSheet aExpected = new CSSParser (new CSSReaderSettings ()).readFromString (sCSS);
+    assertEquals (aExpected, aParser.readFromString (sCSS));
+    assertEquals (aExpected, aParser.readFromString (sCSS));
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (1, aCache.getEntryCount ());
+  }
+
+  @Test
+  public void testLongSource ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    while (aSB.length () <= CSSParseCache.MAX_STRING_KEY_LENGTH)
+      aSB.append (".a").append (aSB.length ()).append ("{color:red}");
+    final String sCSS = aSB.toString ();
+
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache));
+    final CascadingStyleSheet aCSS = aParser.readFromString (sCSS);
+    assertNotNull (aCSS);
+    assertEquals (aCSS, aParser.readFromString (sCSS));
+    assertEquals (1, aCache.getHitCount ());
+    // A different source with the same length
+    assertNotNull (aParser.readFromString (sCSS.replace ("red", "tan")));
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (2, aCache.getEntryCount ());
+  }
+
+  @Test
+  public void testSharedBetweenThreads () throws Exception
+  {
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache)
+                                                                     .setLazyDeclarations (true));
+    final String sCSS = "div,p{color:red;margin:0 1px;&:hover{color:blue}}@media print{a{color:red}}";
+    final CascadingStyleSheet aExpected = new CSSParser (new CSSReaderSettings ()).readFromString (sCSS);
+
+    // Fill the cache
+    final CascadingStyleSheet aFirst = aParser.readFromString (sCSS);
+    assertNotNull (aFirst);
+    assertFalse (aFirst.getAllStyleRules ().get (0).isContentLoaded ());
+    assertEquals (aExpected, aFirst);
+
+    final int nCount = 200;
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <Future <CascadingStyleSheet>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < nCount; ++i)
+        aFutures.add (aES.submit ( () -> aParser.readFromString (sCSS)));
+      for (final Future <CascadingStyleSheet> aFuture : aFutures)
+        assertEquals (aExpected, aFuture.get ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+    assertEquals (nCount, aCache.getHitCount ());
+    assertEquals (1, aCache.getEntryCount ());
+  }
+
+  @Test
+  public void testErrorsAreNotCached ()
+  {
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache)
+                                                                     .setBrowserCompliantMode (true)
+                                                                     .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ()));
+    final String sCSS = "p { background: lime; }\np, { background: red; }";
+    aParser.readFromString (sCSS);
+    aParser.readFromString (sCSS);
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (0, aCache.getEntryCount ());
+  }
+
+  @Test
+  public void testEviction ()
+  {
+    final CSSParseCache aCache = new CSSParseCache (2, CSSParseCache.DEFAULT_MAX_ESTIMATED_BYTES);
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setParseCache (aCache));
+    aParser.readFromString ("a{color:red}");
+    aParser.readFromString ("b{color:red}");
+    // Makes "a" the most recently used
+    aParser.readFromString ("a{color:red}");
+    aParser.readFromString ("c{color:red}");
+    assertEquals (2, aCache.getEntryCount ());
+    assertEquals (1, aCache.getEvictionCount ());
+    assertEquals (1, aCache.getHitCount ());
+
+    // "b" was evicted
+    aParser.readFromString ("b{color:red}");
+    assertEquals (1, aCache.getHitCount ());
+    aParser.readFromString ("c{color:red}");
+    assertEquals (2, aCache.getHitCount ());
+
+    // Too large for the cache at all
+    final CSSParseCache aSmallCache = new CSSParseCache (10, 100);
+    new CSSParser (new CSSReaderSettings ().setParseCache (aSmallCache)).readFromString ("a{color:red;margin:0}");
+    assertEquals (0, aSmallCache.getEntryCount ());
+  }
+
+  @Test
+  public void testSameAsUncached ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+    final CSSParser aCachingParser = new CSSParser (aSettings.getClone ().setParseCache (new CSSParseCache ()));
+
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final String sCSS = new CSSWriter ().getCSSAsString (aParser.readFromFile (aFile));
+      final CascadingStyleSheet aExpected = aParser.readFromString (sCSS);
+      assertNotNull (aFile.getAbsolutePath (), aExpected);
+      // Miss and hit
+      assertEquals (aFile.getAbsolutePath (), aExpected, aCachingParser.readFromString (sCSS));
+      assertEquals (aFile.getAbsolutePath (), aExpected, aCachingParser.readFromString (sCSS));
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingStringReader;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for class {@link CSSParserPool}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSParserPoolTest
+{
+  @Test
+  public void testReuse ()
+  {
+    final CSSParserPool aPool = new CSSParserPool (1);
+    assertEquals (1, aPool.getMaxSize ());
+    assertEquals (0, aPool.getIdleParserCount ());
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+    final CSSParser aPooledParser = new CSSParser (aSettings, aPool);
+
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = aParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+
+      // Via String and Reader
+      final String sCSS = new CSSWriter ().getCSSAsString (aCSS);
+      assertEquals (aFile.getAbsolutePath (), aParser.readFromString (sCSS), aPooledParser.readFromString (sCSS));
+      assertEquals (aFile.getAbsolutePath (),
+                    aParser.readFromString (sCSS),
+                    aPooledParser.readFromReader (new NonBlockingStringReader (sCSS)));
+      assertEquals (1, aPool.getIdleParserCount ());
+      assertEquals (1, aPool.getIdleCharStreamCount ());
+    }
+  }
+
+  @Test
+  public void testDeclarationList ()
+  {
+    final CSSParserPool aPool = new CSSParserPool ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings (), aPool);
+    for (int i = 0; i < 100; ++i)
+    {
+      final CSSDeclarationList aDecls = aParser.readDeclarationListFromString ("color:red;margin:" + i + "px");
+      assertNotNull (aDecls);
+      assertEquals (2, aDecls.getDeclarationCount ());
+      assertEquals (i + "px", aDecls.getDeclarationAtIndex (1).getExpressionAsCSSString ());
+    }
+    assertEquals (1, aPool.getIdleParserCount ());
+    assertEquals (0, aPool.getIdleCharStreamCount ());
+  }
+
+  @Test
+  public void testRecursiveDescentParser ()
+  {
+    final CSSParserPool aPool = new CSSParserPool (1);
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ())
+                                                                .setParserImplementation (ECSSParserImplementation.RECURSIVE_DESCENT);
+    final CSSParser aParser = new CSSParser (aSettings);
+    final CSSParser aPooledParser = new CSSParser (aSettings, aPool);
+
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = aParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+      assertEquals (aFile.getAbsolutePath (), aCSS, aPooledParser.readFromFile (aFile));
+      assertEquals (0, aPool.getIdleParserCount ());
+      assertEquals (1, aPool.getIdleRecursiveDescentParserCount ());
+    }
+
+    // Declaration lists with the same pooled parser
+    for (int i = 0; i < 10; ++i)
+    {
+      final CSSDeclarationList aDecls = aPooledParser.readDeclarationListFromString ("color:red;margin:" + i + "px");
+      assertNotNull (aDecls);
+      assertEquals (2, aDecls.getDeclarationCount ());
+    }
+    assertEquals (1, aPool.getIdleRecursiveDescentParserCount ());
+  }
+
+  @Test
+  public void testHugeTokenIsNotKept ()
+  {
+    final CSSParserPool aPool = new CSSParserPool (4);
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings (), aPool);
+
+    final String sHuge = "div{background:url(data:image/png;base64," + "A".repeat (100_000) + ")}";
+    assertNotNull (aParser.readFromReader (new NonBlockingStringReader (sHuge)));
+    // The char stream is reused with a regular sized buffer
+    final CascadingStyleSheet aCSS = aParser.readFromReader (new NonBlockingStringReader ("p{color:red}"));
+    assertNotNull (aCSS);
+    assertEquals (1, aCSS.getStyleRuleCount ());
+    assertEquals (1, aPool.getIdleCharStreamCount ());
+  }
+}
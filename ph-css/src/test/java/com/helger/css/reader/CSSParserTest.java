@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.ICSSWriteable;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.ICSSVisitor;
+import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
+import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+import com.helger.io.resource.FileSystemResource;
+
+/**
+ * Test class for class {@link CSSParser}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSParserTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSParserTest.class);
+
+  @Test
+  public void testSettingsAreCopied ()
+  {
+    final DoNothingCSSParseErrorHandler aErrorHdl = new DoNothingCSSParseErrorHandler ();
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCustomErrorHandler (aErrorHdl).setTabSize (4);
+    final CSSParser aParser = new CSSParser (aSettings);
+    aSettings.setCustomErrorHandler (null).setTabSize (2).setUseSourceLocation (false);
+
+    assertSame (aErrorHdl, aParser.getParseErrorHandler ());
+    assertEquals (4, aParser.getTabSize ());
+    assertEquals (CSSReaderSettings.DEFAULT_USE_SOURCE_LOCATION, aParser.isUseSourceLocation ());
+    assertNotNull (aParser.getParseExceptionHandler ());
+    assertNotNull (aParser.getInterpretErrorHandler ());
+
+    // No source location without positions
+    assertFalse (new CSSParser (new CSSReaderSettings ().setTrackPositions (false)).isUseSourceLocation ());
+  }
+
+  @Test
+  public void testReadFromString ()
+  {
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ());
+    final CascadingStyleSheet aCSS = aParser.readFromString ("div{color:red}p{color:blue}");
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getStyleRuleCount ());
+  }
+
+  @Test
+  public void testSharedBetweenThreads () throws Exception
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+
+    final ICommonsList <File> aFiles = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+      aFiles.add (aFile);
+
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <Future <CascadingStyleSheet>> aFutures = new CommonsArrayList <> ();
+      for (final File aFile : aFiles)
+        aFutures.add (aES.submit ( () -> aParser.readFromFile (aFile)));
+
+      for (int i = 0; i < aFiles.size (); ++i)
+      {
+        final File aFile = aFiles.get (i);
+        final CascadingStyleSheet aCSS = aFutures.get (i).get ();
+        assertNotNull (aFile.getAbsolutePath (), aCSS);
+        assertEquals (aFile.getAbsolutePath (), CSSReader.readFromFile (aFile, aSettings), aCSS);
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testReadFromChannel () throws Exception
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+
+    final ExecutorService aES = Executors.newFixedThreadPool (2);
+    try
+    {
+      for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+      {
+        final CascadingStyleSheet aExpected = aParser.readFromFile (aFile);
+        assertNotNull (aFile.getAbsolutePath (), aExpected);
+
+        try (final SeekableByteChannel aChannel = Files.newByteChannel (aFile.toPath ()))
+        {
+          assertEquals (aFile.getAbsolutePath (), aExpected, aParser.readFromChannel (aChannel));
+        }
+        try (final SeekableByteChannel aChannel = Files.newByteChannel (aFile.toPath ()))
+        {
+          assertEquals (aFile.getAbsolutePath (), aExpected, aParser.readFromChannelAsync (aChannel, aES).get ());
+        }
+        try (final AsynchronousFileChannel aChannel = AsynchronousFileChannel.open (aFile.toPath (), StandardOpenOption.READ))
+        {
+          assertEquals (aFile.getAbsolutePath (), aExpected, aParser.readFromChannelAsync (aChannel, aES).get ());
+        }
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  private static void _assertReadFromChannel (@NonNull final CSSParser aParser,
+                                              @NonNull final String sCSS,
+                                              @NonNull final ExecutorService aES) throws Exception
+  {
+    final CascadingStyleSheet aExpected = aParser.readFromString (sCSS);
+    assertNotNull (aExpected);
+
+    final Path aPath = Files.createTempFile ("ph-css", ".css");
+    try
+    {
+      Files.write (aPath, sCSS.getBytes (StandardCharsets.UTF_8));
+      try (final SeekableByteChannel aChannel = Files.newByteChannel (aPath))
+      {
+        assertEquals (aExpected, aParser.readFromChannel (aChannel));
+      }
+      try (final AsynchronousFileChannel aChannel = AsynchronousFileChannel.open (aPath, StandardOpenOption.READ))
+      {
+        assertEquals (aExpected, aParser.readFromChannelAsync (aChannel, aES).get ());
+      }
+    }
+    finally
+    {
+      Files.delete (aPath);
+    }
+  }
+
+  @Test
+  public void testReadLargeFromChannel () throws Exception
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+
+    final ExecutorService aES = Executors.newFixedThreadPool (2);
+    try
+    {
+      // More than three chunks of ASCII
+      final StringBuilder aSB = new StringBuilder ();
+      while (aSB.length () < 300 * 1024)
+        aSB.append ("a{color:red}\n");
+      _assertReadFromChannel (aParser, aSB.toString (), aES);
+
+      // 4 byte characters after an odd prefix, so that every chunk boundary splits a character
+      final String sCSS = "p{content:\"" + "😀".repeat (60 * 1024) + "\"}";
+      _assertReadFromChannel (aParser, sCSS, aES);
+      final CascadingStyleSheet aCSS = aParser.readFromString (sCSS);
+      assertEquals (60 * 1024 * 2 + 2,
+                    aCSS.getStyleRuleAtIndex (0).getDeclarationAtIndex (0).getExpression ().getAsCSSString ().length ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @NonNull
+  private static ICSSVisitor _createRecordingVisitor (@NonNull final ICommonsList <String> aTarget)
+  {
+    return (ICSSVisitor) Proxy.newProxyInstance (ICSSVisitor.class.getClassLoader (),
+                                                 new Class <?> [] { ICSSVisitor.class },
+                                                 (aProxy, aMethod, aArgs) -> {
+                                                   if (aArgs == null)
+                                                     aTarget.add (aMethod.getName ());
+                                                   else
+                                                     aTarget.add (aMethod.getName () +
+                                                                  ":" +
+                                                                  ((ICSSWriteable) aArgs[0]).getAsCSSString ());
+                                                   return null;
+                                                 });
+  }
+
+  @Test
+  public void testVisitTopLevelRules ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = aParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+
+      final ICommonsList <String> aExpected = new CommonsArrayList <> ();
+      CSSVisitor.visitCSS (aCSS, _createRecordingVisitor (aExpected));
+
+      final ICommonsList <String> aActual = new CommonsArrayList <> ();
+      assertTrue (aParser.visitTopLevelRulesFromPath (aFile.toPath (), _createRecordingVisitor (aActual)).isSuccess ());
+      assertEquals (aFile.getAbsolutePath (), aExpected, aActual);
+    }
+
+    // Rules are visited in source order
+    final String sCSS = "@import 'a.css';div{color:red}@media print{p{margin:0}}";
+    final ICommonsList <String> aExpected = new CommonsArrayList <> ();
+    CSSVisitor.visitCSS (aParser.readFromString (sCSS), _createRecordingVisitor (aExpected));
+    assertEquals (13, aExpected.size ());
+    final ICommonsList <String> aActual = new CommonsArrayList <> ();
+    assertTrue (aParser.visitTopLevelRulesFromString (sCSS, _createRecordingVisitor (aActual)).isSuccess ());
+    assertEquals (aExpected, aActual);
+  }
+
+  @Test
+  public void testLazyDeclarations ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+    final CSSParser aLazyParser = new CSSParser (aSettings.getClone ().setLazyDeclarations (true));
+    assertFalse (aParser.isLazyDeclarations ());
+    assertTrue (aLazyParser.isLazyDeclarations ());
+
+    final CSSWriter aWriter = new CSSWriter ().setWriteHeaderText (false);
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aExpected = aParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aExpected);
+
+      // Writing materializes everything
+      final CascadingStyleSheet aLazy = aLazyParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aLazy);
+      assertEquals (aFile.getAbsolutePath (), aWriter.getCSSAsString (aExpected), aWriter.getCSSAsString (aLazy));
+
+      // Comparing materializes everything
+      assertEquals (aFile.getAbsolutePath (), aExpected, aLazyParser.readFromFile (aFile));
+
+      // Strings are parsed again from the source offsets
+      final String sCSS = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8);
+      final CascadingStyleSheet aLazyString = aLazyParser.readFromString (sCSS);
+      assertEquals (aFile.getAbsolutePath (), aParser.readFromString (sCSS), aLazyString);
+    }
+
+    final CascadingStyleSheet aCSS = aLazyParser.readFromString ("div,p{color:red;&:hover{color:blue}}\nspan{}");
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getStyleRuleCount ());
+    final CSSStyleRule aRule = aCSS.getAllStyleRules ().get (0);
+    // Selectors are read eagerly
+    assertEquals ("div,p", aRule.getSelectorsAsCSSString (aWriter.getSettings (), 0));
+    assertFalse (aRule.isContentLoaded ());
+    assertEquals (1, aRule.getDeclarationCount ());
+    assertTrue (aRule.isContentLoaded ());
+    assertEquals ("color", aRule.getDeclarationAtIndex (0).getProperty ());
+    assertEquals (1, aRule.getRuleCount ());
+    // Source locations are retained
+    assertEquals (1, aRule.getDeclarationAtIndex (0).getSourceLocation ().getFirstTokenBeginLineNumber ());
+    assertEquals (7, aRule.getDeclarationAtIndex (0).getSourceLocation ().getFirstTokenBeginColumnNumber ());
+    // Empty blocks are not deferred
+    assertTrue (aCSS.getAllStyleRules ().get (1).isContentLoaded ());
+
+    // Source locations of content that is parsed again
+    final String sTabs = "a{}\r\n\tdiv ,\tp {\tcolor : red ;\r\n\t\tmargin:0\r}";
+    final CSSStyleRule aEagerRule = aParser.readFromString (sTabs).getAllStyleRules ().get (1);
+    final CSSStyleRule aLazyRule = aLazyParser.readFromString (sTabs).getAllStyleRules ().get (1);
+    assertFalse (aLazyRule.isContentLoaded ());
+    assertEquals (aEagerRule, aLazyRule);
+    for (int i = 0; i < 2; ++i)
+      assertEquals (aEagerRule.getDeclarationAtIndex (i).getSourceLocation (),
+                    aLazyRule.getDeclarationAtIndex (i).getSourceLocation ());
+  }
+
+  private static long _getUsedHeap ()
+  {
+    final Runtime aRT = Runtime.getRuntime ();
+    for (int i = 0; i < 3; ++i)
+      System.gc ();
+    return aRT.totalMemory () - aRT.freeMemory ();
+  }
+
+  @Test
+  public void testLazyDeclarationsRetainedHeap ()
+  {
+    final int nRuleCount = 20_000;
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < nRuleCount; ++i)
+      aSB.append (".u")
+         .append (i)
+         .append (" > a:hover{margin:")
+         .append (i)
+         .append ("px;color:#")
+         .append (i % 1000)
+         .append (";padding:1px 2px 3px 4px}\n");
+    final String sCSS = aSB.toString ();
+    final CSSReaderSettings aSettings = new CSSReaderSettings ();
+
+    long nHeapBefore = _getUsedHeap ();
+    final CascadingStyleSheet aEager = new CSSParser (aSettings).readFromString (sCSS);
+    final long nEagerBytes = _getUsedHeap () - nHeapBefore;
+    assertNotNull (aEager);
+    assertEquals (nRuleCount, aEager.getStyleRuleCount ());
+    assertTrue (aEager.getStyleRuleAtIndex (0).isContentLoaded ());
+
+    nHeapBefore = _getUsedHeap ();
+    final CascadingStyleSheet aLazy = new CSSParser (aSettings.getClone ().setLazyDeclarations (true)).readFromString (sCSS);
+    final long nLazyBytes = _getUsedHeap () - nHeapBefore;
+    assertNotNull (aLazy);
+    assertEquals (nRuleCount, aLazy.getStyleRuleCount ());
+    assertFalse (aLazy.getStyleRuleAtIndex (0).isContentLoaded ());
+    LOGGER.info ("Retained heap for " + nRuleCount + " rules: eager " + nEagerBytes + " bytes, lazy " + nLazyBytes + " bytes");
+
+    // Only the selectors and the offsets of the declaration blocks are retained
+    assertTrue ("Eager " + nEagerBytes + " bytes, lazy " + nLazyBytes + " bytes", nLazyBytes < nEagerBytes / 2);
+    assertEquals (aEager.getStyleRuleAtIndex (nRuleCount - 1), aLazy.getStyleRuleAtIndex (nRuleCount - 1));
+  }
+
+  @Test
+  public void testParserEngineDirect ()
+  {
+    for (final String sDir : new String [] { "good", "bad_but_browsercompliant" })
+    {
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                  .setBrowserCompliantMode (true)
+                                                                  .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+      final CSSParser aParser = new CSSParser (aSettings);
+      final CSSParser aDirectParser = new CSSParser (aSettings.getClone ().setParserEngine (ECSSParserEngine.DIRECT));
+      assertSame (ECSSParserEngine.TREE, aParser.getParserEngine ());
+      assertSame (ECSSParserEngine.DIRECT, aDirectParser.getParserEngine ());
+
+      for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/" + sDir)).withFilter (IFileFilter.filenameEndsWith (".css")))
+      {
+        final CascadingStyleSheet aExpected = aParser.readFromFile (aFile);
+        final CascadingStyleSheet aDirect = aDirectParser.readFromFile (aFile);
+        assertEquals (aFile.getAbsolutePath (), aExpected, aDirect);
+        // After an error recovery the tree engine uses the location of the retry
+        if (aExpected != null && sDir.equals ("good"))
+          assertEquals (aFile.getAbsolutePath (), aExpected.getSourceLocation (), aDirect.getSourceLocation ());
+      }
+    }
+  }
+
+  @Test
+  public void testRecursiveDescentParser ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8);
+    assertEquals (ECSSParserImplementation.GENERATED, new CSSParser (aSettings).getParserImplementation ());
+    assertEquals (ECSSParserImplementation.RECURSIVE_DESCENT,
+                  new CSSParser (aSettings.getClone ()
+                                          .setParserImplementation (ECSSParserImplementation.RECURSIVE_DESCENT)).getParserImplementation ());
+
+    for (final boolean bBrowserCompliantMode : new boolean [] { false, true })
+      for (final ECSSParserEngine eEngine : ECSSParserEngine.values ())
+        for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30")).withFilter (IFileFilter.filenameEndsWith (".css")))
+        {
+          final String sKey = aFile.getAbsolutePath () + " - " + bBrowserCompliantMode + " - " + eEngine;
+          final CollectingCSSParseErrorHandler aErrorHdl = new CollectingCSSParseErrorHandler ();
+          final CollectingCSSParseErrorHandler aRDErrorHdl = new CollectingCSSParseErrorHandler ();
+          final CSSReaderSettings aFileSettings = aSettings.getClone ()
+                                                           .setBrowserCompliantMode (bBrowserCompliantMode)
+                                                           .setParserEngine (eEngine)
+                                                           .setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ());
+          final CascadingStyleSheet aExpected = new CSSParser (aFileSettings.getClone ()
+                                                                            .setCustomErrorHandler (aErrorHdl)).readFromFile (aFile);
+          final CascadingStyleSheet aRD = new CSSParser (aFileSettings.getClone ()
+                                                                      .setCustomErrorHandler (aRDErrorHdl)
+                                                                      .setParserImplementation (ECSSParserImplementation.RECURSIVE_DESCENT)).readFromFile (aFile);
+          assertEquals (sKey, aExpected, aRD);
+          if (aExpected != null)
+            assertEquals (sKey, aExpected.getSourceLocation (), aRD.getSourceLocation ());
+          // Same errors at the same places
+          assertEquals (sKey, aErrorHdl.getParseErrorCount (), aRDErrorHdl.getParseErrorCount ());
+        }
+  }
+}
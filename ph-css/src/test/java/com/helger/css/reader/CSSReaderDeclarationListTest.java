@@ -22,6 +22,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 
 import com.helger.collection.commons.CommonsArrayList;
@@ -95,4 +98,78 @@ public final class CSSReaderDeclarationListTest
     assertNotNull (aDecl);
     assertEquals ("background", aDecl.getProperty ());
   }
+
+  @Test
+  public void testReadAllFromStrings ()
+  {
+    final ICommonsList <String> aSources = new CommonsArrayList <> ();
+    aSources.addAll (VALID);
+    aSources.addAll (INVALID);
+
+    final ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> aResults = CSSReaderDeclarationList.readAllFromStrings (aSources,
+                                                                                                                                 new CSSReaderSettings ());
+    assertEquals (aSources.size (), aResults.size ());
+    for (int i = 0; i < aSources.size (); ++i)
+    {
+      final CSSBatchReadResult <String, CSSDeclarationList> aResult = aResults.get (i);
+      final String sCSS = aSources.get (i);
+      assertEquals (i, aResult.getIndex ());
+      assertEquals (sCSS, aResult.getSource ());
+      if (i < VALID.size ())
+      {
+        assertTrue (sCSS, aResult.isSuccess ());
+        assertFalse (sCSS, aResult.hasParseErrors ());
+        assertFalse (sCSS, aResult.hasParseExceptions ());
+        assertEquals (sCSS,
+                      CSSReaderDeclarationList.readFromString (sCSS).getDeclarationCount (),
+                      aResult.getResult ().getDeclarationCount ());
+      }
+      else
+        assertTrue (sCSS, !aResult.isSuccess () || aResult.hasParseErrors () || aResult.hasParseExceptions ());
+    }
+
+    // Empty input
+    assertTrue (CSSReaderDeclarationList.readAllFromStrings (new CommonsArrayList <> (), new CSSReaderSettings ())
+                                        .isEmpty ());
+  }
+
+  @Test
+  public void testReadAllFromStringsConcurrentWithCache ()
+  {
+    // Many repeated values, as in generated HTML
+    final ICommonsList <String> aSources = new CommonsArrayList <> ();
+    for (int i = 0; i < 2000; ++i)
+      aSources.add ("color:red; margin:" + (i % 10) + "px;" + (i % 3 == 0 ? " padding:0" : ""));
+
+    final CSSParseCache aCache = new CSSParseCache ();
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setParseCache (aCache);
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <CSSBatchReadResult <String, CSSDeclarationList>> aResults = CSSReaderDeclarationList.readAllFromStrings (aSources,
+                                                                                                                                   aSettings,
+                                                                                                                                   new CSSParserPool (),
+                                                                                                                                   aES);
+      assertEquals (aSources.size (), aResults.size ());
+      for (int i = 0; i < aSources.size (); ++i)
+      {
+        final CSSBatchReadResult <String, CSSDeclarationList> aResult = aResults.get (i);
+        assertEquals (i, aResult.getIndex ());
+        assertTrue (aResult.isSuccess ());
+        assertFalse (aResult.hasParseErrors ());
+        final CSSDeclarationList aList = aResult.getResult ();
+        assertEquals (i % 3 == 0 ? 3 : 2, aList.getDeclarationCount ());
+        assertEquals ((i % 10) + "px",
+                      ((CSSExpressionMemberTermSimple) aList.getDeclarationAtIndex (1)
+                                                            .getExpression ()
+                                                            .getMemberAtIndex (0)).getValue ());
+      }
+      assertTrue (aCache.getHitCount () > 0);
+      assertTrue (aCache.getEntryCount () <= 30);
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
 }
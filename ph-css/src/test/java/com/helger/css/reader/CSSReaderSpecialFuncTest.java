@@ -18,6 +18,7 @@ package com.helger.css.reader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -46,6 +47,8 @@ import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
 import com.helger.css.reader.errorhandler.LoggingCSSParseErrorHandler;
 import com.helger.css.writer.CSSWriter;
 import com.helger.css.writer.CSSWriterSettings;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
 
 /**
  * Test reading CSS 3.0 stuff
@@ -408,4 +411,49 @@ public final class CSSReaderSpecialFuncTest
     assertEquals (".tableView tr:has(>.error){position:relative}",
                   new CSSWriter (new CSSWriterSettings ().setOptimizedOutput (true)).getCSSAsString (aCSS));
   }
+
+  @Test
+  public void testReadFromPath ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+
+      // Memory mapped version must deliver the same result
+      final CascadingStyleSheet aCSS2 = CSSReader.readFromPath (aFile.toPath (), aSettings);
+      assertEquals (aFile.getAbsolutePath (), aCSS, aCSS2);
+    }
+
+    // Non-existing file
+    assertNull (CSSReader.readFromPath (new File ("src/test/resources/testfiles/does-not-exist.css").toPath (),
+                                        aSettings));
+  }
+
+  @Test
+  public void testReadWithoutPositions ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSReaderSettings aSettingsNoPos = aSettings.getClone ().setTrackPositions (false);
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+
+      // Same content, just without positions
+      final CascadingStyleSheet aCSS2 = CSSReader.readFromFile (aFile, aSettingsNoPos);
+      assertEquals (aFile.getAbsolutePath (), aCSS, aCSS2);
+      for (final CSSStyleRule aRule : aCSS2.getAllStyleRules ())
+        assertNull (aRule.getSourceLocation ());
+    }
+
+    // Also for Strings
+    final CascadingStyleSheet aCSS = CSSReader.readFromStringReader ("div{color:red}\n\tp{color:blue}", aSettingsNoPos);
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getStyleRuleCount ());
+    assertNull (aCSS.getStyleRuleAtIndex (1).getSourceLocation ());
+  }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Test class for class {@link CSSTopLevelRuleIterator}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSTopLevelRuleIteratorTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (CSSTopLevelRuleIteratorTest.class);
+
+  /**
+   * A reader that creates a large style sheet on the fly, without keeping it in memory.
+   */
+  private static final class GeneratingReader extends Reader
+  {
+    private final int m_nRuleCount;
+    private int m_nRuleIndex = 0;
+    private String m_sCurrent = "";
+    private int m_nCurrentPos = 0;
+
+    GeneratingReader (final int nRuleCount)
+    {
+      m_nRuleCount = nRuleCount;
+    }
+
+    @Override
+    public int read (@NonNull final char [] aBuf, final int nOfs, final int nLen)
+    {
+      if (m_nCurrentPos == m_sCurrent.length ())
+      {
+        if (m_nRuleIndex == m_nRuleCount)
+          return -1;
+        m_sCurrent = ".u" + m_nRuleIndex + " > a:hover{margin:" + m_nRuleIndex + "px;color:#" + (m_nRuleIndex % 1000) + "}\n";
+        m_nCurrentPos = 0;
+        m_nRuleIndex++;
+      }
+      final int nCount = Math.min (nLen, m_sCurrent.length () - m_nCurrentPos);
+      m_sCurrent.getChars (m_nCurrentPos, m_nCurrentPos + nCount, aBuf, nOfs);
+      m_nCurrentPos += nCount;
+      return nCount;
+    }
+
+    @Override
+    public void close ()
+    {}
+  }
+
+  private static long _getUsedHeap ()
+  {
+    final Runtime aRT = Runtime.getRuntime ();
+    for (int i = 0; i < 3; ++i)
+      System.gc ();
+    return aRT.totalMemory () - aRT.freeMemory ();
+  }
+
+  @Test
+  public void testSameAsFullRead ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setFallbackCharset (StandardCharsets.UTF_8)
+                                                                .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ());
+    final CSSParser aParser = new CSSParser (aSettings);
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = aParser.readFromFile (aFile);
+      assertNotNull (aFile.getAbsolutePath (), aCSS);
+
+      final ICommonsList <ICSSTopLevelRule> aRules = new CommonsArrayList <> ();
+      try (final CSSTopLevelRuleIterator it = aParser.iterateRules (aFile.toPath ()))
+      {
+        assertNotNull (it);
+        it.forEachRemaining (aRules::add);
+      }
+      assertEquals (aFile.getAbsolutePath (), aCSS.getAllRules (), aRules);
+    }
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ());
+    try (final CSSTopLevelRuleIterator it = aParser.iterateRules ("@charset 'UTF-8';@import 'a.css';;div{color:red}}@media print{p{margin:0}}"))
+    {
+      assertTrue (it.hasNext ());
+      assertTrue (it.next () instanceof CSSStyleRule);
+      assertTrue (it.hasNext ());
+      it.next ();
+      assertFalse (it.hasNext ());
+    }
+  }
+
+  @Test
+  public void testSyntaxCrapAfterRule ()
+  {
+    // An illegal character after a rule is ignored like in a full read
+    final String sCSS = "div{color:red}\n`p{color:blue}";
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setCustomErrorHandler (new DoNothingCSSParseErrorHandler ()));
+    final CascadingStyleSheet aCSS = aParser.readFromString (sCSS);
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getRuleCount ());
+
+    final ICommonsList <ICSSTopLevelRule> aRules = new CommonsArrayList <> ();
+    try (final CSSTopLevelRuleIterator it = aParser.iterateRules (sCSS))
+    {
+      it.forEachRemaining (aRules::add);
+    }
+    assertEquals (aCSS.getAllRules (), aRules);
+  }
+
+  @Test
+  public void testWithPool ()
+  {
+    final CSSParserPool aPool = new CSSParserPool ();
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings (), aPool);
+    for (int i = 0; i < 3; ++i)
+    {
+      try (final CSSTopLevelRuleIterator it = aParser.iterateRules ("@import 'a.css';div{color:red}"))
+      {
+        assertEquals (0, aPool.getIdleParserCount ());
+        assertTrue (it.hasNext ());
+        assertTrue (it.next () instanceof CSSStyleRule);
+        assertFalse (it.hasNext ());
+      }
+      // Returned to the pool
+      assertEquals (1, aPool.getIdleParserCount ());
+    }
+  }
+
+  @Test
+  public void testHeapStaysFlat ()
+  {
+    final CSSParser aParser = new CSSParser (new CSSReaderSettings ().setUseSourceLocation (false));
+
+    final int nRuleCount = 200_000;
+    long nHeapAtStart = 0;
+    long nMaxHeapDelta = 0;
+    int nCount = 0;
+    try (final CSSTopLevelRuleIterator it = aParser.iterateRules (new GeneratingReader (nRuleCount)))
+    {
+      while (it.hasNext ())
+      {
+        final CSSStyleRule aRule = (CSSStyleRule) it.next ();
+        assertEquals (2, aRule.getDeclarationCount ());
+        if (nCount == 10_000)
+          nHeapAtStart = _getUsedHeap ();
+        else
+          if (nCount > 10_000 && nCount % 50_000 == 0)
+            nMaxHeapDelta = Math.max (nMaxHeapDelta, _getUsedHeap () - nHeapAtStart);
+        ++nCount;
+      }
+    }
+    assertEquals (nRuleCount, nCount);
+    LOGGER.info ("Maximum heap growth while iterating " + nRuleCount + " rules: " + nMaxHeapDelta + " bytes");
+
+    // Keeping all rules in memory would need a multiple of that
+    assertTrue ("Heap grew by " + nMaxHeapDelta + " bytes", nMaxHeapDelta < 16 * 1024 * 1024);
+  }
+}
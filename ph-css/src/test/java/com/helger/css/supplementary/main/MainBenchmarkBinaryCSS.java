@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.supplementary.main;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.binary.CSSBinaryReader;
+import com.helger.css.binary.CSSBinaryWriter;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Compare the time needed to read all good test files from the text and from the binary
+ * representation.
+ *
+ * @author Philip Helger
+ */
+public final class MainBenchmarkBinaryCSS
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainBenchmarkBinaryCSS.class);
+  private static final int WARMUP_RUNS = 20;
+  private static final int RUNS = 50;
+
+  private static long _readText (final ICommonsList <String> aTexts)
+  {
+    long nRules = 0;
+    for (final String sCSS : aTexts)
+      nRules += CSSReader.readFromString (sCSS).getRuleCount ();
+    return nRules;
+  }
+
+  private static long _readBinary (final ICommonsList <byte []> aBinaries)
+  {
+    long nRules = 0;
+    for (final byte [] aBytes : aBinaries)
+      nRules += CSSBinaryReader.readFromBytes (aBytes).getRuleCount ();
+    return nRules;
+  }
+
+  public static void main (final String [] args)
+  {
+    final ICommonsList <String> aTexts = new CommonsArrayList <> ();
+    final ICommonsList <byte []> aBinaries = new CommonsArrayList <> ();
+    long nTextBytes = 0;
+    long nBinaryBytes = 0;
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, StandardCharsets.UTF_8);
+      if (aCSS != null)
+      {
+        final String sCSS = new CSSWriter ().getCSSAsString (aCSS);
+        final byte [] aBytes = new CSSBinaryWriter ().getAsBytes (aCSS);
+        aTexts.add (sCSS);
+        aBinaries.add (aBytes);
+        nTextBytes += sCSS.getBytes (StandardCharsets.UTF_8).length;
+        nBinaryBytes += aBytes.length;
+      }
+    }
+    LOGGER.info (aTexts.size () + " files; text: " + nTextBytes + " bytes; binary: " + nBinaryBytes + " bytes");
+
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+    {
+      _readText (aTexts);
+      _readBinary (aBinaries);
+    }
+
+    long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      _readText (aTexts);
+    final long nTextNanos = (System.nanoTime () - nStart) / RUNS;
+
+    nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      _readBinary (aBinaries);
+    final long nBinaryNanos = (System.nanoTime () - nStart) / RUNS;
+
+    LOGGER.info ("Text parsing:   " + nTextNanos / 1_000 + " us per run");
+    LOGGER.info ("Binary reading: " + nBinaryNanos / 1_000 + " us per run");
+  }
+}
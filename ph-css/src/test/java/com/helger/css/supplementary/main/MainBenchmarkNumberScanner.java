@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.supplementary.main;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.DefaultCSSVisitor;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.utils.CSSNumberHelper;
+import com.helger.css.utils.CSSNumberScanner;
+
+/**
+ * Measure the time needed to read numeric-heavy CSS (as generated by grid and animation libraries)
+ * and to convert all simple values to a number and a unit.
+ *
+ * @author Philip Helger
+ */
+public final class MainBenchmarkNumberScanner
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainBenchmarkNumberScanner.class);
+  private static final int WARMUP_RUNS = 20;
+  private static final int RUNS = 50;
+
+  private static String _createCSS ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 1; i <= 500; ++i)
+    {
+      aSB.append (".col-").append (i).append ("{flex:0 0 ").append (String.format (Locale.ROOT, "%.6f", i / 5.0)).append ("%;");
+      aSB.append ("max-width:").append (i * 0.25).append ("rem;margin:").append (i).append ("px -").append (i % 7).append ("px;");
+      aSB.append ("grid-template-columns:repeat(").append (i % 12 + 1).append (",minmax(0,1fr)) ").append (i).append ("px;}\n");
+      aSB.append ("@keyframes k").append (i).append ("{");
+      for (int j = 0; j <= 100; j += 10)
+        aSB.append (j)
+           .append ("%{opacity:")
+           .append (j / 100.0)
+           .append (";transform:translate3d(")
+           .append (j * 1.5)
+           .append ("px,0,0) rotate(")
+           .append (j * 3.6)
+           .append ("deg);animation-duration:")
+           .append (j * 12)
+           .append ("ms}");
+      aSB.append ("}\n");
+    }
+    return aSB.toString ();
+  }
+
+  private static long _readValues (final ICommonsList <String> aValues)
+  {
+    long ret = 0;
+    for (final String sValue : aValues)
+      if (CSSNumberHelper.getValueWithUnit (sValue) != null)
+        ret++;
+    return ret;
+  }
+
+  private static long _scanValues (final ICommonsList <String> aValues)
+  {
+    final CSSNumberScanner aScanner = new CSSNumberScanner ();
+    long ret = 0;
+    for (final String sValue : aValues)
+      if (aScanner.scan (sValue) && aScanner.hasUnit ())
+        ret++;
+    return ret;
+  }
+
+  private static long _measure (final Runnable aRunnable)
+  {
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+      aRunnable.run ();
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      aRunnable.run ();
+    return (System.nanoTime () - nStart) / RUNS;
+  }
+
+  public static void main (final String [] args)
+  {
+    final String sCSS = _createCSS ();
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (sCSS);
+    if (aCSS == null)
+      throw new IllegalStateException ("Failed to read generated CSS");
+
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    CSSVisitor.visitCSS (aCSS, new DefaultCSSVisitor ()
+    {
+      @Override
+      public void onDeclaration (final CSSDeclaration aDeclaration)
+      {
+        aDeclaration.getExpression ().getAllSimpleMembers ().forEach (x -> aValues.add (x.getValue ()));
+      }
+    });
+    LOGGER.info (sCSS.length () + " chars; " + aValues.size () + " simple values");
+
+    final long nReadNanos = _measure ( () -> CSSReader.readFromString (sCSS));
+    final long nValueWithUnitNanos = _measure ( () -> _readValues (aValues));
+    final long nScannerNanos = _measure ( () -> _scanValues (aValues));
+
+    LOGGER.info ("Read CSS:                         " + nReadNanos / 1_000 + " us per run");
+    LOGGER.info ("CSSNumberHelper.getValueWithUnit: " + nValueWithUnitNanos / 1_000 + " us per run");
+    LOGGER.info ("CSSNumberScanner.scan:            " + nScannerNanos / 1_000 + " us per run");
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.supplementary.main;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.DoNothingCSSParseExceptionCallback;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+import com.helger.css.reader.ECSSParserImplementation;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.css.writer.CSSWriter;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+
+/**
+ * Compare the time needed to read all good test files with the generated parser and with the
+ * hand-written recursive-descent parser, both in strict and in browser compliant mode.
+ *
+ * @author Philip Helger
+ */
+public final class MainBenchmarkRecursiveDescentParser
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainBenchmarkRecursiveDescentParser.class);
+  private static final int WARMUP_RUNS = 20;
+  private static final int RUNS = 50;
+
+  private static long _read (final ICommonsList <String> aTexts, final CSSReaderSettings aSettings)
+  {
+    long nRules = 0;
+    for (final String sCSS : aTexts)
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromStringReader (sCSS, aSettings);
+      if (aCSS != null)
+        nRules += aCSS.getRuleCount ();
+    }
+    return nRules;
+  }
+
+  private static long _measure (final ICommonsList <String> aTexts, final CSSReaderSettings aSettings)
+  {
+    final long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      _read (aTexts, aSettings);
+    return (System.nanoTime () - nStart) / RUNS;
+  }
+
+  public static void main (final String [] args)
+  {
+    final ICommonsList <String> aTexts = new CommonsArrayList <> ();
+    long nTextBytes = 0;
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, StandardCharsets.UTF_8);
+      if (aCSS != null)
+      {
+        final String sCSS = new CSSWriter ().getCSSAsString (aCSS);
+        aTexts.add (sCSS);
+        nTextBytes += sCSS.getBytes (StandardCharsets.UTF_8).length;
+      }
+    }
+    LOGGER.info (aTexts.size () + " files; " + nTextBytes + " bytes");
+
+    for (final boolean bBrowserCompliant : new boolean [] { false, true })
+    {
+      final CSSReaderSettings aGenerated = new CSSReaderSettings ().setBrowserCompliantMode (bBrowserCompliant)
+                                                                  .setCustomErrorHandler (new DoNothingCSSParseErrorHandler ())
+                                                                  .setCustomExceptionHandler (new DoNothingCSSParseExceptionCallback ());
+      final CSSReaderSettings aRecursiveDescent = aGenerated.getClone ()
+                                                            .setParserImplementation (ECSSParserImplementation.RECURSIVE_DESCENT);
+
+      for (int i = 0; i < WARMUP_RUNS; ++i)
+      {
+        _read (aTexts, aGenerated);
+        _read (aTexts, aRecursiveDescent);
+      }
+
+      final long nGeneratedNanos = _measure (aTexts, aGenerated);
+      final long nRecursiveDescentNanos = _measure (aTexts, aRecursiveDescent);
+
+      final String sMode = bBrowserCompliant ? "[browser compliant] " : "[strict] ";
+      LOGGER.info (sMode + "Generated parser:         " + nGeneratedNanos / 1_000 + " us per run");
+      LOGGER.info (sMode + "Recursive-descent parser: " + nRecursiveDescentNanos / 1_000 + " us per run");
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.supplementary.main;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.css.parser.CSSCharSequenceCharStream;
+import com.helger.css.parser.ParserCSS30Constants;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.tokenizer.CSSTokenizer;
+import com.helger.css.tokenizer.ECSSTokenType;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+import com.helger.io.resource.FileSystemResource;
+
+/**
+ * Compare the time needed to tokenize all good test files with the generated JavaCC token manager
+ * and with the {@link CSSTokenizer}.
+ *
+ * @author Philip Helger
+ */
+public final class MainBenchmarkTokenizer
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainBenchmarkTokenizer.class);
+  private static final int WARMUP_RUNS = 20;
+  private static final int RUNS = 50;
+
+  private static long _tokenizeJavaCC (final ICommonsList <String> aTexts)
+  {
+    long nTokens = 0;
+    for (final String sCSS : aTexts)
+    {
+      final ParserCSS30TokenManager aTM = new ParserCSS30TokenManager (new CSSCharSequenceCharStream (sCSS));
+      while (aTM.getNextToken ().kind != ParserCSS30Constants.EOF)
+        nTokens++;
+    }
+    return nTokens;
+  }
+
+  private static long _tokenizeSyntax3 (final ICommonsList <String> aTexts)
+  {
+    long nTokens = 0;
+    final CSSTokenizer aTokenizer = new CSSTokenizer ("");
+    for (final String sCSS : aTexts)
+    {
+      aTokenizer.reset (sCSS);
+      while (aTokenizer.next () != ECSSTokenType.EOF)
+        nTokens++;
+    }
+    return nTokens;
+  }
+
+  public static void main (final String [] args)
+  {
+    final ICommonsList <String> aTexts = new CommonsArrayList <> ();
+    long nChars = 0;
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles/css30/good")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final String sCSS = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8);
+      if (sCSS != null)
+      {
+        aTexts.add (sCSS);
+        nChars += sCSS.length ();
+      }
+    }
+    LOGGER.info (aTexts.size () + " files; " + nChars + " chars");
+    LOGGER.info ("JavaCC tokens: " + _tokenizeJavaCC (aTexts) + "; CSS Syntax 3 tokens: " + _tokenizeSyntax3 (aTexts));
+
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+    {
+      _tokenizeJavaCC (aTexts);
+      _tokenizeSyntax3 (aTexts);
+    }
+
+    long nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      _tokenizeJavaCC (aTexts);
+    final long nJavaCCNanos = (System.nanoTime () - nStart) / RUNS;
+
+    nStart = System.nanoTime ();
+    for (int i = 0; i < RUNS; ++i)
+      _tokenizeSyntax3 (aTexts);
+    final long nSyntax3Nanos = (System.nanoTime () - nStart) / RUNS;
+
+    LOGGER.info ("JavaCC token manager: " + nJavaCCNanos / 1_000 + " us per run");
+    LOGGER.info ("CSSTokenizer:         " + nSyntax3Nanos / 1_000 + " us per run");
+  }
+}
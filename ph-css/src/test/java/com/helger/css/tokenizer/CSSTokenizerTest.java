@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tokenizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.file.FileSystemRecursiveIterator;
+import com.helger.io.file.IFileFilter;
+import com.helger.io.resource.FileSystemResource;
+
+/**
+ * Test class for class {@link CSSTokenizer}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSTokenizerTest
+{
+  @NonNull
+  private static ICommonsList <ECSSTokenType> _getTypes (@NonNull final String sCSS)
+  {
+    final ICommonsList <ECSSTokenType> ret = new CommonsArrayList <> ();
+    final CSSTokenizer aTokenizer = new CSSTokenizer (sCSS);
+    ECSSTokenType eType;
+    while ((eType = aTokenizer.next ()) != ECSSTokenType.EOF)
+      ret.add (eType);
+    return ret;
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    assertEquals (new CommonsArrayList <> (ECSSTokenType.IDENT,
+                                           ECSSTokenType.LEFT_CURLY_BRACKET,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.COLON,
+                                           ECSSTokenType.HASH,
+                                           ECSSTokenType.SEMICOLON,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.COLON,
+                                           ECSSTokenType.DIMENSION,
+                                           ECSSTokenType.WHITESPACE,
+                                           ECSSTokenType.PERCENTAGE,
+                                           ECSSTokenType.WHITESPACE,
+                                           ECSSTokenType.NUMBER,
+                                           ECSSTokenType.DELIM,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.RIGHT_CURLY_BRACKET),
+                  _getTypes ("a{color:#fff;margin:-1.5e2px 10% 0!important}"));
+
+    assertEquals (new CommonsArrayList <> (ECSSTokenType.AT_KEYWORD,
+                                           ECSSTokenType.WHITESPACE,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.WHITESPACE,
+                                           ECSSTokenType.LEFT_PARENTHESIS,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.COLON,
+                                           ECSSTokenType.DIMENSION,
+                                           ECSSTokenType.RIGHT_PARENTHESIS,
+                                           ECSSTokenType.LEFT_CURLY_BRACKET,
+                                           ECSSTokenType.RIGHT_CURLY_BRACKET),
+                  _getTypes ("@media screen (min-width:10px){}"));
+
+    assertEquals (new CommonsArrayList <> (ECSSTokenType.CDO,
+                                           ECSSTokenType.COMMENT,
+                                           ECSSTokenType.CDC,
+                                           ECSSTokenType.LEFT_SQUARE_BRACKET,
+                                           ECSSTokenType.IDENT,
+                                           ECSSTokenType.DELIM,
+                                           ECSSTokenType.DELIM,
+                                           ECSSTokenType.STRING,
+                                           ECSSTokenType.RIGHT_SQUARE_BRACKET,
+                                           ECSSTokenType.COMMA,
+                                           ECSSTokenType.FUNCTION,
+                                           ECSSTokenType.NUMBER,
+                                           ECSSTokenType.RIGHT_PARENTHESIS),
+                  _getTypes ("<!--/* x */-->[a~='b'],rgb(1)"));
+    assertTrue (_getTypes ("").isEmpty ());
+  }
+
+  @Test
+  public void testValues ()
+  {
+    final CSSTokenizer aTokenizer = new CSSTokenizer ("#main #123 @\\66oo 'a\\'b\\\nc' \\31 0 1e3px -.5 +7 -- -x");
+    assertEquals (ECSSTokenType.HASH, aTokenizer.next ());
+    assertEquals ("main", aTokenizer.getValue ());
+    assertTrue (aTokenizer.isHashID ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.HASH, aTokenizer.next ());
+    assertEquals ("123", aTokenizer.getValue ());
+    assertFalse (aTokenizer.isHashID ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.AT_KEYWORD, aTokenizer.next ());
+    assertEquals ("foo", aTokenizer.getValue ());
+    assertTrue (aTokenizer.isValueEqualIgnoreCase ("FOO"));
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.STRING, aTokenizer.next ());
+    assertEquals ("a'bc", aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals ("10", aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.DIMENSION, aTokenizer.next ());
+    assertEquals ("1e3", aTokenizer.getNumberText ());
+    assertEquals (1000, aTokenizer.getNumberValue (), 0);
+    assertFalse (aTokenizer.isNumberInteger ());
+    assertEquals ("px", aTokenizer.getUnit ());
+    assertNull (aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.NUMBER, aTokenizer.next ());
+    assertEquals (-0.5, aTokenizer.getNumberValue (), 0);
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.NUMBER, aTokenizer.next ());
+    assertEquals (7, aTokenizer.getNumberValue (), 0);
+    assertTrue (aTokenizer.isNumberInteger ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals ("--", aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals ("-x", aTokenizer.getValue ());
+    assertEquals (ECSSTokenType.EOF, aTokenizer.next ());
+    assertEquals (ECSSTokenType.EOF, aTokenizer.next ());
+  }
+
+  @Test
+  public void testStringsAndURLs ()
+  {
+    final CSSTokenizer aTokenizer = new CSSTokenizer ("url( a.png ) url(\"b.png\") URL(c\\)d) url(e f) 'g\nh \"i");
+    assertEquals (ECSSTokenType.URL, aTokenizer.next ());
+    assertEquals ("a.png", aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.FUNCTION, aTokenizer.next ());
+    assertEquals ("url", aTokenizer.getValue ());
+    assertEquals (ECSSTokenType.STRING, aTokenizer.next ());
+    assertEquals ("b.png", aTokenizer.getValue ());
+    assertEquals (ECSSTokenType.RIGHT_PARENTHESIS, aTokenizer.next ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.URL, aTokenizer.next ());
+    assertEquals ("c)d", aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.BAD_URL, aTokenizer.next ());
+    assertNull (aTokenizer.getValue ());
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.BAD_STRING, aTokenizer.next ());
+    assertEquals (ECSSTokenType.WHITESPACE, aTokenizer.next ());
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    aTokenizer.next ();
+    // Unterminated string at EOF
+    assertEquals (ECSSTokenType.STRING, aTokenizer.next ());
+    assertEquals ("i", aTokenizer.getValue ());
+    assertEquals (ECSSTokenType.EOF, aTokenizer.next ());
+  }
+
+  @Test
+  public void testPositions ()
+  {
+    final CSSTokenizer aTokenizer = new CSSTokenizer ("a\r\n  b{\fc}");
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals (1, aTokenizer.getTokenStartLineNumber ());
+    assertEquals (1, aTokenizer.getTokenStartColumnNumber ());
+    assertEquals (ECSSTokenType.WHITESPACE, aTokenizer.next ());
+    assertEquals (1, aTokenizer.getTokenStartLineNumber ());
+    assertEquals (2, aTokenizer.getTokenStartColumnNumber ());
+    assertEquals (2, aTokenizer.getTokenEndLineNumber ());
+    assertEquals (2, aTokenizer.getTokenEndColumnNumber ());
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals (2, aTokenizer.getTokenStartLineNumber ());
+    assertEquals (3, aTokenizer.getTokenStartColumnNumber ());
+    aTokenizer.next ();
+    aTokenizer.next ();
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals ("c", aTokenizer.getTokenImage ());
+    assertEquals (3, aTokenizer.getTokenStartLineNumber ());
+    assertEquals (1, aTokenizer.getTokenStartColumnNumber ());
+    assertEquals (8, aTokenizer.getTokenStartOffset ());
+    assertEquals (9, aTokenizer.getTokenEndOffset ());
+
+    // Re-use
+    aTokenizer.reset ("x");
+    assertEquals (ECSSTokenType.IDENT, aTokenizer.next ());
+    assertEquals (1, aTokenizer.getTokenStartLineNumber ());
+    assertEquals (ECSSTokenType.EOF, aTokenizer.next ());
+  }
+
+  @Test
+  public void testPositionsEndBeforeStart ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 100; ++i)
+      aSB.append ("/* a\n b */ .c").append (i).append ("\r\n{ color:\tred }\n");
+    final String sCSS = aSB.toString ();
+
+    // Reference: only the start positions are requested
+    final CSSTokenizer aRef = new CSSTokenizer (sCSS);
+    // Test: the end position is requested before the start position
+    final CSSTokenizer aTokenizer = new CSSTokenizer (sCSS);
+    while (aRef.next () != ECSSTokenType.EOF)
+    {
+      aTokenizer.next ();
+      final int nEndLine = aTokenizer.getTokenEndLineNumber ();
+      final int nEndColumn = aTokenizer.getTokenEndColumnNumber ();
+      assertEquals (aRef.getTokenStartLineNumber (), aTokenizer.getTokenStartLineNumber ());
+      assertEquals (aRef.getTokenStartColumnNumber (), aTokenizer.getTokenStartColumnNumber ());
+      assertEquals (nEndLine, aTokenizer.getTokenEndLineNumber ());
+      assertEquals (nEndColumn, aTokenizer.getTokenEndColumnNumber ());
+      assertTrue (nEndLine >= aTokenizer.getTokenStartLineNumber ());
+    }
+  }
+
+  @Test
+  public void testAllFilesLossless ()
+  {
+    final CSSTokenizer aTokenizer = new CSSTokenizer ("");
+    final StringBuilder aSB = new StringBuilder ();
+    for (final File aFile : new FileSystemRecursiveIterator (new File ("src/test/resources/testfiles")).withFilter (IFileFilter.filenameEndsWith (".css")))
+    {
+      final String sCSS = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8);
+      aSB.setLength (0);
+      aTokenizer.reset (sCSS);
+      while (aTokenizer.next () != ECSSTokenType.EOF)
+      {
+        assertTrue (aTokenizer.getTokenLength () > 0);
+        aTokenizer.appendTokenImageTo (aSB);
+      }
+      assertEquals (aFile.getAbsolutePath (), sCSS, aSB.toString ());
+    }
+  }
+}
@@ -261,6 +261,29 @@ public final class CSSColorHelperTest
     assertFalse (CSSColorHelper.isHSLAColorValue ("hsla(0,0,0,5%)"));
   }
 
+  @Test
+  public void testIsColorValueModernSyntax ()
+  {
+    for (final String sColor : new String [] { "#f008",
+                                               "#ff000080",
+                                               "rgb(255 0 0)",
+                                               "rgb(255 0 0 / 50%)",
+                                               "hsl(120deg 100% 50% / 0.5)",
+                                               "hwb(120 10% 20%)",
+                                               "lab(54.29 80.82 69.88)",
+                                               "lch(54.29 106.84 40.85)",
+                                               "oklab(0.628 0.2249 0.1258)",
+                                               "oklch(62.8% 0.2577 29.23)",
+                                               "RED",
+                                               "currentcolor" })
+      assertTrue (sColor, CSSColorHelper.isColorValue (sColor));
+
+    assertFalse (CSSColorHelper.isColorValue ("rgb(255 0 0 /)"));
+    assertFalse (CSSColorHelper.isColorValue ("oklch(62.8% 0.2577)"));
+    // The legacy hex check is not extended
+    assertFalse (CSSColorHelper.isHexColorValue ("#f008"));
+  }
+
   @Test
   public void testRGBToHSLAndBack ()
   {
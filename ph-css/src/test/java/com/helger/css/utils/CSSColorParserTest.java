@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link CSSColorParser}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSColorParserTest
+{
+  private static void _assertColor (final String s, final long nExpected)
+  {
+    assertEquals (s, Long.toHexString (nExpected), Long.toHexString (CSSColorParser.parseRGBA (s)));
+    assertTrue (s, CSSColorParser.isColor (s));
+  }
+
+  private static void _assertInvalid (final String s)
+  {
+    assertEquals (s, CSSColorParser.INVALID, CSSColorParser.parseRGBA (s));
+    assertFalse (s, CSSColorParser.isColor (s));
+  }
+
+  @Test
+  public void testHex ()
+  {
+    _assertColor ("#f00", 0xff0000ffL);
+    _assertColor ("#F008", 0xff000088L);
+    _assertColor ("#123456", 0x123456ffL);
+    _assertColor (" #12345678 ", 0x12345678L);
+    _assertInvalid ("#");
+    _assertInvalid ("#12");
+    _assertInvalid ("#12345");
+    _assertInvalid ("#1234567");
+    _assertInvalid ("#12345g");
+  }
+
+  @Test
+  public void testKeywords ()
+  {
+    _assertColor ("red", 0xff0000ffL);
+    _assertColor ("DarkOliveGreen", 0x556b2fffL);
+    _assertColor ("transparent", 0);
+    _assertColor ("currentColor", CSSColorParser.UNRESOLVED);
+    _assertColor ("CURRENTCOLOR", CSSColorParser.UNRESOLVED);
+    _assertColor ("activeborder", CSSColorParser.UNRESOLVED);
+    _assertInvalid ("redd");
+    _assertInvalid ("none");
+    _assertInvalid ("");
+    _assertInvalid ("  ");
+
+    for (final ECSSColor eColor : ECSSColor.values ())
+    {
+      assertSame (eColor, CSSColorParser.getNamedColorOrNull (eColor.getName (), 0, eColor.getName ().length ()));
+      final long nRGBA = CSSColorParser.parseRGBA (eColor.getName ());
+      assertEquals (eColor.getRed (), CSSColorParser.getRed ((int) nRGBA));
+      assertEquals (eColor.getGreen (), CSSColorParser.getGreen ((int) nRGBA));
+      assertEquals (eColor.getBlue (), CSSColorParser.getBlue ((int) nRGBA));
+      assertEquals (0xff, CSSColorParser.getAlpha ((int) nRGBA));
+    }
+    for (final ECSSColorName eColorName : ECSSColorName.values ())
+      assertSame (eColorName,
+                  CSSColorParser.getNamedColorOrNull (eColorName.getName (), 0, eColorName.getName ().length ()));
+    assertNull (CSSColorParser.getNamedColorOrNull ("xred", 1, 3));
+  }
+
+  @Test
+  public void testRGB ()
+  {
+    _assertColor ("rgb(255,0,0)", 0xff0000ffL);
+    _assertColor (" rgb ( 1 , 2 , 3 ) ", 0x010203ffL);
+    _assertColor ("rgba(100%, 0%, 0%, 1.)", 0xff0000ffL);
+    _assertColor ("rgb(255,0,0,0.5)", 0xff000080L);
+    _assertColor ("RGB(255 0 0)", 0xff0000ffL);
+    _assertColor ("rgb(255 0 0 / 50%)", 0xff000080L);
+    _assertColor ("rgba(none 0 0 / none)", 0);
+    _assertColor ("rgb(-10 300 128)", 0x00ff80ffL);
+    _assertColor ("rgb(1e2 0 0)", 0x640000ffL);
+    _assertInvalid ("rgb(none,0,0)");
+    _assertInvalid ("rgb(255,0 0)");
+    _assertInvalid ("rgb(255 0 0, 1)");
+    _assertInvalid ("rgb(255 0 0 /)");
+    _assertInvalid ("rgb(255 0 0");
+    _assertInvalid ("rgb(1px 2 3)");
+    _assertInvalid ("rgb(10deg 2 3)");
+    _assertInvalid ("rgb(1 2)");
+    _assertInvalid ("rgb(1 2 3 4)");
+    _assertInvalid ("rgbx(1 2 3)");
+  }
+
+  @Test
+  public void testHSLAndHWB ()
+  {
+    _assertColor ("hsl(0 100% 50%)", 0xff0000ffL);
+    _assertColor ("hsl(120deg,100%,25%)", 0x008000ffL);
+    _assertColor ("hsla(0.5turn 100% 50% / 0.5)", 0x00ffff80L);
+    _assertColor ("hsl(200grad 100 50)", 0x00ffffffL);
+    _assertColor ("hsl(-120 100% 50%)", 0x0000ffffL);
+    _assertColor ("hwb(0 0% 0%)", 0xff0000ffL);
+    _assertColor ("hwb(120 0% 50%)", 0x008000ffL);
+    _assertColor ("hwb(0 60% 60%)", 0x808080ffL);
+    _assertInvalid ("hsl(50% 100% 50%)");
+    _assertInvalid ("hwb(0, 0%, 0%)");
+  }
+
+  @Test
+  public void testLabAndLCH ()
+  {
+    _assertColor ("lab(54.29 80.82 69.88)", 0xff0000ffL);
+    _assertColor ("lab(100% 0 0)", 0xffffffffL);
+    _assertColor ("lab(0 0 0 / 25%)", 0x00000040L);
+    _assertColor ("lch(54.29 106.84 40.85)", 0xff0000ffL);
+    _assertColor ("oklab(0.628 0.2249 0.1258)", 0xff0000ffL);
+    _assertColor ("oklch(62.8% 0.2577 29.23)", 0xff0000ffL);
+    _assertColor ("oklch(1 0 none)", 0xffffffffL);
+    _assertInvalid ("lab(50, 0, 0)");
+    _assertInvalid ("oklch(0.5 0.1 10px)");
+  }
+
+  @Test
+  public void testRange ()
+  {
+    final CSSColorParser aParser = new CSSColorParser ();
+    assertEquals (0xff0000ffL, aParser.parse ("color:red;", 6, 9));
+    assertEquals (0x00ff00ffL, aParser.parse ("x#0f0x", 1, 5));
+    assertEquals (CSSColorParser.INVALID, aParser.parse ("x#0f0x", 1, 6));
+  }
+
+  @Test
+  public void testGetAsShortestHexColorValue ()
+  {
+    assertEquals ("#f00", CSSColorParser.getAsShortestHexColorValue (0xff0000ff));
+    assertEquals ("#123456", CSSColorParser.getAsShortestHexColorValue (0x123456ff));
+    assertEquals ("#ff000080", CSSColorParser.getAsShortestHexColorValue (0xff000080));
+    assertEquals ("#1234", CSSColorParser.getAsShortestHexColorValue (0x11223344));
+    assertEquals ("#0000", CSSColorParser.getAsShortestHexColorValue (0));
+
+    for (final ECSSColor eColor : ECSSColor.values ())
+    {
+      final long nRGBA = CSSColorParser.parseRGBA (eColor.getName ());
+      assertEquals (nRGBA, CSSColorParser.parseRGBA (CSSColorParser.getAsShortestHexColorValue ((int) nRGBA)));
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSUnit;
+
+/**
+ * Test class for class {@link CSSNumberScanner}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSNumberScannerTest
+{
+  private static void _assertScan (final String s, final double dExpected, final ECSSUnit eExpectedUnit)
+  {
+    final CSSNumberScanner aScanner = new CSSNumberScanner ();
+    assertTrue (s, aScanner.scan (s));
+    assertEquals (s, dExpected, aScanner.getValue (), 0);
+    assertSame (s, eExpectedUnit, aScanner.getUnit ());
+    assertEquals (s, eExpectedUnit != null, aScanner.hasUnit ());
+  }
+
+  @Test
+  public void testScan ()
+  {
+    _assertScan ("5px", 5, ECSSUnit.PX);
+    _assertScan ("-1.5e3", -1500, null);
+    _assertScan (" 50 % ", 50, ECSSUnit.PERCENTAGE);
+    _assertScan ("1e3px", 1000, ECSSUnit.PX);
+    _assertScan ("1em", 1, ECSSUnit.EM);
+    _assertScan ("1ex", 1, ECSSUnit.EX);
+    _assertScan (".5dpi", 0.5, ECSSUnit.DPI);
+    _assertScan ("+2rem", 2, ECSSUnit.REM);
+    _assertScan ("5dvmin", 5, ECSSUnit.DVMIN);
+    _assertScan ("0.1", 0.1, null);
+    _assertScan ("12345.6789e-3", 12.3456789, null);
+    _assertScan ("123456789012345678901", 123456789012345678901d, null);
+    _assertScan ("4.9e-324", Double.MIN_VALUE, null);
+
+    final CSSNumberScanner aScanner = new CSSNumberScanner ();
+    for (final String s : new String [] { "", " ", "px", "5.px", "50xs", "5 PX", "5px5", "--5", "e5" })
+    {
+      assertFalse (s, aScanner.scan (s));
+      assertTrue (s, Double.isNaN (aScanner.getValue ()));
+      assertNull (s, aScanner.getUnit ());
+    }
+
+    // Range
+    assertTrue (aScanner.scan ("a:10px;", 2, 6));
+    assertEquals (10, aScanner.getValue (), 0);
+    assertSame (ECSSUnit.PX, aScanner.getUnit ());
+  }
+
+  @Test
+  public void testSameAsParseDouble ()
+  {
+    final CSSNumberScanner aScanner = new CSSNumberScanner ();
+    final Random aRandom = new Random (1);
+    for (int i = 0; i < 100_000; ++i)
+    {
+      final String s;
+      switch (i % 3)
+      {
+        case 0:
+          s = Double.toString (aRandom.nextDouble () * Math.pow (10, aRandom.nextInt (40) - 20));
+          break;
+        case 1:
+          s = (aRandom.nextInt (2000) - 1000) + "e" + (aRandom.nextInt (60) - 30);
+          break;
+        default:
+          s = String.format (Locale.ROOT, "%." + aRandom.nextInt (12) + "f", aRandom.nextDouble () * 1000);
+          break;
+      }
+      assertTrue (s, aScanner.scan (s));
+      assertEquals (s, Double.parseDouble (s), aScanner.getValue (), 0);
+    }
+  }
+
+  @Test
+  public void testGetUnit ()
+  {
+    for (final ECSSUnit eUnit : ECSSUnit.values ())
+    {
+      assertSame (eUnit, CSSNumberScanner.getUnitFromNameOrNull (eUnit.getName (), 0, eUnit.getName ().length ()));
+      assertSame (eUnit, CSSNumberScanner.getUnitOfSuffixOrNull ("5" + eUnit.getName ()));
+    }
+    assertNull (CSSNumberScanner.getUnitFromNameOrNull ("PX", 0, 2));
+    assertNull (CSSNumberScanner.getUnitFromNameOrNull ("px", 0, 0));
+    assertNull (CSSNumberScanner.getUnitOfSuffixOrNull (""));
+    assertNull (CSSNumberScanner.getUnitOfSuffixOrNull ("5xy"));
+  }
+
+  @Test
+  public void testGetNumberEnd ()
+  {
+    assertEquals (2, CSSNumberScanner.getNumberEnd ("17in", 0, 4));
+    assertEquals (7, CSSNumberScanner.getNumberEnd ("17.1234 in", 0, 10));
+    assertEquals (2, CSSNumberScanner.getNumberEnd (".5dpi", 0, 5));
+    assertEquals (3, CSSNumberScanner.getNumberEnd ("1e5.5", 0, 5));
+    assertEquals (1, CSSNumberScanner.getNumberEnd ("1.e5", 0, 4));
+    assertEquals (1, CSSNumberScanner.getNumberEnd ("1e+", 0, 3));
+    assertEquals (4, CSSNumberScanner.getNumberEnd ("1E-2x", 0, 5));
+    assertEquals (0, CSSNumberScanner.getNumberEnd (".", 0, 1));
+    assertEquals (0, CSSNumberScanner.getNumberEnd ("any", 0, 3));
+  }
+}